@@ -0,0 +1,58 @@
+package info.openrocket.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.aerodynamics.AerodynamicForces;
+import info.openrocket.core.aerodynamics.BarrowmanCalculator;
+import info.openrocket.core.aerodynamics.FlightConditions;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+
+/**
+ * Benchmarks of the Barrowman aerodynamic calculator on the example designs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AerodynamicsBenchmark {
+
+	@Param({ "A simple model rocket.ork", "Three-stage rocket.ork", "Pods--airframes and winglets.ork" })
+	public String example;
+
+	private final BarrowmanCalculator calculator = new BarrowmanCalculator();
+	private final WarningSet warnings = new WarningSet();
+	private FlightConfiguration configuration;
+	private FlightConditions conditions;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		configuration = BenchmarkEnvironment.loadExample(example).getSelectedConfiguration();
+		conditions = new FlightConditions(configuration);
+		conditions.setMach(0.4);
+		conditions.setAOA(Math.toRadians(3));
+		conditions.setTheta(Math.toRadians(45));
+		conditions.setRollRate(2);
+	}
+
+	@Benchmark
+	public AerodynamicForces aerodynamicForces() {
+		return calculator.getAerodynamicForces(configuration, conditions, warnings);
+	}
+
+	@Benchmark
+	public Map<RocketComponent, AerodynamicForces> forceAnalysis() {
+		return calculator.getForceAnalysis(configuration, conditions, warnings);
+	}
+}
@@ -0,0 +1,106 @@
+package info.openrocket.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import info.openrocket.core.ServicesForTesting;
+import info.openrocket.core.database.ComponentPresetDao;
+import info.openrocket.core.database.ComponentPresetDatabase;
+import info.openrocket.core.database.MotorDatabaseLoader;
+import info.openrocket.core.database.motor.MotorDatabase;
+import info.openrocket.core.database.motor.ThrustCurveMotorSetDatabase;
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.file.GeneralRocketLoader;
+import info.openrocket.core.file.RocketLoadException;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.startup.Application;
+
+/**
+ * Sets up the application services used by the benchmarks and provides the example
+ * designs as fixtures.
+ */
+public final class BenchmarkEnvironment {
+
+	/** Directory of the example designs bundled with core */
+	private static final String EXAMPLES_DIRECTORY = "datafiles/examples/";
+
+	private static ThrustCurveMotorSetDatabase motorDatabase;
+
+	private BenchmarkEnvironment() {
+	}
+
+	/**
+	 * Initialize the application services and load the built-in motor database.  Calling
+	 * this more than once has no effect.
+	 */
+	public static synchronized void initialize() {
+		if (motorDatabase != null) {
+			return;
+		}
+
+		// Loading the motors requires the preferences
+		Application.setInjector(Guice.createInjector(new ServicesForTesting(), new PluginModule()));
+		MotorDatabaseLoader loader = new MotorDatabaseLoader();
+		loader.startLoading();
+		loader.blockUntilLoaded();
+		final ThrustCurveMotorSetDatabase db = loader.getDatabase();
+
+		Module databases = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(ThrustCurveMotorSetDatabase.class).toInstance(db);
+				bind(MotorDatabase.class).toInstance(db);
+				bind(ComponentPresetDao.class).toInstance(new ComponentPresetDatabase());
+			}
+		};
+		Application.setInjector(Guice.createInjector(Modules.override(new ServicesForTesting()).with(databases),
+				new PluginModule()));
+		motorDatabase = db;
+	}
+
+	/**
+	 * Return the built-in motor database.
+	 */
+	public static ThrustCurveMotorSetDatabase getMotorDatabase() {
+		initialize();
+		return motorDatabase;
+	}
+
+	/**
+	 * Copy an example design to a temporary file, which is deleted on exit.
+	 *
+	 * @param name	the file name of the example, e.g. "A simple model rocket.ork".
+	 * @return		the temporary file.
+	 */
+	public static File copyExample(String name) throws IOException {
+		try (InputStream in = BenchmarkEnvironment.class.getClassLoader()
+				.getResourceAsStream(EXAMPLES_DIRECTORY + name)) {
+			if (in == null) {
+				throw new IOException("Example design not found: " + name);
+			}
+			File file = File.createTempFile("benchmark", ".ork");
+			file.deleteOnExit();
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return file;
+		}
+	}
+
+	/**
+	 * Load an example design.
+	 *
+	 * @param name	the file name of the example, e.g. "A simple model rocket.ork".
+	 * @return		the loaded document.
+	 */
+	public static OpenRocketDocument loadExample(String name) throws IOException, RocketLoadException {
+		initialize();
+		return new GeneralRocketLoader(copyExample(name)).load();
+	}
+}
@@ -0,0 +1,143 @@
+package info.openrocket.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.file.CSVExport;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.unit.Unit;
+
+/**
+ * Benchmarks of exporting simulation data as CSV.  All variables of the simulated branches
+ * are exported in their default units.  The throughput is reported in megabytes of CSV text
+ * per second by the <code>megabytes</code> counter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CSVExportBenchmark {
+
+	/**
+	 * The simulated branches of an example design and the exported variables.
+	 */
+	@State(Scope.Thread)
+	public static class SimulatedData {
+		@Param({ "Three-stage rocket.ork" })
+		public String example;
+
+		final List<Simulation> simulations = new ArrayList<>();
+		final List<FlightDataBranch> branches = new ArrayList<>();
+		FlightDataType[] fields;
+		Unit[] units;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			OpenRocketDocument document = BenchmarkEnvironment.loadExample(example);
+			for (int i = 0; i < document.getSimulationCount(); i++) {
+				Simulation simulation = document.getSimulation(i);
+				simulation.simulate();
+				for (int b = 0; b < simulation.getSimulatedData().getBranchCount(); b++) {
+					simulations.add(simulation);
+					branches.add(simulation.getSimulatedData().getBranch(b));
+				}
+			}
+
+			fields = branches.get(0).getTypes();
+			units = new Unit[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				units[i] = fields[i].getUnitGroup().getDefaultUnit();
+			}
+		}
+	}
+
+	/**
+	 * Temporary files to export each simulated branch to, optionally compressed.
+	 */
+	@State(Scope.Thread)
+	public static class ExportFiles {
+		@Param({ "false", "true" })
+		public boolean compress;
+
+		final List<CSVExport.ExportTarget> targets = new ArrayList<>();
+
+		@Setup(Level.Trial)
+		public void setUp(SimulatedData data) throws IOException {
+			for (int i = 0; i < data.branches.size(); i++) {
+				File file = File.createTempFile("benchmark", compress ? ".csv.gz" : ".csv");
+				file.deleteOnExit();
+				targets.add(new CSVExport.ExportTarget(file, data.simulations.get(i), data.branches.get(i)));
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			for (CSVExport.ExportTarget target : targets) {
+				target.getFile().delete();
+			}
+		}
+	}
+
+	/**
+	 * Number of megabytes of CSV text written, reported per second.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Output {
+		public double megabytes;
+	}
+
+	/**
+	 * Format all branches one after another, discarding the output.
+	 */
+	@Benchmark
+	public void format(SimulatedData data, Output output) throws IOException {
+		for (int i = 0; i < data.branches.size(); i++) {
+			CountingOutputStream stream = new CountingOutputStream();
+			CSVExport.exportCSV(stream, data.simulations.get(i), data.branches.get(i), data.fields, data.units,
+					",", 5, true, "#", true, true, true);
+			output.megabytes += stream.count / 1e6;
+		}
+	}
+
+	/**
+	 * Export all branches to separate files concurrently.
+	 */
+	@Benchmark
+	public void exportFiles(SimulatedData data, ExportFiles files, Output output) throws IOException {
+		long count = CSVExport.exportCSV(files.targets, data.fields, data.units, ",", 5, true, "#", true, true,
+				true, files.compress, Runtime.getRuntime().availableProcessors());
+		output.megabytes += count / 1e6;
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+		private long count = 0;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
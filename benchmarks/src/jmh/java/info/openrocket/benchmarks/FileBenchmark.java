@@ -0,0 +1,78 @@
+package info.openrocket.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.StorageOptions;
+import info.openrocket.core.file.GeneralRocketLoader;
+import info.openrocket.core.file.RocketLoadException;
+import info.openrocket.core.file.openrocket.OpenRocketSaver;
+import info.openrocket.core.logging.ErrorSet;
+import info.openrocket.core.logging.WarningSet;
+
+/**
+ * Benchmarks of loading and saving .ork files.  The documents are saved with their
+ * simulation data, which is simulated once when the benchmark is set up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileBenchmark {
+
+	@Param({ "A simple model rocket.ork", "Three-stage rocket.ork", "Two-stage rocket.ork" })
+	public String example;
+
+	private File file;
+	private OpenRocketDocument document;
+	private final StorageOptions options = new StorageOptions();
+	private final ByteArrayOutputStream output = new ByteArrayOutputStream(1 << 20);
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		document = BenchmarkEnvironment.loadExample(example);
+		for (int i = 0; i < document.getSimulationCount(); i++) {
+			document.getSimulation(i).simulate();
+		}
+		options.setSaveSimulationData(true);
+
+		// Save the simulated document, so that the loaded file contains the simulation data
+		file = File.createTempFile("benchmark", ".ork");
+		file.deleteOnExit();
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			new OpenRocketSaver().save(out, document, options, new WarningSet(), new ErrorSet());
+		}
+	}
+
+	@Benchmark
+	public OpenRocketDocument load() throws RocketLoadException {
+		return new GeneralRocketLoader(file).load();
+	}
+
+	@Benchmark
+	public OpenRocketDocument loadDeferred() throws RocketLoadException {
+		GeneralRocketLoader loader = new GeneralRocketLoader(file);
+		loader.setDeferSimulationData(true);
+		return loader.load();
+	}
+
+	@Benchmark
+	public int save() throws IOException {
+		output.reset();
+		new OpenRocketSaver().save(output, document, options, new WarningSet(), new ErrorSet());
+		return output.size();
+	}
+}
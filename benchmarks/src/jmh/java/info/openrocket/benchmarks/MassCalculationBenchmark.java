@@ -0,0 +1,51 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.masscalc.MassCalculator;
+import info.openrocket.core.masscalc.RigidBody;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+
+/**
+ * Benchmarks of the mass calculator on the example designs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MassCalculationBenchmark {
+
+	@Param({ "A simple model rocket.ork", "Three-stage rocket.ork", "Clustered motors.ork" })
+	public String example;
+
+	private FlightConfiguration configuration;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		configuration = BenchmarkEnvironment.loadExample(example).getSelectedConfiguration();
+	}
+
+	@Benchmark
+	public RigidBody structure() {
+		return MassCalculator.calculateStructure(configuration);
+	}
+
+	@Benchmark
+	public RigidBody launch() {
+		return MassCalculator.calculateLaunch(configuration);
+	}
+
+	@Benchmark
+	public RigidBody burnout() {
+		return MassCalculator.calculateBurnout(configuration);
+	}
+}
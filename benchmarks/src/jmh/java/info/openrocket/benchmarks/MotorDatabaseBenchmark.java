@@ -0,0 +1,76 @@
+package info.openrocket.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.database.motor.ThrustCurveMotorSet;
+import info.openrocket.core.database.motor.ThrustCurveMotorSetDatabase;
+import info.openrocket.core.motor.ThrustCurveMotor;
+
+/**
+ * Benchmarks of motor lookups in the built-in motor database.  Each invocation looks up
+ * the next motor of a fixed sample of the database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MotorDatabaseBenchmark {
+
+	private static final int SAMPLE_SIZE = 256;
+
+	private ThrustCurveMotorSetDatabase database;
+	private final List<ThrustCurveMotor> sample = new ArrayList<ThrustCurveMotor>();
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		database = BenchmarkEnvironment.getMotorDatabase();
+		List<ThrustCurveMotorSet> sets = database.getMotorSets();
+		int stride = Math.max(1, sets.size() / SAMPLE_SIZE);
+		for (int i = 0; i < sets.size() && sample.size() < SAMPLE_SIZE; i += stride) {
+			sample.add(sets.get(i).getMotors().get(0));
+		}
+	}
+
+	private ThrustCurveMotor nextMotor() {
+		ThrustCurveMotor motor = sample.get(next);
+		next = (next + 1) % sample.size();
+		return motor;
+	}
+
+	@Benchmark
+	public List<ThrustCurveMotor> findByDigest() {
+		ThrustCurveMotor motor = nextMotor();
+		return database.findMotors(motor.getDigest(), motor.getMotorType(), motor.getManufacturer().getSimpleName(),
+				motor.getDesignation(), motor.getDiameter(), motor.getLength());
+	}
+
+	@Benchmark
+	public List<ThrustCurveMotor> findByDescription() {
+		ThrustCurveMotor motor = nextMotor();
+		return database.findMotors(null, motor.getMotorType(), motor.getManufacturer().getSimpleName(),
+				motor.getDesignation(), motor.getDiameter(), motor.getLength());
+	}
+
+	@Benchmark
+	public List<ThrustCurveMotorSet> findByDesignation() {
+		ThrustCurveMotor motor = nextMotor();
+		return database.findMotorSets(motor.getManufacturer(), motor.getDesignation());
+	}
+
+	@Benchmark
+	public List<ThrustCurveMotorSet> findByDiameter() {
+		ThrustCurveMotor motor = nextMotor();
+		return database.findMotorSetsByDiameter(motor.getDiameter() - 0.001, motor.getDiameter() + 0.001);
+	}
+}
@@ -0,0 +1,143 @@
+package info.openrocket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.RK4SimulationStepper;
+import info.openrocket.core.simulation.SimulationStatus;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+import info.openrocket.core.util.TestRockets;
+
+/**
+ * Benchmarks of flight simulations.
+ */
+public class SimulationBenchmark {
+
+	/**
+	 * Benchmark a full flight simulation of an example design.
+	 */
+	@State(Scope.Thread)
+	public static class ExampleSimulation {
+		@Param({ "A simple model rocket.ork", "Two-stage rocket.ork", "Parallel booster staging.ork" })
+		public String example;
+
+		Simulation simulation;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			OpenRocketDocument doc = BenchmarkEnvironment.loadExample(example);
+			simulation = doc.getSimulation(0);
+		}
+	}
+
+	/**
+	 * Benchmark the full flight simulation of the Estes Alpha III test rocket.
+	 */
+	@State(Scope.Thread)
+	public static class AlphaSimulation {
+		Simulation simulation;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			BenchmarkEnvironment.initialize();
+			simulation = new Simulation(TestRockets.makeEstesAlphaIII());
+			simulation.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+			simulation.getOptions().setISAAtmosphere(true);
+			simulation.getOptions().setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP);
+			simulation.getOptions().setRandomSeed(1);
+		}
+	}
+
+	/**
+	 * RK4 steps from a status captured during the coast phase of the Estes Alpha III.
+	 */
+	@State(Scope.Thread)
+	public static class SingleStep {
+		/** Simulation time at which the status is captured */
+		private static final double CAPTURE_TIME = 1.0;
+
+		/** Number of steps taken from the captured status, which stay in the coast phase */
+		static final int STEPS = 50;
+
+		SimulationStatus captured;
+		RK4SimulationStepper stepper;
+
+		@Setup(Level.Trial)
+		public void capture() throws SimulationException {
+			AlphaSimulation alpha = new AlphaSimulation();
+			alpha.setUp();
+			alpha.simulation.simulate(new AbstractSimulationListener() {
+				@Override
+				public void postStep(SimulationStatus s) {
+					if (captured == null && s.getSimulationTime() >= CAPTURE_TIME) {
+						captured = new SimulationStatus(s);
+					}
+				}
+
+				@Override
+				public boolean isSystemListener() {
+					return true;
+				}
+			});
+			if (captured == null) {
+				throw new IllegalStateException("Simulation ended before t=" + CAPTURE_TIME);
+			}
+			stepper = new RK4SimulationStepper();
+		}
+
+		/**
+		 * Return a new status initialized from the captured one, with an empty flight data branch.
+		 */
+		SimulationStatus reset() {
+			SimulationStatus status = stepper.initialize(captured);
+			status.setFlightDataBranch(new FlightDataBranch("benchmark", FlightDataType.TYPE_TIME));
+			status.getFlightDataBranch().addPoint();
+			return status;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public FlightData fullFlightExample(ExampleSimulation state) throws SimulationException {
+		state.simulation.simulate();
+		return state.simulation.getSimulatedData();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public FlightData fullFlightAlphaIII(AlphaSimulation state) throws SimulationException {
+		state.simulation.simulate();
+		return state.simulation.getSimulatedData();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(SingleStep.STEPS)
+	public SimulationStatus singleStep(SingleStep state) throws SimulationException {
+		// Resetting the status is amortized over a batch of steps
+		SimulationStatus status = state.reset();
+		for (int i = 0; i < SingleStep.STEPS; i++) {
+			state.stepper.step(status, Double.MAX_VALUE);
+		}
+		return status;
+	}
+}
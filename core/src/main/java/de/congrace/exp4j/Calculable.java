@@ -1,5 +1,7 @@
 package de.congrace.exp4j;
 
+import java.util.Set;
+
 /**
  * This is the basic result class of the exp4j {@link ExpressionBuilder}
  * 
@@ -28,4 +30,11 @@ public interface Calculable {
 	 *            the value of the variable
 	 */
 	public void setVariable(Variable var);
+
+	/**
+	 * return the names of the variables that are used in the expression
+	 * 
+	 * @return the used variable names, in order of first use
+	 */
+	public Set<String> getUsedVariableNames();
 }
@@ -1,26 +1,41 @@
 package de.congrace.exp4j;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 public class VariableSet extends HashSet<Variable> {
 
+	// Variables by name, so that variables can be looked up and replaced without scanning the set
+	private final Map<String, Variable> byName = new HashMap<String, Variable>();
+
 	@Override
 	public boolean add(Variable v){
-		Variable previous = getVariableNamed(v.getName());
+		Variable previous = byName.put(v.getName(), v);
 		if ( previous != null ){
-			this.remove( previous );
+			super.remove( previous );
 		}
 			
 		return super.add(v);
 	}
+
+	@Override
+	public boolean remove(Object o){
+		if ( o instanceof Variable && super.remove(o) ){
+			byName.remove(((Variable) o).getName());
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void clear(){
+		byName.clear();
+		super.clear();
+	}
 	
 	public Variable getVariableNamed(String name){
-		for (Variable var : this){
-			if (var.getName().equals(name) ){
-				return var;
-			}
-		}
-		return null;
+		return byName.get(name);
 	}
 	
 	public String[] getVariableNames(){
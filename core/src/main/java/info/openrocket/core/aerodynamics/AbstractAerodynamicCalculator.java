@@ -18,8 +18,14 @@ import info.openrocket.core.util.Coordinate;
 
 public abstract class AbstractAerodynamicCalculator implements AerodynamicCalculator {
 
-	/** Number of divisions used when calculating worst CP. */
-	public static final int DIVISIONS = 360;
+	/** Number of divisions sampled when searching for the worst CP, before refining it. */
+	public static final int DIVISIONS = 36;
+
+	/** Tolerance of the refined worst CP angle, in radians. */
+	private static final double THETA_TOLERANCE = 1e-4;
+
+	/** The inverse of the golden ratio. */
+	private static final double GOLDEN_SECTION = (Math.sqrt(5) - 1) / 2;
 
 	/**
 	 * A <code>WarningSet</code> that can be used if <code>null</code> is passed
@@ -48,6 +54,10 @@ public abstract class AbstractAerodynamicCalculator implements AerodynamicCalcul
 
 	/*
 	 * The worst theta angle is stored in conditions.
+	 * 
+	 * The CP varies smoothly with the lateral wind direction, so the directions are first
+	 * sampled at DIVISIONS points and the foremost sample is then refined by a golden-section
+	 * search between its neighbors.
 	 */
 	@Override
 	public Coordinate getWorstCP(FlightConfiguration configuration, FlightConditions conditions,
@@ -60,17 +70,66 @@ public abstract class AbstractAerodynamicCalculator implements AerodynamicCalcul
 		for (int i = 0; i < DIVISIONS; i++) {
 			cond.setTheta(2 * Math.PI * i / DIVISIONS);
 			cp = getCP(configuration, cond, warnings);
-			if ((cp.weight > MathUtil.EPSILON) && (cp.x < worst.x)) {
+			if (isForemost(cp, worst)) {
 				worst = cp;
 				theta = cond.getTheta();
 			}
 		}
 
+		if (worst.x != Double.MAX_VALUE) {
+			// Golden-section search between the neighboring samples
+			double step = 2 * Math.PI / DIVISIONS;
+			double a = theta - step;
+			double b = theta + step;
+			double c = b - GOLDEN_SECTION * (b - a);
+			double d = a + GOLDEN_SECTION * (b - a);
+			Coordinate cpC = getCPAt(configuration, cond, c, warnings);
+			Coordinate cpD = getCPAt(configuration, cond, d, warnings);
+			while (b - a > THETA_TOLERANCE) {
+				if (isForemost(cpC, cpD)) {
+					b = d;
+					d = c;
+					cpD = cpC;
+					c = b - GOLDEN_SECTION * (b - a);
+					cpC = getCPAt(configuration, cond, c, warnings);
+				} else {
+					a = c;
+					c = d;
+					cpC = cpD;
+					d = a + GOLDEN_SECTION * (b - a);
+					cpD = getCPAt(configuration, cond, d, warnings);
+				}
+			}
+
+			if (isForemost(cpC, worst)) {
+				worst = cpC;
+				theta = c;
+			}
+			if (isForemost(cpD, worst)) {
+				worst = cpD;
+				theta = d;
+			}
+			theta = MathUtil.reduce2Pi(theta);
+		}
+
 		conditions.setTheta(theta);
 
 		return worst;
 	}
 
+	private Coordinate getCPAt(FlightConfiguration configuration, FlightConditions cond, double theta,
+			WarningSet warnings) {
+		cond.setTheta(theta);
+		return getCP(configuration, cond, warnings);
+	}
+
+	/**
+	 * Return whether a CP is in front of another one and has a non-zero CNa.
+	 */
+	private static boolean isForemost(Coordinate cp, Coordinate other) {
+		return (cp.weight > MathUtil.EPSILON) && (cp.x < other.x);
+	}
+
 	/**
 	 * Check the current cache consistency. This method must be called by all
 	 * methods that may use any cached data before any other operations are
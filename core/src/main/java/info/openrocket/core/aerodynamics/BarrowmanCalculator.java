@@ -30,6 +30,7 @@ import info.openrocket.core.util.Coordinate;
 import info.openrocket.core.util.MathUtil;
 import info.openrocket.core.util.PolyInterpolator;
 import info.openrocket.core.util.Reflection;
+import info.openrocket.core.util.Transformation;
 
 /**
  * An aerodynamic calculator that uses the extended Barrowman method to
@@ -42,11 +43,31 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 
 	private static final String BARROWMAN_PACKAGE = "info.openrocket.core.aerodynamics.barrowman";
 	private static final String BARROWMAN_SUFFIX = "Calc";
+
+	/** Maximum number of calculation object sets kept in the shared cache */
+	private static final int CALC_CACHE_SIZE = 16;
+
+	/*
+	 * Calculation objects of recently used rockets by component ID, shared by all
+	 * calculator instances.  The calculation objects are not modified after
+	 * construction, so simulations of copies of the same rocket may use them
+	 * concurrently.
+	 */
+	private static final Map<CalcKey, Map<String, RocketComponentCalc>> calcCache =
+			new LinkedHashMap<CalcKey, Map<String, RocketComponentCalc>>(CALC_CACHE_SIZE, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<CalcKey, Map<String, RocketComponentCalc>> eldest) {
+					return size() > CALC_CACHE_SIZE;
+				}
+			};
 	
 	private Map<RocketComponent, RocketComponentCalc> calcMap = null;
-	
-	private double cacheDiameter = -1;
-	private double cacheLength = -1;
+	private EvaluationPlan plan = null;
+
+	/** Reusable forces of a single component instance */
+	private final AerodynamicForces instanceForces = new AerodynamicForces();
+	/** Reusable forces of all instances of a component */
+	private final AerodynamicForces componentAccumulator = new AerodynamicForces();
 
 	public BarrowmanCalculator() {
 		
@@ -72,10 +93,100 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	
 	
 	
+	/*
+	 * The lateral wind direction only affects the fin sets, whose CNa is proportional to
+	 * sin^2(theta - angle) for each fin.  The CNa-weighted moment and the total CNa of the
+	 * CP are therefore of the form a + b*cos(2*theta) + c*sin(2*theta), which is determined
+	 * exactly by evaluating the fins at three directions.  The other components are
+	 * evaluated once, and the foremost CP is solved from the derivative of the CP position.
+	 */
+	@Override
+	public Coordinate getWorstCP(FlightConfiguration configuration, FlightConditions conditions,
+			WarningSet warnings) {
+		checkCache(configuration);
+
+		if (warnings == null)
+			warnings = ignoreWarningSet;
+
+		if (conditions.getAOA() > 17.5 * Math.PI / 180)
+			warnings.add(new Warning.LargeAOA(conditions.getAOA()));
+
+		final EvaluationPlan plan = getPlan(configuration);
+		warnings.addAll(plan.geometryWarnings);
+		final FlightConditions cond = conditions.clone();
+
+		// Harmonic coefficients of the moment and weight, body components included
+		final Coordinate bodyCP = calculateNonAxialForces(plan, cond, false, warnings).getCP();
+		double momentA = bodyCP.x * bodyCP.weight;
+		double weightA = bodyCP.weight;
+		double momentB = 0, momentC = 0, weightB = 0, weightC = 0;
+		for (int i = 0; i < 3; i++) {
+			final double angle = 2 * Math.PI * i / 3;
+			cond.setTheta(angle / 2);
+			final Coordinate finCP = calculateNonAxialForces(plan, cond, true, warnings).getCP();
+			final double moment = finCP.x * finCP.weight;
+			momentA += moment / 3;
+			momentB += moment * Math.cos(angle) * 2 / 3;
+			momentC += moment * Math.sin(angle) * 2 / 3;
+			weightA += finCP.weight / 3;
+			weightB += finCP.weight * Math.cos(angle) * 2 / 3;
+			weightC += finCP.weight * Math.sin(angle) * 2 / 3;
+		}
+
+		// Stationary points of the CP position, p*sin(2*theta) + q*cos(2*theta) + r = 0
+		final double p = momentA * weightB - weightA * momentB;
+		final double q = weightA * momentC - momentA * weightC;
+		final double r = momentC * weightB - momentB * weightC;
+		final double amplitude = Math.hypot(p, q);
+
+		double theta = 0;
+		double worst = positionAt(0, momentA, momentB, momentC, weightA, weightB, weightC);
+		if (amplitude > 0) {
+			final double phase = Math.atan2(p, q);
+			final double offset = Math.acos(MathUtil.clamp(-r / amplitude, -1, 1));
+			for (double angle : new double[] { phase - offset, phase + offset }) {
+				final double x = positionAt(angle, momentA, momentB, momentC, weightA, weightB, weightC);
+				// Prefer zero if the CP does not depend on the direction
+				if (x < worst - MathUtil.EPSILON) {
+					worst = x;
+					theta = MathUtil.reduce2Pi(angle) / 2;
+				}
+			}
+		}
+
+		cond.setTheta(theta);
+		final AerodynamicForces total = new AerodynamicForces().zero();
+		total.merge(calculateNonAxialForces(plan, cond, false, warnings));
+		total.merge(calculateNonAxialForces(plan, cond, true, warnings));
+		if (!(total.getCP().weight > MathUtil.EPSILON)) {
+			return super.getWorstCP(configuration, conditions, warnings);
+		}
+
+		conditions.setTheta(theta);
+		return total.getCP();
+	}
+
+	/**
+	 * Return the CP position at twice the lateral wind direction from the harmonic
+	 * coefficients of the moment and weight, or infinity if the weight is zero.
+	 */
+	private static double positionAt(double angle, double momentA, double momentB, double momentC,
+			double weightA, double weightB, double weightC) {
+		final double cos = Math.cos(angle);
+		final double sin = Math.sin(angle);
+		final double weight = weightA + weightB * cos + weightC * sin;
+		if (!(weight > MathUtil.EPSILON)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return (momentA + momentB * cos + momentC * sin) / weight;
+	}
+	
+	
 	@Override
 	public Map<RocketComponent, AerodynamicForces> getForceAnalysis(FlightConfiguration configuration,
 			FlightConditions conditions,
 			WarningSet warnings) {
+		checkCache(configuration);
 		if (calcMap == null) {
 			buildCalcMap(configuration);
 		}
@@ -220,25 +331,34 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 
 		// iterate across component instances
 		for (InstanceContext context : contextList) {
-			// specific to this _instance_ of this component:
-			AerodynamicForces instanceForces = new AerodynamicForces().zero();
-			calcObj.calculateNonaxialForces(conditions, context.transform, instanceForces, warnings);
-
-			Coordinate cp_inst = instanceForces.getCP();
-			Coordinate cp_abs = context.transform.transform(cp_inst);
-			cp_abs = cp_abs.setY(0.0).setZ(0.0);
-
-			instanceForces.setCP(cp_abs);
-			double CN_instanced = instanceForces.getCN();
-			instanceForces.setCm(CN_instanced * instanceForces.getCP().x / conditions.getRefLength());
-
-			componentForces.merge(instanceForces);
+			addInstanceNonAxialForces(conditions, calcObj, context.transform, componentForces, warnings);
 		}
 		componentForces.setComponent(comp);
 
 		return componentForces;
 	}
 
+	/**
+	 * Calculate the non-axial forces of a single component instance and merge them
+	 * into the forces of the component.
+	 */
+	private void addInstanceNonAxialForces(FlightConditions conditions, RocketComponentCalc calcObj,
+			Transformation transform, AerodynamicForces componentForces, WarningSet warnings) {
+		// specific to this _instance_ of this component:
+		instanceForces.zero();
+		calcObj.calculateNonaxialForces(conditions, transform, instanceForces, warnings);
+
+		Coordinate cp_inst = instanceForces.getCP();
+		Coordinate cp_abs = transform.transform(cp_inst);
+		cp_abs = cp_abs.setY(0.0).setZ(0.0);
+
+		instanceForces.setCP(cp_abs);
+		double CN_instanced = instanceForces.getCN();
+		instanceForces.setCm(CN_instanced * instanceForces.getCP().x / conditions.getRefLength());
+
+		componentForces.merge(instanceForces);
+	}
+
 	/**
 	 * Perform the actual CP calculation.
 	 */
@@ -253,27 +373,45 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		if (conditions.getAOA() > 17.5 * Math.PI / 180)
 			warnings.add(new Warning.LargeAOA(conditions.getAOA()));
 
-		if (calcMap == null)
-			buildCalcMap(configuration);
-
-		checkGeometry(configuration, configuration.getRocket(), warnings);
-		
-		final InstanceMap imap = configuration.getActiveInstances();
+		final EvaluationPlan plan = getPlan(configuration);
+		warnings.addAll(plan.geometryWarnings);
 
 		// across the _entire_ assembly -- like a rocket, or a stage
 		final AerodynamicForces assemblyForces = new AerodynamicForces().zero();
 
-		for (Map.Entry<RocketComponent, ArrayList<InstanceContext>> mapEntry : imap.entrySet()) {
-			final RocketComponent comp = mapEntry.getKey();
-			final List<InstanceContext> contextList = mapEntry.getValue();
-
-			RocketComponentCalc calcObj = calcMap.get(comp);
+		for (int i = 0; i < plan.size; i++) {
+			final RocketComponentCalc calcObj = plan.calcs[i];
 			if (null != calcObj) {
 				// calculated across all component instances
-				final AerodynamicForces componentForces = calculateComponentNonAxialForces(conditions, comp, calcObj,
-						contextList, warnings);
+				componentAccumulator.zero();
+				for (Transformation transform : plan.transforms[i]) {
+					addInstanceNonAxialForces(conditions, calcObj, transform, componentAccumulator, warnings);
+				}
+
+				assemblyForces.merge(componentAccumulator);
+			}
+		}
+
+		return assemblyForces;
+	}
 
-				assemblyForces.merge(componentForces);
+	/**
+	 * Sum the non-axial forces of either the fin sets, which depend on the lateral wind
+	 * direction, or of all other components.
+	 */
+	private AerodynamicForces calculateNonAxialForces(EvaluationPlan plan, FlightConditions conditions,
+			boolean fins, WarningSet warnings) {
+		final AerodynamicForces assemblyForces = new AerodynamicForces().zero();
+
+		for (int i = 0; i < plan.size; i++) {
+			final RocketComponentCalc calcObj = plan.calcs[i];
+			if (null != calcObj && (calcObj instanceof FinSetCalc) == fins) {
+				componentAccumulator.zero();
+				for (Transformation transform : plan.transforms[i]) {
+					addInstanceNonAxialForces(conditions, calcObj, transform, componentAccumulator, warnings);
+				}
+
+				assemblyForces.merge(componentAccumulator);
 			}
 		}
 
@@ -434,8 +572,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		double Cf = calculateFrictionCoefficient(configuration, mach, Re);
 		double roughnessCorrection = calculateRoughnessCorrection(mach);
 		
-		if (calcMap == null)
-			buildCalcMap(configuration);
+		final EvaluationPlan plan = getPlan(configuration);
 		
 		/*
 		 * Calculate the friction drag coefficient.
@@ -452,21 +589,14 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		double[] roughnessLimited = new double[Finish.values().length];
 		Arrays.fill(roughnessLimited, Double.NaN);
 
-		final InstanceMap imap = configuration.getActiveInstances();
-		for (Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry : imap.entrySet()) {
-			final RocketComponent c = entry.getKey();
-
-			if (!c.isAerodynamic()) {
-				continue;
-			}
-			
-			if (c.isCDOverridden() ||
-					c.isCDOverriddenByAncestor()) {
+		for (int i = 0; i < plan.size; i++) {
+			if (!plan.aerodynamic[i] || plan.cdOverridden[i]) {
 				continue;
 			}
+			final RocketComponent c = plan.components[i];
 
 			// Calculate the roughness-limited friction coefficient
-			Finish finish = ((ExternalComponent) c).getFinish();
+			Finish finish = plan.finishes[i];
 			if (Double.isNaN(roughnessLimited[finish.ordinal()])) {
 				roughnessLimited[finish.ordinal()] = 0.032
 						* Math.pow(finish.getRoughnessSize() / configuration.getLengthAerodynamic(), 0.2) *
@@ -494,22 +624,14 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 				
 			}
 
-			double componentFrictionCD = calcMap.get(c).calculateFrictionCD(conditions, componentCf, warningSet);
-			int instanceCount = entry.getValue().size();
+			double componentFrictionCD = plan.calcs[i].calculateFrictionCD(conditions, componentCf, warningSet);
+			int instanceCount = plan.transforms[i].length;
 			
-			if (c instanceof SymmetricComponent) {
-				SymmetricComponent s = (SymmetricComponent) c;
-
+			if (plan.symmetric[i]) {
 				bodyFrictionCD += instanceCount * componentFrictionCD;
-				
-				final double componentMinX = c.getAxialOffset(AxialMethod.ABSOLUTE);
-				minX = Math.min(minX, componentMinX);
-
-				final double componentMaxX = componentMinX + c.getLength();
-				maxX = Math.max(maxX, componentMaxX);
-
-				final double componentMaxR = Math.max(s.getForeRadius(), s.getAftRadius());
-				maxR = Math.max(maxR, componentMaxR);
+				minX = Math.min(minX, plan.minX[i]);
+				maxX = Math.max(maxX, plan.maxX[i]);
+				maxR = Math.max(maxR, plan.maxR[i]);
 
 			} else {
 				otherFrictionCD += instanceCount * componentFrictionCD;
@@ -677,30 +799,22 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			Map<RocketComponent, AerodynamicForces> forceMap, WarningSet warningSet) {
 
 		double total, stagnation, base;
-		if (calcMap == null)
-			buildCalcMap(configuration);
+		final EvaluationPlan plan = getPlan(configuration);
 		
 		stagnation = calculateStagnationCD(conditions.getMach());
 		base = calculateBaseCD(conditions.getMach());
 
 		total = 0;
-		final InstanceMap imap = configuration.getActiveInstances();
-		for (Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry : imap.entrySet()) {
-			final RocketComponent c = entry.getKey();
-
-			if (!c.isAerodynamic()) {
-				continue;
-			}
-				
-			if (c.isCDOverridden() ||
-				c.isCDOverriddenByAncestor()) {
+		for (int i = 0; i < plan.size; i++) {
+			if (!plan.aerodynamic[i] || plan.cdOverridden[i]) {
 				continue;
 			}
+			final RocketComponent c = plan.components[i];
 			
-			int instanceCount = entry.getValue().size();
+			int instanceCount = plan.transforms[i].length;
 
 			// Pressure drag of this component
-			double cd = calcMap.get(c).calculatePressureCD(conditions, stagnation, base,
+			double cd = plan.calcs[i].calculatePressureCD(conditions, stagnation, base,
 					warningSet);
 
 			if (forceMap != null) {
@@ -712,28 +826,12 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			// Stagnation drag caused by difference in radius between this component
 			// and previous component (increasing radii. Decreasing radii handled in
 			// base drag calculation
-			if (c instanceof SymmetricComponent) {
-				SymmetricComponent s = (SymmetricComponent) c;
-				double foreRadius = s.getForeRadius();
-				double aftRadius = s.getAftRadius();
-				// If length is zero, the component is a disk, i.e. a zero-length tube, so match
-				// the fore and aft diameter
-				if (s.getLength() == 0) {
-					foreRadius = Math.max(foreRadius, aftRadius);
-				}
-				double radius = 0;
-				final SymmetricComponent prevComponent = s.getPreviousSymmetricComponent();
-				if (prevComponent != null && configuration.isComponentActive(prevComponent))
-					radius = prevComponent.getAftRadius();
+			if (plan.stagnationArea[i] > 0) {
+				cd = stagnation * plan.stagnationArea[i] / conditions.getRefArea();
+				total += instanceCount * cd;
 					
-				if (radius < foreRadius) {
-					double area = Math.PI * (pow2(foreRadius) - pow2(radius));
-					cd = stagnation * area / conditions.getRefArea();
-					total += instanceCount * cd;
-						
-					if (forceMap != null) {
-						forceMap.get(c).setPressureCD(forceMap.get(c).getPressureCD() + cd);
-					}
+				if (forceMap != null) {
+					forceMap.get(c).setPressureCD(forceMap.get(c).getPressureCD() + cd);
 				}
 			}
 		}
@@ -756,55 +854,25 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 
 		double base, total;
 		
-		if (calcMap == null)
-			buildCalcMap(configuration);
+		final EvaluationPlan plan = getPlan(configuration);
 		
 		base = calculateBaseCD(conditions.getMach());
 		total = 0;
 		
-		final InstanceMap imap = configuration.getActiveInstances();
-		for (Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry : imap.entrySet()) {
-			final RocketComponent c = entry.getKey();
-
-			if (!(c instanceof SymmetricComponent)) {
+		for (int i = 0; i < plan.size; i++) {
+			if (!plan.symmetric[i] || plan.cdOverridden[i]) {
 				continue;
 			}
 
-			
-			if (c.isCDOverridden() ||
-					c.isCDOverriddenByAncestor()) {
-				continue;
-			}
-			
-			SymmetricComponent s = (SymmetricComponent) c;
-			double foreRadius = s.getForeRadius();
-			double aftRadius = s.getAftRadius();
-			// If length is zero, the component is a disk, i.e. a zero-length tube, so match
-			// the fore and aft diameter
-			if (s.getLength() == 0) {
-				final double componentMaxR = Math.max(foreRadius, aftRadius);
-				foreRadius = aftRadius = componentMaxR;
-			}
-
-			int instanceCount = entry.getValue().size();
-
-			// get forward radius of next component
-			final SymmetricComponent nextComponent = s.getNextSymmetricComponent();
-			double nextRadius;
-			if ((nextComponent != null) && configuration.isComponentActive(nextComponent)) {
-				nextRadius = nextComponent.getForeRadius();
-			} else {
-				nextRadius = 0.0;
-			}
+			int instanceCount = plan.transforms[i].length;
 
 			// if fore radius of next component is less than my aft radius, set my
 			// base CD
-			if (nextRadius < aftRadius) {
-				double area = Math.PI * (pow2(aftRadius) - pow2(nextRadius));
-				double cd = base * area / conditions.getRefArea();
+			if (plan.baseArea[i] > 0) {
+				double cd = base * plan.baseArea[i] / conditions.getRefArea();
 				total += instanceCount * cd;
 				if (forceMap != null) {
-					forceMap.get(s).setBaseCD(cd);
+					forceMap.get(plan.components[i]).setBaseCD(cd);
 				}
 			}
 		}
@@ -902,30 +970,23 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 			Map<RocketComponent, AerodynamicForces> assemblyMap,
 			WarningSet warningSet) {
 
-		if (calcMap == null)
-			buildCalcMap(configuration);
+		final EvaluationPlan plan = getPlan(configuration);
 
 		double total = 0;
-		final InstanceMap imap = configuration.getActiveInstances();
-		for (Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry : imap.entrySet()) {
-			final RocketComponent c = entry.getKey();
-			int instanceCount = entry.getValue().size();
-
-			if (!c.isAerodynamic() &&
-					!(c instanceof ComponentAssembly)) {
+		for (int i = 0; i < plan.size; i++) {
+			if (!plan.cdOverrideSource[i]) {
 				continue;
 			}
+			final RocketComponent c = plan.components[i];
+			int instanceCount = plan.transforms[i].length;
 
-			if (c.isCDOverridden() &&
-					!c.isCDOverriddenByAncestor()) {
-				double cd = instanceCount * c.getOverrideCD();
-				Map<RocketComponent, AerodynamicForces> forceMap = (c instanceof ComponentAssembly) ? assemblyMap
-						: eachMap;
-				if (forceMap != null) {
-					forceMap.get(c).setOverrideCD(cd);
-				}
-				total += cd;
+			double cd = instanceCount * c.getOverrideCD();
+			Map<RocketComponent, AerodynamicForces> forceMap = (c instanceof ComponentAssembly) ? assemblyMap
+					: eachMap;
+			if (forceMap != null) {
+				forceMap.get(c).setOverrideCD(cd);
 			}
+			total += cd;
 		}
 
 		return total;
@@ -938,7 +999,7 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 	 * @param conditions    flight conditions in consideration
 	 * @param total         acting aerodynamic forces
 	 */
-	private void calculateDampingMoments(FlightConfiguration configuration, FlightConditions conditions,
+	void calculateDampingMoments(FlightConfiguration configuration, FlightConditions conditions,
 			AerodynamicForces total) {
 		
 		// Calculate pitch and yaw damping moments
@@ -962,39 +1023,17 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 
 	private double getDampingMultiplier(FlightConfiguration configuration, FlightConditions conditions,
 			double cgx) {
-		if (cacheDiameter < 0) {
-			double area = 0;
-			cacheLength = 0;
-			cacheDiameter = 0;
-			
-			for (RocketComponent c : configuration.getActiveComponents()) {
-				if (c instanceof SymmetricComponent) {
-					SymmetricComponent s = (SymmetricComponent) c;
-					area += s.getComponentPlanformArea();
-					cacheLength += s.getLength();
-				}
-			}
-			if (cacheLength > 0)
-				cacheDiameter = area / cacheLength;
-		}
-		
+		final EvaluationPlan plan = getPlan(configuration);
 		double mul;
 		
 		// Body
-		mul = 0.275 * cacheDiameter / (conditions.getRefArea() * conditions.getRefLength());
-		mul *= (MathUtil.pow4(cgx) + MathUtil.pow4(cacheLength - cgx));
+		mul = 0.275 * plan.bodyDiameter / (conditions.getRefArea() * conditions.getRefLength());
+		mul *= (MathUtil.pow4(cgx) + MathUtil.pow4(plan.bodyLength - cgx));
 		
 		// Fins
-		// TODO: LOW: This could be optimized a lot...
-		for (RocketComponent c : configuration.getActiveComponents()) {
-			if (c instanceof FinSet) {
-				FinSet f = (FinSet) c;
-				mul += 0.6 * Math.min(f.getFinCount(), 4) * f.getPlanformArea() *
-						MathUtil.pow3(Math.abs(f.toAbsolute(new Coordinate(
-								((FinSetCalc) calcMap.get(f)).getMidchordPos()))[0].x
-								- cgx)) /
-						(conditions.getRefArea() * conditions.getRefLength());
-			}
+		for (int i = 0; i < plan.finDamping.length; i++) {
+			mul += plan.finDamping[i] * MathUtil.pow3(Math.abs(plan.finMidchordX[i] - cgx)) /
+					(conditions.getRefArea() * conditions.getRefLength());
 		}
 		
 		return mul;
@@ -1009,24 +1048,76 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		super.voidAerodynamicCache();
 		
 		calcMap = null;
-		cacheDiameter = -1;
-		cacheLength = -1;
+		plan = null;
 	}
 	
 	
 	private void buildCalcMap(FlightConfiguration configuration) {
+		final Map<String, RocketComponentCalc> calcs = getCalcSnapshot(configuration);
 		calcMap = new HashMap<>();
 
 		for (RocketComponent comp : configuration.getAllComponents()) {
-			if (!comp.isAerodynamic() && !(comp instanceof ComponentAssembly)) {
-				continue;
+			RocketComponentCalc calcObj = calcs.get(comp.getID());
+			if (calcObj != null) {
+				calcMap.put(comp, calcObj);
 			}
+		}
+	}
+
+	/**
+	 * Return the calculation objects of the rocket by component ID, creating them
+	 * if the shared cache has none for the current state of the rocket.
+	 */
+	static Map<String, RocketComponentCalc> getCalcSnapshot(FlightConfiguration configuration) {
+		final CalcKey key = new CalcKey(configuration.getRocket());
+		Map<String, RocketComponentCalc> calcs;
+		synchronized (calcCache) {
+			calcs = calcCache.get(key);
+		}
+		if (calcs == null) {
+			calcs = new HashMap<>();
+			for (RocketComponent comp : configuration.getAllComponents()) {
+				if (!comp.isAerodynamic() && !(comp instanceof ComponentAssembly)) {
+					continue;
+				}
+
+				RocketComponentCalc calcObj = (RocketComponentCalc) Reflection.construct(BARROWMAN_PACKAGE, comp,
+						BARROWMAN_SUFFIX, comp);
 
-			RocketComponentCalc calcObj = (RocketComponentCalc) Reflection.construct(BARROWMAN_PACKAGE, comp,
-					BARROWMAN_SUFFIX, comp);
+				calcs.put(comp.getID(), calcObj);
+			}
+			calcs = Collections.unmodifiableMap(calcs);
+			synchronized (calcCache) {
+				calcCache.put(key, calcs);
+			}
+		}
+		return calcs;
+	}
 
-			calcMap.put(comp, calcObj);
+	/**
+	 * Clear the calculation objects shared between calculator instances.
+	 */
+	public static void clearCalcCache() {
+		synchronized (calcCache) {
+			calcCache.clear();
+		}
+	}
+	
+	/**
+	 * Return the evaluation plan of the configuration, compiling it if the configuration
+	 * or its active instances have changed since the plan was built.
+	 */
+	private EvaluationPlan getPlan(FlightConfiguration configuration) {
+		if (plan == null || plan.configuration != configuration ||
+				plan.instancesModID != configuration.getInstancesModID()) {
+			if (calcMap == null)
+				buildCalcMap(configuration);
+
+			WarningSet geometryWarnings = new WarningSet();
+			checkGeometry(configuration, configuration.getRocket(), geometryWarnings);
+			plan = new EvaluationPlan(configuration, calcMap, geometryWarnings);
 		}
+		return plan;
 	}
 	
 	@Override
@@ -1034,5 +1125,189 @@ public class BarrowmanCalculator extends AbstractAerodynamicCalculator {
 		// Only cached data is stored, return constant mod ID
 		return 0;
 	}
+
+
+	/**
+	 * The active instances of a configuration compiled into flat arrays, in the iteration
+	 * order of the configuration's instance map.  Holds the calculation object, instance
+	 * transforms and the drag-related geometry of each active component, so that the
+	 * per-step calculations need no map lookups or tree walks.
+	 * <p>
+	 * A plan is valid for a single configuration and state of its active instances.  Changes
+	 * to the rocket void it together with the calculation objects in
+	 * {@link BarrowmanCalculator#voidAerodynamicCache()}.
+	 */
+	private static final class EvaluationPlan {
+		final FlightConfiguration configuration;
+		final int instancesModID;
+		final WarningSet geometryWarnings;
+
+		final int size;
+		final RocketComponent[] components;
+		/** Calculation object of each component, null if it has none */
+		final RocketComponentCalc[] calcs;
+		final Transformation[][] transforms;
+		final boolean[] aerodynamic;
+		final boolean[] symmetric;
+		/** Whether the CD of the component is overridden by itself or an ancestor */
+		final boolean[] cdOverridden;
+		/** Whether the component's own CD override applies */
+		final boolean[] cdOverrideSource;
+		final Finish[] finishes;
+
+		// Body geometry of symmetric components
+		final double[] minX;
+		final double[] maxX;
+		final double[] maxR;
+		/** Frontal area exposed to stagnation pressure by a radius increase, or 0 */
+		final double[] stagnationArea;
+		/** Base area exposed by a radius decrease, or 0 */
+		final double[] baseArea;
+
+		// Body damping geometry of the active symmetric components
+		final double bodyLength;
+		final double bodyDiameter;
+
+		// Fin damping terms in order of the active components
+		final double[] finDamping;
+		final double[] finMidchordX;
+
+		EvaluationPlan(FlightConfiguration configuration, Map<RocketComponent, RocketComponentCalc> calcMap,
+				WarningSet geometryWarnings) {
+			this.configuration = configuration;
+			this.instancesModID = configuration.getInstancesModID();
+			this.geometryWarnings = geometryWarnings;
+
+			final InstanceMap imap = configuration.getActiveInstances();
+			final List<Map.Entry<RocketComponent, ArrayList<InstanceContext>>> entries = new ArrayList<>(imap.entrySet());
+			size = entries.size();
+			components = new RocketComponent[size];
+			calcs = new RocketComponentCalc[size];
+			transforms = new Transformation[size][];
+			aerodynamic = new boolean[size];
+			symmetric = new boolean[size];
+			cdOverridden = new boolean[size];
+			cdOverrideSource = new boolean[size];
+			finishes = new Finish[size];
+			minX = new double[size];
+			maxX = new double[size];
+			maxR = new double[size];
+			stagnationArea = new double[size];
+			baseArea = new double[size];
+
+			for (int i = 0; i < size; i++) {
+				final RocketComponent c = entries.get(i).getKey();
+				final List<InstanceContext> contexts = entries.get(i).getValue();
+
+				components[i] = c;
+				calcs[i] = calcMap.get(c);
+				transforms[i] = new Transformation[contexts.size()];
+				for (int j = 0; j < contexts.size(); j++) {
+					transforms[i][j] = contexts.get(j).transform;
+				}
+				aerodynamic[i] = c.isAerodynamic();
+				cdOverridden[i] = c.isCDOverridden() || c.isCDOverriddenByAncestor();
+				cdOverrideSource[i] = (aerodynamic[i] || c instanceof ComponentAssembly) &&
+						c.isCDOverridden() && !c.isCDOverriddenByAncestor();
+				if (aerodynamic[i]) {
+					finishes[i] = ((ExternalComponent) c).getFinish();
+				}
+
+				if (c instanceof SymmetricComponent) {
+					symmetric[i] = true;
+					compileBodyGeometry(i, (SymmetricComponent) c);
+				}
+			}
+
+			double planformArea = 0;
+			double length = 0;
+			List<FinSet> fins = new ArrayList<>();
+			for (RocketComponent c : configuration.getActiveComponents()) {
+				if (c instanceof SymmetricComponent) {
+					SymmetricComponent s = (SymmetricComponent) c;
+					planformArea += s.getComponentPlanformArea();
+					length += s.getLength();
+				} else if (c instanceof FinSet) {
+					fins.add((FinSet) c);
+				}
+			}
+			bodyLength = length;
+			bodyDiameter = (length > 0) ? planformArea / length : 0;
+
+			finDamping = new double[fins.size()];
+			finMidchordX = new double[fins.size()];
+			for (int i = 0; i < fins.size(); i++) {
+				FinSet f = fins.get(i);
+				finDamping[i] = 0.6 * Math.min(f.getFinCount(), 4) * f.getPlanformArea();
+				finMidchordX[i] = f.toAbsolute(new Coordinate(
+						((FinSetCalc) calcMap.get(f)).getMidchordPos()))[0].x;
+			}
+		}
+
+		private void compileBodyGeometry(int i, SymmetricComponent s) {
+			minX[i] = s.getAxialOffset(AxialMethod.ABSOLUTE);
+			maxX[i] = minX[i] + s.getLength();
+			maxR[i] = Math.max(s.getForeRadius(), s.getAftRadius());
+
+			// If length is zero, the component is a disk, i.e. a zero-length tube, so match
+			// the fore and aft diameter
+			double foreRadius = s.getForeRadius();
+			double aftRadius = s.getAftRadius();
+			if (s.getLength() == 0) {
+				foreRadius = aftRadius = Math.max(foreRadius, aftRadius);
+			}
+
+			// Stagnation drag caused by a radius increase from the previous component
+			double prevRadius = 0;
+			final SymmetricComponent prevComponent = s.getPreviousSymmetricComponent();
+			if (prevComponent != null && configuration.isComponentActive(prevComponent))
+				prevRadius = prevComponent.getAftRadius();
+			if (prevRadius < foreRadius) {
+				stagnationArea[i] = Math.PI * (pow2(foreRadius) - pow2(prevRadius));
+			}
+
+			// Base drag caused by a radius decrease to the next component
+			double nextRadius = 0;
+			final SymmetricComponent nextComponent = s.getNextSymmetricComponent();
+			if ((nextComponent != null) && configuration.isComponentActive(nextComponent))
+				nextRadius = nextComponent.getForeRadius();
+			if (nextRadius < aftRadius) {
+				baseArea[i] = Math.PI * (pow2(aftRadius) - pow2(nextRadius));
+			}
+		}
+	}
 	
+
+	/**
+	 * Key of the shared calculation objects.  The calculation objects depend only on
+	 * the rocket's geometry, which is identified by the rocket ID and its aerodynamic
+	 * and tree modification IDs.  Copies of a rocket keep the IDs of the original, so
+	 * all simulations of the same design share the calculation objects.
+	 */
+	private static final class CalcKey {
+		private final String rocketID;
+		private final int aeroModID;
+		private final int treeModID;
+
+		CalcKey(Rocket rocket) {
+			this.rocketID = rocket.getID();
+			this.aeroModID = rocket.getAerodynamicModID();
+			this.treeModID = rocket.getTreeModID();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof CalcKey))
+				return false;
+			CalcKey other = (CalcKey) obj;
+			return rocketID.equals(other.rocketID) && aeroModID == other.aeroModID && treeModID == other.treeModID;
+		}
+
+		@Override
+		public int hashCode() {
+			return (rocketID.hashCode() * 31 + aeroModID) * 31 + treeModID;
+		}
+	}
 }
@@ -0,0 +1,569 @@
+package info.openrocket.core.aerodynamics;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import info.openrocket.core.logging.Warning;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.models.atmosphere.AtmosphericConditions;
+import info.openrocket.core.rocketcomponent.AxialStage;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.MathUtil;
+
+/**
+ * An aerodynamic calculator that answers queries by interpolating tabulated
+ * coefficients of the {@link BarrowmanCalculator}.
+ * <p>
+ * For a fixed configuration the Barrowman coefficients depend smoothly on the Mach
+ * number, the angle of attack and the Reynolds number.  This calculator builds
+ * coefficient tables over a regular (Mach, AOA, log10 Re) grid lazily, computing each
+ * grid node with the Barrowman calculator the first time a query needs it, and answers
+ * queries by trilinear interpolation.  Pitch and yaw damping moments, which depend on the
+ * rotation rates and the pitch center, are computed exactly.
+ * <p>
+ * Before a grid cell is first used, the interpolated coefficients at its center are
+ * compared to the exact ones.  If the difference exceeds the maximum error, relative to
+ * the magnitude of the coefficient at reference conditions, the cell is not used and
+ * queries falling in it are calculated exactly.  Queries outside the tabulated range,
+ * queries at significant roll rates (whose roll damping is not tabulated), and rockets
+ * whose coefficients depend on the lateral wind direction are always calculated exactly.
+ * <p>
+ * The tables are shared between all instances of this calculator, and thus between
+ * threads and simulations of the same configuration.  They are keyed by the rocket's
+ * ID, its aerodynamic and tree modification IDs, the active stages and the table
+ * settings, so simulation copies of a rocket use the same tables.
+ * <p>
+ * This calculator is intended for repeated simulations of a single design, e.g. sweeps
+ * and Monte Carlo runs.  A single simulation is usually faster with the plain
+ * {@link BarrowmanCalculator}.
+ */
+public class TabulatedAerodynamicCalculator extends AbstractAerodynamicCalculator {
+
+	/** Default maximum interpolation error, relative to the coefficient magnitude */
+	public static final double DEFAULT_MAX_ERROR = 0.01;
+	/** Default Mach number step */
+	public static final double DEFAULT_MACH_STEP = 0.02;
+	/** Default angle of attack step, in radians */
+	public static final double DEFAULT_AOA_STEP = Math.PI / 180;
+	/** Default step of log10 of the Reynolds number */
+	public static final double DEFAULT_REYNOLDS_STEP = 0.25;
+
+	/** Maximum tabulated Mach number */
+	private static final double MAX_MACH = 3.0;
+	/** Range of the tabulated log10 Reynolds number */
+	private static final double MIN_LOG_REYNOLDS = 4;
+	private static final double MAX_LOG_REYNOLDS = 9;
+	/** Roll rate below which the Barrowman fin roll damping is zero */
+	private static final double ROLL_RATE_LIMIT = 0.1;
+
+	/** Maximum number of coefficient tables kept */
+	private static final int TABLE_CACHE_SIZE = 8;
+
+	private static final Map<TableKey, CoefficientTable> tables =
+			new LinkedHashMap<TableKey, CoefficientTable>(TABLE_CACHE_SIZE, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<TableKey, CoefficientTable> eldest) {
+					return size() > TABLE_CACHE_SIZE;
+				}
+			};
+
+	private final double maxError;
+	private final double machStep;
+	private final double aoaStep;
+	private final double reynoldsStep;
+
+	private final BarrowmanCalculator delegate = new BarrowmanCalculator();
+
+	// The table of the previous query
+	private CoefficientTable table = null;
+	private FlightConfiguration tableConfiguration = null;
+	private int tableInstancesModID = -1;
+
+
+	/**
+	 * Create a calculator with the default error bound and grid.
+	 */
+	public TabulatedAerodynamicCalculator() {
+		this(DEFAULT_MAX_ERROR);
+	}
+
+	/**
+	 * Create a calculator with the default grid.
+	 *
+	 * @param maxError	the maximum interpolation error of a grid cell, relative to the
+	 * 					magnitude of the coefficients at reference conditions.
+	 */
+	public TabulatedAerodynamicCalculator(double maxError) {
+		this(maxError, DEFAULT_MACH_STEP, DEFAULT_AOA_STEP, DEFAULT_REYNOLDS_STEP);
+	}
+
+	/**
+	 * Create a calculator.
+	 *
+	 * @param maxError		the maximum interpolation error of a grid cell, relative to the
+	 * 						magnitude of the coefficients at reference conditions.
+	 * @param machStep		the Mach number step of the grid.
+	 * @param aoaStep		the angle of attack step of the grid, in radians.
+	 * @param reynoldsStep	the step of log10 of the Reynolds number of the grid.
+	 */
+	public TabulatedAerodynamicCalculator(double maxError, double machStep, double aoaStep, double reynoldsStep) {
+		if (!(maxError > 0) || !(machStep > 0) || !(aoaStep > 0) || !(reynoldsStep > 0)) {
+			throw new IllegalArgumentException("Table error bound and steps must be positive");
+		}
+		this.maxError = maxError;
+		this.machStep = machStep;
+		this.aoaStep = aoaStep;
+		this.reynoldsStep = reynoldsStep;
+	}
+
+	@Override
+	public TabulatedAerodynamicCalculator newInstance() {
+		return new TabulatedAerodynamicCalculator(maxError, machStep, aoaStep, reynoldsStep);
+	}
+
+	/**
+	 * Return the maximum interpolation error of a grid cell, relative to the magnitude of
+	 * the coefficients at reference conditions.
+	 */
+	public double getMaxError() {
+		return maxError;
+	}
+
+	/**
+	 * Remove all shared coefficient tables.
+	 */
+	public static void clearTables() {
+		synchronized (tables) {
+			tables.clear();
+		}
+	}
+
+
+	@Override
+	public Coordinate getCP(FlightConfiguration configuration, FlightConditions conditions,
+			WarningSet warnings) {
+		AerodynamicForces forces = interpolate(configuration, conditions, warnings);
+		if (forces == null) {
+			return delegate.getCP(configuration, conditions, warnings);
+		}
+		return forces.getCP();
+	}
+
+	@Override
+	public AerodynamicForces getAerodynamicForces(FlightConfiguration configuration,
+			FlightConditions conditions, WarningSet warnings) {
+		AerodynamicForces total = interpolate(configuration, conditions, warnings);
+		if (total == null) {
+			return delegate.getAerodynamicForces(configuration, conditions, warnings);
+		}
+
+		// Calculate pitch and yaw damping moments
+		delegate.checkCache(configuration);
+		delegate.calculateDampingMoments(configuration, conditions, total);
+		total.setCm(total.getCm() - total.getPitchDampingMoment());
+		total.setCyaw(total.getCyaw() - total.getYawDampingMoment());
+
+		return total;
+	}
+
+	@Override
+	public Map<RocketComponent, AerodynamicForces> getForceAnalysis(FlightConfiguration configuration,
+			FlightConditions conditions, WarningSet warnings) {
+		return delegate.getForceAnalysis(configuration, conditions, warnings);
+	}
+
+	@Override
+	public void checkGeometry(FlightConfiguration configuration, RocketComponent treeRoot, WarningSet warnings) {
+		delegate.checkGeometry(configuration, treeRoot, warnings);
+	}
+
+	@Override
+	protected void voidAerodynamicCache() {
+		super.voidAerodynamicCache();
+
+		table = null;
+		tableConfiguration = null;
+	}
+
+	@Override
+	public int getModID() {
+		// Only cached data is stored, return constant mod ID
+		return 0;
+	}
+
+
+	/**
+	 * Interpolate the non-damping forces from the coefficient table.
+	 *
+	 * @return	the interpolated forces, or <code>null</code> if the query must be
+	 * 			calculated exactly.
+	 */
+	private AerodynamicForces interpolate(FlightConfiguration configuration, FlightConditions conditions,
+			WarningSet warnings) {
+		checkCache(configuration);
+
+		if (Math.abs(conditions.getRollRate()) >= ROLL_RATE_LIMIT) {
+			return null;
+		}
+
+		final CoefficientTable t = getTable(configuration);
+		if (!t.usable || conditions.getRefLength() != t.refLength || conditions.getRefArea() != t.refArea) {
+			return null;
+		}
+
+		// Grid position
+		final double mach = conditions.getMach() / t.machStep;
+		final double aoa = conditions.getAOA() / t.aoaStep;
+		final double logRe = (Math.log10(conditions.getVelocity() * configuration.getLengthAerodynamic() /
+				conditions.getAtmosphericConditions().getKinematicViscosity()) - MIN_LOG_REYNOLDS) / t.reynoldsStep;
+		if (!(mach >= 1 && mach < t.machNodes - 1 && aoa >= 0 && aoa <= t.aoaNodes - 1 &&
+				logRe >= 0 && logRe < t.reynoldsNodes - 1)) {
+			return null;
+		}
+		final int i = (int) mach;
+		final int j = Math.min((int) aoa, t.aoaNodes - 2);
+		final int k = (int) logRe;
+
+		if (!t.isCellValid(this, configuration, i, j, k)) {
+			return null;
+		}
+
+		final double[] values = new double[CoefficientTable.SIZE];
+		final WarningSet nodeWarnings = t.interpolate(this, configuration, i, j, k, mach - i, aoa - j, logRe - k,
+				values);
+
+		if (warnings != null) {
+			if (conditions.getAOA() > 17.5 * Math.PI / 180)
+				warnings.add(new Warning.LargeAOA(conditions.getAOA()));
+			warnings.addAll(nodeWarnings);
+		}
+
+		return CoefficientTable.toForces(values);
+	}
+
+	/**
+	 * Return the shared coefficient table of the configuration, creating it if necessary.
+	 */
+	CoefficientTable getTable(FlightConfiguration configuration) {
+		if (table != null && tableConfiguration == configuration &&
+				tableInstancesModID == configuration.getInstancesModID()) {
+			return table;
+		}
+
+		final TableKey key = new TableKey(configuration, maxError, machStep, aoaStep, reynoldsStep);
+		CoefficientTable t;
+		synchronized (tables) {
+			t = tables.get(key);
+		}
+		if (t == null) {
+			t = new CoefficientTable(this, configuration);
+			synchronized (tables) {
+				CoefficientTable existing = tables.get(key);
+				if (existing != null) {
+					t = existing;
+				} else {
+					tables.put(key, t);
+				}
+			}
+		}
+
+		table = t;
+		tableConfiguration = configuration;
+		tableInstancesModID = configuration.getInstancesModID();
+		return t;
+	}
+
+	/**
+	 * Calculate the coefficients exactly at the given grid coordinates.
+	 *
+	 * @param warnings	the set to which warnings are added.
+	 * @param values	the array to which the coefficients are stored.
+	 */
+	private void evaluate(FlightConfiguration configuration, double mach, double aoa, double logRe, double theta,
+			WarningSet warnings, double[] values) {
+		FlightConditions conditions = new FlightConditions(configuration);
+		conditions.setTheta(theta);
+		conditions.setAOA(aoa);
+
+		// Choose the air pressure so that the velocity produces the wanted Reynolds number
+		AtmosphericConditions atmosphere = new AtmosphericConditions(AtmosphericConditions.STANDARD_TEMPERATURE,
+				AtmosphericConditions.STANDARD_PRESSURE);
+		final double velocity = mach * atmosphere.getMachSpeed();
+		final double viscosity = velocity * configuration.getLengthAerodynamic() / Math.pow(10, logRe);
+		atmosphere.setPressure(AtmosphericConditions.STANDARD_PRESSURE * atmosphere.getKinematicViscosity() / viscosity);
+		conditions.setAtmosphericConditions(atmosphere);
+		conditions.setMach(mach);
+
+		CoefficientTable.fromForces(delegate.getAerodynamicForces(configuration, conditions, warnings), values);
+	}
+
+
+	/**
+	 * Coefficient table of a single configuration.  The grid nodes and cell validity are
+	 * computed lazily and stored in concurrent maps, so the table may be used from
+	 * several threads.  Nodes are computed by the calculator making the query.
+	 */
+	static final class CoefficientTable {
+		// Indices of the tabulated values
+		static final int CNA = 0;
+		static final int CP_MOMENT = 1;
+		static final int CP_X = 2;
+		static final int CN = 3;
+		static final int CM = 4;
+		static final int CSIDE = 5;
+		static final int CYAW = 6;
+		static final int CROLL = 7;
+		static final int CROLL_FORCE = 8;
+		static final int FRICTION_CD = 9;
+		static final int PRESSURE_CD = 10;
+		static final int BASE_CD = 11;
+		static final int OVERRIDE_CD = 12;
+		static final int CD = 13;
+		static final int CD_AXIAL = 14;
+		static final int SIZE = 15;
+
+		/** Values checked against the error bound */
+		private static final int[] CHECKED = { CNA, CP_MOMENT, CN, CM, CD };
+
+		final double machStep;
+		final double aoaStep;
+		final double reynoldsStep;
+		final int machNodes;
+		final int aoaNodes;
+		final int reynoldsNodes;
+		final double refLength;
+		final double refArea;
+
+		/** Whether the coefficients are independent of the lateral wind direction */
+		final boolean usable;
+		/** Allowed absolute error of each value */
+		private final double[] tolerance = new double[SIZE];
+
+		private final Map<Long, Node> nodes = new ConcurrentHashMap<>();
+		private final Map<Long, Boolean> validCells = new ConcurrentHashMap<>();
+
+		CoefficientTable(TabulatedAerodynamicCalculator calculator, FlightConfiguration configuration) {
+			this.machNodes = (int) Math.ceil(MAX_MACH / calculator.machStep) + 1;
+			this.machStep = MAX_MACH / (machNodes - 1);
+			this.aoaNodes = (int) Math.ceil(Math.PI / calculator.aoaStep) + 1;
+			this.aoaStep = Math.PI / (aoaNodes - 1);
+			this.reynoldsNodes = (int) Math.ceil((MAX_LOG_REYNOLDS - MIN_LOG_REYNOLDS) / calculator.reynoldsStep) + 1;
+			this.reynoldsStep = (MAX_LOG_REYNOLDS - MIN_LOG_REYNOLDS) / (reynoldsNodes - 1);
+
+			FlightConditions conditions = new FlightConditions(configuration);
+			this.refLength = conditions.getRefLength();
+			this.refArea = conditions.getRefArea();
+
+			// Reference magnitudes at subsonic flight and a moderate angle of attack
+			final double mach = 0.3;
+			final double aoa = 5 * Math.PI / 180;
+			final double logRe = 6;
+			final WarningSet ignore = new WarningSet();
+			double[] reference = new double[SIZE];
+			calculator.evaluate(configuration, mach, aoa, logRe, 0, ignore, reference);
+			for (int c : CHECKED) {
+				tolerance[c] = calculator.maxError * Math.abs(reference[c]);
+			}
+
+			// The table is only used if the lateral wind direction has no effect
+			boolean symmetric = tolerance[CNA] > 0;
+			double[] rotated = new double[SIZE];
+			for (double theta : new double[] { 0.4, 1.1, 2.3 }) {
+				calculator.evaluate(configuration, mach, aoa, logRe, theta, ignore, rotated);
+				for (int c : CHECKED) {
+					if (Math.abs(rotated[c] - reference[c]) > tolerance[c]) {
+						symmetric = false;
+					}
+				}
+			}
+			this.usable = symmetric;
+		}
+
+		/**
+		 * Return whether the interpolation error at the center of the cell is within the
+		 * error bound, checking it if necessary.
+		 */
+		boolean isCellValid(TabulatedAerodynamicCalculator calculator, FlightConfiguration configuration,
+				int i, int j, int k) {
+			final long key = key(i, j, k);
+			Boolean valid = validCells.get(key);
+			if (valid == null) {
+				double[] interpolated = new double[SIZE];
+				interpolate(calculator, configuration, i, j, k, 0.5, 0.5, 0.5, interpolated);
+				double[] exact = new double[SIZE];
+				calculator.evaluate(configuration, (i + 0.5) * machStep, (j + 0.5) * aoaStep,
+						MIN_LOG_REYNOLDS + (k + 0.5) * reynoldsStep, 0, new WarningSet(), exact);
+
+				valid = true;
+				for (int c : CHECKED) {
+					if (!(Math.abs(interpolated[c] - exact[c]) <= tolerance[c])) {
+						valid = false;
+					}
+				}
+				validCells.put(key, valid);
+			}
+			return valid;
+		}
+
+		/**
+		 * Trilinearly interpolate the values within a cell.
+		 *
+		 * @return	the warnings of the cell's corner nodes.
+		 */
+		WarningSet interpolate(TabulatedAerodynamicCalculator calculator, FlightConfiguration configuration,
+				int i, int j, int k, double fi, double fj, double fk, double[] values) {
+			final Node n000 = getNode(calculator, configuration, i, j, k);
+			final Node n001 = getNode(calculator, configuration, i, j, k + 1);
+			final Node n010 = getNode(calculator, configuration, i, j + 1, k);
+			final Node n011 = getNode(calculator, configuration, i, j + 1, k + 1);
+			final Node n100 = getNode(calculator, configuration, i + 1, j, k);
+			final Node n101 = getNode(calculator, configuration, i + 1, j, k + 1);
+			final Node n110 = getNode(calculator, configuration, i + 1, j + 1, k);
+			final Node n111 = getNode(calculator, configuration, i + 1, j + 1, k + 1);
+
+			for (int c = 0; c < SIZE; c++) {
+				final double v00 = n000.values[c] + fk * (n001.values[c] - n000.values[c]);
+				final double v01 = n010.values[c] + fk * (n011.values[c] - n010.values[c]);
+				final double v10 = n100.values[c] + fk * (n101.values[c] - n100.values[c]);
+				final double v11 = n110.values[c] + fk * (n111.values[c] - n110.values[c]);
+				final double v0 = v00 + fj * (v01 - v00);
+				final double v1 = v10 + fj * (v11 - v10);
+				values[c] = v0 + fi * (v1 - v0);
+			}
+
+			// All corners of a cell usually have the same warnings
+			return n000.warnings;
+		}
+
+		private Node getNode(TabulatedAerodynamicCalculator calculator, FlightConfiguration configuration,
+				int i, int j, int k) {
+			final long key = key(i, j, k);
+			Node node = nodes.get(key);
+			if (node == null) {
+				WarningSet warnings = new WarningSet();
+				double[] values = new double[SIZE];
+				calculator.evaluate(configuration, i * machStep, j * aoaStep, MIN_LOG_REYNOLDS + k * reynoldsStep, 0,
+						warnings, values);
+				warnings.immute();
+				node = new Node(values, warnings);
+				Node existing = nodes.putIfAbsent(key, node);
+				if (existing != null) {
+					node = existing;
+				}
+			}
+			return node;
+		}
+
+		private static long key(int i, int j, int k) {
+			return ((long) i << 42) | ((long) j << 21) | k;
+		}
+
+		static void fromForces(AerodynamicForces forces, double[] values) {
+			values[CNA] = forces.getCNa();
+			values[CP_MOMENT] = forces.getCNa() * forces.getCP().x;
+			values[CP_X] = forces.getCP().x;
+			values[CN] = forces.getCN();
+			values[CM] = forces.getCm();
+			values[CSIDE] = forces.getCside();
+			values[CYAW] = forces.getCyaw();
+			values[CROLL] = forces.getCroll();
+			values[CROLL_FORCE] = forces.getCrollForce();
+			values[FRICTION_CD] = forces.getFrictionCD();
+			values[PRESSURE_CD] = forces.getPressureCD();
+			values[BASE_CD] = forces.getBaseCD();
+			values[OVERRIDE_CD] = forces.getOverrideCD();
+			values[CD] = forces.getCD();
+			values[CD_AXIAL] = forces.getCDaxial();
+		}
+
+		static AerodynamicForces toForces(double[] values) {
+			AerodynamicForces forces = new AerodynamicForces().zero();
+			final double cna = values[CNA];
+			final double x = (Math.abs(cna) > MathUtil.EPSILON) ? values[CP_MOMENT] / cna : values[CP_X];
+			forces.setCP(new Coordinate(x, 0, 0, cna));
+			forces.setCNa(cna);
+			forces.setCN(values[CN]);
+			forces.setCm(values[CM]);
+			forces.setCside(values[CSIDE]);
+			forces.setCyaw(values[CYAW]);
+			forces.setCroll(values[CROLL]);
+			forces.setCrollForce(values[CROLL_FORCE]);
+			forces.setCrollDamp(0);
+			forces.setFrictionCD(values[FRICTION_CD]);
+			forces.setPressureCD(values[PRESSURE_CD]);
+			forces.setBaseCD(values[BASE_CD]);
+			forces.setOverrideCD(values[OVERRIDE_CD]);
+			forces.setCD(values[CD]);
+			forces.setCDaxial(values[CD_AXIAL]);
+			return forces;
+		}
+	}
+
+	/**
+	 * Exact coefficients and warnings of a grid node.
+	 */
+	private static final class Node {
+		final double[] values;
+		final WarningSet warnings;
+
+		Node(double[] values, WarningSet warnings) {
+			this.values = values;
+			this.warnings = warnings;
+		}
+	}
+
+	/**
+	 * Key of the shared coefficient tables.  The Barrowman coefficients of a configuration
+	 * depend only on the rocket and on which stages are active.
+	 */
+	private static final class TableKey {
+		private final String rocketID;
+		private final int aeroModID;
+		private final int treeModID;
+		private final BitSet activeStages = new BitSet();
+		private final double maxError;
+		private final double machStep;
+		private final double aoaStep;
+		private final double reynoldsStep;
+
+		TableKey(FlightConfiguration configuration, double maxError, double machStep, double aoaStep,
+				double reynoldsStep) {
+			final Rocket rocket = configuration.getRocket();
+			this.rocketID = rocket.getID();
+			this.aeroModID = rocket.getAerodynamicModID();
+			this.treeModID = rocket.getTreeModID();
+			for (AxialStage stage : rocket.getStageList()) {
+				if (configuration.isStageActive(stage.getStageNumber())) {
+					activeStages.set(stage.getStageNumber());
+				}
+			}
+			this.maxError = maxError;
+			this.machStep = machStep;
+			this.aoaStep = aoaStep;
+			this.reynoldsStep = reynoldsStep;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof TableKey))
+				return false;
+			TableKey other = (TableKey) obj;
+			return rocketID.equals(other.rocketID) && aeroModID == other.aeroModID &&
+					treeModID == other.treeModID && activeStages.equals(other.activeStages) &&
+					maxError == other.maxError && machStep == other.machStep &&
+					aoaStep == other.aoaStep && reynoldsStep == other.reynoldsStep;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((rocketID.hashCode() * 31 + aeroModID) * 31 + treeModID) * 31 + activeStages.hashCode();
+		}
+	}
+}
@@ -25,13 +25,28 @@ public class RailButtonCalc extends RocketComponentCalc {
 	private static final List<Double> cdRange = List.of(1.2, 1.22, 1.25, 1.3, 1.4, 1.5, 1.6, 2.1, 1.5, 1.45, 1.33,
 			1.33);
 
-	private final RailButton button;
+	// Button geometry, stored at construction so that the calculation does not access the component
+	private final double[] instancePositions;
+	private final double buttonHt;
+	private final double refArea;
 
 	public RailButtonCalc(RocketComponent component) {
 		super(component);
 
-		// need to stash the button
-		button = (RailButton) component;
+		RailButton button = (RailButton) component;
+
+		// location of each button
+		final Coordinate[] instanceOffsets = button.getInstanceOffsets();
+		instancePositions = new double[button.getInstanceCount()];
+		for (int i = 0; i < instancePositions.length; i++) {
+			instancePositions[i] = (button.toAbsolute(instanceOffsets[i]))[0].x;
+		}
+
+		// compute button reference area
+		buttonHt = button.getTotalHeight();
+		final double outerArea = buttonHt * button.getOuterDiameter();
+		final double notchArea = (button.getOuterDiameter() - button.getInnerDiameter()) * button.getInnerHeight();
+		refArea = outerArea - notchArea;
 	}
 
 	@Override
@@ -50,30 +65,20 @@ public class RailButtonCalc extends RocketComponentCalc {
 	public double calculatePressureCD(FlightConditions conditions,
 			double stagnationCD, double baseCD, WarningSet warnings) {
 
-		// grab relevant button params
-		final int instanceCount = button.getInstanceCount();
-		final Coordinate[] instanceOffsets = button.getInstanceOffsets();
-
-		// compute button reference area
-		final double buttonHt = button.getTotalHeight();
-		final double outerArea = buttonHt * button.getOuterDiameter();
-		final double notchArea = (button.getOuterDiameter() - button.getInnerDiameter()) * button.getInnerHeight();
-		final double refArea = outerArea - notchArea;
-
 		// accumulate Cd contribution from each rail button. If velocity is 0 just set
 		// CDmul to a value previously
 		// competed for velocity MathUtil.EPSILON and skip the loop to avoid division by
 		// 0
 		double CDmul = 0.0;
 		if (conditions.getMach() > MathUtil.EPSILON) {
-			for (int i = 0; i < button.getInstanceCount(); i++) {
+			for (int i = 0; i < instancePositions.length; i++) {
 
 				// compute boundary layer height at button location. I can't find a good
 				// reference for the
 				// formula, e.g. https://aerospaceengineeringblog.com/boundary-layers/ simply
 				// says it's the
 				// "scientific consensus".
-				double x = (button.toAbsolute(instanceOffsets[i]))[0].x; // location of button
+				double x = instancePositions[i]; // location of button
 				double rex = calculateReynoldsNumber(x, conditions); // Reynolds number of button location
 				double del = 0.37 * x / Math.pow(rex, 0.2); // Boundary layer thickness
 
@@ -110,7 +115,7 @@ public class RailButtonCalc extends RocketComponentCalc {
 
 			// since we'll be multiplying by the instance count up in BarrowmanCalculator,
 			// we want to return the mean CD instead of the total
-			CDmul /= button.getInstanceCount();
+			CDmul /= instancePositions.length;
 
 		} else {
 			// value at velocity of MathUtil.EPSILON
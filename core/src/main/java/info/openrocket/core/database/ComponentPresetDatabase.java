@@ -2,7 +2,11 @@ package info.openrocket.core.database;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -11,10 +15,38 @@ import org.slf4j.LoggerFactory;
 import info.openrocket.core.preset.ComponentPreset;
 import info.openrocket.core.startup.Application;
 
+/**
+ * The database of component presets.
+ * <p>
+ * The presets are partitioned by type and indexed by part number, so that listing the
+ * presets of a type and finding a preset do not need to scan the whole database.  The
+ * favorites of each type are read from the preferences once and cached until they are
+ * changed through {@link #setFavorite(ComponentPreset, ComponentPreset.Type, boolean)}.
+ */
 public class ComponentPresetDatabase extends Database<ComponentPreset> implements ComponentPresetDao {
 
 	private static final Logger logger = LoggerFactory.getLogger(ComponentPresetDatabase.class);
 
+	/** Presets of each type, in database order */
+	private final Map<ComponentPreset.Type, List<ComponentPreset>> typeIndex =
+			new EnumMap<ComponentPreset.Type, List<ComponentPreset>>(ComponentPreset.Type.class);
+
+	/**
+	 * Presets by part number.  The manufacturer is checked against the candidates, as it
+	 * may be given by any of its alternative names.
+	 */
+	private final Map<String, List<ComponentPreset>> partNoIndex = new HashMap<String, List<ComponentPreset>>();
+
+	/** Position of each preset in the database, used to merge the type partitions */
+	private final Map<ComponentPreset, Integer> order = new IdentityHashMap<ComponentPreset, Integer>();
+
+	/** Favorite presets of each type, in database order */
+	private final Map<ComponentPreset.Type, List<ComponentPreset>> favoriteCache =
+			new EnumMap<ComponentPreset.Type, List<ComponentPreset>>(ComponentPreset.Type.class);
+
+	/** Whether the indexes match the list; cleared when presets are added in sorted order or removed */
+	private boolean indexValid = true;
+
 	public ComponentPresetDatabase() {
 		super();
 	}
@@ -25,25 +57,45 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public void insert(ComponentPreset preset) {
+	public synchronized void insert(ComponentPreset preset) {
 		list.add(preset);
+		if (indexValid) {
+			addToIndex(preset, list.size() - 1);
+		}
+		favoriteCache.remove(preset.get(ComponentPreset.TYPE));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The preset is inserted in its natural order, which shifts the positions of the
+	 * following presets, so the indexes are rebuilt on next use.
+	 */
 	@Override
-	public List<ComponentPreset> listForType(ComponentPreset.Type type) {
+	public synchronized boolean add(ComponentPreset element) {
+		invalidateIndex();
+		return super.add(element);
+	}
+
+	@Override
+	protected void fireRemoveEvent(ComponentPreset element) {
+		synchronized (this) {
+			invalidateIndex();
+		}
+		super.fireRemoveEvent(element);
+	}
+
+	@Override
+	public synchronized List<ComponentPreset> listForType(ComponentPreset.Type type) {
 		if (type == null) {
 			return Collections.emptyList();
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size() / 6);
-
-		for (ComponentPreset preset : list) {
-			if (preset.get(ComponentPreset.TYPE).equals(type)) {
-				result.add(preset);
-			}
+		List<ComponentPreset> presets = getIndex().get(type);
+		if (presets == null) {
+			return new ArrayList<ComponentPreset>();
 		}
-		return result;
-
+		return new ArrayList<ComponentPreset>(presets);
 	}
 
 	/**
@@ -56,25 +108,33 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	 * @return
 	 */
 	@Override
-	public List<ComponentPreset> listForType(ComponentPreset.Type type, boolean favorite) {
+	public synchronized List<ComponentPreset> listForType(ComponentPreset.Type type, boolean favorite) {
 		if (!favorite) {
 			return listForType(type);
 		}
+		if (type == null) {
+			return Collections.emptyList();
+		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size() / 6);
-
-		Set<String> favorites = Application.getPreferences().getComponentFavorites(type);
-
-		for (ComponentPreset preset : list) {
-			if (preset.get(ComponentPreset.TYPE).equals(type) && favorites.contains(preset.preferenceKey())) {
-				result.add(preset);
+		List<ComponentPreset> result = favoriteCache.get(type);
+		if (result == null) {
+			result = new ArrayList<ComponentPreset>();
+			List<ComponentPreset> presets = getIndex().get(type);
+			if (presets != null) {
+				Set<String> favorites = Application.getPreferences().getComponentFavorites(type);
+				for (ComponentPreset preset : presets) {
+					if (favorites.contains(preset.preferenceKey())) {
+						result.add(preset);
+					}
+				}
 			}
+			favoriteCache.put(type, result);
 		}
-		return result;
+		return new ArrayList<ComponentPreset>(result);
 	}
 
 	@Override
-	public List<ComponentPreset> listForTypes(ComponentPreset.Type... type) {
+	public synchronized List<ComponentPreset> listForTypes(ComponentPreset.Type... type) {
 		if (type == null || type.length == 0) {
 			return Collections.emptyList();
 		}
@@ -83,17 +143,20 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 			return listForType(type[0]);
 		}
 
-		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size() / 6);
-
-		for (ComponentPreset preset : list) {
-			ComponentPreset.Type presetType = preset.get(ComponentPreset.TYPE);
-			typeLoop: for (int i = 0; i < type.length; i++) {
-				if (presetType.equals(type[i])) {
-					result.add(preset);
-					break typeLoop; // from inner loop.
-				}
+		Map<ComponentPreset.Type, List<ComponentPreset>> index = getIndex();
+		List<ComponentPreset> result = new ArrayList<ComponentPreset>();
+		Set<ComponentPreset.Type> added = Collections.newSetFromMap(
+				new EnumMap<ComponentPreset.Type, Boolean>(ComponentPreset.Type.class));
+		for (ComponentPreset.Type t : type) {
+			List<ComponentPreset> presets = index.get(t);
+			if (presets != null && added.add(t)) {
+				result.addAll(presets);
 			}
+		}
 
+		// Return the presets of the different types in database order
+		if (added.size() > 1) {
+			result.sort((p1, p2) -> Integer.compare(order.get(p1), order.get(p2)));
 		}
 		return result;
 	}
@@ -104,11 +167,14 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public List<ComponentPreset> find(String manufacturer, String partNo) {
+	public synchronized List<ComponentPreset> find(String manufacturer, String partNo) {
 		List<ComponentPreset> presets = new ArrayList<ComponentPreset>();
-		for (ComponentPreset preset : list) {
-			if (preset.getManufacturer().matches(manufacturer) && preset.getPartNo().equals(partNo)) {
-				presets.add(preset);
+		List<ComponentPreset> candidates = getPartNoIndex().get(partNo);
+		if (candidates != null) {
+			for (ComponentPreset preset : candidates) {
+				if (preset.getManufacturer().matches(manufacturer)) {
+					presets.add(preset);
+				}
 			}
 		}
 		return presets;
@@ -117,7 +183,47 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	@Override
 	public void setFavorite(ComponentPreset preset, ComponentPreset.Type type, boolean favorite) {
 		Application.getPreferences().setComponentFavorite(preset, type, favorite);
+		synchronized (this) {
+			favoriteCache.remove(type);
+		}
 		this.fireAddEvent(preset);
 	}
 
+
+	private Map<ComponentPreset.Type, List<ComponentPreset>> getIndex() {
+		rebuildIndexIfNeeded();
+		return typeIndex;
+	}
+
+	private Map<String, List<ComponentPreset>> getPartNoIndex() {
+		rebuildIndexIfNeeded();
+		return partNoIndex;
+	}
+
+	private void rebuildIndexIfNeeded() {
+		if (indexValid) {
+			return;
+		}
+		for (int i = 0; i < list.size(); i++) {
+			addToIndex(list.get(i), i);
+		}
+		indexValid = true;
+		logger.debug("Rebuilt component preset index of " + list.size() + " presets");
+	}
+
+	private void invalidateIndex() {
+		indexValid = false;
+		typeIndex.clear();
+		partNoIndex.clear();
+		order.clear();
+		favoriteCache.clear();
+	}
+
+	private void addToIndex(ComponentPreset preset, int position) {
+		order.put(preset, position);
+		typeIndex.computeIfAbsent(preset.get(ComponentPreset.TYPE), k -> new ArrayList<ComponentPreset>())
+				.add(preset);
+		partNoIndex.computeIfAbsent(preset.getPartNo(), k -> new ArrayList<ComponentPreset>(1)).add(preset);
+	}
+
 }
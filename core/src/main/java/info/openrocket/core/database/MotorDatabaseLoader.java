@@ -20,6 +20,7 @@ import info.openrocket.core.file.iterator.FileIterator;
 import info.openrocket.core.file.motor.GeneralMotorLoader;
 import info.openrocket.core.gui.util.SimpleFileFilter;
 import info.openrocket.core.motor.ThrustCurveMotor;
+import info.openrocket.core.motor.ThrustCurveMotorSnapshot;
 import info.openrocket.core.startup.Application;
 import info.openrocket.core.util.BugException;
 import info.openrocket.core.util.Pair;
@@ -55,7 +56,9 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 	
 	@Override
 	protected void loadDatabase() {
-		loadSerializedMotorDatabase();
+		if (!loadMotorSnapshot()) {
+			loadSerializedMotorDatabase();
+		}
 		loadUserDefinedMotors();
 	}
 
@@ -81,6 +84,45 @@ public class MotorDatabaseLoader extends AsynchronousDatabaseLoader {
 	}
 
 
+	/**
+	 * Loads the built-in motors from the binary motor snapshots in the thrust curve directory.
+	 * The thrust curves of the motors are decoded only when first used.
+	 *
+	 * @return	whether any snapshot was found and loaded
+	 */
+	private boolean loadMotorSnapshot() {
+		log.info("Starting reading motor snapshot");
+		FileIterator iterator = DirectoryIterator.findDirectory(THRUSTCURVE_DIRECTORY,
+				new SimpleFileFilter("", false, ThrustCurveMotorSnapshot.EXTENSION));
+		if (iterator == null) {
+			return false;
+		}
+		boolean loaded = false;
+		while (iterator.hasNext()) {
+			Pair<File, InputStream> f = iterator.next();
+			try {
+				log.debug("Reading motor snapshot " + f.getU().getPath());
+				List<ThrustCurveMotor> motors;
+				if (f.getU().isFile()) {
+					motors = ThrustCurveMotorSnapshot.read(f.getU());
+				} else {
+					motors = ThrustCurveMotorSnapshot.read(f.getV());
+				}
+				addMotors(motors);
+				loaded = true;
+			} catch (IOException e) {
+				log.warn("Unable to read motor snapshot " + f.getU() + ": " + e);
+			} finally {
+				try {
+					f.getV().close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		log.info("Ending reading motor snapshot, motorCount=" + motorCount);
+		return loaded;
+	}
+
 	/**
 	 * Loads the default, with established serialized manufacturing and data
 	 * uses directory "datafiles/thrustcurves" for data  
@@ -1,26 +1,61 @@
 package info.openrocket.core.database.motor;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import info.openrocket.core.motor.Manufacturer;
 import info.openrocket.core.motor.Motor;
 import info.openrocket.core.motor.ThrustCurveMotor;
 
 /**
  * A database containing ThrustCurveMotorSet objects and allowing adding a motor
  * to the database.
- * 
+ * <p>
+ * The motor sets are indexed by the digests of their motors, by manufacturer and
+ * designation, and by diameter and length, so that adding a motor and searching for
+ * motors do not need to scan the whole database.
+ *
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
 public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	private static final Logger log = LoggerFactory.getLogger(ThrustCurveMotorSetDatabase.class);
 
+	/** Tolerance of the diameter and length when searching for motors */
+	private static final double SIZE_TOLERANCE = 0.005;
+
+	/** Margin added to the range queries so that the tolerance checks decide the boundary cases */
+	private static final double RANGE_MARGIN = 1e-6;
+
 	private final List<ThrustCurveMotorSet> motorSets = new ArrayList<ThrustCurveMotorSet>();
 
+	/** Position of each set in motorSets, used to return results in database order */
+	private final Map<ThrustCurveMotorSet, Integer> setOrder = new IdentityHashMap<ThrustCurveMotorSet, Integer>();
+
+	/** Sets containing a motor with the given digest, keyed by their position in motorSets */
+	private final Map<String, NavigableMap<Integer, ThrustCurveMotorSet>> digestIndex =
+			new HashMap<String, NavigableMap<Integer, ThrustCurveMotorSet>>();
+
+	/** Sets by manufacturer and upper-case designation */
+	private final Map<DesignationKey, List<ThrustCurveMotorSet>> designationIndex =
+			new HashMap<DesignationKey, List<ThrustCurveMotorSet>>();
+
+	/** Sets by diameter and by length */
+	private final NavigableMap<Double, List<ThrustCurveMotorSet>> diameterIndex =
+			new TreeMap<Double, List<ThrustCurveMotorSet>>();
+	private final NavigableMap<Double, List<ThrustCurveMotorSet>> lengthIndex =
+			new TreeMap<Double, List<ThrustCurveMotorSet>>();
+
 	@Override
 	public List<ThrustCurveMotor> findMotors(String digest, Motor.Type type, String manufacturer, String designation,
 			double diameter, double length) {
@@ -28,42 +63,24 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 		ArrayList<ThrustCurveMotor> digestMatches = new ArrayList<ThrustCurveMotor>();
 		ArrayList<ThrustCurveMotor> descriptionMatches = new ArrayList<ThrustCurveMotor>();
 
+		final String upperDesignation = (designation != null) ? designation.toUpperCase() : null;
+
 		// Apply filters to see if we can find any motors that match the given criteria.
 		// We'll return
 		// the most restrictive nonempty list we find, or empty list if no matches at
 		// all
-		for (ThrustCurveMotorSet set : motorSets) {
-			for (ThrustCurveMotor m : set.getMotors()) {
-				boolean matchDescription = true;
-				boolean matchDigest = true;
-
-				// unlike the description, digest must be present in search criteria to get a
-				// match
-				if (digest == null || digest != m.getDigest())
-					matchDigest = false;
-
-				// match description
-				if (type != null && type != set.getType())
-					matchDescription = false;
-				else if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
-					matchDescription = false;
-				else if (designation != null &&
-						!m.getDesignation().toUpperCase().contains(designation.toUpperCase()) &&
-						!designation.toUpperCase().contains(m.getCommonName().toUpperCase()))
-					matchDescription = false;
-				else if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > 0.005))
-					matchDescription = false;
-				else if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > 0.005))
-					matchDescription = false;
-
-				if (matchDigest)
-					digestMatches.add(m);
-
-				if (matchDescription)
-					descriptionMatches.add(m);
 
-				if (matchDigest && matchDescription)
-					fullMatches.add(m);
+		// Motors matching the digest
+		if (digest != null) {
+			for (ThrustCurveMotorSet set : getDigestCandidates(digest)) {
+				for (ThrustCurveMotor m : set.getMotors()) {
+					if (digest.equals(m.getDigest())) {
+						digestMatches.add(m);
+						if (matchesDescription(set, m, type, manufacturer, upperDesignation, diameter, length)) {
+							fullMatches.add(m);
+						}
+					}
+				}
 			}
 		}
 
@@ -73,10 +90,112 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 		if (!digestMatches.isEmpty())
 			return digestMatches;
 
+		// Motors matching the description, limited by size if given
+		for (ThrustCurveMotorSet set : getSizeCandidates(diameter, length)) {
+			for (ThrustCurveMotor m : set.getMotors()) {
+				if (matchesDescription(set, m, type, manufacturer, upperDesignation, diameter, length)) {
+					descriptionMatches.add(m);
+				}
+			}
+		}
+
 		return descriptionMatches;
 
 	}
 
+	/**
+	 * Return whether a motor matches the description search criteria.  Criteria that are
+	 * null or NaN are ignored.
+	 */
+	private static boolean matchesDescription(ThrustCurveMotorSet set, ThrustCurveMotor m, Motor.Type type,
+			String manufacturer, String upperDesignation, double diameter, double length) {
+		if (type != null && type != set.getType())
+			return false;
+		if (manufacturer != null && !m.getManufacturer().matches(manufacturer))
+			return false;
+		if (upperDesignation != null &&
+				!m.getDesignation().toUpperCase().contains(upperDesignation) &&
+				!upperDesignation.contains(m.getCommonName().toUpperCase()))
+			return false;
+		if (!Double.isNaN(diameter) && (Math.abs(diameter - m.getDiameter()) > SIZE_TOLERANCE))
+			return false;
+		if (!Double.isNaN(length) && (Math.abs(length - m.getLength()) > SIZE_TOLERANCE))
+			return false;
+		return true;
+	}
+
+	private Collection<ThrustCurveMotorSet> getDigestCandidates(String digest) {
+		NavigableMap<Integer, ThrustCurveMotorSet> sets = digestIndex.get(digest);
+		return (sets != null) ? sets.values() : Collections.<ThrustCurveMotorSet> emptyList();
+	}
+
+	/**
+	 * Return the sets that may contain motors of the given size within the search tolerance,
+	 * in database order.
+	 */
+	private List<ThrustCurveMotorSet> getSizeCandidates(double diameter, double length) {
+		if (!Double.isNaN(diameter)) {
+			return findMotorSets(diameterIndex, diameter - SIZE_TOLERANCE - RANGE_MARGIN,
+					diameter + SIZE_TOLERANCE + RANGE_MARGIN);
+		}
+		if (!Double.isNaN(length)) {
+			return findMotorSets(lengthIndex, length - SIZE_TOLERANCE - RANGE_MARGIN,
+					length + SIZE_TOLERANCE + RANGE_MARGIN);
+		}
+		return motorSets;
+	}
+
+	/**
+	 * Return the motor sets whose diameter is within the given range, in database order.
+	 *
+	 * @param minDiameter	the minimum diameter (inclusive).
+	 * @param maxDiameter	the maximum diameter (inclusive).
+	 * @return				the matching motor sets.
+	 */
+	public List<ThrustCurveMotorSet> findMotorSetsByDiameter(double minDiameter, double maxDiameter) {
+		return findMotorSets(diameterIndex, minDiameter, maxDiameter);
+	}
+
+	/**
+	 * Return the motor sets whose length is within the given range, in database order.
+	 *
+	 * @param minLength	the minimum length (inclusive).
+	 * @param maxLength	the maximum length (inclusive).
+	 * @return			the matching motor sets.
+	 */
+	public List<ThrustCurveMotorSet> findMotorSetsByLength(double minLength, double maxLength) {
+		return findMotorSets(lengthIndex, minLength, maxLength);
+	}
+
+	/**
+	 * Return the motor sets of the given manufacturer and designation.  The designation is
+	 * compared ignoring case.
+	 *
+	 * @param manufacturer	the manufacturer.
+	 * @param designation	the motor designation.
+	 * @return				the matching motor sets, in database order.
+	 */
+	public List<ThrustCurveMotorSet> findMotorSets(Manufacturer manufacturer, String designation) {
+		List<ThrustCurveMotorSet> sets = designationIndex.get(new DesignationKey(manufacturer, designation));
+		if (sets == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(sets);
+	}
+
+	private List<ThrustCurveMotorSet> findMotorSets(NavigableMap<Double, List<ThrustCurveMotorSet>> index,
+			double min, double max) {
+		if (!(min <= max)) {
+			return Collections.emptyList();
+		}
+		List<ThrustCurveMotorSet> result = new ArrayList<ThrustCurveMotorSet>();
+		for (List<ThrustCurveMotorSet> sets : index.subMap(min, true, max, true).values()) {
+			result.addAll(sets);
+		}
+		result.sort((s1, s2) -> Integer.compare(setOrder.get(s1), setOrder.get(s2)));
+		return result;
+	}
+
 	/**
 	 * Return a list of all ThrustCurveMotorSets.
 	 */
@@ -89,23 +208,87 @@ public class ThrustCurveMotorSetDatabase implements MotorDatabase {
 	 * the motor is added to that set, otherwise a new set is created and added to
 	 * the
 	 * database.
-	 * 
+	 *
 	 * @param motor the motor to add
 	 */
 	public void addMotor(ThrustCurveMotor motor) {
-		// Iterate from last to first, as this is most likely to hit early when loading
-		// files
-		for (int i = motorSets.size() - 1; i >= 0; i--) {
-			ThrustCurveMotorSet set = motorSets.get(i);
-			if (set.matches(motor)) {
-				set.addMotor(motor);
-				return;
+		List<ThrustCurveMotorSet> candidates = designationIndex.get(
+				new DesignationKey(motor.getManufacturer(), motor.getDesignation()));
+
+		ThrustCurveMotorSet target = null;
+		if (candidates != null) {
+			// Iterate from last to first, as this is most likely to hit early when loading
+			// files
+			for (int i = candidates.size() - 1; i >= 0; i--) {
+				ThrustCurveMotorSet set = candidates.get(i);
+				if (set.matches(motor)) {
+					target = set;
+					break;
+				}
 			}
 		}
 
-		ThrustCurveMotorSet newSet = new ThrustCurveMotorSet();
-		newSet.addMotor(motor);
-		motorSets.add(newSet);
+		if (target == null) {
+			target = new ThrustCurveMotorSet();
+			target.addMotor(motor);
+			addSet(target);
+		} else {
+			target.addMotor(motor);
+		}
+
+		digestIndex.computeIfAbsent(motor.getDigest(), k -> new TreeMap<Integer, ThrustCurveMotorSet>())
+				.put(setOrder.get(target), target);
+	}
+
+	/**
+	 * Add a collection of motors to the database.
+	 *
+	 * @param motors the motors to add
+	 */
+	public void addMotors(Collection<ThrustCurveMotor> motors) {
+		for (ThrustCurveMotor motor : motors) {
+			addMotor(motor);
+		}
+		log.debug("Added " + motors.size() + " motors, database contains " + motorSets.size() + " motor sets");
+	}
+
+	private void addSet(ThrustCurveMotorSet set) {
+		setOrder.put(set, motorSets.size());
+		motorSets.add(set);
+		designationIndex.computeIfAbsent(new DesignationKey(set.getManufacturer(), set.getDesignation()),
+				k -> new ArrayList<ThrustCurveMotorSet>(1)).add(set);
+		diameterIndex.computeIfAbsent(set.getDiameter(), k -> new ArrayList<ThrustCurveMotorSet>(1)).add(set);
+		lengthIndex.computeIfAbsent(set.getLength(), k -> new ArrayList<ThrustCurveMotorSet>(1)).add(set);
+	}
+
+
+	/**
+	 * Key of the designation index.  Motor sets match designations ignoring case, so the
+	 * designation is stored in upper case.
+	 */
+	private static final class DesignationKey {
+		private final Manufacturer manufacturer;
+		private final String designation;
+
+		private DesignationKey(Manufacturer manufacturer, String designation) {
+			this.manufacturer = manufacturer;
+			this.designation = designation.toUpperCase(Locale.ROOT);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof DesignationKey))
+				return false;
+			DesignationKey other = (DesignationKey) obj;
+			return manufacturer == other.manufacturer && designation.equals(other.designation);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(manufacturer) * 31 + designation.hashCode();
+		}
 	}
 
 }
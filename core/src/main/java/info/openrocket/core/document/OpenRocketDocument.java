@@ -48,6 +48,12 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 	 * UNDO_LEVELS by this amount the undo is purged to that length.
 	 */
 	public static final int UNDO_MARGIN = 10;
+	/**
+	 * The default maximum number of component copies stored in the undo history.  Unchanged
+	 * components are shared between undo levels, so this mainly limits the history of large
+	 * edits.  The oldest undo levels are purged while the limit is exceeded.
+	 */
+	public static final int UNDO_COMPONENT_LIMIT = 20000;
 	
 	public static final String SIMULATION_NAME_PREFIX = "Simulation ";
 	
@@ -68,9 +74,9 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 	
 	/** 
 	 * The undo history of the rocket.   Whenever a new undo position is created while the
-	 * rocket is in "dirty" state, the rocket is copied here.
+	 * rocket is in "dirty" state, a snapshot of the rocket is stored here.
 	 */
-	private final LinkedList<Rocket> undoHistory = new LinkedList<Rocket>();
+	private final LinkedList<RocketSnapshot> undoHistory = new LinkedList<RocketSnapshot>();
 	private final LinkedList<String> undoDescription = new LinkedList<String>();
 	
 	/**
@@ -79,6 +85,10 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 	 * "clean" state.
 	 */
 	private int undoPosition = -1; // Illegal position, init in constructor
+
+	/** Limits of the undo history, see {@link #maintainMaximumUndoSize()} */
+	private int undoLevels = prefs.getInt(Preferences.UNDO_LEVELS, UNDO_LEVELS);
+	private int undoComponentLimit = prefs.getInt(Preferences.UNDO_COMPONENT_LIMIT, UNDO_COMPONENT_LIMIT);
 	
 	/**
 	 * The description of the next action that modifies this rocket.
@@ -512,16 +522,64 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 	}
 
 	/**
-	 * 
+	 * Purge the oldest undo levels when the history exceeds the maximum number of undo
+	 * levels by the margin, or stores more component copies than allowed.
 	 */
 	private void maintainMaximumUndoSize() {
-		if (undoHistory.size() > UNDO_LEVELS + UNDO_MARGIN && undoPosition > UNDO_MARGIN) {
+		if (undoHistory.size() > undoLevels + UNDO_MARGIN && undoPosition > UNDO_MARGIN) {
 			for (int i = 0; i < UNDO_MARGIN; i++) {
-				undoHistory.removeFirst();
-				undoDescription.removeFirst();
-				undoPosition--;
+				removeOldestUndoLevel();
 			}
 		}
+		final int excess = RocketSnapshot.getExcessSnapshotCount(undoHistory, undoComponentLimit, undoPosition);
+		for (int i = 0; i < excess; i++) {
+			removeOldestUndoLevel();
+		}
+	}
+
+	private void removeOldestUndoLevel() {
+		undoHistory.removeFirst();
+		undoDescription.removeFirst();
+		undoPosition--;
+	}
+
+	/**
+	 * Return the minimum number of undo levels that are stored.
+	 */
+	public int getUndoLevels() {
+		return undoLevels;
+	}
+
+	/**
+	 * Set the minimum number of undo levels that are stored.  The history is purged by
+	 * {@link #UNDO_MARGIN} levels at a time when this is exceeded.
+	 *
+	 * @param levels	the number of undo levels.
+	 */
+	public void setUndoLevels(int levels) {
+		this.undoLevels = Math.max(levels, 1);
+		maintainMaximumUndoSize();
+		fireUndoRedoChangeEvent();
+	}
+
+	/**
+	 * Return the maximum number of component copies stored in the undo history.
+	 */
+	public int getUndoComponentLimit() {
+		return undoComponentLimit;
+	}
+
+	/**
+	 * Set the maximum number of component copies stored in the undo history.  Components
+	 * that did not change between undo levels are shared and counted only once.  The
+	 * current undo position is always kept, even if it exceeds the limit alone.
+	 *
+	 * @param count	the maximum number of stored component copies.
+	 */
+	public void setUndoComponentLimit(int count) {
+		this.undoComponentLimit = Math.max(count, 0);
+		maintainMaximumUndoSize();
+		fireUndoRedoChangeEvent();
 	}
 
 	/**
@@ -529,7 +587,7 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 	 */
 	private void addStateToUndoHistory(String description) {
 		// Add the current state to the undo history
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(RocketSnapshot.create(rocket));
 		undoDescription.add(null);
 		nextDescription = description;
 		undoPosition++;
@@ -618,7 +676,7 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 		undoHistory.clear();
 		undoDescription.clear();
 		
-		undoHistory.add(rocket.copyWithOriginalID());
+		undoHistory.add(RocketSnapshot.create(rocket));
 		undoDescription.add(null);
 		undoPosition = 0;
 		
@@ -739,12 +797,12 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 				logUndoError("undo position inconsistency");
 			}
 			// Modifications have been made, save the state and restore previous state
-			undoHistory.add(rocket.copyWithOriginalID());
+			undoHistory.add(RocketSnapshot.create(rocket));
 			undoDescription.add(null);
 		}
 		
 		rocket.checkComponentStructure();
-		rocket.loadFrom(undoHistory.get(undoPosition));
+		undoHistory.get(undoPosition).restore(rocket);
 		rocket.checkComponentStructure();
 	}
 	
@@ -766,7 +824,7 @@ public class OpenRocketDocument implements ComponentChangeListener, StateChangeL
 		
 		undoPosition++;
 		
-		rocket.loadFrom(undoHistory.get(undoPosition).copyWithOriginalID());
+		undoHistory.get(undoPosition).restore(rocket);
 	}
 	
 	
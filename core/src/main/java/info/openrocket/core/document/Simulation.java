@@ -20,7 +20,6 @@ import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.simulation.BasicEventSimulationEngine;
 import info.openrocket.core.simulation.DefaultSimulationOptionFactory;
 import info.openrocket.core.simulation.FlightData;
-import info.openrocket.core.simulation.RK4SimulationStepper;
 import info.openrocket.core.simulation.SimulationConditions;
 import info.openrocket.core.simulation.SimulationEngine;
 import info.openrocket.core.simulation.SimulationOptions;
@@ -87,7 +86,8 @@ public class Simulation implements ChangeSource, Cloneable {
 	
 	
 	private final Class<? extends SimulationEngine> simulationEngineClass = BasicEventSimulationEngine.class;
-	private Class<? extends SimulationStepper> simulationStepperClass = RK4SimulationStepper.class;
+	/** The flight stepper class overriding the integration method of the options, or null */
+	private Class<? extends SimulationStepper> simulationStepperClass = null;
 	private Class<? extends AerodynamicCalculator> aerodynamicCalculatorClass = BarrowmanCalculator.class;
 	@SuppressWarnings("unused")
 	private final Class<? extends MassCalculator> massCalculatorClass = MassCalculator.class;
@@ -259,6 +259,61 @@ public class Simulation implements ChangeSource, Cloneable {
 	}
 	
 	
+	/**
+	 * Return the class of the stepper used for the free flight phase of the simulation.
+	 * Unless set with {@link #setSimulationStepperClass(Class)}, this is the stepper of the
+	 * integration method selected in the simulation options.
+	 */
+	public Class<? extends SimulationStepper> getSimulationStepperClass() {
+		mutex.verify();
+		if (simulationStepperClass != null) {
+			return simulationStepperClass;
+		}
+		return options.getIntegrationMethod().getStepperClass();
+	}
+	
+	/**
+	 * Set the class of the stepper used for the free flight phase of the simulation,
+	 * for example {@link info.openrocket.core.simulation.BufferedRK4SimulationStepper}.
+	 * The class overrides the integration method of the simulation options, unless it
+	 * is null.
+	 */
+	public void setSimulationStepperClass(Class<? extends SimulationStepper> simulationStepperClass) {
+		mutex.verify();
+		this.simulationStepperClass = simulationStepperClass;
+	}
+	
+	/**
+	 * Return the class of the aerodynamic calculator used by the simulation.
+	 */
+	public Class<? extends AerodynamicCalculator> getAerodynamicCalculatorClass() {
+		mutex.verify();
+		return aerodynamicCalculatorClass;
+	}
+	
+	/**
+	 * Set the class of the aerodynamic calculator used by the simulation, for example
+	 * {@link info.openrocket.core.aerodynamics.TabulatedAerodynamicCalculator}.  The class
+	 * must have a public no-argument constructor.
+	 */
+	public void setAerodynamicCalculatorClass(Class<? extends AerodynamicCalculator> aerodynamicCalculatorClass) {
+		mutex.verify();
+		this.aerodynamicCalculatorClass = aerodynamicCalculatorClass;
+	}
+	
+	/**
+	 * Create a new instance of the aerodynamic calculator used by the simulation.
+	 */
+	public AerodynamicCalculator createAerodynamicCalculator() {
+		mutex.verify();
+		try {
+			return aerodynamicCalculatorClass.getConstructor().newInstance();
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+			throw new IllegalStateException("Cannot instantiate aerodynamic calculator.", e);
+		}
+	}
+	
+	
 	/**
 	 * Get the list of simulation extensions.  The returned list is the one used by
 	 * this object; changes to it will reflect changes in the simulation.
@@ -419,6 +474,8 @@ public class Simulation implements ChangeSource, Cloneable {
 
 			SimulationConditions simulationConditions = options.toSimulationConditions();
 			simulationConditions.setSimulation(this);
+			simulationConditions.setFlightStepperClass(getSimulationStepperClass());
+			simulationConditions.setAerodynamicCalculator(createAerodynamicCalculator());
 			for (SimulationListener l : additionalListeners) {
 				simulationConditions.getSimulationListenerList().add(l);
 			}
@@ -15,6 +15,8 @@ public class StorageOptions implements Cloneable {
 
 	private boolean saveSimulationData = false;
 
+	private boolean saveBinarySimulationData = false;
+
 	private boolean explicitlySet = false;
 
 	public FileType getFileType() {
@@ -33,6 +35,23 @@ public class StorageOptions implements Cloneable {
 		saveSimulationData = s;
 	}
 
+	/**
+	 * Return whether stored simulation data is written in the full precision binary format.
+	 */
+	public boolean getSaveBinarySimulationData() {
+		return saveBinarySimulationData;
+	}
+
+	/**
+	 * Set whether stored simulation data is written in the full precision binary format.  The data
+	 * points of each flight data branch are then stored losslessly as a separate compressed
+	 * entry of the file container instead of as text in the document.  This only applies
+	 * when the document is saved in a container.
+	 */
+	public void setSaveBinarySimulationData(boolean s) {
+		saveBinarySimulationData = s;
+	}
+
 	public boolean isExplicitlySet() {
 		return explicitlySet;
 	}
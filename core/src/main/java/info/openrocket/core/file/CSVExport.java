@@ -1,12 +1,22 @@
 package info.openrocket.core.file;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.DoubleBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
 
 import info.openrocket.core.logging.Warning;
 import info.openrocket.core.logging.WarningSet;
@@ -16,10 +26,48 @@ import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.FlightEvent;
 import info.openrocket.core.unit.Unit;
+import info.openrocket.core.util.BugException;
 import info.openrocket.core.util.TextUtil;
 
 public class CSVExport {
 
+	/** Number of characters collected before they are written to the stream */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	/**
+	 * A flight data branch to export into a file of its own.
+	 */
+	public static class ExportTarget {
+		private final File file;
+		private final Simulation simulation;
+		private final FlightDataBranch branch;
+
+		/**
+		 * @param file          the file to write to.
+		 * @param simulation    the simulation being exported.
+		 * @param branch        the branch to export.
+		 */
+		public ExportTarget(File file, Simulation simulation, FlightDataBranch branch) {
+			this.file = file;
+			this.simulation = simulation;
+			this.branch = branch;
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public Simulation getSimulation() {
+			return simulation;
+		}
+
+		public FlightDataBranch getBranch() {
+			return branch;
+		}
+	}
+
 	/**
 	 * Exports the specified flight data branch into a CSV file.
 	 *
@@ -44,126 +92,206 @@ public class CSVExport {
 			String commentStarter, boolean simulationComments, boolean fieldComments,
 			boolean eventComments) throws IOException {
 
+		checkFields(fields, units);
+		writeCSV(stream, simulation, branch, fields, units, fieldSeparator, decimalPlaces, isExponentialNotation,
+				commentStarter, simulationComments, fieldComments, eventComments);
+	}
+
+	/**
+	 * Exports several flight data branches into CSV files concurrently, each branch into
+	 * the file of its target.  The same fields and formatting are used for all files.
+	 *
+	 * @param targets               the branches to export and the files to write them to.
+	 * @param fields                the fields to export (in appropriate order).
+	 * @param units                 the units of the fields.
+	 * @param fieldSeparator        the field separator string.
+	 * @param decimalPlaces         the number of decimal places to use.
+	 * @param isExponentialNotation whether to use exponential notation.
+	 * @param commentStarter        the comment starting character(s).
+	 * @param simulationComments    whether to output general simulation comments.
+	 * @param fieldComments         whether to output field comments.
+	 * @param eventComments         whether to output comments for the flight
+	 *                              events.
+	 * @param compress              whether to compress the files with gzip.
+	 * @param threads               the maximum number of files written at the same time.
+	 * @return the total number of characters written, before compression.
+	 * @throws IOException if an I/O exception occurs.
+	 */
+	public static long exportCSV(List<ExportTarget> targets, FlightDataType[] fields, Unit[] units,
+			String fieldSeparator, int decimalPlaces, boolean isExponentialNotation,
+			String commentStarter, boolean simulationComments, boolean fieldComments,
+			boolean eventComments, boolean compress, int threads) throws IOException {
+
+		checkFields(fields, units);
+		if (targets.isEmpty()) {
+			return 0;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, targets.size())));
+		try {
+			List<Future<Long>> results = new ArrayList<>(targets.size());
+			for (ExportTarget target : targets) {
+				results.add(executor.submit(() -> {
+					// The file is closed even if the compressed stream cannot be created
+					try (OutputStream file = new FileOutputStream(target.getFile());
+							OutputStream stream = compress ? new GZIPOutputStream(file, BUFFER_SIZE) : file) {
+						return writeCSV(stream, target.getSimulation(), target.getBranch(), fields, units,
+								fieldSeparator, decimalPlaces, isExponentialNotation, commentStarter,
+								simulationComments, fieldComments, eventComments);
+					}
+				}));
+			}
+
+			long count = 0;
+			for (Future<Long> result : results) {
+				count += result.get();
+			}
+			return count;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("CSV export was interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new BugException("CSV export failed", cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void checkFields(FlightDataType[] fields, Unit[] units) {
 		if (fields.length != units.length) {
 			throw new IllegalArgumentException("fields and units lengths must be equal " +
 					"(" + fields.length + " vs " + units.length + ")");
 		}
+	}
 
-		PrintWriter writer = null;
-		try {
+	/**
+	 * Write a branch into a stream and close the stream.
+	 *
+	 * @return the number of characters written.
+	 */
+	private static long writeCSV(OutputStream stream, Simulation simulation,
+			FlightDataBranch branch, FlightDataType[] fields, Unit[] units,
+			String fieldSeparator, int decimalPlaces, boolean isExponentialNotation,
+			String commentStarter, boolean simulationComments, boolean fieldComments,
+			boolean eventComments) throws IOException {
 
-			writer = new PrintWriter(stream, false, StandardCharsets.UTF_8);
+		try (Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+			LineBuffer out = new LineBuffer(writer);
 
 			// Write the initial comments
 			if (simulationComments) {
-				writeSimulationComments(writer, simulation, branch, fields, commentStarter);
+				writeSimulationComments(out, simulation, branch, fields, commentStarter);
 			}
 
 			if (simulationComments && fieldComments) {
-				writer.println(commentStarter);
+				out.line.append(commentStarter);
+				out.endLine();
 			}
 
 			if (fieldComments) {
-				writer.print(commentStarter + " ");
+				out.line.append(commentStarter).append(' ');
 				for (int i = 0; i < fields.length; i++) {
-					writer.print(fields[i].getName() + " (" + units[i].getUnit() + ")");
+					out.line.append(fields[i].getName()).append(" (").append(units[i].getUnit()).append(')');
 					if (i < fields.length - 1) {
-						writer.print(fieldSeparator);
+						out.line.append(fieldSeparator);
 					}
 				}
-				writer.println();
+				out.endLine();
 			}
 
-			writeData(writer, branch, fields, units, fieldSeparator, decimalPlaces, isExponentialNotation,
+			writeData(out, branch, fields, units, fieldSeparator, decimalPlaces, isExponentialNotation,
 					eventComments, commentStarter);
 
-		} finally {
-			if (writer != null) {
-				try {
-					writer.close();
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
+			out.flush();
+			return out.count;
 		}
 	}
 
-	private static void writeData(PrintWriter writer, FlightDataBranch branch,
+	private static void writeData(LineBuffer out, FlightDataBranch branch,
 			FlightDataType[] fields, Unit[] units, String fieldSeparator, int decimalPlaces,
 			boolean isExponentialNotation,
-			boolean eventComments, String commentStarter) {
+			boolean eventComments, String commentStarter) throws IOException {
+		// Fetch the columns once instead of looking up every value
+		final DoubleBuffer[] columns = new DoubleBuffer[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			columns[i] = branch.getBuffer(fields[i]);
+		}
+
 		// Time variable
-		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		final DoubleBuffer time = branch.getBuffer(FlightDataType.TYPE_TIME);
+		boolean hasTime = time != null;
 
 		// Number of data points
-		int n = time != null ? time.size() : branch.getLength();
+		int n = branch.getLength();
 
 		// Flight events in occurrence order
 		List<FlightEvent> events = branch.getEvents();
 		Collections.sort(events);
 		int eventPosition = 0;
 
-		// List of field values
-		List<List<Double>> fieldValues = new ArrayList<>();
-		for (FlightDataType t : fields) {
-			List<Double> values = branch.get(t);
-			fieldValues.add(values);
-		}
-
 		// If time information is not available, print events at beginning of file
-		if (eventComments && time == null) {
+		if (eventComments && !hasTime) {
 			for (FlightEvent e : events) {
-				printEvent(writer, e, commentStarter);
+				printEvent(out, e, commentStarter);
 			}
 			eventPosition = events.size();
 		}
 
 		// Loop over all data points
+		final StringBuilder line = out.line;
 		for (int pos = 0; pos < n; pos++) {
 
 			// Check for events to store
-			if (eventComments && time != null) {
+			if (eventComments && hasTime) {
 				double t = time.get(pos);
 
 				while ((eventPosition < events.size()) &&
 						(events.get(eventPosition).getTime() <= t)) {
-					printEvent(writer, events.get(eventPosition), commentStarter);
+					printEvent(out, events.get(eventPosition), commentStarter);
 					eventPosition++;
 				}
 			}
 
 			// Store CSV line
 			for (int i = 0; i < fields.length; i++) {
-				double value = fieldValues.get(i).get(pos);
-				writer.print(TextUtil.doubleToString(units[i].toUnit(value), decimalPlaces, isExponentialNotation));
+				double value = (columns[i] != null) ? columns[i].get(pos) : Double.NaN;
+				TextUtil.appendDouble(line, units[i].toUnit(value), decimalPlaces, isExponentialNotation);
 
 				if (i < fields.length - 1) {
-					writer.print(fieldSeparator);
+					line.append(fieldSeparator);
 				}
 			}
-			writer.println();
+			out.endLine();
 
 		}
 
 		// Store any remaining events
-		if (eventComments && time != null) {
+		if (eventComments && hasTime) {
 			while (eventPosition < events.size()) {
-				printEvent(writer, events.get(eventPosition), commentStarter);
+				printEvent(out, events.get(eventPosition), commentStarter);
 				eventPosition++;
 			}
 		}
 
 	}
 
-	private static void printEvent(PrintWriter writer, FlightEvent e,
-			String commentStarter) {
-		writer.println(commentStarter + " Event " + e.getType().name() +
-				" occurred at t=" + TextUtil.doubleToString(e.getTime()) + " seconds");
+	private static void printEvent(LineBuffer out, FlightEvent e,
+			String commentStarter) throws IOException {
+		out.line.append(commentStarter).append(" Event ").append(e.getType().name())
+				.append(" occurred at t=").append(TextUtil.doubleToString(e.getTime())).append(" seconds");
+		out.endLine();
 	}
 
-	private static void writeSimulationComments(PrintWriter writer,
+	private static void writeSimulationComments(LineBuffer out,
 			Simulation simulation, FlightDataBranch branch, FlightDataType[] fields,
-			String commentStarter) {
+			String commentStarter) throws IOException {
 
 		String line;
 
@@ -193,22 +321,61 @@ public class CSVExport {
 				break;
 		}
 
-		writer.println(commentStarter + " " + line);
+		out.println(commentStarter + " " + line);
 
-		writer.println(commentStarter + " " + branch.getLength() + " data points written for "
+		out.println(commentStarter + " " + branch.getLength() + " data points written for "
 				+ fields.length + " variables.");
 
 		if (data == null) {
-			writer.println(commentStarter + " No simulation data available.");
+			out.println(commentStarter + " No simulation data available.");
 			return;
 		}
 		WarningSet warnings = data.getWarningSet();
 
 		if (!warnings.isEmpty()) {
-			writer.println(commentStarter + " Simulation warnings:");
+			out.println(commentStarter + " Simulation warnings:");
 			for (Warning w : warnings) {
-				writer.println(commentStarter + "   " + w.toString());
+				out.println(commentStarter + "   " + w.toString());
+			}
+		}
+	}
+
+	/**
+	 * Collects the lines of the export in a reusable buffer and writes them to the
+	 * writer in large blocks.
+	 */
+	private static final class LineBuffer {
+		private final Writer writer;
+		/** The characters not yet written, ending with the line being formatted */
+		private final StringBuilder line = new StringBuilder(BUFFER_SIZE + 1024);
+		private char[] chars = new char[BUFFER_SIZE + 1024];
+		private long count = 0;
+
+		LineBuffer(Writer writer) {
+			this.writer = writer;
+		}
+
+		void println(String text) throws IOException {
+			line.append(text);
+			endLine();
+		}
+
+		void endLine() throws IOException {
+			line.append(LINE_SEPARATOR);
+			if (line.length() >= BUFFER_SIZE) {
+				flush();
+			}
+		}
+
+		void flush() throws IOException {
+			final int length = line.length();
+			if (chars.length < length) {
+				chars = new char[length];
 			}
+			line.getChars(0, length, chars, 0);
+			writer.write(chars, 0, length);
+			count += length;
+			line.setLength(0);
 		}
 	}
 
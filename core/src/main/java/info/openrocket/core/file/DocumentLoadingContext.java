@@ -1,5 +1,10 @@
 package info.openrocket.core.file;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import info.openrocket.core.document.OpenRocketDocument;
 
 public class DocumentLoadingContext {
@@ -8,6 +13,8 @@ public class DocumentLoadingContext {
 	private MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory = new FileSystemAttachmentFactory();
 	private OpenRocketDocument document;
+	private boolean deferSimulationData = false;
+	private final Map<String, EntryReader> entryReaders = new LinkedHashMap<>();
 
 	public int getFileVersion() {
 		return fileVersion;
@@ -41,4 +48,55 @@ public class DocumentLoadingContext {
 		this.attachmentFactory = attachmentFactory;
 	}
 
+	/**
+	 * Return whether the data points of stored simulation data are decoded lazily,
+	 * see {@link GeneralRocketLoader#setDeferSimulationData(boolean)}.
+	 */
+	public boolean isDeferSimulationData() {
+		return deferSimulationData;
+	}
+
+	public void setDeferSimulationData(boolean deferSimulationData) {
+		this.deferSimulationData = deferSimulationData;
+	}
+
+	/**
+	 * Register a reader for an entry of the ZIP container that is referenced from the
+	 * document.  The entries are read after the document itself has been loaded.
+	 * 
+	 * @param name		the name of the entry within the container.
+	 * @param reader	the reader of the entry.
+	 */
+	public void addEntryReader(String name, EntryReader reader) {
+		entryReaders.put(name, reader);
+	}
+
+	/**
+	 * Return the readers of the container entries referenced from the document, by entry name.
+	 * Readers are removed from the map once their entry has been read.
+	 */
+	public Map<String, EntryReader> getEntryReaders() {
+		return entryReaders;
+	}
+
+	/**
+	 * Reader of an entry of the ZIP container that is referenced from the document.
+	 */
+	public interface EntryReader {
+
+		/**
+		 * Read the contents of the entry.
+		 * 
+		 * @param in	the stream of the entry contents.
+		 * @throws IOException	if an I/O error occurs or the contents are invalid.
+		 */
+		void read(InputStream in) throws IOException;
+
+		/**
+		 * Called instead of {@link #read(InputStream)} when the entry cannot be read, or the
+		 * document is not stored in a container.
+		 */
+		void missing();
+	}
+
 }
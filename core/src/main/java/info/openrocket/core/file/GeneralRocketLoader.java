@@ -8,6 +8,7 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -20,6 +21,7 @@ import info.openrocket.core.file.rasaero.importt.RASAeroLoader;
 import info.openrocket.core.file.rocksim.importt.RockSimLoader;
 import info.openrocket.core.util.ArrayUtils;
 import info.openrocket.core.util.TextUtil;
+import info.openrocket.core.util.UncloseableInputStream;
 
 /**
  * A rocket loader that auto-detects the document type and uses the appropriate
@@ -51,6 +53,8 @@ public class GeneralRocketLoader {
 
 	private final MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory;
+	private boolean deferSimulationData = false;
+	private DocumentLoadingContext context;
 	private final OpenRocketDocument doc = OpenRocketDocumentFactory.createEmptyRocket();
 
 	public GeneralRocketLoader(File file) {
@@ -96,6 +100,7 @@ public class GeneralRocketLoader {
 	public final OpenRocketDocument load(InputStream source, String fileName) throws RocketLoadException {
 		try {
 			loadStep1(source, fileName);
+			resolveMissingEntries();
 			doc.getRocket().enableEvents();
 			return doc;
 		} catch (Exception e) {
@@ -107,6 +112,19 @@ public class GeneralRocketLoader {
 		return warnings;
 	}
 
+	/**
+	 * Set whether the data points of simulations stored in OpenRocket files are decoded
+	 * lazily.  When enabled, the document is returned as soon as the file has been read,
+	 * and the stored data points are decoded in parallel by background threads or when
+	 * they are first accessed, whichever comes first.  The default is to decode the
+	 * data points while reading the file.
+	 * 
+	 * @param deferSimulationData	whether to decode the simulation data lazily.
+	 */
+	public void setDeferSimulationData(boolean deferSimulationData) {
+		this.deferSimulationData = deferSimulationData;
+	}
+
 	/**
 	 * This method determines the type file contained in the stream then calls the
 	 * appropriate loading mechanism.
@@ -163,7 +181,9 @@ public class GeneralRocketLoader {
 				throw new RocketLoadException("Unsupported or corrupt file.");
 			}
 			if (entry.getName().matches(".*\\.[oO][rR][kK]$")) {
-				loadRocket(in, fileName);
+				// The XML parser closes its input, which must not close the container
+				loadRocket(new UncloseableInputStream(in), fileName);
+				readEntries(in);
 			} else if (entry.getName().matches(".*\\.[rR][kK][tT]$")) {
 				loadRocket(in, fileName);
 			} else if (entry.getName().matches(".*\\.[cC][dD][xX]1$")) {
@@ -227,6 +247,42 @@ public class GeneralRocketLoader {
 
 	}
 
+	/**
+	 * Read the entries of the container following the document that were registered
+	 * in the loading context.  The entries are read sequentially from the stream,
+	 * stopping when all of them have been read.
+	 */
+	private void readEntries(ZipInputStream in) throws IOException {
+		final Map<String, DocumentLoadingContext.EntryReader> readers = context.getEntryReaders();
+		ZipEntry entry;
+		while (!readers.isEmpty() && (entry = in.getNextEntry()) != null) {
+			final DocumentLoadingContext.EntryReader reader = readers.remove(entry.getName());
+			if (reader == null) {
+				continue;
+			}
+			try {
+				reader.read(in);
+			} catch (IOException e) {
+				warnings.add("Unable to read stored simulation data, ignoring.");
+				reader.missing();
+			}
+		}
+	}
+
+	/**
+	 * Inform the readers of entries that were not found in the container.
+	 */
+	private void resolveMissingEntries() {
+		if (context == null || context.getEntryReaders().isEmpty()) {
+			return;
+		}
+		warnings.add("Stored simulation data not found, ignoring.");
+		for (DocumentLoadingContext.EntryReader reader : context.getEntryReaders().values()) {
+			reader.missing();
+		}
+		context.getEntryReaders().clear();
+	}
+
 	private void setAttachmentFactory() {
 		attachmentFactory = new FileSystemAttachmentFactory(null);
 		if (jarURL != null && isContainer) {
@@ -245,10 +301,11 @@ public class GeneralRocketLoader {
 
 	private void loadUsing(RocketLoader loader, InputStream source, String fileName) throws RocketLoadException {
 		warnings.clear();
-		DocumentLoadingContext context = new DocumentLoadingContext();
+		context = new DocumentLoadingContext();
 		context.setOpenRocketDocument(doc);
 		context.setMotorFinder(motorFinder);
 		context.setAttachmentFactory(attachmentFactory);
+		context.setDeferSimulationData(deferSimulationData);
 		loader.load(context, source, fileName);
 		warnings.addAll(loader.getWarnings());
 	}
@@ -7,6 +7,8 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.zip.ZipEntry;
@@ -18,6 +20,7 @@ import info.openrocket.core.appearance.DecalImage;
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.document.StorageOptions;
 import info.openrocket.core.document.StorageOptions.FileType;
+import info.openrocket.core.file.openrocket.BinaryFlightData;
 import info.openrocket.core.file.openrocket.OpenRocketSaver;
 import info.openrocket.core.file.rasaero.export.RASAeroSaver;
 import info.openrocket.core.file.rocksim.export.RockSimSaver;
@@ -25,6 +28,7 @@ import info.openrocket.core.logging.ErrorSet;
 import info.openrocket.core.logging.WarningSet;
 import info.openrocket.core.rocketcomponent.InsideColorComponent;
 import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.util.DecalNotFoundException;
 import info.openrocket.core.util.MathUtil;
 
@@ -217,9 +221,17 @@ public class GeneralRocketSaver {
 
 			ZipEntry mainFile = new ZipEntry("rocket.ork");
 			zos.putNextEntry(mainFile);
-			saveInternal(zos, document, options);
+			Map<String, FlightDataBranch> dataEntries = saveInternal(zos, document, options, true);
 			zos.closeEntry();
 
+			// Write the simulation data stored separately, directly after the document
+			// so that it can be read sequentially when loading
+			for (Map.Entry<String, FlightDataBranch> e : dataEntries.entrySet()) {
+				zos.putNextEntry(new ZipEntry(e.getKey()));
+				BinaryFlightData.write(e.getValue(), e.getValue().getTypes(), zos);
+				zos.closeEntry();
+			}
+
 			// Now we write out all the decal images files.
 			for (DecalImage image : decals) {
 				if (image.isIgnored()) {
@@ -251,6 +263,18 @@ public class GeneralRocketSaver {
 
 	private void saveInternal(OutputStream output, OpenRocketDocument document, StorageOptions options)
 			throws IOException {
+		saveInternal(output, document, options, false);
+	}
+
+	/**
+	 * Save the document itself.
+	 * 
+	 * @param inContainer	whether the document is written to a ZIP container.
+	 * @return				the flight data branches to write as separate container entries,
+	 * 						by entry name.
+	 */
+	private Map<String, FlightDataBranch> saveInternal(OutputStream output, OpenRocketDocument document,
+			StorageOptions options, boolean inContainer) throws IOException {
 		warnings.clear();
 		errors.clear();
 
@@ -259,8 +283,12 @@ public class GeneralRocketSaver {
 		} else if (options.getFileType() == FileType.RASAERO) {
 			new RASAeroSaver().save(output, document, options, warnings, errors);
 		} else {
-			new OpenRocketSaver().save(output, document, options, warnings, errors);
+			OpenRocketSaver saver = new OpenRocketSaver();
+			saver.setDataEntriesSupported(inContainer);
+			saver.save(output, document, options, warnings, errors);
+			return saver.getDataEntries();
 		}
+		return Collections.emptyMap();
 	}
 
 	/**
@@ -0,0 +1,189 @@
+package info.openrocket.core.file.openrocket;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+
+/**
+ * Binary columnar encoding of the data points of a flight data branch, stored as a separate
+ * entry of the ZIP container of an OpenRocket file.  The entry is referenced from the
+ * <code>data</code> attribute of the <code>databranch</code> element, which also lists
+ * the types of the columns.
+ * <p>
+ * The entry starts with a header of four little-endian integers: the magic number,
+ * the format version, the number of columns and the number of data points.  The header is
+ * followed by the values of each column.  Each value is predicted by extrapolating the
+ * previous values of the column with a polynomial of degree 0, 1 or 2, and encoded as the
+ * difference between the raw bit pattern of the value and that of the prediction, which stores
+ * the values exactly.  The differences are zigzag encoded, so that small negative differences
+ * have leading zero bits, and their bytes are stored in planes, first the least significant
+ * byte of every value of the column, then the next byte and so on.  For smoothly varying data
+ * the high bytes are mostly zero, so the planes compress well.  Each column starts with a
+ * byte giving the degree of its predictor, chosen by the writer to minimize the number of
+ * significant bits of the differences.
+ * <p>
+ * The values are stored at full precision, so the entries are typically larger than the
+ * rounded values of the XML data points, even though they are compressed.
+ */
+public final class BinaryFlightData {
+
+	/** Directory of the simulation data entries within the container */
+	public static final String ENTRY_PREFIX = "simdata/";
+
+	private static final int MAGIC = 0x4446524f; // "ORFD"
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 16;
+	/** Maximum degree of the predictor polynomial */
+	private static final int MAX_DEGREE = 2;
+
+	private BinaryFlightData() {
+	}
+
+	/**
+	 * Write the data points of a branch.
+	 *
+	 * @param branch	the branch.
+	 * @param types		the types of the columns to write, in order.
+	 * @param out		the stream to write to.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static void write(FlightDataBranch branch, FlightDataType[] types, OutputStream out) throws IOException {
+		final int length = branch.getLength();
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(types.length).putInt(length);
+		out.write(header.array());
+
+		final double[] column = new double[length];
+		final byte[] bytes = new byte[length * Long.BYTES];
+		for (FlightDataType type : types) {
+			final DoubleBuffer values = branch.getBuffer(type);
+			for (int i = 0; i < length; i++) {
+				column[i] = (values != null) ? values.get(i) : Double.NaN;
+			}
+
+			// Choose the predictor with the fewest significant bits of the differences
+			int degree = 0;
+			long minBits = Long.MAX_VALUE;
+			for (int d = 0; d <= MAX_DEGREE; d++) {
+				long bits = 0;
+				for (int i = 0; i < length; i++) {
+					bits += Long.SIZE - Long.numberOfLeadingZeros(encode(column, i, d));
+				}
+				if (bits < minBits) {
+					minBits = bits;
+					degree = d;
+				}
+			}
+
+			for (int i = 0; i < length; i++) {
+				final long delta = encode(column, i, degree);
+				for (int b = 0; b < Long.BYTES; b++) {
+					bytes[b * length + i] = (byte) (delta >>> (8 * b));
+				}
+			}
+			out.write(degree);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Read the data points of a branch.
+	 *
+	 * @param in			the stream to read from.
+	 * @param columnCount	the expected number of columns.
+	 * @return				the values of each column.
+	 * @throws IOException	if an I/O error occurs or the data is not valid.
+	 */
+	public static double[][] read(InputStream in, int columnCount) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		readFully(in, header.array());
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Invalid simulation data entry");
+		}
+		final int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported simulation data version " + version);
+		}
+		if (header.getInt() != columnCount) {
+			throw new IOException("Simulation data entry does not match the data types");
+		}
+		final int length = header.getInt();
+		if (length < 0 || length > Integer.MAX_VALUE / Long.BYTES) {
+			throw new IOException("Invalid simulation data entry");
+		}
+
+		final double[][] columns = new double[columnCount][];
+		final byte[] bytes = new byte[length * Long.BYTES];
+		for (int c = 0; c < columnCount; c++) {
+			final int degree = in.read();
+			if (degree < 0) {
+				throw new EOFException("Unexpected end of simulation data");
+			}
+			if (degree > MAX_DEGREE) {
+				throw new IOException("Invalid simulation data entry");
+			}
+			readFully(in, bytes);
+			final double[] column = new double[length];
+			for (int i = 0; i < length; i++) {
+				long delta = 0;
+				for (int b = 0; b < Long.BYTES; b++) {
+					delta |= (bytes[b * length + i] & 0xffL) << (8 * b);
+				}
+				delta = (delta >>> 1) ^ -(delta & 1);
+				column[i] = Double.longBitsToDouble(predict(column, i, degree) + delta);
+			}
+			columns[c] = column;
+		}
+		return columns;
+	}
+
+	/**
+	 * Return the zigzag encoded difference between the bit patterns of a value and its prediction.
+	 */
+	private static long encode(double[] column, int i, int degree) {
+		final long delta = Double.doubleToRawLongBits(column[i]) - predict(column, i, degree);
+		return (delta << 1) ^ (delta >> 63);
+	}
+
+	/**
+	 * Return the bit pattern of the value predicted from the preceding values of a column.
+	 * The prediction uses only the values before the index, so the reader computes it from
+	 * the values it has already decoded.  NaN predictions have their canonical bit pattern.
+	 */
+	private static long predict(double[] column, int i, int degree) {
+		degree = Math.min(degree, i - 1);
+		final double prediction;
+		switch (degree) {
+			case 2:
+				prediction = 3 * column[i - 1] - 3 * column[i - 2] + column[i - 3];
+				break;
+			case 1:
+				prediction = 2 * column[i - 1] - column[i - 2];
+				break;
+			case 0:
+				prediction = column[i - 1];
+				break;
+			default:
+				return 0;
+		}
+		return Double.doubleToLongBits(prediction);
+	}
+
+	private static void readFully(InputStream in, byte[] bytes) throws IOException {
+		int position = 0;
+		while (position < bytes.length) {
+			final int count = in.read(bytes, position, bytes.length - position);
+			if (count < 0) {
+				throw new EOFException("Unexpected end of simulation data");
+			}
+			position += count;
+		}
+	}
+}
@@ -25,6 +25,7 @@ import info.openrocket.core.simulation.FlightData;
 import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.FlightEvent;
+import info.openrocket.core.simulation.IntegrationMethod;
 import info.openrocket.core.simulation.SimulationOptions;
 import info.openrocket.core.simulation.customexpression.CustomExpression;
 import info.openrocket.core.simulation.extension.SimulationExtension;
@@ -57,11 +58,39 @@ public class OpenRocketSaver extends RocketSaver {
 	private static final int BYTES_PER_COMPONENT_COMPRESSED = 80;
 	private static final int BYTES_PER_SIMULATION_COMPRESSED = 100;
 	private static final int BYTES_PER_DATAPOINT_COMPRESSED = 100;
+	private static final int BYTES_PER_DATAPOINT_BINARY = 140;
 	
 	
 	private int indent;
 	private Writer dest;
 	
+	// Whether the document is written to a container that can hold separate data entries
+	private boolean dataEntriesSupported = false;
+	// Branches whose data points are written as separate entries, by entry name, or null
+	private Map<String, FlightDataBranch> dataEntries = null;
+	
+	/**
+	 * Set whether the document is written to a container that can hold the simulation data
+	 * as separate binary entries.  If enabled and the storage options request binary simulation
+	 * data, the data points are not written to the document, but the branches are listed in
+	 * {@link #getDataEntries()} after saving.  The caller must then write each of them to
+	 * the container using {@link BinaryFlightData#write(FlightDataBranch, FlightDataType[], OutputStream)}.
+	 * 
+	 * @param supported	whether separate data entries are supported.
+	 */
+	public void setDataEntriesSupported(boolean supported) {
+		this.dataEntriesSupported = supported;
+	}
+	
+	/**
+	 * Return the branches whose data points must be written as separate container entries,
+	 * by entry name, in the order they were referenced.  The columns of each entry are the
+	 * types of the branch as returned by {@link FlightDataBranch#getTypes()}.
+	 */
+	public Map<String, FlightDataBranch> getDataEntries() {
+		return dataEntries != null ? dataEntries : Collections.<String, FlightDataBranch>emptyMap();
+	}
+	
 	@Override
 	public void save(OutputStream output, OpenRocketDocument document, StorageOptions options, WarningSet warnings, ErrorSet errors) throws IOException {
 		
@@ -77,6 +106,8 @@ public class OpenRocketSaver extends RocketSaver {
 		
 		
 		this.indent = 0;
+		this.dataEntries = (dataEntriesSupported && options.getSaveBinarySimulationData()) ?
+				new LinkedHashMap<String, FlightDataBranch>() : null;
 		
 		
 		writeln("<?xml version='1.0' encoding='utf-8'?>");
@@ -115,6 +146,26 @@ public class OpenRocketSaver extends RocketSaver {
 		dest.flush();
 	}
 	
+	/**
+	 * Write the rocket structure and the launch conditions of a single simulation, without
+	 * the simulation name, status or results.  The output does not form a valid .ork file, but
+	 * identifies the simulated design, and two simulations that would produce the same flight
+	 * produce the same output.
+	 * 
+	 * @param output		the stream to write to.
+	 * @param simulation	the simulation to write.
+	 */
+	public void saveSimulationDesign(OutputStream output, Simulation simulation) throws IOException {
+		dest = new BufferedWriter(new OutputStreamWriter(output, OPENROCKET_CHARSET));
+		this.indent = 0;
+		this.dataEntries = null;
+		
+		saveComponent(simulation.getRocket());
+		saveSimulationConditions(simulation);
+		
+		dest.flush();
+	}
+	
 	/*
 	 * Save all the custom expressions
 	 */
@@ -187,7 +238,11 @@ public class OpenRocketSaver extends RocketSaver {
 			}
 		}
 		
-		size += pointCount * BYTES_PER_DATAPOINT_COMPRESSED;
+		if (options.getSaveBinarySimulationData()) {
+			size += pointCount * BYTES_PER_DATAPOINT_BINARY;
+		} else {
+			size += pointCount * BYTES_PER_DATAPOINT_COMPRESSED;
+		}
 		
 		return size;
 	}
@@ -216,7 +271,23 @@ public class OpenRocketSaver extends RocketSaver {
 	private int calculateNecessaryFileVersion(OpenRocketDocument document, StorageOptions opts) {
 		/*
 		 * NOTE:  Remember to update the supported versions in DocumentConfig as well!
+		 * 
+		 * File version 1.11 is required if the simulation data points are stored
+		 * in separate binary entries.
+		 * 
+		 * Otherwise use version 1.10.
 		 */
+		
+		if (dataEntriesSupported && opts != null && opts.getSaveSimulationData()
+				&& opts.getSaveBinarySimulationData()) {
+			for (Simulation s : document.getSimulations()) {
+				FlightData data = s.getSimulatedData();
+				if (data != null && data.getBranchCount() > 0) {
+					return FILE_VERSION_DIVISOR + 11;
+				}
+			}
+		}
+		
 		return FILE_VERSION_DIVISOR + 10;
 		
 	}
@@ -306,8 +377,6 @@ public class OpenRocketSaver extends RocketSaver {
 	
 	
 	private void saveSimulation(Simulation simulation, boolean saveSimulationData) throws IOException {
-		SimulationOptions cond = simulation.getOptions();
-
 		Simulation.Status simStatus;
 		simStatus = saveSimulationData ? simulation.getStatus() : Simulation.Status.NOT_SIMULATED;
 
@@ -320,49 +389,7 @@ public class OpenRocketSaver extends RocketSaver {
 		writeln("<simulator>RK4Simulator</simulator>");
 		writeln("<calculator>BarrowmanCalculator</calculator>");
 		
-		writeln("<conditions>");
-		indent++;
-		
-		writeElement("configid", simulation.getId().key);
-		writeElement("launchrodlength", cond.getLaunchRodLength());
-		writeElement("launchrodangle", cond.getLaunchRodAngle() * 180.0 / Math.PI);
-		writeElement("launchroddirection", cond.getLaunchRodDirection() * 360.0 / (2.0 * Math.PI));
-		writeElement("windaverage", cond.getWindSpeedAverage());
-		writeElement("windturbulence", cond.getWindTurbulenceIntensity());
-		writeElement("launchaltitude", cond.getLaunchAltitude());
-		writeElement("launchlatitude", cond.getLaunchLatitude());
-		writeElement("launchlongitude", cond.getLaunchLongitude());
-		writeElement("geodeticmethod", cond.getGeodeticComputation().name().toLowerCase(Locale.ENGLISH));
-		
-		if (cond.isISAAtmosphere()) {
-			writeln("<atmosphere model=\"isa\"/>");
-		} else {
-			writeln("<atmosphere model=\"extendedisa\">");
-			indent++;
-			writeElement("basetemperature", cond.getLaunchTemperature());
-			writeElement("basepressure", cond.getLaunchPressure());
-			indent--;
-			writeln("</atmosphere>");
-		}
-		
-		writeElement("timestep", cond.getTimeStep());
-		
-		indent--;
-		writeln("</conditions>");
-		
-		for (SimulationExtension extension : simulation.getSimulationExtensions()) {
-			Config config = extension.getConfig();
-			writeln("<extension extensionid=\"" + TextUtil.escapeXML(extension.getId()) + "\">");
-			indent++;
-			if (config != null) {
-				for (String key : config.keySet()) {
-					Object value = config.get(key, null);
-					writeEntry(key, value);
-				}
-			}
-			indent--;
-			writeln("</extension>");
-		}
+		saveSimulationConditions(simulation);
 		
 		// Write basic simulation data
 		
@@ -415,6 +442,61 @@ public class OpenRocketSaver extends RocketSaver {
 		
 	}
 
+	/**
+	 * Write the launch conditions and the extensions of a simulation.
+	 */
+	private void saveSimulationConditions(Simulation simulation) throws IOException {
+		SimulationOptions cond = simulation.getOptions();
+		
+		writeln("<conditions>");
+		indent++;
+		
+		writeElement("configid", simulation.getId().key);
+		writeElement("launchrodlength", cond.getLaunchRodLength());
+		writeElement("launchrodangle", cond.getLaunchRodAngle() * 180.0 / Math.PI);
+		writeElement("launchroddirection", cond.getLaunchRodDirection() * 360.0 / (2.0 * Math.PI));
+		writeElement("windaverage", cond.getWindSpeedAverage());
+		writeElement("windturbulence", cond.getWindTurbulenceIntensity());
+		writeElement("launchaltitude", cond.getLaunchAltitude());
+		writeElement("launchlatitude", cond.getLaunchLatitude());
+		writeElement("launchlongitude", cond.getLaunchLongitude());
+		writeElement("geodeticmethod", cond.getGeodeticComputation().name().toLowerCase(Locale.ENGLISH));
+		
+		if (cond.isISAAtmosphere()) {
+			writeln("<atmosphere model=\"isa\"/>");
+		} else {
+			writeln("<atmosphere model=\"extendedisa\">");
+			indent++;
+			writeElement("basetemperature", cond.getLaunchTemperature());
+			writeElement("basepressure", cond.getLaunchPressure());
+			indent--;
+			writeln("</atmosphere>");
+		}
+		
+		writeElement("timestep", cond.getTimeStep());
+		if (cond.getIntegrationMethod() != IntegrationMethod.RK4) {
+			writeElement("integrator", cond.getIntegrationMethod().name().toLowerCase(Locale.ENGLISH).replace("_", ""));
+			writeElement("integrationtolerance", cond.getIntegrationTolerance());
+		}
+		
+		indent--;
+		writeln("</conditions>");
+		
+		for (SimulationExtension extension : simulation.getSimulationExtensions()) {
+			Config config = extension.getConfig();
+			writeln("<extension extensionid=\"" + TextUtil.escapeXML(extension.getId()) + "\">");
+			indent++;
+			if (config != null) {
+				for (String key : config.keySet()) {
+					Object value = config.get(key, null);
+					writeEntry(key, value);
+				}
+			}
+			indent--;
+			writeln("</extension>");
+		}
+	}
+	
 	private void savePhotoSettings(Map<String, String> p) throws IOException {
 		log.debug("Saving Photo Settings");
 
@@ -508,6 +590,16 @@ public class OpenRocketSaver extends RocketSaver {
 			sb.append("\" ");
 		}
 		
+		// Store the data points in a separate entry if requested
+		String entryName = null;
+		if (dataEntries != null) {
+			entryName = BinaryFlightData.ENTRY_PREFIX + (dataEntries.size() + 1) + ".bin";
+			dataEntries.put(entryName, branch);
+			sb.append("data=\"");
+			sb.append(TextUtil.escapeXML(entryName));
+			sb.append("\" ");
+		}
+		
 		sb.append("types=\"");
 		for (int i = 0; i < types.length; i++) {
 			if (i > 0)
@@ -535,9 +627,11 @@ public class OpenRocketSaver extends RocketSaver {
 		}
 		
 		// Write the data
-		int length = branch.getLength();
-		for (int i = 0; i < length; i++) {
-			writeDataPointString(data, i, sb);
+		if (entryName == null) {
+			int length = branch.getLength();
+			for (int i = 0; i < length; i++) {
+				writeDataPointString(data, i, sb);
+			}
 		}
 		
 		indent--;
@@ -0,0 +1,44 @@
+package info.openrocket.core.file.openrocket.importt;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import info.openrocket.core.file.DocumentLoadingContext;
+import info.openrocket.core.file.openrocket.BinaryFlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+
+/**
+ * The data points of a flight data branch stored as a binary entry of the file container,
+ * see {@link BinaryFlightData}.  The entry is read after the document has been loaded,
+ * and the branch is materialized from it on first access.
+ */
+class DataEntryBlock implements FlightDataBranch.DeferredData, DocumentLoadingContext.EntryReader {
+
+	private final String name;
+	private final int columnCount;
+	private volatile double[][] columns = null;
+
+	DataEntryBlock(String name, int columnCount) {
+		this.name = name;
+		this.columnCount = columnCount;
+	}
+
+	@Override
+	public void read(InputStream in) throws IOException {
+		columns = BinaryFlightData.read(in, columnCount);
+	}
+
+	@Override
+	public void missing() {
+		columns = new double[columnCount][0];
+	}
+
+	@Override
+	public double[][] decode() {
+		final double[][] data = columns;
+		if (data == null) {
+			throw new IllegalStateException("Simulation data entry " + name + " has not been read yet");
+		}
+		return data;
+	}
+}
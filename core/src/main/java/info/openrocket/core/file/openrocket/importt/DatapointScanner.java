@@ -0,0 +1,186 @@
+package info.openrocket.core.file.openrocket.importt;
+
+/**
+ * Parser for the comma-separated values of flight data points, which scans the characters
+ * of the data in place instead of splitting it into strings.
+ * <p>
+ * Plain decimal numbers with at most 15 significant digits and a small decimal exponent,
+ * such as the values written by the OpenRocket saver, are converted with a single exactly
+ * rounded floating point operation, giving the same result as {@link Double#parseDouble(String)}
+ * without allocating memory.  Other values, including "NaN", "Inf" and "-Inf", are handed
+ * to {@link DocumentConfig#stringToDouble(String)}.
+ */
+final class DatapointScanner {
+
+	/** Maximum number of significant digits that are exactly representable in a double */
+	private static final int MAX_DIGITS = 15;
+
+	/** Powers of ten that are exactly representable in a double */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private DatapointScanner() {
+	}
+
+	/**
+	 * Return the end of the values between two positions of a text, excluding trailing
+	 * empty values in the same way as {@link String#split(String)}.
+	 *
+	 * @param text	the text.
+	 * @param start	the start of the values, inclusive.
+	 * @param end	the end of the values, exclusive.
+	 * @return		the end of the values without trailing separators.
+	 */
+	static int trimTrailingSeparators(final CharSequence text, final int start, int end) {
+		while (end > start && text.charAt(end - 1) == ',') {
+			end--;
+		}
+		return end;
+	}
+
+	/**
+	 * Count the number of comma-separated values between two positions of a text.
+	 *
+	 * @param text	the text.
+	 * @param start	the start of the values, inclusive.
+	 * @param end	the end of the values, exclusive.
+	 * @return		the number of values.
+	 */
+	static int countValues(final CharSequence text, final int start, final int end) {
+		int count = 1;
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == ',') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Parse the comma-separated values between two positions of a text.  The number of values
+	 * must be checked beforehand with {@link #countValues(CharSequence, int, int)}.
+	 *
+	 * @param text		the text.
+	 * @param start		the start of the values, inclusive.
+	 * @param end		the end of the values, exclusive.
+	 * @param values	the array to store the values in.
+	 * @throws NumberFormatException	if a value is not a valid number.
+	 */
+	static void parseValues(final CharSequence text, final int start, final int end, final double[] values) {
+		int valueStart = start;
+		int count = 0;
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == ',') {
+				values[count++] = parseDouble(text, valueStart, i);
+				valueStart = i + 1;
+			}
+		}
+		values[count] = parseDouble(text, valueStart, end);
+	}
+
+	/**
+	 * Parse a single value between two positions of a text.  Leading and trailing
+	 * whitespace is ignored.
+	 *
+	 * @param text	the text.
+	 * @param start	the start of the value, inclusive.
+	 * @param end	the end of the value, exclusive.
+	 * @return		the parsed value.
+	 * @throws NumberFormatException	if the value is not a valid number.
+	 */
+	static double parseDouble(final CharSequence text, int start, int end) {
+		while (start < end && Character.isWhitespace(text.charAt(start))) {
+			start++;
+		}
+		while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+
+		int i = start;
+		boolean negative = false;
+		if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+			negative = text.charAt(i) == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigits = false;
+
+		// Integer part
+		for (; i < end; i++) {
+			final char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			anyDigits = true;
+			mantissa = mantissa * 10 + (c - '0');
+			if (mantissa != 0) {
+				digits++;
+			}
+		}
+
+		// Fraction part
+		if (i < end && text.charAt(i) == '.') {
+			for (i++; i < end; i++) {
+				final char c = text.charAt(i);
+				if (c < '0' || c > '9') {
+					break;
+				}
+				anyDigits = true;
+				mantissa = mantissa * 10 + (c - '0');
+				if (mantissa != 0) {
+					digits++;
+				}
+				exponent--;
+			}
+		}
+
+		// Exponent part
+		if (anyDigits && digits <= MAX_DIGITS && i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+				negativeExponent = text.charAt(i) == '-';
+				i++;
+			}
+			int exponentDigits = 0;
+			int value = 0;
+			for (; i < end && exponentDigits < 4; i++) {
+				final char c = text.charAt(i);
+				if (c < '0' || c > '9') {
+					break;
+				}
+				value = value * 10 + (c - '0');
+				exponentDigits++;
+			}
+			if (exponentDigits == 0) {
+				return parseFallback(text, start, end);
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+
+		if (!anyDigits || digits > MAX_DIGITS || i != end) {
+			return parseFallback(text, start, end);
+		}
+
+		final double value;
+		if (mantissa == 0) {
+			value = 0;
+		} else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+			value = mantissa * POWERS_OF_TEN[exponent];
+		} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[-exponent];
+		} else {
+			return parseFallback(text, start, end);
+		}
+		return negative ? -value : value;
+	}
+
+	private static double parseFallback(final CharSequence text, final int start, final int end) {
+		return DocumentConfig.stringToDouble(text.subSequence(start, end).toString());
+	}
+}
@@ -0,0 +1,147 @@
+package info.openrocket.core.file.openrocket.importt;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.util.BugException;
+
+/**
+ * The undecoded data points of a flight data branch.  The text of the data points is
+ * collected while the file is read, and decoded either by a background thread after
+ * {@link #start()} is called or by the first thread that accesses the values of the branch,
+ * whichever comes first.
+ */
+class DeferredDataBlock implements FlightDataBranch.DeferredData {
+	private static final Logger log = LoggerFactory.getLogger(DeferredDataBlock.class);
+
+	private final int columnCount;
+	private StringBuilder text = new StringBuilder();
+	private int[] rowEnds = new int[64];
+	private int rowCount = 0;
+
+	private final FutureTask<double[][]> task = new FutureTask<>(this::decodeRows);
+
+	DeferredDataBlock(int columnCount) {
+		this.columnCount = columnCount;
+	}
+
+	/**
+	 * Add the text of a data point.  The number of values of the data point must have been
+	 * checked to match the column count.
+	 * 
+	 * @param content	the content of the data point element.
+	 * @param end		the end of the values in the content.
+	 */
+	void addRow(String content, int end) {
+		text.append(content, 0, end);
+		if (rowCount == rowEnds.length) {
+			rowEnds = Arrays.copyOf(rowEnds, rowCount * 2);
+		}
+		rowEnds[rowCount++] = text.length();
+	}
+
+	/**
+	 * Return the number of data points added.
+	 */
+	int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Start decoding the data points in the background.  No more data points may be
+	 * added after this call.
+	 */
+	void start() {
+		DecoderHolder.EXECUTOR.execute(task);
+	}
+
+	@Override
+	public double[][] decode() {
+		// Decode in this thread unless a background thread has already started
+		task.run();
+
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException) e.getCause();
+					}
+					throw new BugException("Decoding flight data failed", e.getCause());
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private double[][] decodeRows() {
+		final double[][] columns = new double[columnCount][rowCount];
+		final double[] values = new double[columnCount];
+		int count = 0;
+		int start = 0;
+		for (int row = 0; row < rowCount; row++) {
+			final int end = rowEnds[row];
+			try {
+				DatapointScanner.parseValues(text, start, end, values);
+				for (int i = 0; i < columnCount; i++) {
+					columns[i][count] = values[i];
+				}
+				count++;
+			} catch (NumberFormatException e) {
+				log.warn("Data point format error, ignoring point.");
+			}
+			start = end;
+		}
+
+		if (count < rowCount) {
+			for (int i = 0; i < columnCount; i++) {
+				columns[i] = Arrays.copyOf(columns[i], count);
+			}
+		}
+
+		// The text is no longer needed
+		text = null;
+		rowEnds = null;
+		return columns;
+	}
+
+	/**
+	 * Holder of the executor decoding the data in the background, created on first use.
+	 */
+	private static final class DecoderHolder {
+		private static final Executor EXECUTOR;
+		static {
+			int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "FlightDataDecoder");
+							t.setDaemon(true);
+							t.setPriority(Thread.NORM_PRIORITY - 1);
+							return t;
+						}
+					});
+			executor.allowCoreThreadTimeOut(true);
+			EXECUTOR = executor;
+		}
+	}
+}
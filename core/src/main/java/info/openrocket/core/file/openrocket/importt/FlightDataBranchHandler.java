@@ -29,6 +29,13 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 	private final FlightDataType[] types;
 	private final FlightDataBranch branch;
 	
+	// Data points that are decoded later, or null if they are decoded while reading
+	private final DeferredDataBlock deferredData;
+	// Data points stored in a separate entry of the container, or null
+	private DataEntryBlock dataEntry = null;
+	// Buffer for the values of a single data point
+	private final double[] values;
+	
 	private static final Logger log = LoggerFactory.getLogger(FlightDataBranchHandler.class);
 	private final SingleSimulationHandler simHandler;
 	private static final Translator trans = Application.getTranslator();
@@ -48,6 +55,8 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		
 		// TODO: LOW: May throw an IllegalArgumentException
 		branch = new FlightDataBranch(name, types);
+		values = new double[types.length];
+		deferredData = context.isDeferSimulationData() ? new DeferredDataBlock(types.length) : null;
 	}
 	
 	/**
@@ -105,7 +114,46 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		return FlightDataType.getType(name, "Unknown", UnitGroup.UNITS_NONE);
 	}
 	
+	/**
+	 * Set the name of the container entry holding the data points of the branch.
+	 * The entry is read after the document has been loaded.
+	 * 
+	 * @param name	the name of the entry.
+	 */
+	public void setDataEntry(String name) {
+		dataEntry = new DataEntryBlock(name, types.length);
+		context.addEntryReader(name, dataEntry);
+	}
+	
+	/**
+	 * Return whether the data points of the branch are stored in a separate entry.
+	 */
+	public boolean isDataEntry() {
+		return dataEntry != null;
+	}
+	
+	/**
+	 * Return whether the branch contains data points.  Unlike the length of the branch,
+	 * this does not require decoding deferred data points.
+	 */
+	public boolean hasData() {
+		if (dataEntry != null) {
+			// Not known until the entry is read
+			return true;
+		}
+		if (deferredData != null) {
+			return deferredData.getRowCount() > 0;
+		}
+		return branch.getLength() > 0;
+	}
+	
 	public FlightDataBranch getBranch() {
+		if (dataEntry != null && !branch.isDeferred()) {
+			branch.setDeferredData(dataEntry);
+		} else if (deferredData != null && deferredData.getRowCount() > 0 && !branch.isDeferred()) {
+			branch.setDeferredData(deferredData);
+			deferredData.start();
+		}
 		branch.immute();
 		return branch;
 	}
@@ -173,23 +221,29 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		
 		// element == "datapoint"
 		
+		if (dataEntry != null) {
+			warnings.add("Data point given for flight data stored separately, ignoring point.");
+			return;
+		}
 		
 		// Check line format
-		String[] split = content.split(",");
-		if (split.length != types.length) {
+		int end = DatapointScanner.trimTrailingSeparators(content, 0, content.length());
+		if (DatapointScanner.countValues(content, 0, end) != types.length) {
 			warnings.add("Data point did not contain correct amount of values, ignoring point.");
 			return;
 		}
 		
+		if (deferredData != null) {
+			deferredData.addRow(content, end);
+			return;
+		}
+		
 		// Parse the doubles
-		double[] values = new double[split.length];
-		for (int i = 0; i < values.length; i++) {
-			try {
-				values[i] = DocumentConfig.stringToDouble(split[i]);
-			} catch (NumberFormatException e) {
-				warnings.add("Data point format error, ignoring point.");
-				return;
-			}
+		try {
+			DatapointScanner.parseValues(content, 0, end, values);
+		} catch (NumberFormatException e) {
+			warnings.add("Data point format error, ignoring point.");
+			return;
 		}
 		
 		// Add point to branch
@@ -20,6 +20,8 @@ class FlightDataHandler extends AbstractElementHandler {
 	private FlightDataBranchHandler dataHandler;
 	private final WarningSet warningSet = new WarningSet();
 	private final List<FlightDataBranch> branches = new ArrayList<FlightDataBranch>();
+	// Whether the data points of some branch are read after the document
+	private boolean hasDataEntries = false;
 	
 	private final SingleSimulationHandler simHandler;
 	private FlightData data;
@@ -49,6 +51,9 @@ class FlightDataHandler extends AbstractElementHandler {
 			dataHandler = new FlightDataBranchHandler(attributes.get("name"),
 					attributes.get("types"),
 					simHandler, context);
+			if (attributes.get("data") != null) {
+				dataHandler.setDataEntry(attributes.get("data"));
+			}
 			
 			if (attributes.get("optimumAltitude") != null) {
 				double optimumAltitude = Double.NaN;
@@ -79,9 +84,9 @@ class FlightDataHandler extends AbstractElementHandler {
 			String content, WarningSet warnings) {
 		
 		if (element.equals("databranch")) {
-			FlightDataBranch branch = dataHandler.getBranch();
-			if (branch.getLength() > 0) {
-				branches.add(branch);
+			if (dataHandler.hasData()) {
+				branches.add(dataHandler.getBranch());
+				hasDataEntries |= dataHandler.isDataEntry();
 			}
 		} else if (element.equals("warning")) {
 			String priorityStr = attributes.get("priority");
@@ -95,68 +100,82 @@ class FlightDataHandler extends AbstractElementHandler {
 	public void endHandler(String element, HashMap<String, String> attributes,
 			String content, WarningSet warnings) {
 
-		if (branches.size() > 0) {
+		if (branches.size() > 0 && (hasDataEntries ||
+				(context.isDeferSimulationData() && attributes.get("maxaltitude") != null))) {
+			// Use the stored summary so that the branches are not decoded yet
+			data = createSummaryData(attributes);
+			for (FlightDataBranch branch : branches) {
+				data.addBranch(branch);
+			}
+		} else if (branches.size() > 0) {
 			data = new FlightData(branches.toArray(new FlightDataBranch[0]));
 		} else {
-			double maxAltitude = Double.NaN;
-			double maxVelocity = Double.NaN;
-			double maxAcceleration = Double.NaN;
-			double maxMach = Double.NaN;
-			double timeToApogee = Double.NaN;
-			double flightTime = Double.NaN;
-			double groundHitVelocity = Double.NaN;
-			double launchRodVelocity = Double.NaN;
-			double deploymentVelocity = Double.NaN;
-			double optimumDelay = Double.NaN;
-
-			try {
-				maxAltitude = DocumentConfig.stringToDouble(attributes.get("maxaltitude"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				maxVelocity = DocumentConfig.stringToDouble(attributes.get("maxvelocity"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				maxAcceleration = DocumentConfig.stringToDouble(attributes.get("maxacceleration"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				maxMach = DocumentConfig.stringToDouble(attributes.get("maxmach"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				timeToApogee = DocumentConfig.stringToDouble(attributes.get("timetoapogee"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				flightTime = DocumentConfig.stringToDouble(attributes.get("flighttime"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				groundHitVelocity = DocumentConfig.stringToDouble(attributes.get("groundhitvelocity"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				launchRodVelocity = DocumentConfig.stringToDouble(attributes.get("launchrodvelocity"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				deploymentVelocity = DocumentConfig.stringToDouble(attributes.get("deploymentvelocity"));
-			} catch (NumberFormatException ignore) {
-			}
-			try {
-				optimumDelay = DocumentConfig.stringToDouble(attributes.get("optimumdelay"));
-			} catch (NumberFormatException ignore) {
-			}
-
-			data = new FlightData(maxAltitude, maxVelocity, maxAcceleration, maxMach,
-					timeToApogee, flightTime, groundHitVelocity, launchRodVelocity, deploymentVelocity, optimumDelay);
+			data = createSummaryData(attributes);
 		}
 		
 		data.getWarningSet().addAll(warningSet);
 		data.immute();
 	}
 	
+	/**
+	 * Create flight data without branches from the summary values stored in the attributes.
+	 */
+	private static FlightData createSummaryData(HashMap<String, String> attributes) {
+		double maxAltitude = Double.NaN;
+		double maxVelocity = Double.NaN;
+		double maxAcceleration = Double.NaN;
+		double maxMach = Double.NaN;
+		double timeToApogee = Double.NaN;
+		double flightTime = Double.NaN;
+		double groundHitVelocity = Double.NaN;
+		double launchRodVelocity = Double.NaN;
+		double deploymentVelocity = Double.NaN;
+		double optimumDelay = Double.NaN;
+
+		try {
+			maxAltitude = DocumentConfig.stringToDouble(attributes.get("maxaltitude"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			maxVelocity = DocumentConfig.stringToDouble(attributes.get("maxvelocity"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			maxAcceleration = DocumentConfig.stringToDouble(attributes.get("maxacceleration"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			maxMach = DocumentConfig.stringToDouble(attributes.get("maxmach"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			timeToApogee = DocumentConfig.stringToDouble(attributes.get("timetoapogee"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			flightTime = DocumentConfig.stringToDouble(attributes.get("flighttime"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			groundHitVelocity = DocumentConfig.stringToDouble(attributes.get("groundhitvelocity"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			launchRodVelocity = DocumentConfig.stringToDouble(attributes.get("launchrodvelocity"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			deploymentVelocity = DocumentConfig.stringToDouble(attributes.get("deploymentvelocity"));
+		} catch (NumberFormatException ignore) {
+		}
+		try {
+			optimumDelay = DocumentConfig.stringToDouble(attributes.get("optimumdelay"));
+		} catch (NumberFormatException ignore) {
+		}
+
+		return new FlightData(maxAltitude, maxVelocity, maxAcceleration, maxMach,
+				timeToApogee, flightTime, groundHitVelocity, launchRodVelocity, deploymentVelocity, optimumDelay);
+	}
+	
 	
 }
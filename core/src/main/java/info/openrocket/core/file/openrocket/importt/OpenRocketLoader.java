@@ -2,7 +2,7 @@ package info.openrocket.core.file.openrocket.importt;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
+import java.util.Arrays;
 
 import info.openrocket.core.rocketcomponent.ComponentChangeEvent;
 import info.openrocket.core.rocketcomponent.FlightConfiguration;
@@ -75,13 +75,18 @@ public class OpenRocketLoader extends AbstractRocketLoader {
 			FlightDataBranch branch = s.getSimulatedData().getBranch(0);
 			if (branch == null)
 				continue;
-			List<Double> list = branch.get(FlightDataType.TYPE_TIME);
-			if (list == null)
+			// Check the types only, so that deferred data points are not decoded
+			if (!Arrays.asList(branch.getTypes()).contains(FlightDataType.TYPE_TIME))
 				continue;
 
 			doc.getDefaultStorageOptions().setSaveSimulationData(true);
 		}
 
+		// Keep storing the data in binary if it was stored so before
+		if (!context.getEntryReaders().isEmpty()) {
+			doc.getDefaultStorageOptions().setSaveBinarySimulationData(true);
+		}
+
 		doc.getDefaultStorageOptions().setExplicitlySet(false);
 		doc.getDefaultStorageOptions().setFileType(FileType.OPENROCKET);
 
@@ -9,6 +9,7 @@ import info.openrocket.core.file.simplesax.ElementHandler;
 import info.openrocket.core.file.simplesax.PlainTextHandler;
 import info.openrocket.core.rocketcomponent.FlightConfigurationId;
 import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.IntegrationMethod;
 import info.openrocket.core.simulation.SimulationOptions;
 import info.openrocket.core.util.GeodeticComputationStrategy;
 
@@ -115,6 +116,19 @@ class SimulationConditionsHandler extends AbstractElementHandler {
 			} else {
 				options.setTimeStep(d);
 			}
+		} else if (element.equals("integrator")) {
+			IntegrationMethod method = (IntegrationMethod) DocumentConfig.findEnum(content, IntegrationMethod.class);
+			if (method != null) {
+				options.setIntegrationMethod(method);
+			} else {
+				warnings.add("Unknown integration method '" + content + "'");
+			}
+		} else if (element.equals("integrationtolerance")) {
+			if (Double.isNaN(d) || d <= 0) {
+				warnings.add("Illegal integration tolerance defined, ignoring.");
+			} else {
+				options.setIntegrationTolerance(d);
+			}
 		}
 	}
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package info.openrocket.core.masscalc;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import info.openrocket.core.motor.Motor;
+import info.openrocket.core.rocketcomponent.AxialStage;
 import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.rocketcomponent.RocketComponent;
 import info.openrocket.core.simulation.MotorClusterState;
 import info.openrocket.core.simulation.SimulationStatus;
@@ -15,14 +19,21 @@ public class MassCalculator implements Monitorable {
 
 	public static final double MIN_MASS = MathUtil.EPSILON;
 
+	/** Maximum number of structural mass models kept in the cache */
+	private static final int STRUCTURE_CACHE_SIZE = 32;
+
 	/*
-	 * Cached data. All CG data is in absolute coordinates. All moments of inertia
-	 * are relative to their respective CG.
+	 * Cached structural mass data of in-flight queries, least recently used first.
+	 * All CG data is in absolute coordinates. All moments of inertia are relative
+	 * to their respective CG.
 	 */
-	// private HashMap< Integer, MassData> stageMassCache = new HashMap<Integer,
-	// MassData >();
-	// private MassData rocketSpentMassCache;
-	// private MassData motorMassCache;
+	private static final Map<StructureKey, RigidBody> structureCache =
+			new LinkedHashMap<StructureKey, RigidBody>(STRUCTURE_CACHE_SIZE, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<StructureKey, RigidBody> eldest) {
+					return size() > STRUCTURE_CACHE_SIZE;
+				}
+			};
 
 	private final int modId = 0;
 
@@ -98,6 +109,22 @@ public class MassCalculator implements Monitorable {
 		return calculate(MassCalculation.Type.MOTOR, status);
 	}
 
+	/**
+	 * Calculates mass data of the rocket's structure given the simulation status.
+	 * - includes structure
+	 * - excludes motors
+	 * - excludes propellant
+	 * <p>
+	 * The structure does not change during flight, so the result is cached by the
+	 * rocket's mass and tree modification IDs and the set of active stages.
+	 *
+	 * @param status CurrentSimulation status to calculate data with
+	 * @return the MassData struct of the rocket's active structure
+	 */
+	public static RigidBody calculateStructure(final SimulationStatus status) {
+		return getCachedStructure(status.getConfiguration());
+	}
+
 	////////////////// Mass property Wrappers ///////////////////
 	// all mass calculation calls should probably call through one of these two
 	////////////////// wrappers.
@@ -105,16 +132,28 @@ public class MassCalculator implements Monitorable {
 	// convenience wrapper -- use this to implicitly create a plain MassCalculation
 	// object with common parameters,
 	// for calculations in the course of a simulation
+	// The structure is taken from the structure cache, so only the motors are walked on each call.
 	public static RigidBody calculate(final MassCalculation.Type _type, final SimulationStatus status) {
 		final FlightConfiguration config = status.getConfiguration();
+		final RigidBody structure = _type.includesStructure ? getCachedStructure(config) : null;
+		if (!_type.includesMotorCasing && !_type.includesPropellant) {
+			return structure;
+		}
+
 		final double time = status.getSimulationTime();
 		final Collection<MotorClusterState> activeMotorList = status.getActiveMotors();
 		MassCalculation calculation = new MassCalculation(_type, config, time, activeMotorList, config.getRocket(),
 				Transformation.IDENTITY, null);
 
-		calculation.calculateAssembly();
-		RigidBody result = calculation.calculateMomentOfInertia();
-		return result;
+		calculation.calculateMotors();
+		RigidBody motors = calculation.calculateMomentOfInertia();
+		if (structure == null || structure.getMass() < MIN_MASS) {
+			return motors;
+		}
+		if (motors.getMass() < MIN_MASS) {
+			return structure;
+		}
+		return structure.add(motors);
 	}
 
 	// convenience wrapper -- use this to implicitly create a plain MassCalculation
@@ -174,10 +213,75 @@ public class MassCalculator implements Monitorable {
 		return analysisMap;
 	}
 
+	/**
+	 * Clear the structural mass cache of in-flight queries.
+	 */
+	public static void clearStructureCache() {
+		synchronized (structureCache) {
+			structureCache.clear();
+		}
+	}
+
+	private static RigidBody getCachedStructure(final FlightConfiguration config) {
+		final StructureKey key = new StructureKey(config);
+		RigidBody structure;
+		synchronized (structureCache) {
+			structure = structureCache.get(key);
+		}
+		if (structure == null) {
+			structure = calculate(MassCalculation.Type.STRUCTURE, config, Motor.PSEUDO_TIME_EMPTY);
+			synchronized (structureCache) {
+				structureCache.put(key, structure);
+			}
+		}
+		return structure;
+	}
+
 	////////////////// Mass property calculations ///////////////////
 	@Override
 	public int getModID() {
 		return this.modId;
 	}
 
+	/**
+	 * Key of the structure cache.  The structure of a configuration depends only on the
+	 * rocket's components, which are identified by the rocket ID and its mass and tree
+	 * modification IDs, and on which stages are active.  Copies of a rocket keep the IDs
+	 * of the original, so all simulations of the same design share the structure.
+	 */
+	private static final class StructureKey {
+		private final String rocketID;
+		private final int massModID;
+		private final int treeModID;
+		private final BitSet activeStages = new BitSet();
+
+		private StructureKey(final FlightConfiguration config) {
+			final Rocket r = config.getRocket();
+			this.rocketID = r.getID();
+			this.massModID = r.getMassModID();
+			this.treeModID = r.getTreeModID();
+			for (AxialStage stage : r.getStageList()) {
+				if (config.isStageActive(stage.getStageNumber())) {
+					activeStages.set(stage.getStageNumber());
+				}
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof StructureKey))
+				return false;
+			StructureKey other = (StructureKey) obj;
+			return rocketID.equals(other.rocketID) && massModID == other.massModID
+					&& treeModID == other.treeModID && activeStages.equals(other.activeStages);
+		}
+
+		@Override
+		public int hashCode() {
+			return ((rocketID.hashCode() * 31 + massModID) * 31 + treeModID) * 31 + activeStages.hashCode();
+		}
+	}
+
 }
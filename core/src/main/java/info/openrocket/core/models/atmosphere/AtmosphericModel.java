@@ -6,4 +6,15 @@ public interface AtmosphericModel extends Monitorable {
 
 	public AtmosphericConditions getConditions(double altitude);
 
+	/**
+	 * Return an instance of this atmospheric model with the same parameters, which can be used
+	 * independently of this one.  The default implementation returns this model, which is
+	 * correct for models that keep no state between calls; other models should override it.
+	 * 
+	 * @return an independent instance of this atmospheric model
+	 */
+	public default AtmosphericModel newInstance() {
+		return this;
+	}
+
 }
@@ -100,6 +100,11 @@ public class ExtendedISAModel extends InterpolatingAtmosphericModel {
 		return new AtmosphericConditions(t, p);
 	}
 
+	@Override
+	public ExtendedISAModel newInstance() {
+		return new ExtendedISAModel(layer[0], baseTemperature[0], basePressure[0]);
+	}
+
 	@Override
 	protected double getMaxAltitude() {
 		return layer[layer.length - 1];
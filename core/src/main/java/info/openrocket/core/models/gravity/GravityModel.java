@@ -18,4 +18,15 @@ public interface GravityModel extends Monitorable {
 	 */
 	public double getGravity(WorldCoordinate wc);
 
+	/**
+	 * Return an instance of this gravity model with the same parameters, which can be used
+	 * independently of this one.  The default implementation returns this model, which is
+	 * correct for models that keep no state between calls; other models should override it.
+	 * 
+	 * @return an independent instance of this gravity model
+	 */
+	public default GravityModel newInstance() {
+		return this;
+	}
+
 }
@@ -27,6 +27,11 @@ public class WGSGravityModel implements GravityModel {
 
 	}
 
+	@Override
+	public WGSGravityModel newInstance() {
+		return new WGSGravityModel();
+	}
+
 	@Override
 	public int getModID() {
 		// The model is immutable, so it can return a constant mod ID
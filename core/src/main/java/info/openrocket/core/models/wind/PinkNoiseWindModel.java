@@ -156,6 +156,15 @@ public class PinkNoiseWindModel implements WindModel {
 
 	}
 
+	@Override
+	public PinkNoiseWindModel newInstance() {
+		PinkNoiseWindModel copy = new PinkNoiseWindModel(seed ^ SEED_RANDOMIZATION);
+		copy.average = average;
+		copy.direction = direction;
+		copy.standardDeviation = standardDeviation;
+		return copy;
+	}
+
 	private void reset() {
 		randomSource = null;
 	}
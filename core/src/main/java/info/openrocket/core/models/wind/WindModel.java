@@ -7,4 +7,15 @@ public interface WindModel extends Monitorable {
 
 	public Coordinate getWindVelocity(double time, double altitude);
 
+	/**
+	 * Return an instance of this wind model with the same parameters, which can be used
+	 * independently of this one.  The default implementation returns this model, which is
+	 * correct for models that keep no state between calls; other models should override it.
+	 * 
+	 * @return an independent instance of this wind model
+	 */
+	public default WindModel newInstance() {
+		return this;
+	}
+
 }
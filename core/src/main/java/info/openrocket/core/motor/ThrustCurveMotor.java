@@ -1,5 +1,8 @@
 package info.openrocket.core.motor;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.text.Collator;
 import java.util.Arrays;
@@ -61,6 +64,22 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	private double unitRotationalInertia;
 	private double unitLongitudinalInertia;
 
+	/** Impulse delivered from time zero to each time point, derived from the thrust curve */
+	private transient double[] cumulativeImpulse = {};
+
+	/**
+	 * Index of the curve segment found by the last lookup.  The motor may be shared between
+	 * threads, so the cursor is only used as a hint and is always validated before use.
+	 */
+	private transient int cursor = 0;
+
+	/**
+	 * Source of the thrust curve of a motor read from a snapshot, or <code>null</code> once the
+	 * curve has been decoded.  The curve arrays must not be accessed before calling {@link #loadCurve()}.
+	 */
+	private transient volatile CurveLoader curveLoader = null;
+	private transient int curveSize;
+
 	public static class Builder {
 
 		ThrustCurveMotor motor = new ThrustCurveMotor();
@@ -258,10 +277,42 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 			}
 
 			motor.computeStatistics();
+			motor.computeCumulativeImpulse();
 
 			return motor;
 		}
 
+		/**
+		 * Build a motor whose thrust curve is decoded on first use.  The motor must have been
+		 * validated when it was originally built, so no checks are performed, and the curve
+		 * statistics are provided instead of computed.
+		 *
+		 * @param curveSize			the number of points of the thrust curve.
+		 * @param maxThrust			the maximum thrust estimate.
+		 * @param burnTimeEstimate	the burn time estimate.
+		 * @param averageThrust		the average thrust estimate.
+		 * @param totalImpulse		the total impulse estimate.
+		 * @param loader			the source of the thrust curve.
+		 */
+		ThrustCurveMotor buildLazy(int curveSize, double maxThrust, double burnTimeEstimate, double averageThrust,
+				double totalImpulse, CurveLoader loader) {
+			motor.unitRotationalInertia = Inertia.filledCylinderRotational(motor.diameter / 2);
+			motor.unitLongitudinalInertia = Inertia.filledCylinderLongitudinal(motor.diameter / 2, motor.length);
+			if (motor.designation.equals("")) {
+				motor.designation = motor.code;
+			}
+			if (motor.commonName.equals("")) {
+				motor.commonName = simplifyDesignation(motor.designation);
+			}
+			motor.curveSize = curveSize;
+			motor.maxThrust = maxThrust;
+			motor.burnTimeEstimate = burnTimeEstimate;
+			motor.averageThrust = averageThrust;
+			motor.totalImpulse = totalImpulse;
+			motor.curveLoader = loader;
+			return motor;
+		}
+
 	}
 
 	/**
@@ -279,6 +330,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return an array of time points where the thrust is sampled
 	 */
 	public double[] getTimePoints() {
+		loadCurve();
 		return time.clone();
 	}
 
@@ -295,6 +347,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return a pseudo index to this motor's data.
 	 */
 	protected double getPseudoIndex(final double motorTime) {
+		loadCurve();
 		if ((time.length == 0) || (0 > motorTime)) {
 			return Double.NaN;
 		}
@@ -304,15 +357,46 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 		return ((double) lowerIndex) + fraction;
 	}
 
+	/**
+	 * Return the index of the last time point at or before the given time, or zero if the
+	 * time is before the start of the curve.  Consecutive lookups of nearby times are resolved
+	 * from the segment found by the previous lookup, other lookups by binary search.
+	 */
 	private int getIndex(final double motorTime) {
-		int lowerBoundIndex = 0;
-		int upperBoundIndex = 0;
-		while ((upperBoundIndex < time.length) && (motorTime >= time[upperBoundIndex])) {
-			lowerBoundIndex = upperBoundIndex;
-			++upperBoundIndex;
+		final int last = time.length - 1;
+
+		// Check the previous segment and the one following it
+		final int hint = cursor;
+		if (hint < last && time[hint] <= motorTime) {
+			if (motorTime < time[hint + 1]) {
+				return hint;
+			}
+			if (hint + 1 == last || motorTime < time[hint + 2]) {
+				cursor = hint + 1;
+				return hint + 1;
+			}
 		}
 
-		return lowerBoundIndex;
+		if (!(motorTime >= time[0])) {
+			return 0;
+		}
+		if (motorTime >= time[last]) {
+			return last;
+		}
+
+		// Binary search, keeping time[lower] <= motorTime < time[upper]
+		int lower = 0;
+		int upper = last;
+		while (upper - lower > 1) {
+			final int mid = (lower + upper) >>> 1;
+			if (time[mid] <= motorTime) {
+				lower = mid;
+			} else {
+				upper = mid;
+			}
+		}
+		cursor = lower;
+		return lower;
 	}
 
 	private double getIndexFraction(final double motorTime, final int index) {
@@ -345,14 +429,11 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 
 	@Override
 	public double getAverageThrust(final double startTime, final double endTime) {
+		loadCurve();
+		final int last = time.length - 1;
 
-		int timeIndex = 0;
-
-		while (timeIndex < time.length - 1 && startTime > time[timeIndex + 1]) {
-			timeIndex++;
-		}
-
-		if (timeIndex == time.length - 1) {
+		int timeIndex = getIndex(startTime);
+		if (timeIndex == last) {
 			return 0.0;
 		}
 
@@ -366,25 +447,18 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 			return (startThrust + endThrust) / 2.0;
 		}
 
-		double impulse = 0.0;
-
 		// portion from startTime through time[timeIndex+1]
 		double startThrust = MathUtil.map(startTime, time[timeIndex], time[timeIndex + 1], thrust[timeIndex],
 				thrust[timeIndex + 1]);
-		impulse = (time[timeIndex + 1] - startTime) * (startThrust + thrust[timeIndex + 1]) / 2.0;
-
-		// Now add the whole steps;
-		timeIndex++;
-		while (timeIndex < time.length - 1 && endTime >= time[timeIndex + 1]) {
-			impulse += (time[timeIndex + 1] - time[timeIndex]) * (thrust[timeIndex] + thrust[timeIndex + 1]) / 2.0;
-			timeIndex++;
-		}
+		double impulse = (time[timeIndex + 1] - startTime) * (startThrust + thrust[timeIndex + 1]) / 2.0;
 
-		// Now add the bit after the last time index
-		if (timeIndex < time.length - 1) {
-			double endThrust = MathUtil.map(endTime, time[timeIndex], time[timeIndex + 1], thrust[timeIndex],
-					thrust[timeIndex + 1]);
-			impulse += (endTime - time[timeIndex]) * (thrust[timeIndex] + endThrust) / 2.0;
+		// Whole steps from the cumulative impulse table, plus the bit after the last time index
+		int endIndex = getIndex(endTime);
+		impulse += cumulativeImpulse[endIndex] - cumulativeImpulse[timeIndex + 1];
+		if (endIndex < last) {
+			double endThrust = MathUtil.map(endTime, time[endIndex], time[endIndex + 1], thrust[endIndex],
+					thrust[endIndex + 1]);
+			impulse += (endTime - time[endIndex]) * (thrust[endIndex] + endThrust) / 2.0;
 		}
 
 		return impulse / (endTime - startTime);
@@ -434,6 +508,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return an array of thrust samples
 	 */
 	public double[] getThrustPoints() {
+		loadCurve();
 		return thrust.clone();
 	}
 
@@ -446,6 +521,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	// }
 
 	public Coordinate[] getCGPoints() {
+		loadCurve();
 		return cg;
 	}
 
@@ -543,26 +619,31 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 
 	@Override
 	public double getLaunchCGx() {
+		loadCurve();
 		return cg[0].x;// cgx[0];
 	}
 
 	@Override
 	public double getBurnoutCGx() {
+		loadCurve();
 		return cg[cg.length - 1].x;// cgx[ cg.length - 1];
 	}
 
 	@Override
 	public double getLaunchMass() {
+		loadCurve();
 		return cg[0].weight;// mass[0];
 	}
 
 	@Override
 	public double getBurnoutMass() {
+		loadCurve();
 		return cg[cg.length - 1].weight; // mass[mass.length - 1];
 	}
 
 	@Override
 	public double getBurnTime() {
+		loadCurve();
 		return time[time.length - 1];
 	}
 
@@ -644,7 +725,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 
 	public int getDataSize() {
-		return this.time.length;
+		return getSampleSize();
 	}
 
 	@Override
@@ -673,6 +754,7 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	}
 
 	public double getCutOffTime() {
+		loadCurve();
 		return time[time.length - 1];
 	}
 
@@ -773,6 +855,63 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 
 	}
 
+	/**
+	 * Compute the cumulative impulse table used by {@link #getAverageThrust(double, double)}.
+	 */
+	private void computeCumulativeImpulse() {
+		cumulativeImpulse = new double[time.length];
+		for (int i = 0; i < time.length - 1; i++) {
+			cumulativeImpulse[i + 1] = cumulativeImpulse[i] + (time[i + 1] - time[i]) * (thrust[i] + thrust[i + 1]) / 2;
+		}
+	}
+
+	/**
+	 * Decode the thrust curve of a motor read from a snapshot, if not done yet.
+	 */
+	private void loadCurve() {
+		if (curveLoader == null) {
+			return;
+		}
+		synchronized (this) {
+			CurveLoader loader = curveLoader;
+			if (loader != null) {
+				loader.load(this);
+				computeCumulativeImpulse();
+				curveLoader = null;
+			}
+		}
+	}
+
+	/**
+	 * Set the thrust curve of a motor built with {@link Builder#buildLazy}.  Called by the
+	 * {@link CurveLoader} while decoding the curve.
+	 */
+	void setCurve(double[] time, double[] thrust, Coordinate[] cg) {
+		this.time = time;
+		this.thrust = thrust;
+		this.cg = cg;
+	}
+
+	private void writeObject(ObjectOutputStream oos) throws IOException {
+		loadCurve();
+		oos.defaultWriteObject();
+	}
+
+	private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+		ois.defaultReadObject();
+		computeCumulativeImpulse();
+	}
+
+	/**
+	 * A source of the thrust curve of a motor that is decoded on first use.
+	 */
+	interface CurveLoader {
+		/**
+		 * Decode the thrust curve and set it to the motor using {@link ThrustCurveMotor#setCurve}.
+		 */
+		void load(ThrustCurveMotor motor);
+	}
+
 	////////// Static methods
 
 	/**
@@ -811,6 +950,9 @@ public class ThrustCurveMotor implements Motor, Comparable<ThrustCurveMotor>, Se
 	 * @return return the size of the data arrays
 	 */
 	public int getSampleSize() {
+		if (curveLoader != null) {
+			return curveSize;
+		}
 		return time.length;
 	}
 
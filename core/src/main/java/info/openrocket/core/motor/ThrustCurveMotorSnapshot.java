@@ -0,0 +1,288 @@
+package info.openrocket.core.motor;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import info.openrocket.core.util.Coordinate;
+
+/**
+ * Compact binary snapshot of a list of thrust curve motors.
+ * <p>
+ * The snapshot is designed to be memory-mapped.  Reading it decodes only the fixed-size
+ * motor records needed to index the motors; the thrust curve of each motor is decoded
+ * from the buffer the first time the curve is used.  The layout (big-endian) is:
+ * <pre>
+ *   int     magic, "ORMS"
+ *   int     format version
+ *   int     number of strings
+ *   int     number of motors
+ *   strings each as int byte length + UTF-8 bytes, referenced by index
+ *   motor records, RECORD_SIZE bytes each
+ *   motor data, per motor the standard delays followed by the time, thrust and
+ *           CG (x, y, z, mass) of each curve point, all as doubles
+ * </pre>
+ * Snapshots with a different magic or version are rejected, so the format can be changed
+ * by increasing {@link #VERSION}.
+ */
+public final class ThrustCurveMotorSnapshot {
+
+	/** File extension of motor snapshots */
+	public static final String EXTENSION = "bin";
+
+	private static final int MAGIC = 0x4F524D53;
+	private static final int VERSION = 1;
+
+	// 9 string references, 7 doubles, boolean as int, delay count, point count, data offset
+	private static final int RECORD_SIZE = 9 * 4 + 7 * 8 + 4 * 4;
+
+	private ThrustCurveMotorSnapshot() {
+	}
+
+
+	/**
+	 * Write a snapshot of the motors to a file.
+	 *
+	 * @param motors	the motors to write.
+	 * @param file		the file to write to.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static void write(List<ThrustCurveMotor> motors, File file) throws IOException {
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+			write(motors, out);
+		}
+	}
+
+	/**
+	 * Write a snapshot of the motors to a stream.  The stream is not closed.
+	 *
+	 * @param motors	the motors to write.
+	 * @param out		the stream to write to.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public static void write(List<ThrustCurveMotor> motors, OutputStream out) throws IOException {
+		// Collect the strings and the motor data
+		Map<String, Integer> stringIndex = new HashMap<>();
+		List<String> strings = new ArrayList<>();
+		ByteArrayOutputStream dataBytes = new ByteArrayOutputStream();
+		DataOutputStream data = new DataOutputStream(dataBytes);
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(motors.size() * RECORD_SIZE);
+		DataOutputStream records = new DataOutputStream(recordBytes);
+
+		for (ThrustCurveMotor motor : motors) {
+			String[] fields = {
+					motor.getManufacturer().getDisplayName(),
+					motor.getCode(),
+					motor.getCommonName(),
+					motor.getDesignation(),
+					motor.getDescription(),
+					motor.getDigest(),
+					motor.getCaseInfo(),
+					motor.getPropellantInfo(),
+					motor.getMotorType().name()
+			};
+			for (String field : fields) {
+				String value = (field != null) ? field : "";
+				Integer index = stringIndex.get(value);
+				if (index == null) {
+					index = strings.size();
+					stringIndex.put(value, index);
+					strings.add(value);
+				}
+				records.writeInt(index);
+			}
+
+			records.writeDouble(motor.getDiameter());
+			records.writeDouble(motor.getLength());
+			records.writeDouble(motor.getInitialMass());
+			records.writeDouble(motor.getMaxThrustEstimate());
+			records.writeDouble(motor.getBurnTimeEstimate());
+			records.writeDouble(motor.getAverageThrustEstimate());
+			records.writeDouble(motor.getTotalImpulseEstimate());
+
+			double[] delays = motor.getStandardDelays();
+			double[] time = motor.getTimePoints();
+			double[] thrust = motor.getThrustPoints();
+			Coordinate[] cg = motor.getCGPoints();
+
+			records.writeInt(motor.isAvailable() ? 1 : 0);
+			records.writeInt(delays.length);
+			records.writeInt(time.length);
+			records.writeInt(data.size());
+
+			for (double d : delays) {
+				data.writeDouble(d);
+			}
+			for (int i = 0; i < time.length; i++) {
+				data.writeDouble(time[i]);
+				data.writeDouble(thrust[i]);
+				data.writeDouble(cg[i].x);
+				data.writeDouble(cg[i].y);
+				data.writeDouble(cg[i].z);
+				data.writeDouble(cg[i].weight);
+			}
+		}
+		records.flush();
+		data.flush();
+
+		DataOutputStream dos = new DataOutputStream(out);
+		dos.writeInt(MAGIC);
+		dos.writeInt(VERSION);
+		dos.writeInt(strings.size());
+		dos.writeInt(motors.size());
+		for (String s : strings) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			dos.writeInt(bytes.length);
+			dos.write(bytes);
+		}
+		recordBytes.writeTo(dos);
+		dataBytes.writeTo(dos);
+		dos.flush();
+	}
+
+
+	/**
+	 * Read a snapshot from a file by memory-mapping it.
+	 *
+	 * @param file	the snapshot file.
+	 * @return		the motors of the snapshot, whose curves are decoded on first use.
+	 * @throws IOException	if an I/O error occurs or the file is not a valid snapshot.
+	 */
+	public static List<ThrustCurveMotor> read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Read a snapshot from a stream.  The stream is read fully into memory and not closed.
+	 *
+	 * @param in	the stream to read from.
+	 * @return		the motors of the snapshot, whose curves are decoded on first use.
+	 * @throws IOException	if an I/O error occurs or the stream is not a valid snapshot.
+	 */
+	public static List<ThrustCurveMotor> read(InputStream in) throws IOException {
+		return read(ByteBuffer.wrap(in.readAllBytes()));
+	}
+
+	/**
+	 * Read a snapshot from a buffer.  The buffer must not be modified afterwards, as the
+	 * thrust curves are decoded from it lazily.
+	 *
+	 * @param buffer	the buffer containing the snapshot, from its current position.
+	 * @return			the motors of the snapshot, whose curves are decoded on first use.
+	 * @throws IOException	if the buffer does not contain a valid snapshot.
+	 */
+	public static List<ThrustCurveMotor> read(ByteBuffer buffer) throws IOException {
+		final ByteBuffer buf = buffer.slice().asReadOnlyBuffer();
+		try {
+			if (buf.getInt() != MAGIC) {
+				throw new IOException("Not a motor snapshot");
+			}
+			int version = buf.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported motor snapshot version " + version);
+			}
+			final int stringCount = buf.getInt();
+			final int motorCount = buf.getInt();
+
+			String[] strings = new String[stringCount];
+			for (int i = 0; i < stringCount; i++) {
+				byte[] bytes = new byte[buf.getInt()];
+				buf.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			final int dataStart = buf.position() + motorCount * RECORD_SIZE;
+			if (dataStart > buf.limit()) {
+				throw new IOException("Truncated motor snapshot");
+			}
+
+			List<ThrustCurveMotor> motors = new ArrayList<>(motorCount);
+			for (int i = 0; i < motorCount; i++) {
+				ThrustCurveMotor.Builder builder = new ThrustCurveMotor.Builder()
+						.setManufacturer(Manufacturer.getManufacturer(strings[buf.getInt()]))
+						.setCode(strings[buf.getInt()])
+						.setCommonName(strings[buf.getInt()])
+						.setDesignation(strings[buf.getInt()])
+						.setDescription(strings[buf.getInt()])
+						.setDigest(strings[buf.getInt()])
+						.setCaseInfo(strings[buf.getInt()])
+						.setPropellantInfo(strings[buf.getInt()])
+						.setMotorType(Motor.Type.valueOf(strings[buf.getInt()]))
+						.setDiameter(buf.getDouble())
+						.setLength(buf.getDouble())
+						.setInitialMass(buf.getDouble());
+				double maxThrust = buf.getDouble();
+				double burnTime = buf.getDouble();
+				double averageThrust = buf.getDouble();
+				double totalImpulse = buf.getDouble();
+				builder.setAvailability(buf.getInt() != 0);
+				int delayCount = buf.getInt();
+				int pointCount = buf.getInt();
+				int offset = dataStart + buf.getInt();
+				if (offset + (delayCount + 6L * pointCount) * 8 > buf.limit()) {
+					throw new IOException("Truncated motor snapshot");
+				}
+
+				double[] delays = new double[delayCount];
+				for (int d = 0; d < delayCount; d++) {
+					delays[d] = buf.getDouble(offset + d * 8);
+				}
+				builder.setStandardDelays(delays);
+
+				motors.add(builder.buildLazy(pointCount, maxThrust, burnTime, averageThrust, totalImpulse,
+						new CurveLoader(buf, offset + delayCount * 8, pointCount)));
+			}
+			return motors;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Invalid motor snapshot", e);
+		}
+	}
+
+
+	/**
+	 * Decodes the thrust curve of a single motor from the snapshot buffer.
+	 */
+	private static class CurveLoader implements ThrustCurveMotor.CurveLoader {
+		private final ByteBuffer buffer;
+		private final int offset;
+		private final int points;
+
+		private CurveLoader(ByteBuffer buffer, int offset, int points) {
+			this.buffer = buffer;
+			this.offset = offset;
+			this.points = points;
+		}
+
+		@Override
+		public void load(ThrustCurveMotor motor) {
+			double[] time = new double[points];
+			double[] thrust = new double[points];
+			Coordinate[] cg = new Coordinate[points];
+			int pos = offset;
+			for (int i = 0; i < points; i++) {
+				time[i] = buffer.getDouble(pos);
+				thrust[i] = buffer.getDouble(pos + 8);
+				cg[i] = new Coordinate(buffer.getDouble(pos + 16), buffer.getDouble(pos + 24),
+						buffer.getDouble(pos + 32), buffer.getDouble(pos + 40));
+				pos += 48;
+			}
+			motor.setCurve(time, thrust, cg);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package info.openrocket.core.optimization.general;
+
+import java.util.Locale;
+
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.optimization.general.multidim.CMAESOptimizer;
+import info.openrocket.core.optimization.general.multidim.DifferentialEvolutionOptimizer;
+import info.openrocket.core.optimization.general.multidim.MultidirectionalSearchOptimizer;
+import info.openrocket.core.startup.Application;
+
+/**
+ * The optimization algorithms available for optimizing multiple parameters.
+ */
+public enum OptimizationMethod {
+
+	/**
+	 * The parallel multidirectional search, a local pattern search.
+	 */
+	MULTIDIRECTIONAL_SEARCH,
+
+	/**
+	 * The covariance matrix adaptation evolution strategy, which computes whole generations
+	 * in parallel.
+	 */
+	CMA_ES,
+
+	/**
+	 * Differential evolution, a global search which computes whole generations in parallel.
+	 */
+	DIFFERENTIAL_EVOLUTION;
+
+	private static final Translator trans = Application.getTranslator();
+
+	/**
+	 * Create an optimizer implementing the method.
+	 *
+	 * @param functionCache	the function cache the optimizer uses.
+	 * @return				a new optimizer.
+	 */
+	public FunctionOptimizer createOptimizer(ParallelFunctionCache functionCache) {
+		switch (this) {
+			case CMA_ES:
+				return new CMAESOptimizer(functionCache);
+			case DIFFERENTIAL_EVOLUTION:
+				return new DifferentialEvolutionOptimizer(functionCache);
+			default:
+				return new MultidirectionalSearchOptimizer(functionCache);
+		}
+	}
+
+	/**
+	 * Return whether the method computes a whole population of points at once, and thus
+	 * benefits from as many computational threads as there are processors.
+	 */
+	public boolean isPopulationBased() {
+		return this != MULTIDIRECTIONAL_SEARCH;
+	}
+
+	/**
+	 * Return the name of the optimization method.
+	 */
+	public String getName() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".name");
+	}
+
+	/**
+	 * Return a description of the optimization method.
+	 */
+	public String getDescription() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".desc");
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+}
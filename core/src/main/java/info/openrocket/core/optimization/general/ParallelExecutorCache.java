@@ -1,21 +1,35 @@
 package info.openrocket.core.optimization.general;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import info.openrocket.core.util.BugException;
+import info.openrocket.core.util.Statistics;
 
 /**
  * An implementation of a ParallelFunctionCache that evaluates function values
@@ -23,26 +37,57 @@ import info.openrocket.core.util.BugException;
  * function values beforehand. If values are not required after all, the
  * computation can be aborted assuming the function evaluation supports it.
  * <p>
- * Note that while this class handles threads and abstracts background
- * execution,
- * the public methods themselves are NOT thread-safe and should be called from
- * only one thread at a time.
- * 
+ * The number of evaluations in flight, i.e. submitted and not yet finished, is limited.
+ * When the limit is reached, {@link #compute(Point)} blocks until an evaluation finishes,
+ * so a caller producing points faster than they are computed does not fill an unbounded
+ * queue.  Finished values are stored as soon as the evaluation ends, and the cache keeps
+ * a limited number of values, evicting the least recently used ones.  The limit must be
+ * larger than the number of points an optimizer needs at a time.  If the computing thread
+ * is interrupted while blocked, the point is not submitted and the interrupt status is kept,
+ * so that waiting for the point throws an {@link InterruptedException}.
+ * <p>
+ * The evaluations may run on platform threads or, with a Java 21 or newer runtime, on
+ * virtual threads (see {@link #withVirtualThreads(int)}).  The queue depth, the number of
+ * running evaluations and the queue and evaluation times are available as metrics.
+ * <p>
+ * This class is thread-safe.  Several threads may compute and wait for points at the same
+ * time; each point is evaluated only once.
+ *
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
-public class ParallelExecutorCache implements ParallelFunctionCache {
+public class ParallelExecutorCache implements ParallelFunctionCache, Statistics {
+	private static final Logger log = LoggerFactory.getLogger(ParallelExecutorCache.class);
 
-	private final Map<Point, Double> functionCache = new HashMap<Point, Double>();
-	private final Map<Point, Future<Double>> futureMap = new HashMap<Point, Future<Double>>();
+	/** Default maximum number of cached function values */
+	public static final int DEFAULT_MAX_CACHED_VALUES = 10000;
 
-	private final ExecutorService executor;
+	/** Default number of evaluations in flight per computational thread */
+	public static final int DEFAULT_IN_FLIGHT_PER_THREAD = 4;
+
+	private final Map<Point, Double> functionCache;
+	private final Map<Point, FunctionTask> futureMap = new HashMap<Point, FunctionTask>();
 
-	private Function function;
+	private final ExecutorService executor;
+	private final int maxInFlight;
+	private final int maxCachedValues;
+	private final Semaphore inFlight;
+
+	private volatile Function function;
+
+	// Metrics
+	private final AtomicInteger queueDepth = new AtomicInteger();
+	private final AtomicInteger runningCount = new AtomicInteger();
+	private final LongAdder submittedCount = new LongAdder();
+	private final LongAdder evaluationCount = new LongAdder();
+	private final LongAdder queueTimeSum = new LongAdder();
+	private final LongAdder evaluationTimeSum = new LongAdder();
+	private final AtomicLong maxEvaluationTime = new AtomicLong();
+	private final LongAdder blockedCount = new LongAdder();
+	private int evictionCount = 0;
 
 	/**
 	 * Construct a cache that uses the same number of computational threads as there
-	 * are
-	 * processors available.
+	 * are processors available.
 	 */
 	public ParallelExecutorCache() {
 		this(Runtime.getRuntime().availableProcessors());
@@ -50,32 +95,95 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 
 	/**
 	 * Construct a cache that uses the specified number of computational threads for
-	 * background
-	 * computation. The threads that are created are marked as daemon threads.
-	 * 
+	 * background computation. The threads that are created are marked as daemon threads
+	 * and end when they have been idle for a minute.
+	 *
 	 * @param threadCount the number of threads to use in the executor.
 	 */
 	public ParallelExecutorCache(int threadCount) {
-		this(new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
-				new LinkedBlockingQueue<Runnable>(),
-				new ThreadFactory() {
-					@Override
-					public Thread newThread(Runnable r) {
-						Thread t = new Thread(r);
-						t.setDaemon(true);
-						return t;
-					}
-				}));
+		this(createPlatformExecutor(threadCount), threadCount * DEFAULT_IN_FLIGHT_PER_THREAD,
+				DEFAULT_MAX_CACHED_VALUES);
 	}
 
 	/**
 	 * Construct a cache that uses the specified ExecutorService for managing
-	 * computational threads.
-	 * 
+	 * computational threads.  The number of evaluations in flight is not limited
+	 * beyond what the executor enforces.
+	 *
 	 * @param executor the executor to use for function evaluations.
 	 */
 	public ParallelExecutorCache(ExecutorService executor) {
+		this(executor, Integer.MAX_VALUE, DEFAULT_MAX_CACHED_VALUES);
+	}
+
+	/**
+	 * Construct a cache that uses the specified ExecutorService for managing
+	 * computational threads.
+	 *
+	 * @param executor			the executor to use for function evaluations.
+	 * @param maxInFlight		the maximum number of evaluations submitted and not yet finished.
+	 * @param maxCachedValues	the maximum number of function values kept in the cache.
+	 */
+	public ParallelExecutorCache(ExecutorService executor, int maxInFlight, int maxCachedValues) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+		}
+		if (maxCachedValues <= 0) {
+			throw new IllegalArgumentException("maxCachedValues must be positive: " + maxCachedValues);
+		}
 		this.executor = executor;
+		this.maxInFlight = maxInFlight;
+		this.maxCachedValues = maxCachedValues;
+		this.inFlight = new Semaphore(maxInFlight);
+		this.functionCache = new LinkedHashMap<Point, Double>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Point, Double> eldest) {
+				if (size() > ParallelExecutorCache.this.maxCachedValues) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Construct a cache that evaluates each point on a new virtual thread, if the runtime
+	 * supports virtual threads.  Otherwise a pool of daemon platform threads is used, with
+	 * one thread per evaluation in flight.
+	 *
+	 * @param maxInFlight	the maximum number of evaluations submitted and not yet finished,
+	 * 						which is also the maximum number of evaluations running at once.
+	 * @return				a new function cache.
+	 */
+	public static ParallelExecutorCache withVirtualThreads(int maxInFlight) {
+		ExecutorService executor = createVirtualThreadExecutor();
+		if (executor == null) {
+			log.info("Virtual threads are not supported, using " + maxInFlight + " platform threads");
+			return withPlatformThreads(maxInFlight);
+		}
+		return new ParallelExecutorCache(executor, maxInFlight, DEFAULT_MAX_CACHED_VALUES);
+	}
+
+	/**
+	 * Construct a cache that evaluates the points on a pool of daemon platform threads,
+	 * with one thread per evaluation in flight.  This is the fallback of
+	 * {@link #withVirtualThreads(int)} on runtimes without virtual threads.
+	 *
+	 * @param maxInFlight	the maximum number of evaluations submitted and not yet finished,
+	 * 						which is also the maximum number of evaluations running at once.
+	 * @return				a new function cache.
+	 */
+	public static ParallelExecutorCache withPlatformThreads(int maxInFlight) {
+		return new ParallelExecutorCache(createPlatformExecutor(maxInFlight), maxInFlight,
+				DEFAULT_MAX_CACHED_VALUES);
+	}
+
+	/**
+	 * Return whether the runtime supports virtual threads.
+	 */
+	public static boolean isVirtualThreadsSupported() {
+		return findVirtualThreadExecutorMethod() != null;
 	}
 
 	@Override
@@ -93,20 +201,48 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 			return;
 		}
 
-		if (functionCache.containsKey(point)) {
-			// Function has already been evaluated at the point
-			return;
+		synchronized (this) {
+			if (functionCache.containsKey(point) || futureMap.containsKey(point)) {
+				// Function has already been evaluated or is being evaluated at the point
+				return;
+			}
 		}
 
-		if (futureMap.containsKey(point)) {
-			// Function is being evaluated at the point
-			return;
+		// Wait until the number of evaluations in flight is below the limit
+		if (!inFlight.tryAcquire()) {
+			blockedCount.increment();
+			try {
+				inFlight.acquire();
+			} catch (InterruptedException e) {
+				// Keep the interrupt status, waiting for the point then aborts the optimization
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+
+		FunctionTask task;
+		synchronized (this) {
+			if (functionCache.containsKey(point) || futureMap.containsKey(point)) {
+				// Another thread submitted the point meanwhile
+				inFlight.release();
+				return;
+			}
+			task = new FunctionTask(function, point);
+			futureMap.put(point, task);
 		}
 
 		// Submit point for evaluation
-		FunctionCallable callable = new FunctionCallable(function, point);
-		Future<Double> future = executor.submit(callable);
-		futureMap.put(point, future);
+		queueDepth.incrementAndGet();
+		submittedCount.increment();
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			synchronized (this) {
+				futureMap.remove(point);
+			}
+			task.cancel(false);
+			throw e;
+		}
 	}
 
 	@Override
@@ -122,18 +258,27 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 			return;
 		}
 
-		if (functionCache.containsKey(point)) {
-			return;
+		Future<Double> future;
+		synchronized (this) {
+			if (functionCache.containsKey(point)) {
+				return;
+			}
+			future = futureMap.get(point);
 		}
-
-		Future<Double> future = futureMap.get(point);
 		if (future == null) {
+			if (Thread.interrupted()) {
+				// The point was not submitted because compute was interrupted
+				throw new InterruptedException("Interrupted while computing " + point);
+			}
 			throw new IllegalStateException("waitFor called for " + point + " but it is not being computed");
 		}
 
 		try {
 			double value = future.get();
-			functionCache.put(point, value);
+			synchronized (this) {
+				functionCache.put(point, value);
+				futureMap.remove(point, future);
+			}
 		} catch (ExecutionException e) {
 			Throwable cause = e.getCause();
 			if (cause instanceof InterruptedException) {
@@ -164,7 +309,7 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 	}
 
 	@Override
-	public boolean abort(Point point) {
+	public synchronized boolean abort(Point point) {
 		if (isOutsideRange(point)) {
 			return false;
 		}
@@ -173,11 +318,28 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 			return true;
 		}
 
-		Future<Double> future = futureMap.remove(point);
+		FunctionTask future = futureMap.remove(point);
 		if (future == null) {
 			throw new IllegalStateException("abort called for " + point + " but it is not being computed");
 		}
 
+		return abort(point, future);
+	}
+
+	@Override
+	public synchronized void abortAll() {
+		List<Map.Entry<Point, FunctionTask>> entries = new ArrayList<Map.Entry<Point, FunctionTask>>(futureMap.entrySet());
+		futureMap.clear();
+		for (Map.Entry<Point, FunctionTask> e : entries) {
+			abort(e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * Cancel an evaluation, or store its value if it has been completed.  Must be called
+	 * while holding the lock of this object.
+	 */
+	private boolean abort(Point point, FunctionTask future) {
 		if (future.isDone()) {
 			// Evaluation has been completed, store value in cache
 			try {
@@ -195,30 +357,7 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 	}
 
 	@Override
-	public void abortAll() {
-		Iterator<Point> iterator = futureMap.keySet().iterator();
-		while (iterator.hasNext()) {
-			Point point = iterator.next();
-			Future<Double> future = futureMap.get(point);
-			iterator.remove();
-
-			if (future.isDone()) {
-				// Evaluation has been completed, store value in cache
-				try {
-					double value = future.get();
-					functionCache.put(point, value);
-				} catch (Exception e) {
-					// Ignore
-				}
-			} else {
-				// Cancel the evaluation
-				future.cancel(true);
-			}
-		}
-	}
-
-	@Override
-	public double getValue(Point point) {
+	public synchronized double getValue(Point point) {
 		if (isOutsideRange(point)) {
 			return Double.MAX_VALUE;
 		}
@@ -226,7 +365,7 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 		Double d = functionCache.get(point);
 		if (d == null) {
 			throw new IllegalStateException(point + " is not in function cache.  " +
-					"functionCache=" + functionCache + "  futureMap=" + futureMap);
+					"cachedValues=" + functionCache.size() + "  futureMap=" + futureMap.keySet());
 		}
 		return d;
 	}
@@ -243,7 +382,7 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 	}
 
 	@Override
-	public void clearCache() {
+	public synchronized void clearCache() {
 		List<Point> list = new ArrayList<Point>(futureMap.keySet());
 		abort(list);
 		functionCache.clear();
@@ -253,6 +392,111 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 		return executor;
 	}
 
+	/**
+	 * Return the maximum number of evaluations submitted and not yet finished.
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Return the maximum number of function values kept in the cache.
+	 */
+	public int getMaxCachedValues() {
+		return maxCachedValues;
+	}
+
+	/**
+	 * Return the number of evaluations submitted to the executor that have not started yet.
+	 */
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/**
+	 * Return the number of evaluations currently running.
+	 */
+	public int getRunningCount() {
+		return runningCount.get();
+	}
+
+	/**
+	 * Return the number of evaluations submitted and not yet finished.
+	 */
+	public int getInFlightCount() {
+		if (maxInFlight == Integer.MAX_VALUE) {
+			return queueDepth.get() + runningCount.get();
+		}
+		return maxInFlight - inFlight.availablePermits();
+	}
+
+	/**
+	 * Return the number of function values currently cached.
+	 */
+	public synchronized int getCachedValueCount() {
+		return functionCache.size();
+	}
+
+	/**
+	 * Return the number of finished evaluations.
+	 */
+	public long getEvaluationCount() {
+		return evaluationCount.sum();
+	}
+
+	/**
+	 * Return the mean time in seconds the finished evaluations waited in the queue.
+	 */
+	public double getMeanQueueTime() {
+		long count = evaluationCount.sum();
+		return count == 0 ? Double.NaN : queueTimeSum.sum() / 1e9 / count;
+	}
+
+	/**
+	 * Return the mean time in seconds the finished evaluations took.
+	 */
+	public double getMeanEvaluationTime() {
+		long count = evaluationCount.sum();
+		return count == 0 ? Double.NaN : evaluationTimeSum.sum() / 1e9 / count;
+	}
+
+	/**
+	 * Return the maximum time in seconds a finished evaluation took.
+	 */
+	public double getMaxEvaluationTime() {
+		return maxEvaluationTime.get() / 1e9;
+	}
+
+	@Override
+	public String getStatistics() {
+		int evictions;
+		synchronized (this) {
+			evictions = evictionCount;
+		}
+		return "ParallelExecutorCache[submitted=" + submittedCount.sum() +
+				", evaluated=" + evaluationCount.sum() +
+				", queueDepth=" + queueDepth.get() +
+				", running=" + runningCount.get() +
+				", blocked=" + blockedCount.sum() +
+				", evicted=" + evictions +
+				", meanQueueTime=" + getMeanQueueTime() +
+				", meanEvaluationTime=" + getMeanEvaluationTime() +
+				", maxEvaluationTime=" + getMaxEvaluationTime() + "]";
+	}
+
+	@Override
+	public void resetStatistics() {
+		submittedCount.reset();
+		evaluationCount.reset();
+		queueTimeSum.reset();
+		evaluationTimeSum.reset();
+		maxEvaluationTime.set(0);
+		blockedCount.reset();
+		synchronized (this) {
+			evictionCount = 0;
+		}
+	}
+
 	/**
 	 * Check whether a point is outside of the valid optimization range.
 	 */
@@ -268,11 +512,134 @@ public class ParallelExecutorCache implements ParallelFunctionCache {
 		return false;
 	}
 
+	/**
+	 * Called by a task when its evaluation has finished successfully.
+	 */
+	private synchronized void evaluated(Point point, FunctionTask task, double value) {
+		if (futureMap.get(point) == task) {
+			futureMap.remove(point);
+			functionCache.put(point, value);
+		}
+	}
+
+
+	private static ExecutorService createPlatformExecutor(int threadCount) {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r);
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		Method method = findVirtualThreadExecutorMethod();
+		if (method == null) {
+			return null;
+		}
+		try {
+			return (ExecutorService) method.invoke(null);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			log.warn("Unable to create virtual thread executor", e);
+			return null;
+		}
+	}
+
+	private static Method findVirtualThreadExecutorMethod() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+
+	/**
+	 * A task that evaluates a function at a specific point, stores the result and
+	 * records the metrics of the evaluation.
+	 */
+	private class FunctionTask extends FutureTask<Double> {
+		private final Point point;
+		private final long submitTime = System.nanoTime();
+		private final AtomicBoolean dequeued = new AtomicBoolean(false);
+		private long startTime;
+		private boolean recorded = false;
+
+		public FunctionTask(Function function, Point point) {
+			super(new FunctionCallable(function, point));
+			this.point = point;
+		}
+
+		@Override
+		public void run() {
+			dequeue();
+			if (isDone()) {
+				// Cancelled while queued
+				return;
+			}
+			startTime = System.nanoTime();
+			runningCount.incrementAndGet();
+			super.run();
+			if (!recorded) {
+				// Cancelled before the function was called
+				runningCount.decrementAndGet();
+			}
+		}
+
+		@Override
+		protected void set(Double value) {
+			finished();
+			super.set(value);
+			evaluated(point, this, value);
+		}
+
+		@Override
+		protected void setException(Throwable t) {
+			finished();
+			super.setException(t);
+		}
+
+		/**
+		 * Record the metrics of the evaluation, before it is visible as done.
+		 */
+		private void finished() {
+			recorded = true;
+			runningCount.decrementAndGet();
+			final long time = System.nanoTime() - startTime;
+			queueTimeSum.add(startTime - submitTime);
+			evaluationTimeSum.add(time);
+			maxEvaluationTime.accumulateAndGet(time, Math::max);
+			evaluationCount.increment();
+		}
+
+		@Override
+		protected void done() {
+			dequeue();
+			inFlight.release();
+		}
+
+		/**
+		 * Remove the task from the queue depth, once either when it starts or when it is
+		 * cancelled before starting.
+		 */
+		private void dequeue() {
+			if (dequeued.compareAndSet(false, true)) {
+				queueDepth.decrementAndGet();
+			}
+		}
+	}
+
 	/**
 	 * A Callable that evaluates a function at a specific point and returns the
 	 * result.
 	 */
-	private class FunctionCallable implements Callable<Double> {
+	private static class FunctionCallable implements Callable<Double> {
 		private final Function calledFunction;
 		private final Point point;
 
@@ -0,0 +1,292 @@
+package info.openrocket.core.optimization.general.multidim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import info.openrocket.core.optimization.general.ParallelFunctionCache;
+import info.openrocket.core.optimization.general.Point;
+
+/**
+ * An implementation of the covariance matrix adaptation evolution strategy (CMA-ES)
+ * by Hansen and Ostermeier.
+ * <p>
+ * Each generation is sampled from a multivariate normal distribution, whose mean, step size
+ * and covariance matrix are adapted to the best points of the previous generations.  This
+ * makes the algorithm robust against noisy and badly scaled functions.  Samples outside of
+ * the optimization range are moved onto its boundary, and the moved points are used for
+ * the adaptation.
+ * <p>
+ * The step size reported to the optimization controller is the largest standard deviation
+ * of the sampling distribution.
+ */
+public class CMAESOptimizer extends PopulationOptimizer {
+
+	/** Initial step size of the distribution */
+	private static final double INITIAL_SIGMA = 0.3;
+
+	private int dim;
+	private int lambda;
+	private int mu;
+	private double[] weights;
+	private double muEff;
+
+	private double cc;
+	private double cs;
+	private double c1;
+	private double cmu;
+	private double damps;
+	private double chiN;
+
+	private double[] mean;
+	private double sigma;
+	private double[][] c;
+	private double[][] b;
+	private double[] d;
+	private double[] pc;
+	private double[] ps;
+	private int generation;
+
+
+	public CMAESOptimizer() {
+		this(null);
+	}
+
+	public CMAESOptimizer(ParallelFunctionCache functionCache) {
+		this(functionCache, 0, new Random());
+	}
+
+	/**
+	 * Construct the optimizer.
+	 *
+	 * @param functionCache		the function cache.
+	 * @param populationSize	the number of points in a generation, or zero for the default.
+	 * @param random			the random number generator to use.
+	 */
+	public CMAESOptimizer(ParallelFunctionCache functionCache, int populationSize, Random random) {
+		super(functionCache, populationSize, random);
+	}
+
+
+	@Override
+	protected int getDefaultPopulationSize(int n) {
+		return 4 + (int) (3 * Math.log(n));
+	}
+
+	@Override
+	protected void initialize(Point initial, int populationSize) {
+		dim = initial.dim();
+		lambda = Math.max(populationSize, 2);
+		mu = lambda / 2;
+
+		// Logarithmically decreasing recombination weights
+		weights = new double[mu];
+		double sum = 0;
+		for (int i = 0; i < mu; i++) {
+			weights[i] = Math.log(mu + 0.5) - Math.log(i + 1);
+			sum += weights[i];
+		}
+		double sum2 = 0;
+		for (int i = 0; i < mu; i++) {
+			weights[i] /= sum;
+			sum2 += weights[i] * weights[i];
+		}
+		muEff = 1 / sum2;
+
+		// Adaptation parameters
+		cc = (4 + muEff / dim) / (dim + 4 + 2 * muEff / dim);
+		cs = (muEff + 2) / (dim + muEff + 5);
+		c1 = 2 / ((dim + 1.3) * (dim + 1.3) + muEff);
+		cmu = Math.min(1 - c1, 2 * (muEff - 2 + 1 / muEff) / ((dim + 2) * (dim + 2) + muEff));
+		damps = 1 + 2 * Math.max(0, Math.sqrt((muEff - 1) / (dim + 1)) - 1) + cs;
+		chiN = Math.sqrt(dim) * (1 - 1.0 / (4 * dim) + 1.0 / (21 * dim * dim));
+
+		mean = initial.asArray();
+		sigma = INITIAL_SIGMA;
+		c = new double[dim][dim];
+		b = new double[dim][dim];
+		d = new double[dim];
+		for (int i = 0; i < dim; i++) {
+			c[i][i] = 1;
+			b[i][i] = 1;
+			d[i] = 1;
+		}
+		pc = new double[dim];
+		ps = new double[dim];
+		generation = 0;
+	}
+
+	@Override
+	protected List<Point> createGeneration() {
+		List<Point> points = new ArrayList<Point>(lambda);
+		for (int k = 0; k < lambda; k++) {
+			final double[] z = new double[dim];
+			for (int i = 0; i < dim; i++) {
+				z[i] = d[i] * random.nextGaussian();
+			}
+			final double[] x = new double[dim];
+			for (int i = 0; i < dim; i++) {
+				double y = 0;
+				for (int j = 0; j < dim; j++) {
+					y += b[i][j] * z[j];
+				}
+				x[i] = mean[i] + sigma * y;
+			}
+			points.add(clip(new Point(x)));
+		}
+		return points;
+	}
+
+	@Override
+	protected double update(List<Point> points, double[] values) {
+		generation++;
+
+		// Rank the points, NaN values last
+		Integer[] order = new Integer[lambda];
+		for (int i = 0; i < lambda; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i1, i2) -> Double.compare(values[i1], values[i2]));
+
+		// Steps of the selected points from the old mean, in units of sigma
+		final double[][] y = new double[mu][];
+		final double[] yMean = new double[dim];
+		for (int k = 0; k < mu; k++) {
+			final double[] x = points.get(order[k]).asArray();
+			y[k] = new double[dim];
+			for (int i = 0; i < dim; i++) {
+				y[k][i] = (x[i] - mean[i]) / sigma;
+				yMean[i] += weights[k] * y[k][i];
+			}
+		}
+		for (int i = 0; i < dim; i++) {
+			mean[i] += sigma * yMean[i];
+		}
+
+		// Evolution path of the step size, using C^-1/2 = B D^-1 B^T
+		final double[] bty = new double[dim];
+		for (int j = 0; j < dim; j++) {
+			for (int i = 0; i < dim; i++) {
+				bty[j] += b[i][j] * yMean[i];
+			}
+			bty[j] /= d[j];
+		}
+		final double csFactor = Math.sqrt(cs * (2 - cs) * muEff);
+		double psNorm2 = 0;
+		for (int i = 0; i < dim; i++) {
+			double invSqrtCy = 0;
+			for (int j = 0; j < dim; j++) {
+				invSqrtCy += b[i][j] * bty[j];
+			}
+			ps[i] = (1 - cs) * ps[i] + csFactor * invSqrtCy;
+			psNorm2 += ps[i] * ps[i];
+		}
+		final double psNorm = Math.sqrt(psNorm2);
+
+		// Evolution path of the covariance, stalled when the step size grows quickly
+		final boolean hsig = psNorm / Math.sqrt(1 - Math.pow(1 - cs, 2 * generation)) / chiN < 1.4 + 2.0 / (dim + 1);
+		final double ccFactor = Math.sqrt(cc * (2 - cc) * muEff);
+		for (int i = 0; i < dim; i++) {
+			pc[i] = (1 - cc) * pc[i] + (hsig ? ccFactor * yMean[i] : 0);
+		}
+
+		// Rank-one and rank-mu update of the covariance matrix
+		final double oldWeight = 1 - c1 - cmu + (hsig ? 0 : c1 * cc * (2 - cc));
+		for (int i = 0; i < dim; i++) {
+			for (int j = 0; j <= i; j++) {
+				double rankMu = 0;
+				for (int k = 0; k < mu; k++) {
+					rankMu += weights[k] * y[k][i] * y[k][j];
+				}
+				c[i][j] = oldWeight * c[i][j] + c1 * pc[i] * pc[j] + cmu * rankMu;
+				c[j][i] = c[i][j];
+			}
+		}
+
+		sigma *= Math.exp((cs / damps) * (psNorm / chiN - 1));
+		decompose();
+
+		double maxD = 0;
+		for (int i = 0; i < dim; i++) {
+			maxD = Math.max(maxD, d[i]);
+		}
+		return sigma * maxD;
+	}
+
+	/**
+	 * Compute B and D of the covariance matrix C = B D^2 B^T with the cyclic Jacobi
+	 * eigenvalue method.
+	 */
+	private void decompose() {
+		final double[][] a = new double[dim][];
+		for (int i = 0; i < dim; i++) {
+			a[i] = c[i].clone();
+			Arrays.fill(b[i], 0);
+			b[i][i] = 1;
+		}
+
+		for (int sweep = 0; sweep < 50; sweep++) {
+			double off = 0;
+			for (int p = 0; p < dim; p++) {
+				for (int q = p + 1; q < dim; q++) {
+					off += a[p][q] * a[p][q];
+				}
+			}
+			if (off < 1e-30) {
+				break;
+			}
+
+			for (int p = 0; p < dim; p++) {
+				for (int q = p + 1; q < dim; q++) {
+					if (a[p][q] == 0) {
+						continue;
+					}
+					final double theta = (a[q][q] - a[p][p]) / (2 * a[p][q]);
+					final double t = Math.signum(theta == 0 ? 1 : theta) /
+							(Math.abs(theta) + Math.sqrt(theta * theta + 1));
+					final double cos = 1 / Math.sqrt(t * t + 1);
+					final double sin = t * cos;
+
+					for (int k = 0; k < dim; k++) {
+						final double akp = a[k][p];
+						final double akq = a[k][q];
+						a[k][p] = cos * akp - sin * akq;
+						a[k][q] = sin * akp + cos * akq;
+					}
+					for (int k = 0; k < dim; k++) {
+						final double apk = a[p][k];
+						final double aqk = a[q][k];
+						a[p][k] = cos * apk - sin * aqk;
+						a[q][k] = sin * apk + cos * aqk;
+					}
+					for (int k = 0; k < dim; k++) {
+						final double bkp = b[k][p];
+						final double bkq = b[k][q];
+						b[k][p] = cos * bkp - sin * bkq;
+						b[k][q] = sin * bkp + cos * bkq;
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < dim; i++) {
+			d[i] = Math.sqrt(Math.max(a[i][i], 1e-20));
+		}
+	}
+
+	/**
+	 * Return the current mean of the sampling distribution.
+	 */
+	public Point getMean() {
+		return new Point(mean);
+	}
+
+	/**
+	 * Return the current step size of the sampling distribution.
+	 */
+	public double getSigma() {
+		return sigma;
+	}
+
+}
@@ -0,0 +1,188 @@
+package info.openrocket.core.optimization.general.multidim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import info.openrocket.core.optimization.general.ParallelFunctionCache;
+import info.openrocket.core.optimization.general.Point;
+
+/**
+ * An implementation of the differential evolution algorithm by Storn and Price, using the
+ * DE/rand/1/bin strategy.
+ * <p>
+ * The initial population consists of the initial point and points distributed uniformly
+ * over the optimization range.  Each generation creates one trial point per population
+ * member by adding the scaled difference of two random members to a third one and crossing
+ * the result over with the member.  The trial point replaces the member if its value is
+ * not worse.  Coordinates falling outside of the optimization range are placed halfway
+ * between the member and the violated bound.
+ * <p>
+ * The step size reported to the optimization controller is the largest standard deviation
+ * of the population coordinates.
+ */
+public class DifferentialEvolutionOptimizer extends PopulationOptimizer {
+
+	/** Default differential weight */
+	public static final double DEFAULT_DIFFERENTIAL_WEIGHT = 0.7;
+	/** Default crossover probability */
+	public static final double DEFAULT_CROSSOVER_PROBABILITY = 0.9;
+
+	private final double differentialWeight;
+	private final double crossoverProbability;
+
+	private final List<Point> population = new ArrayList<Point>();
+	private double[] populationValues;
+	private List<Point> initialPopulation;
+
+
+	public DifferentialEvolutionOptimizer() {
+		this(null);
+	}
+
+	public DifferentialEvolutionOptimizer(ParallelFunctionCache functionCache) {
+		this(functionCache, 0, new Random());
+	}
+
+	/**
+	 * Construct the optimizer with the default differential weight and crossover probability.
+	 *
+	 * @param functionCache		the function cache.
+	 * @param populationSize	the number of points in a generation, or zero for the default.
+	 * @param random			the random number generator to use.
+	 */
+	public DifferentialEvolutionOptimizer(ParallelFunctionCache functionCache, int populationSize, Random random) {
+		this(functionCache, populationSize, random, DEFAULT_DIFFERENTIAL_WEIGHT, DEFAULT_CROSSOVER_PROBABILITY);
+	}
+
+	/**
+	 * Construct the optimizer.
+	 *
+	 * @param functionCache			the function cache.
+	 * @param populationSize		the number of points in a generation, or zero for the default.
+	 * @param random				the random number generator to use.
+	 * @param differentialWeight	the factor applied to the difference of two members, in (0,2].
+	 * @param crossoverProbability	the probability of taking a coordinate from the mutated
+	 * 								point, in [0,1].
+	 */
+	public DifferentialEvolutionOptimizer(ParallelFunctionCache functionCache, int populationSize, Random random,
+			double differentialWeight, double crossoverProbability) {
+		super(functionCache, populationSize, random);
+		if (!(differentialWeight > 0 && differentialWeight <= 2)) {
+			throw new IllegalArgumentException("differentialWeight must be in (0,2]: " + differentialWeight);
+		}
+		if (!(crossoverProbability >= 0 && crossoverProbability <= 1)) {
+			throw new IllegalArgumentException("crossoverProbability must be in [0,1]: " + crossoverProbability);
+		}
+		this.differentialWeight = differentialWeight;
+		this.crossoverProbability = crossoverProbability;
+	}
+
+
+	@Override
+	protected int getDefaultPopulationSize(int dim) {
+		return 10 * dim;
+	}
+
+	@Override
+	protected void initialize(Point initial, int populationSize) {
+		// Mutation requires three members in addition to the target
+		final int size = Math.max(populationSize, 4);
+
+		population.clear();
+		populationValues = null;
+		initialPopulation = new ArrayList<Point>(size);
+		initialPopulation.add(initial);
+		while (initialPopulation.size() < size) {
+			final double[] x = new double[initial.dim()];
+			for (int i = 0; i < x.length; i++) {
+				x[i] = random.nextDouble();
+			}
+			initialPopulation.add(new Point(x));
+		}
+	}
+
+	@Override
+	protected List<Point> createGeneration() {
+		if (populationValues == null) {
+			return initialPopulation;
+		}
+
+		final int size = population.size();
+		final List<Point> trials = new ArrayList<Point>(size);
+		for (int target = 0; target < size; target++) {
+			int r1, r2, r3;
+			do {
+				r1 = random.nextInt(size);
+			} while (r1 == target);
+			do {
+				r2 = random.nextInt(size);
+			} while (r2 == target || r2 == r1);
+			do {
+				r3 = random.nextInt(size);
+			} while (r3 == target || r3 == r1 || r3 == r2);
+
+			final Point x = population.get(target);
+			final Point a = population.get(r1);
+			final Point b = population.get(r2);
+			final Point c = population.get(r3);
+
+			final int dim = x.dim();
+			final int forced = random.nextInt(dim);
+			final double[] trial = x.asArray();
+			for (int i = 0; i < dim; i++) {
+				if (i == forced || random.nextDouble() < crossoverProbability) {
+					double v = a.get(i) + differentialWeight * (b.get(i) - c.get(i));
+					if (v < 0) {
+						v = x.get(i) / 2;
+					} else if (v > 1) {
+						v = (x.get(i) + 1) / 2;
+					}
+					trial[i] = v;
+				}
+			}
+			trials.add(new Point(trial));
+		}
+		return trials;
+	}
+
+	@Override
+	protected double update(List<Point> generation, double[] values) {
+		if (populationValues == null) {
+			population.addAll(generation);
+			populationValues = values.clone();
+			initialPopulation = null;
+		} else {
+			for (int i = 0; i < population.size(); i++) {
+				// Replace also on equal values to allow drifting over plateaus
+				if (values[i] <= populationValues[i] || Double.isNaN(populationValues[i])) {
+					population.set(i, generation.get(i));
+					populationValues[i] = values[i];
+				}
+			}
+		}
+
+		final int dim = population.get(0).dim();
+		final int size = population.size();
+		double maxDeviation = 0;
+		for (int i = 0; i < dim; i++) {
+			double sum = 0;
+			double sum2 = 0;
+			for (Point p : population) {
+				sum += p.get(i);
+				sum2 += p.get(i) * p.get(i);
+			}
+			final double variance = Math.max(sum2 / size - (sum / size) * (sum / size), 0);
+			maxDeviation = Math.max(maxDeviation, Math.sqrt(variance));
+		}
+		return maxDeviation;
+	}
+
+	/**
+	 * Return the current population.
+	 */
+	public List<Point> getPopulation() {
+		return new ArrayList<Point>(population);
+	}
+
+}
@@ -0,0 +1,247 @@
+package info.openrocket.core.optimization.general.multidim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.optimization.general.FunctionCache;
+import info.openrocket.core.optimization.general.FunctionOptimizer;
+import info.openrocket.core.optimization.general.OptimizationController;
+import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.ParallelFunctionCache;
+import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.util.Statistics;
+
+/**
+ * An abstract base class for population based optimization algorithms.
+ * <p>
+ * Each iteration of the algorithm creates a generation of points, which is submitted to the
+ * ParallelFunctionCache as a whole.  All points of a generation are thus computed in parallel,
+ * and the population size defaults to at least the number of available processors.  The
+ * OptimizationController is called once per generation.
+ * <p>
+ * The points of a generation are always within the optimization range [0,1] in every
+ * dimension.  The optimization can be aborted by interrupting the current thread.
+ */
+public abstract class PopulationOptimizer implements FunctionOptimizer, Statistics {
+	private static final Logger log = LoggerFactory.getLogger(PopulationOptimizer.class);
+
+	protected final Random random;
+
+	private ParallelFunctionCache functionExecutor;
+	private final int requestedPopulationSize;
+
+	private Point optimumPoint = null;
+	private double optimumValue = Double.NaN;
+
+	private int generationCount = 0;
+	private int evaluationCount = 0;
+	private int improvementCount = 0;
+
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param functionCache		the function cache, may be <code>null</code> if set later.
+	 * @param populationSize	the number of points in a generation, or zero to use the default
+	 * 							population size of the algorithm or the number of available
+	 * 							processors, whichever is larger.
+	 * @param random			the random number generator to use.
+	 */
+	protected PopulationOptimizer(ParallelFunctionCache functionCache, int populationSize, Random random) {
+		if (populationSize < 0) {
+			throw new IllegalArgumentException("populationSize must be non-negative: " + populationSize);
+		}
+		this.functionExecutor = functionCache;
+		this.requestedPopulationSize = populationSize;
+		this.random = random;
+	}
+
+
+	@Override
+	public void optimize(Point initial, OptimizationController control) throws OptimizationException {
+		final int populationSize = getPopulationSize(initial.dim());
+		log.info("Starting " + getClass().getSimpleName() + " optimization at " + initial +
+				" with population size " + populationSize);
+
+		optimumPoint = clip(initial);
+		optimumValue = Double.NaN;
+		initialize(optimumPoint, populationSize);
+
+		List<Point> generation = null;
+		boolean initialComputed = false;
+		try {
+
+			boolean continueOptimization = true;
+			while (continueOptimization) {
+				generation = createGeneration();
+				log.debug("Computing generation " + generation);
+				generationCount++;
+
+				// The initial point is computed along with the first generation
+				List<Point> batch = generation;
+				if (!initialComputed && !generation.contains(optimumPoint)) {
+					batch = new ArrayList<Point>(generation);
+					batch.add(optimumPoint);
+				}
+				evaluationCount += batch.size();
+
+				functionExecutor.compute(batch);
+				functionExecutor.waitFor(batch);
+				if (!initialComputed) {
+					optimumValue = functionExecutor.getValue(optimumPoint);
+					initialComputed = true;
+				}
+
+				final Point oldPoint = optimumPoint;
+				final double oldValue = optimumValue;
+				final double[] values = new double[generation.size()];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = functionExecutor.getValue(generation.get(i));
+					if (values[i] < optimumValue || Double.isNaN(optimumValue)) {
+						optimumPoint = generation.get(i);
+						optimumValue = values[i];
+					}
+				}
+				if (!optimumPoint.equals(oldPoint)) {
+					improvementCount++;
+				}
+
+				final double stepSize = update(generation, values);
+				log.debug("Ending generation with optimum " + optimumPoint + " value=" + optimumValue +
+						" step size " + stepSize);
+				generation = null;
+
+				continueOptimization = control.stepTaken(oldPoint, oldValue, optimumPoint, optimumValue, stepSize);
+
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+
+		} catch (InterruptedException e) {
+			log.info("Optimization was interrupted with InterruptedException");
+			if (generation != null) {
+				functionExecutor.abort(generation);
+			}
+			if (!initialComputed) {
+				functionExecutor.abort(optimumPoint);
+			}
+		}
+
+		log.info("Finishing optimization at point " + optimumPoint + " value = " + optimumValue);
+		log.info("Optimization statistics: " + getStatistics());
+	}
+
+	/**
+	 * Return the number of points in each generation for the given dimension.
+	 */
+	public int getPopulationSize(int dim) {
+		if (requestedPopulationSize > 0) {
+			return requestedPopulationSize;
+		}
+		return Math.max(getDefaultPopulationSize(dim), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Return the population size recommended for the algorithm in the given dimension.
+	 */
+	protected abstract int getDefaultPopulationSize(int dim);
+
+	/**
+	 * Initialize the state of the algorithm before the first generation.
+	 *
+	 * @param initial			the initial point, within the optimization range.
+	 * @param populationSize	the number of points in each generation.
+	 */
+	protected abstract void initialize(Point initial, int populationSize);
+
+	/**
+	 * Create the points of the next generation.  All points must be within the
+	 * optimization range.
+	 */
+	protected abstract List<Point> createGeneration();
+
+	/**
+	 * Update the state of the algorithm with the computed function values of a generation.
+	 *
+	 * @param generation	the points of the generation, as returned by {@link #createGeneration()}.
+	 * @param values		the function values at the points.
+	 * @return				the current search step size, reported to the optimization controller.
+	 */
+	protected abstract double update(List<Point> generation, double[] values);
+
+
+	/**
+	 * Return the point with each coordinate limited to the optimization range [0,1].
+	 */
+	protected static Point clip(Point p) {
+		for (int i = 0; i < p.dim(); i++) {
+			double d = p.get(i);
+			if (!(d >= 0.0)) {
+				p = p.set(i, 0.0);
+			} else if (d > 1.0) {
+				p = p.set(i, 1.0);
+			}
+		}
+		return p;
+	}
+
+	@Override
+	public Point getOptimumPoint() {
+		if (optimumPoint == null) {
+			throw new IllegalStateException("Optimization has not been called");
+		}
+		return optimumPoint;
+	}
+
+	@Override
+	public double getOptimumValue() {
+		return functionExecutor.getValue(getOptimumPoint());
+	}
+
+	@Override
+	public FunctionCache getFunctionCache() {
+		return functionExecutor;
+	}
+
+	@Override
+	public void setFunctionCache(FunctionCache functionCache) {
+		if (!(functionCache instanceof ParallelFunctionCache)) {
+			throw new IllegalArgumentException("Function cache needs to be a ParallelFunctionCache: " + functionCache);
+		}
+		this.functionExecutor = (ParallelFunctionCache) functionCache;
+	}
+
+	/**
+	 * Return the number of generations computed.
+	 */
+	public int getGenerationCount() {
+		return generationCount;
+	}
+
+	/**
+	 * Return the number of points submitted for computation.
+	 */
+	public int getEvaluationCount() {
+		return evaluationCount;
+	}
+
+	@Override
+	public String getStatistics() {
+		return getClass().getSimpleName() + "[generationCount=" + generationCount +
+				", evaluationCount=" + evaluationCount +
+				", improvementCount=" + improvementCount + "]";
+	}
+
+	@Override
+	public void resetStatistics() {
+		generationCount = 0;
+		evaluationCount = 0;
+		improvementCount = 0;
+	}
+
+}
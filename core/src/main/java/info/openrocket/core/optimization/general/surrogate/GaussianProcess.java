@@ -0,0 +1,216 @@
+package info.openrocket.core.optimization.general.surrogate;
+
+import java.util.List;
+
+import info.openrocket.core.optimization.general.Point;
+
+/**
+ * A Gaussian process regression model of a function, fitted on known function values.
+ * <p>
+ * The model uses a constant mean and a squared exponential covariance with a common length
+ * scale for all dimensions.  The length scale is selected from a set of candidates by the
+ * marginal likelihood of the known values, and the variance of the process is estimated by
+ * maximum likelihood.  A small nugget term keeps the fit stable when points are close to
+ * each other.
+ * <p>
+ * The model is immutable once fitted and may be used from multiple threads.
+ */
+public final class GaussianProcess {
+
+	/** Candidate length scales of the covariance, in units of the scaled parameters */
+	private static final double[] LENGTH_SCALES = { 0.05, 0.1, 0.2, 0.35, 0.6, 1.0 };
+
+	/** Relative variance of the nugget term */
+	private static final double NUGGET = 1e-6;
+
+	private final double[][] x;
+	private final double mean;
+	private final double variance;
+	private final double lengthScale;
+
+	/** Lower triangular Cholesky factor of the covariance matrix */
+	private final double[][] cholesky;
+	/** Weights of the covariances of the known points, K^-1 (y - mean) */
+	private final double[] alpha;
+
+	private GaussianProcess(double[][] x, double mean, double variance, double lengthScale,
+			double[][] cholesky, double[] alpha) {
+		this.x = x;
+		this.mean = mean;
+		this.variance = variance;
+		this.lengthScale = lengthScale;
+		this.cholesky = cholesky;
+		this.alpha = alpha;
+	}
+
+	/**
+	 * Fit a model on the known values of a function.
+	 *
+	 * @param points	the points, all of the same dimension.
+	 * @param values	the function values at the points.
+	 * @return			the fitted model, or <code>null</code> if no model could be fitted.
+	 */
+	public static GaussianProcess fit(List<Point> points, List<Double> values) {
+		final int n = points.size();
+		if (n == 0 || n != values.size()) {
+			return null;
+		}
+
+		final double[][] x = new double[n][];
+		double mean = 0;
+		for (int i = 0; i < n; i++) {
+			x[i] = points.get(i).asArray();
+			mean += values.get(i);
+		}
+		mean /= n;
+		final double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			y[i] = values.get(i) - mean;
+		}
+
+		GaussianProcess best = null;
+		double bestLikelihood = Double.NEGATIVE_INFINITY;
+		for (double lengthScale : LENGTH_SCALES) {
+			final double[][] l = choleskyDecomposition(covarianceMatrix(x, lengthScale));
+			if (l == null) {
+				continue;
+			}
+			final double[] alpha = solve(l, y);
+
+			// Concentrated log marginal likelihood with the maximum likelihood variance
+			double variance = 0;
+			double logDeterminant = 0;
+			for (int i = 0; i < n; i++) {
+				variance += y[i] * alpha[i];
+				logDeterminant += 2 * Math.log(l[i][i]);
+			}
+			variance = Math.max(variance / n, Double.MIN_NORMAL);
+			final double likelihood = -0.5 * (n * Math.log(variance) + logDeterminant);
+
+			if (likelihood > bestLikelihood) {
+				bestLikelihood = likelihood;
+				best = new GaussianProcess(x, mean, variance, lengthScale, l, alpha);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Predict the function value at a point.
+	 *
+	 * @param point	the point.
+	 * @return		the predicted value and its standard deviation, in this order.
+	 */
+	public double[] predict(Point point) {
+		final double[] p = point.asArray();
+		final int n = x.length;
+		final double[] k = new double[n];
+		double value = mean;
+		for (int i = 0; i < n; i++) {
+			k[i] = covariance(p, x[i], lengthScale);
+			value += k[i] * alpha[i];
+		}
+
+		// Posterior variance 1 + nugget - k^T K^-1 k, with K = L L^T
+		final double[] v = forwardSubstitution(cholesky, k);
+		double explained = 0;
+		for (int i = 0; i < n; i++) {
+			explained += v[i] * v[i];
+		}
+		final double deviation = Math.sqrt(variance * Math.max(1 + NUGGET - explained, 0));
+		return new double[] { value, deviation };
+	}
+
+	/**
+	 * Return the length scale selected for the covariance.
+	 */
+	public double getLengthScale() {
+		return lengthScale;
+	}
+
+	/**
+	 * Return the number of points the model was fitted on.
+	 */
+	public int getPointCount() {
+		return x.length;
+	}
+
+
+	private static double covariance(double[] a, double[] b, double lengthScale) {
+		double distance2 = 0;
+		for (int i = 0; i < a.length; i++) {
+			final double d = a[i] - b[i];
+			distance2 += d * d;
+		}
+		return Math.exp(-distance2 / (2 * lengthScale * lengthScale));
+	}
+
+	private static double[][] covarianceMatrix(double[][] x, double lengthScale) {
+		final int n = x.length;
+		final double[][] k = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			k[i][i] = 1 + NUGGET;
+			for (int j = 0; j < i; j++) {
+				k[i][j] = covariance(x[i], x[j], lengthScale);
+				k[j][i] = k[i][j];
+			}
+		}
+		return k;
+	}
+
+	/**
+	 * Return the lower triangular Cholesky factor of a symmetric matrix, or
+	 * <code>null</code> if the matrix is not positive definite.
+	 */
+	private static double[][] choleskyDecomposition(double[][] a) {
+		final int n = a.length;
+		final double[][] l = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				double sum = a[i][j];
+				for (int k = 0; k < j; k++) {
+					sum -= l[i][k] * l[j][k];
+				}
+				if (i == j) {
+					if (!(sum > 0)) {
+						return null;
+					}
+					l[i][i] = Math.sqrt(sum);
+				} else {
+					l[i][j] = sum / l[j][j];
+				}
+			}
+		}
+		return l;
+	}
+
+	private static double[] forwardSubstitution(double[][] l, double[] b) {
+		final int n = b.length;
+		final double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			double sum = b[i];
+			for (int k = 0; k < i; k++) {
+				sum -= l[i][k] * y[k];
+			}
+			y[i] = sum / l[i][i];
+		}
+		return y;
+	}
+
+	/**
+	 * Solve L L^T x = b.
+	 */
+	private static double[] solve(double[][] l, double[] b) {
+		final int n = b.length;
+		final double[] y = forwardSubstitution(l, b);
+		final double[] x = new double[n];
+		for (int i = n - 1; i >= 0; i--) {
+			double sum = y[i];
+			for (int k = i + 1; k < n; k++) {
+				sum -= l[k][i] * x[k];
+			}
+			x[i] = sum / l[i][i];
+		}
+		return x;
+	}
+}
@@ -0,0 +1,358 @@
+package info.openrocket.core.optimization.general.surrogate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.optimization.general.Function;
+import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.ParallelFunctionCache;
+import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.util.Statistics;
+
+/**
+ * A ParallelFunctionCache that screens the points to compute with a surrogate model of the
+ * function.  The values are computed by another ParallelFunctionCache, and a
+ * {@link GaussianProcess} is fitted on the values computed so far.
+ * <p>
+ * When a point is scheduled for computation, the surrogate predicts its value and the
+ * standard deviation of the prediction.  If even the optimistic estimate
+ * <code>value - confidence * deviation</code> is worse than the best value computed so far,
+ * the point is not computed, and the predicted value is returned for it instead.  The
+ * cache is meant for optimizers that use such values only to reject candidate points, like
+ * the multidirectional search, so that the optimum they return is always a computed point.
+ * Population based optimizers may keep a screened point in their population, and should
+ * not be used with this cache.
+ * <p>
+ * The prediction at each computed point is compared to the computed value before the value
+ * is added to the model.  The statistics of these errors, available from
+ * {@link #getStatistics()}, tell how well the surrogate describes the function and thus how
+ * far the screening can be trusted.
+ * <p>
+ * The public methods are not thread-safe and should be called from only one thread at a time,
+ * even if the delegate cache is thread-safe.
+ */
+public class SurrogateFunctionCache implements ParallelFunctionCache, Statistics {
+	private static final Logger log = LoggerFactory.getLogger(SurrogateFunctionCache.class);
+
+	/** Default number of standard deviations of optimism when screening points */
+	public static final double DEFAULT_CONFIDENCE = 2.0;
+
+	/** Maximum number of most recently computed points the model is fitted on */
+	private static final int MAX_MODEL_POINTS = 150;
+
+	/**
+	 * Values above this are penalties for points outside the optimization domain and are
+	 * not modeled.
+	 */
+	private static final double MAX_MODELED_VALUE = 1e100;
+
+	private final ParallelFunctionCache delegate;
+	private final double confidence;
+
+	/** Computed values used by the model, most recent last */
+	private final LinkedHashMap<Point, Double> modelValues = new LinkedHashMap<Point, Double>();
+	/** Points that were not computed, with their predicted values */
+	private final Map<Point, Double> screened = new HashMap<Point, Double>();
+	/** Predictions of the points being computed, for the error statistics */
+	private final Map<Point, double[]> predictions = new HashMap<Point, double[]>();
+
+	private GaussianProcess model = null;
+	private boolean modelValid = false;
+	private double bestValue = Double.POSITIVE_INFINITY;
+
+	private int computedCount = 0;
+	private int screenedCount = 0;
+	private int predictedCount = 0;
+	private double sumSquaredError = 0;
+	private double maxError = 0;
+	private double sumStandardizedError = 0;
+
+
+	/**
+	 * Construct a surrogate cache with the default confidence.
+	 *
+	 * @param delegate	the cache that computes the function values.
+	 */
+	public SurrogateFunctionCache(ParallelFunctionCache delegate) {
+		this(delegate, DEFAULT_CONFIDENCE);
+	}
+
+	/**
+	 * Construct a surrogate cache.
+	 *
+	 * @param delegate		the cache that computes the function values.
+	 * @param confidence	the number of standard deviations by which a predicted value may be
+	 * 						too large without the point being screened out.  Larger values
+	 * 						screen out fewer points.
+	 */
+	public SurrogateFunctionCache(ParallelFunctionCache delegate, double confidence) {
+		if (!(confidence >= 0)) {
+			throw new IllegalArgumentException("confidence must be non-negative: " + confidence);
+		}
+		this.delegate = delegate;
+		this.confidence = confidence;
+	}
+
+
+	@Override
+	public void compute(Collection<Point> points) {
+		for (Point p : points) {
+			compute(p);
+		}
+	}
+
+	@Override
+	public void compute(Point point) {
+		if (screened.containsKey(point) || modelValues.containsKey(point)) {
+			return;
+		}
+
+		if (!isOutsideRange(point)) {
+			final double[] prediction = predict(point);
+			if (prediction != null) {
+				if (prediction[0] - confidence * prediction[1] > bestValue) {
+					log.debug("Screening out " + point + ", predicted value " + prediction[0] + " +- " +
+							prediction[1] + ", best value " + bestValue);
+					screened.put(point, prediction[0]);
+					screenedCount++;
+					return;
+				}
+				predictions.put(point, prediction);
+			}
+		}
+
+		delegate.compute(point);
+	}
+
+	@Override
+	public void waitFor(Collection<Point> points) throws InterruptedException, OptimizationException {
+		for (Point p : points) {
+			waitFor(p);
+		}
+	}
+
+	@Override
+	public void waitFor(Point point) throws InterruptedException, OptimizationException {
+		if (screened.containsKey(point) || modelValues.containsKey(point)) {
+			return;
+		}
+		delegate.waitFor(point);
+		computed(point);
+	}
+
+	@Override
+	public List<Point> abort(Collection<Point> points) {
+		List<Point> computed = new ArrayList<Point>(Math.min(points.size(), 10));
+		for (Point p : points) {
+			if (abort(p)) {
+				computed.add(p);
+			}
+		}
+		return computed;
+	}
+
+	@Override
+	public boolean abort(Point point) {
+		if (screened.containsKey(point) || modelValues.containsKey(point)) {
+			return true;
+		}
+		predictions.remove(point);
+		if (delegate.abort(point)) {
+			computed(point);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void abortAll() {
+		delegate.abortAll();
+		predictions.clear();
+	}
+
+	@Override
+	public double getValue(Point point) {
+		Double value = screened.get(point);
+		if (value != null) {
+			return value;
+		}
+		return delegate.getValue(point);
+	}
+
+	/**
+	 * Return whether a point was screened out, i.e. its value is predicted by the
+	 * surrogate model instead of computed.
+	 *
+	 * @param point	the point.
+	 * @return		<code>true</code> if the value of the point is a prediction.
+	 */
+	public boolean isScreened(Point point) {
+		return screened.containsKey(point);
+	}
+
+	/**
+	 * Predict the function value at a point with the surrogate model.
+	 *
+	 * @param point	the point.
+	 * @return		the predicted value and its standard deviation, or <code>null</code>
+	 * 				if too few values have been computed for a model.
+	 */
+	public double[] predict(Point point) {
+		if (!modelValid) {
+			model = null;
+			if (modelValues.size() >= 2 * point.dim() + 1) {
+				model = GaussianProcess.fit(new ArrayList<Point>(modelValues.keySet()),
+						new ArrayList<Double>(modelValues.values()));
+			}
+			modelValid = true;
+		}
+		if (model == null) {
+			return null;
+		}
+		return model.predict(point);
+	}
+
+	@Override
+	public Function getFunction() {
+		return delegate.getFunction();
+	}
+
+	@Override
+	public void setFunction(Function function) {
+		delegate.setFunction(function);
+		clearCache();
+	}
+
+	@Override
+	public void clearCache() {
+		delegate.clearCache();
+		modelValues.clear();
+		screened.clear();
+		predictions.clear();
+		model = null;
+		modelValid = false;
+		bestValue = Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Return the cache that computes the function values.
+	 */
+	public ParallelFunctionCache getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Return the number of points whose values have been computed.
+	 */
+	public int getComputedCount() {
+		return computedCount;
+	}
+
+	/**
+	 * Return the number of points that have been screened out without computing them.
+	 */
+	public int getScreenedCount() {
+		return screenedCount;
+	}
+
+	/**
+	 * Return the root mean square error of the predictions at the points computed after
+	 * the model was available, or NaN if there are no such points.
+	 */
+	public double getPredictionError() {
+		return Math.sqrt(sumSquaredError / predictedCount);
+	}
+
+	/**
+	 * Return the largest error of the predictions at the points computed after the model
+	 * was available.
+	 */
+	public double getMaximumPredictionError() {
+		return maxError;
+	}
+
+	/**
+	 * Return the mean of the prediction errors relative to the predicted standard deviation,
+	 * or NaN if there are no predicted points.  Values well above one indicate that the
+	 * model underestimates its uncertainty and screens out points too eagerly.
+	 */
+	public double getStandardizedPredictionError() {
+		return sumStandardizedError / predictedCount;
+	}
+
+	@Override
+	public String getStatistics() {
+		return "SurrogateFunctionCache[computed=" + computedCount +
+				", screened=" + screenedCount +
+				", predicted=" + predictedCount +
+				", rmsError=" + getPredictionError() +
+				", maxError=" + maxError +
+				", standardizedError=" + getStandardizedPredictionError() + "]";
+	}
+
+	@Override
+	public void resetStatistics() {
+		computedCount = 0;
+		screenedCount = 0;
+		predictedCount = 0;
+		sumSquaredError = 0;
+		maxError = 0;
+		sumStandardizedError = 0;
+	}
+
+
+	/**
+	 * Record the computed value of a point into the model and the error statistics.
+	 */
+	private void computed(Point point) {
+		if (isOutsideRange(point) || modelValues.containsKey(point)) {
+			return;
+		}
+		final double value = delegate.getValue(point);
+		computedCount++;
+
+		final double[] prediction = predictions.remove(point);
+		if (!(Math.abs(value) <= MAX_MODELED_VALUE)) {
+			return;
+		}
+
+		if (prediction != null) {
+			final double error = Math.abs(value - prediction[0]);
+			predictedCount++;
+			sumSquaredError += error * error;
+			maxError = Math.max(maxError, error);
+			if (prediction[1] > 0) {
+				sumStandardizedError += error / prediction[1];
+			}
+		}
+
+		modelValues.put(point, value);
+		if (modelValues.size() > MAX_MODEL_POINTS) {
+			modelValues.remove(modelValues.keySet().iterator().next());
+		}
+		modelValid = false;
+		bestValue = Math.min(bestValue, value);
+	}
+
+	/**
+	 * Check whether a point is outside of the valid optimization range.
+	 */
+	private static boolean isOutsideRange(Point p) {
+		int n = p.dim();
+		for (int i = 0; i < n; i++) {
+			double d = p.get(i);
+			// Include NaN in disallowed range
+			if (!(d >= 0.0 && d <= 1.0)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,323 @@
+package info.openrocket.core.optimization.rocketoptimization;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.util.Statistics;
+
+/**
+ * A disk-backed cache of computed optimization parameter values, which persists between
+ * optimization runs and application sessions.
+ * <p>
+ * The values are stored by a 256-bit key, which the caller computes from everything the
+ * value depends on (see {@link RocketOptimizationFunction#setResultCache(OptimizationResultCache)}).
+ * The cache holds at most a fixed number of entries and evicts the least recently used ones.
+ * <p>
+ * New entries are appended to the cache file as they are stored, so values computed before
+ * a crash are available when the optimization is resumed.  When the file holds twice as many
+ * records as the cache, it is rewritten with the retained entries in access order.  The
+ * recency of entries which were only read is written at that time or by {@link #close()}.
+ * <p>
+ * This class is thread-safe.
+ */
+public class OptimizationResultCache implements Statistics {
+	private static final Logger log = LoggerFactory.getLogger(OptimizationResultCache.class);
+
+	/** The default maximum number of entries, about 8 MB on disk */
+	public static final int DEFAULT_MAX_ENTRIES = 200000;
+
+	/** Length of the keys in bytes */
+	public static final int KEY_LENGTH = 32;
+
+	private static final int MAGIC = 0x4f524f43; // "OROC"
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = 8;
+	private static final int RECORD_LENGTH = KEY_LENGTH + 8;
+
+	private final File file;
+	private final int maxEntries;
+	private final LinkedHashMap<Key, Double> entries;
+
+	private DataOutputStream output = null;
+	private int recordCount = 0;
+
+	private int hitCount = 0;
+	private int missCount = 0;
+	private int storeCount = 0;
+
+
+	/**
+	 * Open a cache file with the default maximum number of entries.  The file is created if it
+	 * does not exist.
+	 *
+	 * @param file	the cache file.
+	 */
+	public OptimizationResultCache(File file) {
+		this(file, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Open a cache file.  The file is created if it does not exist.  If it cannot be read,
+	 * the cache starts empty; if it cannot be written, the cache is kept in memory only.
+	 *
+	 * @param file			the cache file.
+	 * @param maxEntries	the maximum number of entries kept.
+	 */
+	public OptimizationResultCache(File file, int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+		}
+		this.file = file;
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+				return size() > OptimizationResultCache.this.maxEntries;
+			}
+		};
+
+		boolean appendable = load();
+		if (!appendable || recordCount > entries.size()) {
+			// Drop damaged, evicted and duplicate records right away
+			rewrite();
+		} else {
+			openOutput(true);
+		}
+	}
+
+
+	/**
+	 * Return the cached value for a key, or <code>null</code> if it is not cached.
+	 */
+	public synchronized Double get(byte[] key) {
+		Double value = entries.get(new Key(key));
+		if (value == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+		return value;
+	}
+
+	/**
+	 * Store a value in the cache and append it to the cache file.
+	 */
+	public synchronized void put(byte[] key, double value) {
+		Key k = new Key(key);
+		entries.put(k, value);
+		storeCount++;
+
+		if (output == null) {
+			return;
+		}
+		try {
+			writeRecord(output, k, value);
+			output.flush();
+			recordCount++;
+		} catch (IOException e) {
+			log.warn("Unable to write optimization cache " + file + ", keeping it in memory only", e);
+			closeOutput();
+			return;
+		}
+
+		if (recordCount >= 2 * maxEntries) {
+			rewrite();
+		}
+	}
+
+	/**
+	 * Return the number of entries in the cache.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Remove all entries from the cache and the cache file.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		rewrite();
+	}
+
+	/**
+	 * Write the entries in access order and close the cache file.  Later values are kept
+	 * in memory only.
+	 */
+	public synchronized void close() {
+		if (output != null) {
+			rewrite();
+			closeOutput();
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	@Override
+	public synchronized String getStatistics() {
+		return "OptimizationResultCache[size=" + entries.size() + ", hitCount=" + hitCount +
+				", missCount=" + missCount + ", storeCount=" + storeCount + "]";
+	}
+
+	@Override
+	public synchronized void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		storeCount = 0;
+	}
+
+
+	/**
+	 * Read the records of the cache file in order.  A truncated last record, left by
+	 * an interrupted write, is ignored.
+	 *
+	 * @return	whether new records can be appended to the file as it is.
+	 */
+	private boolean load() {
+		recordCount = 0;
+		if (!file.isFile()) {
+			return true;
+		}
+
+		final long length = file.length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				log.info("Optimization cache " + file + " has an unknown format, discarding it");
+				return false;
+			}
+			while (true) {
+				byte[] key = new byte[KEY_LENGTH];
+				in.readFully(key);
+				double value = in.readDouble();
+				entries.put(new Key(key), value);
+				recordCount++;
+			}
+		} catch (EOFException e) {
+			// End of file
+		} catch (IOException e) {
+			log.warn("Unable to read optimization cache " + file, e);
+			return false;
+		}
+		log.info("Loaded " + entries.size() + " entries from optimization cache " + file);
+		return length >= HEADER_LENGTH && (length - HEADER_LENGTH) % RECORD_LENGTH == 0;
+	}
+
+	/**
+	 * Rewrite the cache file with the current entries, and keep it open for appending.
+	 */
+	private void rewrite() {
+		closeOutput();
+		if (!openOutput(false)) {
+			return;
+		}
+		try {
+			for (Map.Entry<Key, Double> e : entries.entrySet()) {
+				writeRecord(output, e.getKey(), e.getValue());
+			}
+			output.flush();
+			recordCount = entries.size();
+		} catch (IOException e) {
+			log.warn("Unable to write optimization cache " + file + ", keeping it in memory only", e);
+			closeOutput();
+		}
+	}
+
+	private boolean openOutput(boolean append) {
+		boolean header = !append || !file.isFile() || file.length() == 0;
+		try {
+			File dir = file.getAbsoluteFile().getParentFile();
+			if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+				throw new IOException("Unable to create directory " + dir);
+			}
+			output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, append && !header)));
+			if (header) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.flush();
+				recordCount = 0;
+			}
+			return true;
+		} catch (IOException e) {
+			log.warn("Unable to open optimization cache " + file + ", keeping it in memory only", e);
+			closeOutput();
+			return false;
+		}
+	}
+
+	private void closeOutput() {
+		if (output != null) {
+			try {
+				output.close();
+			} catch (IOException e) {
+				log.warn("Unable to close optimization cache " + file, e);
+			}
+			output = null;
+		}
+	}
+
+	private static void writeRecord(DataOutputStream out, Key key, double value) throws IOException {
+		out.write(key.bytes);
+		out.writeDouble(value);
+	}
+
+
+	/**
+	 * A key with value semantics.
+	 */
+	private static final class Key {
+		private final byte[] bytes;
+		private final int hashCode;
+
+		public Key(byte[] bytes) {
+			if (bytes.length != KEY_LENGTH) {
+				throw new IllegalArgumentException("Key must be " + KEY_LENGTH + " bytes, was " + bytes.length);
+			}
+			this.bytes = bytes.clone();
+			this.hashCode = Arrays.hashCode(bytes);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			return Arrays.equals(bytes, ((Key) obj).bytes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+}
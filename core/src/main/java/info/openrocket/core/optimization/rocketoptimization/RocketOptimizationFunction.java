@@ -1,5 +1,12 @@
 package info.openrocket.core.optimization.rocketoptimization;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -8,12 +15,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import info.openrocket.core.document.Simulation;
+import info.openrocket.core.file.openrocket.OpenRocketSaver;
 import info.openrocket.core.optimization.general.Function;
 import info.openrocket.core.optimization.general.OptimizationException;
 import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.optimization.rocketoptimization.parameters.SimulationBasedParameter;
 import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.rocketcomponent.RocketComponent;
 import info.openrocket.core.unit.UnitGroup;
 import info.openrocket.core.unit.Value;
+import info.openrocket.core.util.BugException;
+import info.openrocket.core.util.BuildProperties;
 import info.openrocket.core.util.Pair;
 
 /**
@@ -39,6 +51,9 @@ public class RocketOptimizationFunction implements Function {
 
 	private final List<RocketOptimizationListener> listeners = new ArrayList<>();
 
+	private volatile OptimizationResultCache resultCache = null;
+	private volatile byte[] designDigest = null;
+
 	/**
 	 * Sole constructor.
 	 * <p>
@@ -104,8 +119,23 @@ public class RocketOptimizationFunction implements Function {
 			return goalValue;
 		}
 
-		// Compute the optimization value
-		parameterValue = parameter.computeValue(simulation);
+		// Compute the optimization value, or use a value computed earlier
+		final OptimizationResultCache cache = resultCache;
+		byte[] key = null;
+		Double cachedValue = null;
+		if (cache != null) {
+			key = computeCacheKey(point);
+			cachedValue = cache.get(key);
+		}
+		if (cachedValue != null) {
+			log.debug("Using cached parameter value " + cachedValue + " at point " + point);
+			parameterValue = cachedValue;
+		} else {
+			parameterValue = parameter.computeValue(simulation);
+			if (key != null && !Double.isNaN(parameterValue)) {
+				cache.put(key, parameterValue);
+			}
+		}
 		goalValue = goal.getMinimizationParameter(parameterValue);
 
 		if (Double.isNaN(goalValue)) {
@@ -123,14 +153,92 @@ public class RocketOptimizationFunction implements Function {
 	}
 
 	/**
-	 * Returns a new deep copy of the simulation and rocket.
+	 * Set a persistent cache of computed parameter values, which is consulted before
+	 * simulating a point.  The values are cached by the OpenRocket version, the rocket design
+	 * and the simulation conditions of the base simulation, the optimized parameter, the
+	 * simulation modifiers and their ranges, and the point.  The goal and the domain are evaluated anew, so
+	 * cached values are shared between optimizations of the same parameter with different goals.
+	 * <p>
+	 * Only parameters that run a simulation are cached.  The base simulation is read when
+	 * this method is called, so it must be called again if the base simulation is modified.
+	 * 
+	 * @param cache the cache to use, or <code>null</code> for none.
+	 */
+	public void setResultCache(OptimizationResultCache cache) {
+		if (cache == null || !(parameter instanceof SimulationBasedParameter)) {
+			this.resultCache = null;
+			this.designDigest = null;
+			return;
+		}
+		this.designDigest = computeDesignDigest();
+		this.resultCache = cache;
+	}
+
+	public OptimizationResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Compute a digest of everything the parameter value depends on, except the point.
+	 */
+	private byte[] computeDesignDigest() {
+		MessageDigest digest = newDigest();
+		try (DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+			// Values computed by other versions may differ, as the simulation models change
+			out.writeUTF(BuildProperties.getVersion());
+			new OpenRocketSaver().saveSimulationDesign(out, baseSimulation);
+
+			out.writeUTF(parameter.getClass().getName());
+			out.writeUTF(parameter.getName());
+			for (SimulationModifier modifier : modifiers) {
+				out.writeUTF(modifier.getClass().getName());
+				out.writeUTF(modifier.getName());
+				Object related = modifier.getRelatedObject();
+				if (related instanceof RocketComponent) {
+					out.writeUTF(((RocketComponent) related).getID());
+				} else {
+					out.writeUTF(related == null ? "" : related.getClass().getName());
+				}
+				out.writeDouble(modifier.getMinValue());
+				out.writeDouble(modifier.getMaxValue());
+			}
+		} catch (IOException e) {
+			throw new BugException("Unable to compute digest of simulation " + baseSimulation, e);
+		}
+		return digest.digest();
+	}
+
+	private byte[] computeCacheKey(Point point) {
+		MessageDigest digest = newDigest();
+		digest.update(designDigest);
+		ByteBuffer buffer = ByteBuffer.allocate(point.dim() * Double.BYTES);
+		for (int i = 0; i < point.dim(); i++) {
+			buffer.putDouble(point.get(i));
+		}
+		digest.update(buffer.array());
+		return digest.digest();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new BugException("SHA-256 digest not supported", e);
+		}
+	}
+
+	/**
+	 * Returns a new deep copy of the simulation and rocket.  The simulation and its rocket
+	 * are not thread-safe, so concurrent evaluations copy them one at a time.
 	 * <p>
 	 * Note: This method is package-private for unit testing purposes.
 	 *
 	 * @return a new deep copy of the simulation and rocket
 	 */
 	Simulation newSimulationInstance(Simulation simulation) {
-		return simulation.duplicateSimulation(simulation.getRocket().copyWithOriginalID());
+		synchronized (simulation) {
+			return simulation.duplicateSimulation(simulation.getRocket().copyWithOriginalID());
+		}
 	}
 
 	/**
@@ -2,10 +2,13 @@ package info.openrocket.core.rocketcomponent;
 
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import info.openrocket.core.formatting.RocketDescriptor;
@@ -21,7 +24,6 @@ import info.openrocket.core.util.BoundingBox;
 import info.openrocket.core.util.Coordinate;
 import info.openrocket.core.util.MathUtil;
 import info.openrocket.core.util.Monitorable;
-import info.openrocket.core.util.Transformation;
 
 /**
  * A class defining a rocket configuration.
@@ -81,6 +83,12 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 	private double cachedRefLength = -1;
 
 	private int modID = 0;
+	private int instancesModID = 0;
+
+	/* Placement of all component instances, from which the active instances are updated */
+	private InstanceStore instanceStore = null;
+	/* Activeness of each stage when the instances of its components were last updated */
+	final private Map<Integer, Integer> instanceStageStates = new HashMap<>();
 
 	/**
 	 * Create a Default configuration with the specified <code>Rocket</code>.
@@ -155,6 +163,33 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		updateActiveInstances();
 	}
 
+	/**
+	 * Return the active flags of the stages by stage number, regardless of whether the
+	 * stages have any children.
+	 */
+	/* package-local */ Map<Integer, Boolean> getStageActiveness() {
+		Map<Integer, Boolean> activeness = new HashMap<>();
+		for (StageFlags flags : this.stages.values()) {
+			activeness.put(flags.stageNumber, flags.active);
+		}
+		return activeness;
+	}
+
+	/**
+	 * Set the active flags of the stages from a map returned by {@link #getStageActiveness()}.
+	 * Stages not present in the map are left unchanged.
+	 */
+	/* package-local */ void setStageActiveness(Map<Integer, Boolean> activeness) {
+		for (StageFlags flags : this.stages.values()) {
+			Boolean active = activeness.get(flags.stageNumber);
+			if (active != null) {
+				flags.active = active;
+			}
+		}
+		updateMotors();
+		updateActiveInstances();
+	}
+
 	/**
 	 * This method flags a stage inactive. Other stages are unaffected.
 	 * 
@@ -421,45 +456,79 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 	 * ONLY WHEN READY / MATURE!
 	 */
 	private void updateActiveInstances() {
-		activeInstances.clear();
-		extraRenderInstances.clear();
-		getActiveContextListAt(this.rocket, activeInstances, Transformation.IDENTITY);
-	}
-
-	private InstanceMap getActiveContextListAt(final RocketComponent component, final InstanceMap results,
-			final Transformation parentTransform) {
-
-		final int instanceCount = component.getInstanceCount();
-		final Coordinate[] allOffsets = component.getInstanceOffsets();
-		final double[] allAngles = component.getInstanceAngles();
-
-		final Transformation compLocTransform = Transformation.getTranslationTransform(component.getPosition());
-		final Transformation componentTransform = parentTransform.applyTransformation(compLocTransform);
-
-		// generate the Instance's Context:
-		for (int currentInstanceNumber = 0; currentInstanceNumber < instanceCount; currentInstanceNumber++) {
-			final Transformation offsetTransform = Transformation
-					.getTranslationTransform(allOffsets[currentInstanceNumber]);
-			final Transformation angleTransform = Transformation.getAxialRotation(allAngles[currentInstanceNumber]);
-			final Transformation currentTransform = componentTransform.applyTransformation(offsetTransform)
-					.applyTransformation(angleTransform);
-
-			// constructs entry in-place if this component is active
-			if (this.isComponentActive(component)) {
-				results.emplace(component, currentInstanceNumber, currentTransform);
-			} else if (component instanceof ParallelStage && stages.get(component.getStageNumber()).active) {
-				// Boosters with no children are marked as inactive, but still need to be
-				// rendered.
-				// See GitHub issue #1980 for more information.
-				extraRenderInstances.emplace(component, currentInstanceNumber, currentTransform);
+		updateActiveInstances(false, false);
+	}
+
+	/**
+	 * Update the active and extra render instances.  Only the components that moved, or
+	 * whose stage changed activeness, are updated; the instance store is rebuilt if the
+	 * structure of the component tree may have changed.
+	 *
+	 * @param rebuild			whether the structure of the component tree may have changed.
+	 * @param placementChanged	whether components may have moved.
+	 */
+	private void updateActiveInstances(final boolean rebuild, final boolean placementChanged) {
+		final Set<RocketComponent> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+		boolean changed = false;
+
+		if (rebuild || instanceStore == null || instanceStore.getTreeModID() != rocket.getTreeModID() ||
+				((placementChanged || instanceStore.getModID() != rocket.getModID()) &&
+						!instanceStore.updatePlacement(moved))) {
+			instanceStore = new InstanceStore(rocket);
+			activeInstances.clear();
+			extraRenderInstances.clear();
+			instanceStageStates.clear();
+			moved.clear();
+			changed = true;
+		}
+
+		// Components of stages whose activeness changed
+		for (Map.Entry<Integer, List<RocketComponent>> entry : instanceStore.getStageComponents().entrySet()) {
+			final Integer stageNumber = entry.getKey();
+			final Integer state = getInstanceStageState(stageNumber);
+			if (state.equals(instanceStageStates.put(stageNumber, state))) {
+				continue;
 			}
+			changed = true;
+			for (RocketComponent component : entry.getValue()) {
+				activeInstances.remove(component);
+				extraRenderInstances.remove(component);
+
+				if (this.isComponentActive(component)) {
+					activeInstances.put(component, instanceStore.createContexts(component));
+				} else if (component instanceof ParallelStage && stages.get(component.getStageNumber()).active) {
+					// Boosters with no children are marked as inactive, but still need to be
+					// rendered.
+					// See GitHub issue #1980 for more information.
+					extraRenderInstances.put(component, instanceStore.createContexts(component));
+				}
+				moved.remove(component);
+			}
+		}
 
-			for (RocketComponent child : component.getChildren()) {
-				getActiveContextListAt(child, results, currentTransform);
+		// Other components that moved
+		for (RocketComponent component : moved) {
+			if (activeInstances.containsKey(component)) {
+				activeInstances.put(component, instanceStore.createContexts(component));
+				changed = true;
+			} else if (extraRenderInstances.containsKey(component)) {
+				extraRenderInstances.put(component, instanceStore.createContexts(component));
+				changed = true;
 			}
 		}
 
-		return results;
+		if (changed) {
+			instancesModID++;
+		}
+	}
+
+	/**
+	 * Return the activeness of a stage that determines which of its components are in
+	 * the active and extra render instances.
+	 */
+	private Integer getInstanceStageState(final int stageNumber) {
+		final StageFlags flags = stages.get(stageNumber);
+		return (isStageActive(stageNumber) ? 1 : 0) | ((flags != null && flags.active) ? 2 : 0);
 	}
 
 	/**
@@ -668,9 +737,30 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 
 	@Override
 	public void update() {
+		update(null);
+	}
+
+	/**
+	 * Update the configuration after a change of the rocket.  Only the instances affected
+	 * by the change are updated: changes that cannot move components keep the instances,
+	 * and changes that do not modify the component tree recompute only the moved instances.
+	 *
+	 * @param cce	the change event, or <code>null</code> if the change is not known.
+	 */
+	public void update(final ComponentChangeEvent cce) {
 		updateStages();
 		updateMotors();
-		updateActiveInstances();
+
+		if (cce == null || cce.isTreeChange() || cce.isTreeChildrenChange() || cce.isUndoChange()) {
+			updateActiveInstances(true, true);
+		} else if (cce.isAerodynamicChange() || cce.isMassChange()) {
+			updateActiveInstances(false, true);
+		} else {
+			if (instanceStore != null && instanceStore.getTreeModID() == rocket.getTreeModID()) {
+				instanceStore.setModID(rocket.getModID());
+			}
+			updateActiveInstances(false, false);
+		}
 	}
 
 	/**
@@ -917,6 +1007,17 @@ public class FlightConfiguration implements FlightConfigurableParameter<FlightCo
 		return modID;
 	}
 
+	/**
+	 * Return an ID that changes every time the active instances of this configuration
+	 * (see {@link #getActiveInstances()}) change, e.g. when stages are activated or
+	 * deactivated or components are moved.
+	 *
+	 * @return the modification ID of the active instances.
+	 */
+	public int getInstancesModID() {
+		return instancesModID;
+	}
+
 	public void setName(final String newName) {
 		if ((newName == null) || (newName.isEmpty())) {
 			this.configurationName = DEFAULT_CONFIG_NAME;
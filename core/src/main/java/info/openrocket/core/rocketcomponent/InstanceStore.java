@@ -0,0 +1,221 @@
+package info.openrocket.core.rocketcomponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.Transformation;
+
+/**
+ * Array-backed store of the placement of every component instance of a rocket,
+ * active or not.  The instances are stored in depth-first order, each with its
+ * instance number, transformation and the local placement (position, instance
+ * offset and angle) the transformation was computed from.
+ * <p>
+ * After the rocket is edited, {@link #updatePlacement(Set)} revalidates the local
+ * placement of each instance and recomputes only the transformations of instances
+ * that moved, together with their descendants.  Structural changes (added, removed
+ * or moved components, changed instance counts) require building a new store.
+ */
+final class InstanceStore {
+
+	private final Rocket rocket;
+	private final int treeModID;
+	private int modID;
+
+	private final int size;
+	private final RocketComponent[] components;
+	private final int[] instanceNumbers;
+	private final Transformation[] transforms;
+	private final Coordinate[] positions;
+	private final Coordinate[] offsets;
+	private final double[] angles;
+
+	/** Record indices of each component, in depth-first order */
+	private final Map<RocketComponent, int[]> componentRecords = new IdentityHashMap<>();
+	/** Components by stage number, in depth-first order of their first instance */
+	private final Map<Integer, List<RocketComponent>> stageComponents = new LinkedHashMap<>();
+
+	// Cursor of the traversal in progress
+	private int cursor;
+
+	InstanceStore(final Rocket rocket) {
+		this.rocket = rocket;
+		this.treeModID = rocket.getTreeModID();
+		this.modID = rocket.getModID();
+
+		final List<RocketComponent> records = new ArrayList<>();
+		countRecords(rocket, records);
+		this.size = records.size();
+		this.components = records.toArray(new RocketComponent[0]);
+		this.instanceNumbers = new int[size];
+		this.transforms = new Transformation[size];
+		this.positions = new Coordinate[size];
+		this.offsets = new Coordinate[size];
+		this.angles = new double[size];
+
+		cursor = 0;
+		place(rocket, Transformation.IDENTITY, true, null);
+
+		// Index the records of each component
+		final Map<RocketComponent, int[]> counts = new IdentityHashMap<>();
+		for (int i = 0; i < size; i++) {
+			int[] count = counts.computeIfAbsent(components[i], c -> new int[1]);
+			count[0]++;
+		}
+		for (int i = 0; i < size; i++) {
+			final RocketComponent c = components[i];
+			int[] indices = componentRecords.get(c);
+			if (indices == null) {
+				indices = new int[counts.get(c)[0]];
+				componentRecords.put(c, indices);
+				stageComponents.computeIfAbsent(c.getStageNumber(), n -> new ArrayList<>()).add(c);
+				counts.get(c)[0] = 0;
+			}
+			indices[counts.get(c)[0]++] = i;
+		}
+	}
+
+	/**
+	 * Return the rocket tree modification ID the store was built for.
+	 */
+	int getTreeModID() {
+		return treeModID;
+	}
+
+	/**
+	 * Return the rocket modification ID the placement was last updated for.
+	 */
+	int getModID() {
+		return modID;
+	}
+
+	/**
+	 * Set the rocket modification ID the placement is valid for, after a change
+	 * that did not move any components.
+	 */
+	void setModID(final int modID) {
+		this.modID = modID;
+	}
+
+	/**
+	 * Return the components of the rocket grouped by stage number.
+	 */
+	Map<Integer, List<RocketComponent>> getStageComponents() {
+		return stageComponents;
+	}
+
+	/**
+	 * Create the instance contexts of a component.
+	 */
+	ArrayList<InstanceContext> createContexts(final RocketComponent component) {
+		final int[] indices = componentRecords.get(component);
+		final ArrayList<InstanceContext> contexts = new ArrayList<>(indices.length);
+		for (int i : indices) {
+			contexts.add(new InstanceContext(component, instanceNumbers[i], transforms[i]));
+		}
+		return contexts;
+	}
+
+	/**
+	 * Recompute the transformations of the instances whose placement has changed.
+	 *
+	 * @param moved	set to which the components with changed transformations are added.
+	 * @return		<code>false</code> if the structure of the rocket has changed, in which
+	 * 				case a new store must be built.
+	 */
+	boolean updatePlacement(final Set<RocketComponent> moved) {
+		cursor = 0;
+		if (!place(rocket, Transformation.IDENTITY, false, moved) || cursor != size) {
+			return false;
+		}
+		modID = rocket.getModID();
+		return true;
+	}
+
+
+	private static void countRecords(final RocketComponent component, final List<RocketComponent> records) {
+		final int instanceCount = component.getInstanceCount();
+		for (int i = 0; i < instanceCount; i++) {
+			records.add(component);
+			for (RocketComponent child : component.getChildren()) {
+				countRecords(child, records);
+			}
+		}
+	}
+
+	/**
+	 * Place the instances of a component and its descendants, in the same order and with
+	 * the same transformations as a depth-first traversal of the component tree.
+	 *
+	 * @param parentChanged	whether the parent transformation has changed, so that all
+	 * 						instances must be recomputed.
+	 * @param moved			set to which components with changed instances are added,
+	 * 						or null.
+	 * @return				<code>false</code> if the structure does not match the store.
+	 */
+	private boolean place(final RocketComponent component, final Transformation parentTransform,
+			final boolean parentChanged, final Set<RocketComponent> moved) {
+		final int instanceCount = component.getInstanceCount();
+		final Coordinate position = component.getPosition();
+		final Coordinate[] allOffsets = component.getInstanceOffsets();
+		final double[] allAngles = component.getInstanceAngles();
+
+		Transformation componentTransform = null;
+		for (int currentInstanceNumber = 0; currentInstanceNumber < instanceCount; currentInstanceNumber++) {
+			final int index = cursor++;
+			if (index >= size || components[index] != component) {
+				return false;
+			}
+
+			final boolean changed = parentChanged || !isSame(position, positions[index]) ||
+					!isSame(allOffsets[currentInstanceNumber], offsets[index]) ||
+					Double.compare(allAngles[currentInstanceNumber], angles[index]) != 0;
+			if (changed) {
+				if (componentTransform == null) {
+					final Transformation compLocTransform = Transformation.getTranslationTransform(position);
+					componentTransform = parentTransform.applyTransformation(compLocTransform);
+				}
+				final Transformation offsetTransform = Transformation
+						.getTranslationTransform(allOffsets[currentInstanceNumber]);
+				final Transformation angleTransform = Transformation.getAxialRotation(allAngles[currentInstanceNumber]);
+
+				instanceNumbers[index] = currentInstanceNumber;
+				transforms[index] = componentTransform.applyTransformation(offsetTransform)
+						.applyTransformation(angleTransform);
+				positions[index] = position;
+				offsets[index] = allOffsets[currentInstanceNumber];
+				angles[index] = allAngles[currentInstanceNumber];
+				if (moved != null) {
+					moved.add(component);
+				}
+			}
+
+			for (RocketComponent child : component.getChildren()) {
+				if (!place(child, transforms[index], changed, moved)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Exact comparison of placement coordinates; {@link Coordinate#equals(Object)}
+	 * allows a tolerance.
+	 */
+	private static boolean isSame(final Coordinate a, final Coordinate b) {
+		return a == b || (b != null && Double.compare(a.x, b.x) == 0 && Double.compare(a.y, b.y) == 0 &&
+				Double.compare(a.z, b.z) == 0);
+	}
+
+	@Override
+	public String toString() {
+		return "InstanceStore[size=" + size + ", components=" + Arrays.toString(components) + "]";
+	}
+}
@@ -66,6 +66,14 @@ public class Rocket extends ComponentAssembly {
 	
 	// Does the rocket have a perfect finish (a notable amount of laminar flow)
 	private boolean perfectFinish = false;
+
+	/*
+	 * Journal of the components changed since the snapshot the rocket was last stored to
+	 * or restored from, used by RocketSnapshot to share the unchanged components.
+	 */
+	private RocketSnapshot snapshotBase = null;
+	private Set<String> changedComponentIDs = new HashSet<>();
+	private Set<String> changedSubtreeIDs = new HashSet<>();
 	
 	
 	/////////////  Constructor  /////////////
@@ -398,9 +406,26 @@ public class Rocket extends ComponentAssembly {
 
 		copyRocket.selectedConfiguration = copyRocket.configSet.get( this.getSelectedConfiguration().getId());
 		copyRocket.listenerList = new HashSet<>();
+		copyRocket.resetChangeJournal(null);
 		
 		return copyRocket;
 	}
+
+	/**
+	 * Make a copy of this rocket without its children or flight configurations, for storing
+	 * the rocket-level state in a {@link RocketSnapshot}.  The copy has events disabled.
+	 */
+	/* package-local */ Rocket copyRocketOnly() {
+		final Rocket copyRocket = (Rocket) copyComponentOnly();
+		copyRocket.stageMap = new ConcurrentHashMap<>();
+		copyRocket.configSet = new FlightConfigurableParameterSet<>(new FlightConfiguration(copyRocket));
+		copyRocket.selectedConfiguration = copyRocket.configSet.getDefault();
+		copyRocket.listenerList = new HashSet<>();
+		copyRocket.freezeList = null;
+		copyRocket.eventsEnabled = false;
+		copyRocket.resetChangeJournal(null);
+		return copyRocket;
+	}
 	
 	public int getFlightConfigurationCount() {
 		checkState();
@@ -418,13 +443,32 @@ public class Rocket extends ComponentAssembly {
 	 * changes.
 	 */
 	public void loadFrom(Rocket source) {
+		loadFrom(source, 0, true);
+	}
+
+	/**
+	 * Load the rocket structure from the source, firing an UNDO_EVENT masked with at least
+	 * the given change types.  Unless <code>invalidateSource</code> is set, the components
+	 * of the source remain valid and may be loaded again.
+	 *
+	 * @see #loadFrom(Rocket)
+	 */
+	/* package-local */ void loadFrom(Rocket source, int changeType, boolean invalidateSource) {
 		checkState();
 		mutex.lock("loadFrom");
+		resetChangeJournal(null);
 
 		// Store list of components to invalidate after event has been fired
 		List<RocketComponent> toInvalidate = this.copyFrom(source);
+		if (!invalidateSource) {
+			final Set<RocketComponent> sourceComponents = Collections.newSetFromMap(new IdentityHashMap<>());
+			for (RocketComponent c : source) {
+				sourceComponents.add(c);
+			}
+			toInvalidate.removeIf(sourceComponents::contains);
+		}
 		
-		int type = ComponentChangeEvent.UNDO_CHANGE | ComponentChangeEvent.NONFUNCTIONAL_CHANGE;
+		int type = ComponentChangeEvent.UNDO_CHANGE | ComponentChangeEvent.NONFUNCTIONAL_CHANGE | changeType;
 		if (this.massModID != source.massModID)
 			type |= ComponentChangeEvent.MASS_CHANGE;
 		if (this.aeroModID != source.aeroModID)
@@ -439,7 +483,14 @@ public class Rocket extends ComponentAssembly {
 		this.functionalModID = source.functionalModID;
 		this.refType = source.refType;
 		this.customReferenceLength = source.customReferenceLength;
-		this.stageMap = new ConcurrentHashMap<>(source.stageMap);
+		// the stage map needs to reference the copied stages
+		this.stageMap = new ConcurrentHashMap<>();
+		for (Map.Entry<Integer, AxialStage> entry : source.stageMap.entrySet()) {
+			final RocketComponent stage = this.findComponent(entry.getValue().getID());
+			if (stage instanceof AxialStage) {
+				this.stageMap.put(entry.getKey(), (AxialStage) stage);
+			}
+		}
 
 		// these flight configurations need to reference the _this_ Rocket:
 		this.configSet.reset();
@@ -537,6 +588,11 @@ public class Rocket extends ComponentAssembly {
 	}
 
 	protected void fireComponentChangeEvent(ComponentChangeEvent cce, final FlightConfigurationId[] ids) {
+		// Journal the change before anything else, as events may be suppressed below
+		if (!cce.isUndoChange()) {
+			journalChange(cce);
+		}
+
 		if (!this.eventsEnabled) {
 			return;
 		}
@@ -573,7 +629,7 @@ public class Rocket extends ComponentAssembly {
 				RocketComponent next = iterator.next();
 				next.componentChanged(cce);
 			}
-			updateConfigurations(ids);
+			updateConfigurations(cce, ids);
 
 			notifyAllListeners(cce);
 
@@ -586,6 +642,77 @@ public class Rocket extends ComponentAssembly {
 	protected void fireComponentChangeEvent(ComponentChangeEvent cce) {
 		fireComponentChangeEvent(cce, null);
 	}
+
+	/**
+	 * Record the source of a change event in the snapshot change journal.  The config
+	 * listeners of the source are modified along with it without firing events of their
+	 * own, and tree changes may re-add components modified while they were detached, so
+	 * all components below the source are considered changed.  Changes of the rocket
+	 * itself may affect any component, so they discard the journal.
+	 */
+	private void journalChange(final ComponentChangeEvent cce) {
+		if (snapshotBase == null) {
+			return;
+		}
+		final Object source = cce.getSource();
+		if (source == this || !(source instanceof RocketComponent)) {
+			resetChangeJournal(null);
+			return;
+		}
+		final RocketComponent component = (RocketComponent) source;
+		changedComponentIDs.add(component.getID());
+		for (RocketComponent listener : component.configListeners) {
+			changedComponentIDs.add(listener.getID());
+		}
+		if (cce.isTreeChange()) {
+			changedSubtreeIDs.add(component.getID());
+		}
+	}
+
+	/**
+	 * Record in the snapshot change journal that the descendants of a component have been
+	 * modified along with it.
+	 */
+	/* package-local */ void journalSubtreeChange(final RocketComponent component) {
+		if (snapshotBase != null) {
+			changedSubtreeIDs.add(component.getID());
+		}
+	}
+
+	/**
+	 * Return the snapshot the change journal is relative to, or null if every component
+	 * must be considered changed.
+	 */
+	/* package-local */ RocketSnapshot getSnapshotBase() {
+		return snapshotBase;
+	}
+
+	/**
+	 * Return whether the component with the given ID has been the source of a change event
+	 * since the snapshot base.
+	 */
+	/* package-local */ boolean isChangedSinceSnapshot(final String componentID) {
+		return changedComponentIDs.contains(componentID);
+	}
+
+	/**
+	 * Return whether the component with the given ID and all components below it must be
+	 * considered changed since the snapshot base.
+	 */
+	/* package-local */ boolean isSubtreeChangedSinceSnapshot(final String componentID) {
+		return changedSubtreeIDs.contains(componentID);
+	}
+
+	/**
+	 * Start a new change journal relative to the given snapshot.
+	 *
+	 * @param base	the snapshot the rocket is now equal to, or null to stop journaling.
+	 */
+	/* package-local */ void resetChangeJournal(final RocketSnapshot base) {
+		snapshotBase = base;
+		changedComponentIDs = new HashSet<>();
+		changedSubtreeIDs = new HashSet<>();
+	}
 	
 	@Override
 	public void update() {
@@ -637,19 +764,20 @@ public class Rocket extends ComponentAssembly {
 	/**
 	 * Update the flight configurations.
 	 *
+	 * @param cce the change event, or null if the change is not known.
 	 * @param ids IDs of the flight configurations to update, or null to update all.
 	 */
-	private void updateConfigurations(FlightConfigurationId[] ids) {
+	private void updateConfigurations(ComponentChangeEvent cce, FlightConfigurationId[] ids) {
 		if (ids == null) {
 			for (FlightConfiguration config : configSet) {
-				config.update();
+				config.update(cce);
 			}
 			return;
 		}
 		for (FlightConfiguration config : configSet) {
 			for (FlightConfigurationId id : ids) {
 				if (config.getId().equals(id)) {
-					config.update();
+					config.update(cce);
 					break;
 				}
 			}
@@ -657,7 +785,7 @@ public class Rocket extends ComponentAssembly {
 	}
 	
 	private void updateConfigurations() {
-		updateConfigurations(null);
+		updateConfigurations(null, null);
 	}
 
 	private void notifyAllListeners(final ComponentChangeEvent cce) {
@@ -151,7 +151,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	/**
 	 * Used to invalidate the component after calling {@link #copyFrom(RocketComponent)}.
 	 */
-	private final Invalidator invalidator = new Invalidator(this);
+	private Invalidator invalidator = new Invalidator(this);
 
 	/**
 	 * List of components that will set their properties to the same as the current component
@@ -450,6 +450,47 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		}
 	}
 
+	/**
+	 * Make a copy of this component alone, without its children, while maintaining the
+	 * component ID.  Unlike {@link #copyWithOriginalID()}, mutable fields of subclasses are
+	 * shared with the copy, so the subclass must reset them itself.
+	 *
+	 * @return A copy of this component without children.
+	 */
+	/* package-local */ RocketComponent copyComponentOnly() {
+		checkState();
+		RocketComponent clone;
+		try {
+			clone = this.clone();
+			clone.id = this.id;
+		} catch (CloneNotSupportedException e) {
+			throw new BugException("CloneNotSupportedException encountered, report a bug!", e);
+		}
+		clone.mutex = SafetyMutex.newInstance();
+		clone.parent = null;
+		clone.children = new ArrayList<RocketComponent>();
+		return clone;
+	}
+
+	/**
+	 * Replace the children of this component without firing events or updating any
+	 * components.  This is used by {@link RocketSnapshot} to link and unlink the stored
+	 * component copies.
+	 *
+	 * @param newChildren	the new children of this component.
+	 */
+	/* package-local */ void setChildrenUnchecked(final List<RocketComponent> newChildren) {
+		for (RocketComponent child : this.children) {
+			if (child.parent == this) {
+				child.parent = null;
+			}
+		}
+		this.children = new ArrayList<RocketComponent>(newChildren);
+		for (RocketComponent child : this.children) {
+			child.parent = this;
+		}
+	}
+
 	@Override
 	public RocketComponent clone() throws CloneNotSupportedException {
 		RocketComponent clone = (RocketComponent) super.clone();
@@ -459,6 +500,8 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 			icch.copyFrom(((InsideColorComponent) this).getInsideColorComponentHandler());
 			((InsideColorComponent) clone).setInsideColorComponentHandler(icch);
 		}
+		// Make sure the copy is not invalidated together with the original
+		clone.invalidator = new Invalidator(clone);
 		// Make sure the config listeners aren't cloned
 		clone.configListeners = new LinkedList<>();
 		clone.bypassComponentChangeEvent = false;
@@ -998,6 +1041,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 *
 	 */
 	void overrideSubcomponentsCD(boolean override) {
+		journalSubtreeChange();
 		for (RocketComponent c : this.children) {
 			if (c.isCDOverriddenByAncestor() != override) {
 
@@ -1048,7 +1092,19 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		return CDOverriddenBy;
 	}
 
+	/**
+	 * Record in the change journal of the rocket that the descendants of this component
+	 * are modified without firing change events of their own.
+	 */
+	private void journalSubtreeChange() {
+		final RocketComponent root = getRoot();
+		if (root instanceof Rocket) {
+			((Rocket) root).journalSubtreeChange(this);
+		}
+	}
+
 	private void updateChildrenMassOverriddenBy() {
+		journalSubtreeChange();
 		RocketComponent overriddenBy = massOverridden && overrideSubcomponentsMass ? this : null;
 		for (RocketComponent c : getAllChildren()) {
 			c.massOverriddenBy = overriddenBy;
@@ -1060,6 +1116,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	}
 
 	private void updateChildrenCGOverriddenBy() {
+		journalSubtreeChange();
 		RocketComponent overriddenBy = cgOverridden && overrideSubcomponentsCG ? this : null;
 		for (RocketComponent c : getAllChildren()) {
 			c.CGOverriddenBy = overriddenBy;
@@ -1071,6 +1128,7 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	}
 
 	private void updateChildrenCDOverriddenBy() {
+		journalSubtreeChange();
 		RocketComponent overriddenBy = cdOverridden && overrideSubcomponentsCD ? this : null;
 		for (RocketComponent c : getAllChildren()) {
 			c.CDOverriddenBy = overriddenBy;
@@ -0,0 +1,270 @@
+package info.openrocket.core.rocketcomponent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the state of a rocket, used to store the undo history.
+ * <p>
+ * Each component is stored as a copy without children, and the component tree as
+ * immutable nodes referring to these copies.  When a snapshot is created, the change
+ * journal of the rocket tells which components have been the source of change events
+ * since the previous snapshot was created or restored.  The copies of all other components,
+ * and the nodes of unchanged subtrees, are shared with the previous snapshot, so that
+ * consecutive undo levels only store the components that were modified in between.
+ * The flight configurations and the rocket itself are stored in every snapshot.
+ * <p>
+ * Restoring a snapshot links the stored copies into a temporary rocket and loads it into
+ * the target the same way as {@link Rocket#loadFrom(Rocket)}, except that the stored copies
+ * are not invalidated, so that a snapshot can be restored any number of times.  Snapshots
+ * must not be restored concurrently.
+ */
+public final class RocketSnapshot {
+
+	private final Rocket root;
+	private final Node[] children;
+	private final List<ConfigurationState> configurations = new ArrayList<>();
+	private final FlightConfigurationId selectedConfiguration;
+	private final int modID;
+
+	// Number of component copies created for this snapshot
+	private int copiedComponentCount = 0;
+
+	private RocketSnapshot(final Rocket rocket) {
+		final Map<String, Node> previous = new HashMap<>();
+		final RocketSnapshot base = rocket.getSnapshotBase();
+		if (base != null) {
+			index(base.children, previous);
+		}
+
+		this.root = rocket.copyRocketOnly();
+		this.copiedComponentCount = 1;
+
+		final List<RocketComponent> rocketChildren = rocket.getChildren();
+		this.children = new Node[rocketChildren.size()];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = capture(rocket, rocketChildren.get(i), null, false, previous);
+		}
+
+		for (FlightConfigurationId id : rocket.getIds()) {
+			final FlightConfiguration config = rocket.getFlightConfiguration(id);
+			configurations.add(new ConfigurationState(id, config.getNameRaw(), config.getStageActiveness()));
+		}
+		this.selectedConfiguration = rocket.getSelectedConfiguration().getId();
+		this.modID = rocket.getModID();
+	}
+
+	/**
+	 * Create a snapshot of the current state of a rocket.  Components that have not changed
+	 * since the rocket was last stored to or restored from a snapshot are shared with that
+	 * snapshot.
+	 *
+	 * @param rocket	the rocket to store.
+	 * @return			the snapshot of the rocket.
+	 */
+	public static RocketSnapshot create(final Rocket rocket) {
+		final RocketSnapshot snapshot = new RocketSnapshot(rocket);
+		rocket.resetChangeJournal(snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * Load the state stored in this snapshot into a rocket, replacing its components.
+	 * The rocket fires an undo change event.
+	 *
+	 * @param rocket	the rocket to restore, normally the rocket the snapshot was created from.
+	 */
+	public void restore(final Rocket rocket) {
+		final Rocket source = root.copyRocketOnly();
+		try {
+			link(source, children);
+			source.update();
+			for (ConfigurationState state : configurations) {
+				final FlightConfiguration config = source.createFlightConfiguration(state.id);
+				config.setName(state.name);
+				config.setStageActiveness(state.stageActiveness);
+			}
+			source.setSelectedConfiguration(selectedConfiguration);
+
+			// Shared copies may hold cached values computed for a different tree.  The stored
+			// copies must stay valid, since the snapshot may be restored again.
+			rocket.loadFrom(source, ComponentChangeEvent.AEROMASS_CHANGE, false);
+		} finally {
+			unlink(children);
+			source.setChildrenUnchecked(Collections.<RocketComponent>emptyList());
+		}
+		rocket.resetChangeJournal(this);
+	}
+
+	/**
+	 * Return the modification ID of the rocket when this snapshot was created.
+	 */
+	public int getModID() {
+		return modID;
+	}
+
+	/**
+	 * Return the number of component copies, including the rocket itself, that were
+	 * created for this snapshot rather than shared with a previous snapshot.
+	 */
+	public int getCopiedComponentCount() {
+		return copiedComponentCount;
+	}
+
+	/**
+	 * Return how many of the oldest snapshots must be dropped so that the remaining ones
+	 * store at most a given number of distinct component copies.  The copies are counted
+	 * once, and each dropped snapshot then releases the copies no remaining snapshot holds.
+	 *
+	 * @param snapshots		the snapshots, oldest first.
+	 * @param maxComponents	the maximum number of component copies stored.
+	 * @param maxDropped	the maximum number of snapshots to drop.
+	 * @return				the number of snapshots to drop from the start of the collection.
+	 */
+	public static int getExcessSnapshotCount(final Collection<RocketSnapshot> snapshots,
+			final int maxComponents, final int maxDropped) {
+		// Number of snapshots holding each copy
+		final Map<RocketComponent, Integer> references = new IdentityHashMap<>();
+		for (RocketSnapshot snapshot : snapshots) {
+			for (RocketComponent component : snapshot.getComponents()) {
+				references.merge(component, 1, Integer::sum);
+			}
+		}
+
+		int stored = references.size();
+		int dropped = 0;
+		final Iterator<RocketSnapshot> iterator = snapshots.iterator();
+		while (stored > maxComponents && dropped < maxDropped && iterator.hasNext()) {
+			for (RocketComponent component : iterator.next().getComponents()) {
+				if (references.merge(component, -1, Integer::sum) == 0) {
+					references.remove(component);
+					stored--;
+				}
+			}
+			dropped++;
+		}
+		return dropped;
+	}
+
+	private List<RocketComponent> getComponents() {
+		final List<RocketComponent> components = new ArrayList<>();
+		components.add(root);
+		collect(children, components);
+		return components;
+	}
+
+
+	/**
+	 * Store a component and its descendants, sharing the nodes and copies of the
+	 * previous snapshot where the components have not changed.
+	 *
+	 * @param rocket			the rocket being stored.
+	 * @param component			the component to store.
+	 * @param copy				a copy of the component made while copying an ancestor, or null.
+	 * @param subtreeChanged	whether all components below an ancestor have changed.
+	 * @param previous			the nodes of the previous snapshot by component ID.
+	 * @return					the node of the component.
+	 */
+	private Node capture(final Rocket rocket, final RocketComponent component, RocketComponent copy,
+			boolean subtreeChanged, final Map<String, Node> previous) {
+		final String id = component.getID();
+		final Node old = previous.get(id);
+		subtreeChanged |= rocket.isSubtreeChangedSinceSnapshot(id);
+		final boolean changed = old == null || subtreeChanged || rocket.isChangedSinceSnapshot(id);
+
+		if (changed && copy == null) {
+			copy = component.copyWithOriginalID();
+		}
+
+		final List<RocketComponent> componentChildren = component.getChildren();
+		final List<RocketComponent> copyChildren = (copy != null) ? copy.getChildren() : null;
+		final Node[] childNodes = new Node[componentChildren.size()];
+		boolean same = !changed && old.children.length == childNodes.length;
+		for (int i = 0; i < childNodes.length; i++) {
+			childNodes[i] = capture(rocket, componentChildren.get(i),
+					(copyChildren != null) ? copyChildren.get(i) : null, subtreeChanged, previous);
+			if (same && childNodes[i] != old.children[i]) {
+				same = false;
+			}
+		}
+
+		if (copy != null) {
+			// The copies of the children are stored in their own nodes, or discarded
+			copy.setChildrenUnchecked(Collections.<RocketComponent>emptyList());
+		}
+		if (same) {
+			return old;
+		}
+		if (changed) {
+			copiedComponentCount++;
+			return new Node(copy, childNodes);
+		}
+		return new Node(old.component, childNodes);
+	}
+
+	private static void index(final Node[] nodes, final Map<String, Node> index) {
+		for (Node node : nodes) {
+			index.put(node.component.getID(), node);
+			index(node.children, index);
+		}
+	}
+
+	private static void link(final RocketComponent parent, final Node[] nodes) {
+		final List<RocketComponent> components = new ArrayList<>(nodes.length);
+		for (Node node : nodes) {
+			link(node.component, node.children);
+			components.add(node.component);
+		}
+		parent.setChildrenUnchecked(components);
+	}
+
+	private static void unlink(final Node[] nodes) {
+		for (Node node : nodes) {
+			unlink(node.children);
+			node.component.setChildrenUnchecked(Collections.<RocketComponent>emptyList());
+		}
+	}
+
+	private static void collect(final Node[] nodes, final List<RocketComponent> components) {
+		for (Node node : nodes) {
+			components.add(node.component);
+			collect(node.children, components);
+		}
+	}
+
+
+	/**
+	 * A stored component together with the nodes of its children.
+	 */
+	private static final class Node {
+		private final RocketComponent component;
+		private final Node[] children;
+
+		private Node(final RocketComponent component, final Node[] children) {
+			this.component = component;
+			this.children = children;
+		}
+	}
+
+	/**
+	 * The stored state of a flight configuration.
+	 */
+	private static final class ConfigurationState {
+		private final FlightConfigurationId id;
+		private final String name;
+		private final Map<Integer, Boolean> stageActiveness;
+
+		private ConfigurationState(final FlightConfigurationId id, final String name,
+				final Map<Integer, Boolean> stageActiveness) {
+			this.id = id;
+			this.name = name;
+			this.stageActiveness = stageActiveness;
+		}
+	}
+}
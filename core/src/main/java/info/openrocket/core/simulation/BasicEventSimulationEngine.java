@@ -36,8 +36,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 	private static final Translator trans = Application.getTranslator();
 	private static final Logger log = LoggerFactory.getLogger(BasicEventSimulationEngine.class);
 	
-	// TODO: MEDIUM: Allow selecting steppers
-	private final SimulationStepper flightStepper = new RK4SimulationStepper();
+	private SimulationStepper flightStepper;
 	private final SimulationStepper landingStepper = new BasicLandingStepper();
 	private final SimulationStepper tumbleStepper = new BasicTumbleStepper();
 	private final SimulationStepper groundStepper = new GroundStepper();
@@ -68,6 +67,13 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 		flightData = new FlightData();
 			
 		try {
+			// Set up the flight stepper
+			try {
+				flightStepper = simulationConditions.getFlightStepperClass().getConstructor().newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Cannot instantiate flight stepper.", e);
+			}
+			
 			// Set up rocket configuration
 			this.fcid = simulationConditions.getFlightConfigurationID();
 			FlightConfiguration origConfig = simulationConditions.getRocket().getFlightConfiguration(this.fcid);
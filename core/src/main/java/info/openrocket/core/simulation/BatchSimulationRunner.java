@@ -0,0 +1,368 @@
+package info.openrocket.core.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.exception.SimulationCancelledException;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+import info.openrocket.core.simulation.listeners.SimulationListener;
+
+/**
+ * Runs batches of simulations in parallel without any user interface.
+ * <p>
+ * The simulations are run on a work-stealing thread pool, by default using as many threads
+ * as there are processors available.  Each call to {@link #runSimulations(List, Listener)} or
+ * {@link #runConditions(List, Listener)} returns a {@link Batch} handle, which can be used to
+ * wait for the results or to cancel the remaining simulations.  Progress is reported through an
+ * optional {@link Listener}, whose methods are called from the worker threads.
+ * <p>
+ * The same {@link Simulation} object must not be run concurrently in two batches.
+ */
+public class BatchSimulationRunner {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchSimulationRunner.class);
+
+	/** Default minimum wall-clock interval between progress callbacks of a single simulation */
+	public static final long DEFAULT_PROGRESS_INTERVAL = 100;
+
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+
+	private volatile long progressInterval = DEFAULT_PROGRESS_INTERVAL;
+
+
+	/**
+	 * Construct a runner that uses as many threads as there are processors available.
+	 */
+	public BatchSimulationRunner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Construct a runner that uses a work-stealing pool with the specified parallelism.
+	 *
+	 * @param parallelism	the number of simulations to run at the same time.
+	 */
+	public BatchSimulationRunner(int parallelism) {
+		this(Executors.newWorkStealingPool(parallelism), true);
+	}
+
+	/**
+	 * Construct a runner that uses the provided executor.  The executor is not shut down
+	 * by {@link #shutdown()}.
+	 *
+	 * @param executor	the executor to run the simulations in.
+	 */
+	public BatchSimulationRunner(ExecutorService executor) {
+		this(executor, false);
+	}
+
+	private BatchSimulationRunner(ExecutorService executor, boolean ownsExecutor) {
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+
+	/**
+	 * Set the minimum wall-clock interval between two progress callbacks of a single simulation.
+	 *
+	 * @param millis	the interval in milliseconds, zero to report every simulation step.
+	 */
+	public void setProgressInterval(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("Negative progress interval " + millis);
+		}
+		this.progressInterval = millis;
+	}
+
+	public long getProgressInterval() {
+		return progressInterval;
+	}
+
+
+	/**
+	 * Start running the provided simulations.  The simulated data is stored in the
+	 * simulations as when running them one by one.
+	 *
+	 * @param simulations	the simulations to run.
+	 * @param listener		the listener to notify of progress, or <code>null</code>.
+	 * @return				a handle to the running batch.
+	 */
+	public Batch runSimulations(List<Simulation> simulations, Listener listener) {
+		Batch batch = new Batch(simulations.size(), listener);
+		for (int i = 0; i < simulations.size(); i++) {
+			final Simulation simulation = simulations.get(i);
+			batch.submit(i, cancelListener -> {
+				simulation.simulate(cancelListener);
+				return simulation.getSimulatedData();
+			});
+		}
+		return batch;
+	}
+
+	/**
+	 * Start running simulations of the provided simulation conditions.  The conditions are
+	 * cloned before simulating, and each simulation uses independent instances of the
+	 * aerodynamic calculator and the environment models, so the provided objects are not
+	 * modified and the same conditions may be simulated several times in a batch.
+	 *
+	 * @param conditions	the simulation conditions to simulate.
+	 * @param listener		the listener to notify of progress, or <code>null</code>.
+	 * @return				a handle to the running batch.
+	 */
+	public Batch runConditions(List<SimulationConditions> conditions, Listener listener) {
+		Batch batch = new Batch(conditions.size(), listener);
+		for (int i = 0; i < conditions.size(); i++) {
+			final SimulationConditions original = conditions.get(i);
+			batch.submit(i, cancelListener -> {
+				SimulationConditions copy = original.clone();
+				copy.setAerodynamicCalculator(original.getAerodynamicCalculator().newInstance());
+				copy.setWindModel(original.getWindModel().newInstance());
+				copy.setAtmosphericModel(original.getAtmosphericModel().newInstance());
+				copy.setGravityModel(original.getGravityModel().newInstance());
+				copy.getSimulationListenerList().add(cancelListener);
+				SimulationEngine engine = new BasicEventSimulationEngine();
+				engine.simulate(copy);
+				return engine.getFlightData();
+			});
+		}
+		return batch;
+	}
+
+	/**
+	 * Shut down the thread pool of this runner, if it was created by the runner.
+	 * Simulations that are already running are allowed to finish.
+	 */
+	public void shutdown() {
+		if (ownsExecutor) {
+			executor.shutdown();
+		}
+	}
+
+
+	/**
+	 * Listener notified of the progress of a batch.  All methods are called from the thread
+	 * running the corresponding simulation, and should return quickly.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called when a simulation of the batch starts.
+		 *
+		 * @param index	the index of the simulation in the batch.
+		 */
+		default void simulationStarted(int index) {
+		}
+
+		/**
+		 * Called periodically while a simulation is running.
+		 *
+		 * @param index		the index of the simulation in the batch.
+		 * @param status	the current status of the simulation, which must not be modified.
+		 */
+		default void simulationProgress(int index, SimulationStatus status) {
+		}
+
+		/**
+		 * Called when a simulation has finished successfully.
+		 *
+		 * @param index	the index of the simulation in the batch.
+		 * @param data	the flight data of the simulation.
+		 */
+		default void simulationFinished(int index, FlightData data) {
+		}
+
+		/**
+		 * Called when a simulation has failed or has been cancelled.
+		 *
+		 * @param index	the index of the simulation in the batch.
+		 * @param cause	the cause of the failure, a {@link SimulationCancelledException}
+		 * 				if the simulation was cancelled.
+		 */
+		default void simulationFailed(int index, Throwable cause) {
+		}
+	}
+
+
+	/**
+	 * A single simulation task of a batch.
+	 */
+	private interface Task {
+		FlightData run(SimulationListener cancelListener) throws SimulationException;
+	}
+
+
+	/**
+	 * A handle to a batch of simulations that are being run.
+	 */
+	public class Batch {
+
+		private final Listener listener;
+		private final FlightData[] results;
+		private final Throwable[] failures;
+		private final CountDownLatch latch;
+		private final AtomicInteger completed = new AtomicInteger();
+		private volatile boolean cancelled = false;
+
+		private Batch(int size, Listener listener) {
+			this.listener = listener;
+			this.results = new FlightData[size];
+			this.failures = new Throwable[size];
+			this.latch = new CountDownLatch(size);
+		}
+
+		private void submit(final int index, final Task task) {
+			executor.execute(() -> execute(index, task));
+		}
+
+		private void execute(int index, Task task) {
+			try {
+				if (cancelled) {
+					throw new SimulationCancelledException("The simulation was cancelled.");
+				}
+				if (listener != null) {
+					listener.simulationStarted(index);
+				}
+				FlightData data = task.run(new ProgressListener(index));
+				synchronized (this) {
+					results[index] = data;
+				}
+				if (listener != null) {
+					listener.simulationFinished(index, data);
+				}
+			} catch (Throwable t) {
+				log.debug("Batch simulation " + index + " failed", t);
+				synchronized (this) {
+					failures[index] = t;
+				}
+				if (listener != null) {
+					listener.simulationFailed(index, t);
+				}
+			} finally {
+				completed.incrementAndGet();
+				latch.countDown();
+			}
+		}
+
+		/**
+		 * Cancel the simulations of this batch that have not finished yet.  Running simulations
+		 * are stopped at their next simulation step, and simulations that have not started fail
+		 * immediately when they are taken from the queue.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Return whether all simulations of this batch have finished.
+		 */
+		public boolean isDone() {
+			return latch.getCount() == 0;
+		}
+
+		/**
+		 * Return the number of simulations in this batch.
+		 */
+		public int size() {
+			return results.length;
+		}
+
+		/**
+		 * Return the number of simulations that have finished, successfully or not.
+		 */
+		public int getCompletedCount() {
+			return completed.get();
+		}
+
+		/**
+		 * Wait for all simulations of this batch to finish.
+		 *
+		 * @return	the flight data of each simulation, in the order they were provided.  The
+		 * 			entries of failed or cancelled simulations are <code>null</code>.
+		 * @throws InterruptedException	if the current thread is interrupted while waiting.
+		 */
+		public List<FlightData> await() throws InterruptedException {
+			latch.await();
+			return getResults();
+		}
+
+		/**
+		 * Wait for all simulations of this batch to finish, at most the given time.
+		 *
+		 * @return	<code>true</code> if all simulations finished within the time.
+		 * @throws InterruptedException	if the current thread is interrupted while waiting.
+		 */
+		public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+			return latch.await(timeout, unit);
+		}
+
+		/**
+		 * Return the flight data of the simulations that have finished so far.  The entries of
+		 * simulations that have not finished, failed or were cancelled are <code>null</code>.
+		 */
+		public synchronized List<FlightData> getResults() {
+			List<FlightData> list = new ArrayList<>(results.length);
+			Collections.addAll(list, results);
+			return list;
+		}
+
+		/**
+		 * Return the flight data of a single simulation, or <code>null</code> if it has not
+		 * finished successfully.
+		 */
+		public synchronized FlightData getFlightData(int index) {
+			return results[index];
+		}
+
+		/**
+		 * Return the cause of the failure of a single simulation, or <code>null</code> if it has not
+		 * failed.
+		 */
+		public synchronized Throwable getThrowable(int index) {
+			return failures[index];
+		}
+
+
+		/**
+		 * A simulation listener that reports the progress of a simulation and stops it
+		 * when the batch is cancelled.
+		 */
+		private class ProgressListener extends AbstractSimulationListener {
+			private final int index;
+			private long lastReport = System.currentTimeMillis();
+
+			private ProgressListener(int index) {
+				this.index = index;
+			}
+
+			@Override
+			public void postStep(SimulationStatus status) throws SimulationException {
+				if (cancelled) {
+					throw new SimulationCancelledException("The simulation was cancelled.");
+				}
+				if (listener != null) {
+					long now = System.currentTimeMillis();
+					if (now - lastReport >= progressInterval) {
+						lastReport = now;
+						listener.simulationProgress(index, status);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package info.openrocket.core.simulation;
+
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.Quaternion;
+
+/**
+ * An RK4 stepper that keeps the integrator state in reusable primitive buffers.
+ * <p>
+ * The standard {@link RK4SimulationStepper} clones the simulation status for every
+ * sub-step and combines the RK4 parameters through immutable {@link Coordinate} and
+ * {@link Quaternion} objects.  This stepper stores the derivatives of the four sub-steps
+ * as double slots, reuses a single intermediate status object and evaluates all the
+ * integrator arithmetic on primitives.  The only objects created by the integrator are
+ * the state values handed to the intermediate status, which the listeners and models
+ * require as immutable objects.
+ * <p>
+ * The arithmetic is performed in exactly the same order as in {@link RK4SimulationStepper},
+ * so given the same random seed the results are identical bit-for-bit.  The listener hooks
+ * are called in the same order and with the same arguments.
+ */
+public class BufferedRK4SimulationStepper extends RK4SimulationStepper {
+
+	// Slot offsets of the derivatives within one sub-step
+	private static final int V = 0;
+	private static final int A = 3;
+	private static final int RV = 6;
+	private static final int RA = 9;
+	private static final int SLOTS = 12;
+
+	/** Derivatives of the four sub-steps, SLOTS doubles each */
+	private final double[] k = new double[4 * SLOTS];
+
+	/** Intermediate status reused for the sub-steps, cloned from <code>owner</code> */
+	private SimulationStatus intermediate = null;
+	private SimulationStatus owner = null;
+
+
+	@Override
+	public SimulationStatus initialize(SimulationStatus original) {
+		intermediate = null;
+		owner = null;
+		return super.initialize(original);
+	}
+
+
+	@Override
+	public void step(SimulationStatus status, double maxTimeStep) throws SimulationException {
+
+		/*
+		 * Get the current atmospheric conditions
+		 */
+		calculateFlightConditions(status, store);
+		store.atmosphericConditions = store.flightConditions.getAtmosphericConditions();
+
+		//// First position, k1 = f(t, y)
+		computeDerivatives(status, store);
+		loadDerivatives(status, 0);
+		store.storeData(status);
+
+		computeTimeStep(status, maxTimeStep, status.getRocketVelocity().length());
+		final double h = store.timeStep;
+
+		//// Second position, k2 = f(t + h/2, y + k1*h/2)
+		SimulationStatus status2 = prepareIntermediate(status, 0, h / 2);
+		computeDerivatives(status2, store);
+		loadDerivatives(status2, SLOTS);
+
+		//// Third position, k3 = f(t + h/2, y + k2*h/2)
+		status2 = prepareIntermediate(status, SLOTS, h / 2);
+		computeDerivatives(status2, store);
+		loadDerivatives(status2, 2 * SLOTS);
+
+		//// Fourth position, k4 = f(t + h, y + k3*h)
+		status2 = prepareIntermediate(status, 2 * SLOTS, h);
+		computeDerivatives(status2, store);
+		loadDerivatives(status2, 3 * SLOTS);
+
+		//// Sum all together,  y(n+1) = y(n) + h*(k1 + 2*k2 + 2*k3 + k4)/6
+		final double h6 = h / 6;
+		Coordinate v = status.getRocketVelocity();
+		Coordinate p = status.getRocketPosition();
+		Coordinate rv = status.getRocketRotationVelocity();
+
+		status.setRocketVelocity(new Coordinate(
+				v.x + sum(A, 0, h6), v.y + sum(A, 1, h6), v.z + sum(A, 2, h6)));
+		status.setRocketPosition(new Coordinate(
+				p.x + sum(V, 0, h6), p.y + sum(V, 1, h6), p.z + sum(V, 2, h6)));
+		status.setRocketRotationVelocity(new Coordinate(
+				rv.x + sum(RA, 0, h6), rv.y + sum(RA, 1, h6), rv.z + sum(RA, 2, h6)));
+		status.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion()
+				.multiplyLeftRotation(sum(RV, 0, h6), sum(RV, 1, h6), sum(RV, 2, h6))
+				.normalizeIfNecessary());
+
+		completeStep(status);
+	}
+
+
+	/**
+	 * Copy the derivatives computed into the data store at the given status into the
+	 * derivative buffer.
+	 */
+	private void loadDerivatives(SimulationStatus status, int offset) {
+		put(offset + V, status.getRocketVelocity());
+		put(offset + A, store.linearAcceleration);
+		put(offset + RV, status.getRocketRotationVelocity());
+		put(offset + RA, store.angularAcceleration);
+	}
+
+	private void put(int index, Coordinate c) {
+		k[index] = c.x;
+		k[index + 1] = c.y;
+		k[index + 2] = c.z;
+	}
+
+	/**
+	 * Return the RK4 weighted sum of one component, evaluated in the same order as
+	 * <code>k2.add(k3).multiply(2).add(k1).add(k4).multiply(h6)</code>.
+	 */
+	private double sum(int slot, int component, double h6) {
+		int i = slot + component;
+		return ((k[SLOTS + i] + k[2 * SLOTS + i]) * 2 + k[i] + k[3 * SLOTS + i]) * h6;
+	}
+
+	/**
+	 * Set the intermediate status to the state <code>y + k*dt</code>, where <code>k</code>
+	 * is the sub-step derivative at the given offset.
+	 *
+	 * @param status	the status at the start of the step.
+	 * @param offset	the buffer offset of the derivatives to use.
+	 * @param dt		the time offset from the start of the step.
+	 * @return			the intermediate status.
+	 */
+	private SimulationStatus prepareIntermediate(SimulationStatus status, int offset, double dt) {
+		if (owner != status) {
+			intermediate = status.clone();
+			owner = status;
+		} else {
+			intermediate.copyStateFrom(status);
+		}
+
+		Coordinate p = status.getRocketPosition();
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+
+		intermediate.setSimulationTime(status.getSimulationTime() + dt);
+		intermediate.setRocketPosition(new Coordinate(
+				p.x + k[offset + V] * dt, p.y + k[offset + V + 1] * dt, p.z + k[offset + V + 2] * dt));
+		intermediate.setRocketVelocity(new Coordinate(
+				v.x + k[offset + A] * dt, v.y + k[offset + A + 1] * dt, v.z + k[offset + A + 2] * dt));
+		intermediate.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeftRotation(
+				k[offset + RV] * dt, k[offset + RV + 1] * dt, k[offset + RV + 2] * dt));
+		intermediate.setRocketRotationVelocity(new Coordinate(
+				rv.x + k[offset + RA] * dt, rv.y + k[offset + RA + 1] * dt, rv.z + k[offset + RA + 2] * dt));
+
+		return intermediate;
+	}
+}
@@ -0,0 +1,317 @@
+package info.openrocket.core.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.util.Coordinate;
+import info.openrocket.core.util.MathUtil;
+import info.openrocket.core.util.Quaternion;
+
+/**
+ * A flight stepper using the adaptive Dormand-Prince 5(4) Runge-Kutta method.
+ * <p>
+ * Each step evaluates seven stages, of which the last is evaluated at the end of the
+ * step.  When nothing has changed the state of the rocket between two steps, the last
+ * stage of a step is reused as the first stage of the next one ("first same as last"),
+ * so an accepted step costs six evaluations of the derivatives.  The difference between
+ * the embedded fifth and fourth order solutions estimates the local error of the
+ * position and velocity.  The step length is adjusted to keep the estimated error within
+ * the integration tolerance of the simulation, relative to the magnitude of the values,
+ * and steps whose error is too large are repeated with a shorter step.
+ * <p>
+ * The rotation of the rocket is integrated in the same way as the translation, but the
+ * rotational step length is limited by the same angle step limits as in
+ * {@link RK4SimulationStepper} instead of the error estimate, since the small random
+ * pitch and yaw moments added to every evaluation would otherwise dominate the estimate.
+ * Steps are truncated at upcoming flight events as in {@link RK4SimulationStepper}, and
+ * the step reaching apogee is shortened to end at the predicted apogee time.
+ */
+public class DormandPrinceSimulationStepper extends RK4SimulationStepper {
+
+	private static final Logger log = LoggerFactory.getLogger(DormandPrinceSimulationStepper.class);
+
+	/**
+	 * A recommended integration tolerance.
+	 */
+	public static final double RECOMMENDED_TOLERANCE = 1e-4;
+
+	/** Maximum factor by which the step length may grow between steps */
+	private static final double MAX_STEP_GROWTH = 5;
+	/** Minimum factor by which the step length is reduced after a rejected step */
+	private static final double MIN_STEP_REDUCTION = 0.2;
+	private static final double SAFETY_FACTOR = 0.9;
+	/** Maximum time step before lift-off, which is only detected between steps */
+	private static final double LIFTOFF_TIME_STEP = 0.005;
+
+	// Nodes, coefficients and fifth order weights of the method
+	private static final double[] C = { 0, 1.0 / 5, 3.0 / 10, 4.0 / 5, 8.0 / 9, 1, 1 };
+	private static final double[][] A = {
+			{},
+			{ 1.0 / 5 },
+			{ 3.0 / 40, 9.0 / 40 },
+			{ 44.0 / 45, -56.0 / 15, 32.0 / 9 },
+			{ 19372.0 / 6561, -25360.0 / 2187, 64448.0 / 6561, -212.0 / 729 },
+			{ 9017.0 / 3168, -355.0 / 33, 46732.0 / 5247, 49.0 / 176, -5103.0 / 18656 },
+			{ 35.0 / 384, 0, 500.0 / 1113, 125.0 / 192, -2187.0 / 6784, 11.0 / 84 }
+	};
+	/** Differences between the fifth and fourth order weights */
+	private static final double[] E = { 71.0 / 57600, 0, -71.0 / 16695, 71.0 / 1920, -17253.0 / 339200,
+			22.0 / 525, -1.0 / 40 };
+	private static final int STAGES = C.length;
+
+	// Slot offsets of the derivatives within one stage
+	private static final int V = 0;
+	private static final int ACC = 3;
+	private static final int RV = 6;
+	private static final int RA = 9;
+	private static final int SLOTS = 12;
+
+	/** Derivatives of the stages, SLOTS doubles each */
+	private final double[] k = new double[STAGES * SLOTS];
+
+	/** Intermediate status reused for the stages, cloned from <code>owner</code> */
+	private SimulationStatus intermediate = null;
+	private SimulationStatus owner = null;
+
+	/** The step length proposed by the error control for the next step */
+	private double proposedTimeStep;
+
+	// State at the end of the previous step, for which the last stage is valid
+	private SimulationStatus lastStatus = null;
+	private double lastTime;
+	private Coordinate lastPosition;
+	private Coordinate lastVelocity;
+	private Quaternion lastOrientation;
+	private Coordinate lastRotationVelocity;
+	private int lastEventCount;
+
+	private int evaluations = 0;
+	private int rejections = 0;
+
+
+	@Override
+	public SimulationStatus initialize(SimulationStatus original) {
+		intermediate = null;
+		owner = null;
+		lastStatus = null;
+		proposedTimeStep = MathUtil.max(original.getSimulationConditions().getTimeStep(), MIN_TIME_STEP);
+		return super.initialize(original);
+	}
+
+
+	@Override
+	public void step(SimulationStatus status, double maxTimeStep) throws SimulationException {
+
+		/*
+		 * Get the current atmospheric conditions
+		 */
+		calculateFlightConditions(status, store);
+		store.atmosphericConditions = store.flightConditions.getAtmosphericConditions();
+
+		//// First stage, reused from the end of the previous step if possible
+		if (isLastStageValid(status)) {
+			System.arraycopy(k, (STAGES - 1) * SLOTS, k, 0, SLOTS);
+		} else {
+			evaluate(status, 0);
+		}
+		store.storeData(status);
+
+		computeTimeStep(status, maxTimeStep, status.getRocketVelocity().length());
+		final double preferredTimeStep = getPreferredTimeStep(status);
+		final double tolerance = status.getSimulationConditions().getIntegrationTolerance();
+
+		// Take the step, repeating it with a shorter step length while the error is too large
+		double h = store.timeStep;
+		double error;
+		while (true) {
+			for (int stage = 1; stage < STAGES; stage++) {
+				evaluate(prepareIntermediate(status, stage, h), stage);
+			}
+			error = estimateError(status, h, tolerance);
+			if (error <= 1 || h <= MIN_TIME_STEP) {
+				break;
+			}
+
+			rejections++;
+			h = MathUtil.max(h * MathUtil.max(MIN_STEP_REDUCTION, SAFETY_FACTOR * Math.pow(error, -0.2)),
+					MIN_TIME_STEP);
+			log.trace("Rejected step with error " + error + ", retrying with time step " + h);
+		}
+
+		// Propose the next step length.  A step shortened by other limits than the error
+		// says nothing about a longer step, so the preferred step length is kept.
+		double growth = (error > 0) ? SAFETY_FACTOR * Math.pow(error, -0.2) : MAX_STEP_GROWTH;
+		proposedTimeStep = h * MathUtil.min(MAX_STEP_GROWTH, MathUtil.max(MIN_STEP_REDUCTION, growth));
+		if (h == store.timeStep && h < preferredTimeStep && error <= 1) {
+			proposedTimeStep = MathUtil.max(proposedTimeStep, preferredTimeStep);
+		}
+		store.timeStep = h;
+
+		// The state of the last stage is the new state of the rocket
+		status.setRocketPosition(intermediate.getRocketPosition());
+		status.setRocketVelocity(intermediate.getRocketVelocity());
+		status.setRocketOrientationQuaternion(intermediate.getRocketOrientationQuaternion());
+		status.setRocketRotationVelocity(intermediate.getRocketRotationVelocity());
+
+		completeStep(status);
+
+		lastStatus = status;
+		lastTime = status.getSimulationTime();
+		lastPosition = status.getRocketPosition();
+		lastVelocity = status.getRocketVelocity();
+		lastOrientation = status.getRocketOrientationQuaternion();
+		lastRotationVelocity = status.getRocketRotationVelocity();
+		lastEventCount = status.getFlightDataBranch().getEvents().size();
+	}
+
+
+	/**
+	 * The preferred step length is the step length proposed by the error control.  While
+	 * ascending, the step is shortened to end at the predicted apogee time, so that the
+	 * maximum altitude is not missed between two long steps.
+	 */
+	@Override
+	protected double getPreferredTimeStep(SimulationStatus status) {
+		double timeStep = proposedTimeStep;
+		if (!status.isLiftoff()) {
+			timeStep = MathUtil.min(timeStep, LIFTOFF_TIME_STEP);
+		}
+		final double verticalVelocity = k[V + 2];
+		final double verticalAcceleration = k[ACC + 2];
+		if (verticalVelocity > 0 && verticalAcceleration < 0) {
+			timeStep = MathUtil.min(timeStep, -verticalVelocity / verticalAcceleration);
+		}
+		return timeStep;
+	}
+
+	@Override
+	protected double getMinimumTimeStep(SimulationStatus status) {
+		return MIN_TIME_STEP;
+	}
+
+	/**
+	 * Return the number of derivative evaluations performed by this stepper.
+	 */
+	public int getEvaluationCount() {
+		return evaluations;
+	}
+
+	/**
+	 * Return the number of steps repeated because of a too large error.
+	 */
+	public int getRejectedStepCount() {
+		return rejections;
+	}
+
+
+	/**
+	 * Return whether the derivatives of the last stage of the previous step are valid at
+	 * the given status.  They are not if the simulation engine or a listener has changed
+	 * the state of the rocket, or a flight event has been handled since the step.
+	 */
+	private boolean isLastStageValid(SimulationStatus status) {
+		return lastStatus == status &&
+				lastTime == status.getSimulationTime() &&
+				lastPosition == status.getRocketPosition() &&
+				lastVelocity == status.getRocketVelocity() &&
+				lastOrientation == status.getRocketOrientationQuaternion() &&
+				lastRotationVelocity == status.getRocketRotationVelocity() &&
+				lastEventCount == status.getFlightDataBranch().getEvents().size();
+	}
+
+	/**
+	 * Evaluate the derivatives at the given status into the buffer of a stage.
+	 */
+	private void evaluate(SimulationStatus status, int stage) throws SimulationException {
+		computeDerivatives(status, store);
+		evaluations++;
+
+		final int offset = stage * SLOTS;
+		put(offset + V, status.getRocketVelocity());
+		put(offset + ACC, store.linearAcceleration);
+		put(offset + RV, status.getRocketRotationVelocity());
+		put(offset + RA, store.angularAcceleration);
+	}
+
+	private void put(int index, Coordinate c) {
+		k[index] = c.x;
+		k[index + 1] = c.y;
+		k[index + 2] = c.z;
+	}
+
+	/**
+	 * Return the weighted sum of the stage derivatives of one component.
+	 */
+	private double sum(double[] weights, int slot, int component) {
+		final int i = slot + component;
+		double sum = 0;
+		for (int stage = 0; stage < weights.length; stage++) {
+			sum += weights[stage] * k[stage * SLOTS + i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Set the intermediate status to the state of a stage.
+	 *
+	 * @param status	the status at the start of the step.
+	 * @param stage		the stage.
+	 * @param h			the step length.
+	 * @return			the intermediate status.
+	 */
+	private SimulationStatus prepareIntermediate(SimulationStatus status, int stage, double h) {
+		if (owner != status) {
+			intermediate = status.clone();
+			owner = status;
+		} else {
+			intermediate.copyStateFrom(status);
+		}
+
+		final double[] a = A[stage];
+		Coordinate p = status.getRocketPosition();
+		Coordinate v = status.getRocketVelocity();
+		Coordinate rv = status.getRocketRotationVelocity();
+
+		intermediate.setSimulationTime(status.getSimulationTime() + C[stage] * h);
+		intermediate.setRocketPosition(new Coordinate(
+				p.x + h * sum(a, V, 0), p.y + h * sum(a, V, 1), p.z + h * sum(a, V, 2)));
+		intermediate.setRocketVelocity(new Coordinate(
+				v.x + h * sum(a, ACC, 0), v.y + h * sum(a, ACC, 1), v.z + h * sum(a, ACC, 2)));
+		intermediate.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeftRotation(
+				h * sum(a, RV, 0), h * sum(a, RV, 1), h * sum(a, RV, 2)).normalizeIfNecessary());
+		intermediate.setRocketRotationVelocity(new Coordinate(
+				rv.x + h * sum(a, RA, 0), rv.y + h * sum(a, RA, 1), rv.z + h * sum(a, RA, 2)));
+
+		return intermediate;
+	}
+
+	/**
+	 * Return the largest estimated error of the position and velocity components, relative
+	 * to the tolerance.  The step is acceptable if the result is at most one.
+	 */
+	private double estimateError(SimulationStatus status, double h, double tolerance) {
+		final Coordinate p0 = status.getRocketPosition();
+		final Coordinate p1 = intermediate.getRocketPosition();
+		final Coordinate v0 = status.getRocketVelocity();
+		final Coordinate v1 = intermediate.getRocketVelocity();
+
+		double error = 0;
+		error = MathUtil.max(error, componentError(h * sum(E, V, 0), p0.x, p1.x, tolerance));
+		error = MathUtil.max(error, componentError(h * sum(E, V, 1), p0.y, p1.y, tolerance));
+		error = MathUtil.max(error, componentError(h * sum(E, V, 2), p0.z, p1.z, tolerance));
+		error = MathUtil.max(error, componentError(h * sum(E, ACC, 0), v0.x, v1.x, tolerance));
+		error = MathUtil.max(error, componentError(h * sum(E, ACC, 1), v0.y, v1.y, tolerance));
+		error = MathUtil.max(error, componentError(h * sum(E, ACC, 2), v0.z, v1.z, tolerance));
+		return error;
+	}
+
+	/**
+	 * Return the error of one component relative to the tolerance.  The tolerance is
+	 * relative to the magnitude of the value, but at least the tolerance times one
+	 * unit (meter or meter per second).
+	 */
+	private static double componentError(double error, double y0, double y1, double tolerance) {
+		return Math.abs(error) / (tolerance * (1 + MathUtil.max(Math.abs(y0), Math.abs(y1))));
+	}
+}
@@ -1,10 +1,12 @@
 package info.openrocket.core.simulation;
 
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 import info.openrocket.core.rocketcomponent.AxialStage;
 import info.openrocket.core.rocketcomponent.Rocket;
@@ -25,6 +27,14 @@ import info.openrocket.core.util.Mutable;
  * will be created and all previous values will be set to NaN.
  * <p>
  * After populating a FlightDataBranch object it can be made immutable by calling {@link #immute()}.
+ * <p>
+ * The values of each variable type are stored in a growable primitive <code>double</code> array,
+ * and the minimum and maximum of each type are tracked in primitive fields.  The values can be read
+ * without boxing using {@link #getDouble(FlightDataType, int)} or {@link #getBuffer(FlightDataType)}.
+ * <p>
+ * The data points of a branch loaded from a file may be decoded lazily, see
+ * {@link #setDeferredData(DeferredData)}.  Such a branch is materialized when its values are
+ * first accessed; the name, types and events are available immediately.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
@@ -33,10 +43,7 @@ public class FlightDataBranch implements Monitorable {
 	/** The name of this flight data branch. */
 	private final String name;
 	
-	private final Map<FlightDataType, ArrayList<Double>> values = new LinkedHashMap<>();
-
-	private final Map<FlightDataType, Double> maxValues = new HashMap<>();
-	private final Map<FlightDataType, Double> minValues = new HashMap<>();
+	private final Map<FlightDataType, Column> values = new LinkedHashMap<>();
 	
 	/**
 	 * time for the rocket to reach apogee if the flight had been no recovery deployment
@@ -53,6 +60,9 @@ public class FlightDataBranch implements Monitorable {
 	
 	private int modID = 0;
 	
+	/** Source of the data points that have not been decoded yet, or null */
+	private volatile DeferredData deferredData = null;
+	
 	/**
 	 * Sole constructor.  Defines the name of the FlightDataBranch and at least one variable type.
 	 * 
@@ -72,9 +82,7 @@ public class FlightDataBranch implements Monitorable {
 						"times in constructor.");
 			}
 			
-			values.put(t, new ArrayList<Double>());
-			minValues.put(t, Double.NaN);
-			maxValues.put(t, Double.NaN);
+			values.put(t, new Column(0, Double.NaN));
 		}
 	}
 
@@ -112,27 +120,26 @@ public class FlightDataBranch implements Monitorable {
 	 */
 	public void addPoint() {
 		mutable.check();
+		materialize();
 		
-		for (FlightDataType type : values.keySet()) {
-			sanityCheckValues(type, Double.NaN);
-			values.get(type).add(Double.NaN);
+		for (Column column : values.values()) {
+			column.add(Double.NaN);
 		}
 		modID++;
 	}
 
-	private void sanityCheckValues(FlightDataType type, Double value) {
-		ArrayList<Double> list = values.get(type);
+	/**
+	 * Return the column of the given type, creating it filled with NaN values if it does not
+	 * exist yet.  The minimum and maximum of a new column are initialized to <code>value</code>.
+	 */
+	private Column getOrCreateColumn(FlightDataType type, double value) {
+		Column column = values.get(type);
 
-		if (list == null) {
-			list = new ArrayList<>();
-			int n = getLength();
-			for (int i = 0; i < n; i++) {
-				list.add(Double.NaN);
-			}
-			values.put(type, list);
-			minValues.put(type, value);
-			maxValues.put(type, value);
+		if (column == null) {
+			column = new Column(getLength(), value);
+			values.put(type, column);
 		}
+		return column;
 	}
 
 	/**
@@ -145,23 +152,9 @@ public class FlightDataBranch implements Monitorable {
 	 */
 	public void setValue(FlightDataType type, double value) {
 		mutable.check();
+		materialize();
 
-		sanityCheckValues(type, value);
-		ArrayList<Double> list = values.get(type);
-
-		if (list.size() > 0) {
-			list.set(list.size() - 1, value);
-		}
-		
-		double min = minValues.get(type);
-		double max = maxValues.get(type);
-		
-		if (Double.isNaN(min) || (value < min)) {
-			minValues.put(type, value);
-		}
-		if (Double.isNaN(max) || (value > max)) {
-			maxValues.put(type, value);
-		}
+		getOrCreateColumn(type, value).setLast(value);
 		modID++;
 	}
 
@@ -174,9 +167,7 @@ public class FlightDataBranch implements Monitorable {
 		this.values.clear();
 
 		// Need to have at least one type to set up values
-		values.put(FlightDataType.TYPE_TIME, new ArrayList<>());
-		minValues.put(FlightDataType.TYPE_TIME, Double.NaN);
-		maxValues.put(FlightDataType.TYPE_TIME, Double.NaN);
+		values.put(FlightDataType.TYPE_TIME, new Column(0, Double.NaN));
 
 		if (srcBranch == null) {
 			return;
@@ -186,7 +177,7 @@ public class FlightDataBranch implements Monitorable {
 		for (int i = 0; i < srcBranch.getLength(); i++) {
 			this.addPoint();
 			for (FlightDataType type : srcBranch.getTypes()) {
-				this.setValue(type, srcBranch.getByIndex(type, i));
+				this.setValue(type, srcBranch.getDouble(type, i));
 			}
 		}
 
@@ -248,24 +239,78 @@ public class FlightDataBranch implements Monitorable {
 	 * Return the number of data points in this branch.
 	 */
 	public int getLength() {
-		for (FlightDataType t : values.keySet()) {
-			return values.get(t).size();
+		materialize();
+		for (Column column : values.values()) {
+			return column.size;
 		}
 		return 0;
 	}
 	
 	/**
-	 * Return an array of values for the specified variable type.
+	 * Return an array of values for the specified variable type.  The returned list is a
+	 * read-only snapshot of the current values, which are boxed lazily when accessed.
+	 * Use {@link #getDouble(FlightDataType, int)} or {@link #getBuffer(FlightDataType)}
+	 * to access the values without boxing.
 	 * 
 	 * @param type	the variable type.
 	 * @return		a list of the variable values, or <code>null</code> if
 	 * 				the variable type hasn't been added to this branch.
 	 */
 	public List<Double> get(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null)
+		materialize();
+		Column column = values.get(type);
+		if (column == null)
+			return null;
+		return new ColumnList(snapshot(column), column.size);
+	}
+	
+	/**
+	 * Return a read-only buffer view of the values of the specified variable type.  The buffer
+	 * contains the values present at the time of the call, its position is zero and its limit
+	 * is the number of data points.
+	 * 
+	 * @param type	the variable type.
+	 * @return		a buffer of the variable values, or <code>null</code> if
+	 * 				the variable type hasn't been added to this branch.
+	 */
+	public DoubleBuffer getBuffer(FlightDataType type) {
+		materialize();
+		Column column = values.get(type);
+		if (column == null)
 			return null;
-		return list.clone();
+		return DoubleBuffer.wrap(snapshot(column), 0, column.size).slice().asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Return the value of the specified type at the specified index without boxing.
+	 * 
+	 * @param type	the variable type
+	 * @param index	the data index of the value
+	 * @return		the value at the specified index, or NaN if the variable type hasn't been
+	 * 				added to this branch.
+	 * @throws IndexOutOfBoundsException	if the index is out of bounds.
+	 */
+	public double getDouble(FlightDataType type, int index) {
+		materialize();
+		Column column = values.get(type);
+		if (column == null) {
+			return Double.NaN;
+		}
+		if (index < 0 || index >= column.size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + column.size);
+		}
+		return column.data[index];
+	}
+	
+	/**
+	 * Return the array backing the column, or a copy of it if this branch is still mutable
+	 * so that later modifications are not visible through the returned data.
+	 */
+	private double[] snapshot(Column column) {
+		if (isMutable()) {
+			return Arrays.copyOf(column.data, column.size);
+		}
+		return column.data;
 	}
 
 	/**
@@ -278,11 +323,11 @@ public class FlightDataBranch implements Monitorable {
 		if (index < 0 || index >= getLength()) {
 			throw new IllegalArgumentException("Index out of bounds");
 		}
-		ArrayList<Double> list = values.get(type);
-		if (list == null) {
+		Column column = values.get(type);
+		if (column == null) {
 			return null;
 		}
-		return list.get(index);
+		return column.data[index];
 	}
 
 	/**
@@ -293,10 +338,11 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the last value in this branch, or NaN.
 	 */
 	public double getLast(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null || list.isEmpty())
+		materialize();
+		Column column = values.get(type);
+		if (column == null || column.size == 0)
 			return Double.NaN;
-		return list.get(list.size() - 1);
+		return column.data[column.size - 1];
 	}
 	
 	/**
@@ -307,10 +353,11 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the minimum value in this branch, or NaN.
 	 */
 	public double getMinimum(FlightDataType type) {
-		Double v = minValues.get(type);
-		if (v == null)
+		materialize();
+		Column column = values.get(type);
+		if (column == null)
 			return Double.NaN;
-		return v;
+		return column.min;
 	}
 	
 	/**
@@ -321,10 +368,11 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the maximum value in this branch, or NaN.
 	 */
 	public double getMaximum(FlightDataType type) {
-		Double v = maxValues.get(type);
-		if (v == null)
+		materialize();
+		Column column = values.get(type);
+		if (column == null)
 			return Double.NaN;
-		return v;
+		return column.max;
 	}
 	
 	
@@ -444,15 +492,64 @@ public class FlightDataBranch implements Monitorable {
 	public int getModID() {
 		return modID;
 	}
+	
+	/**
+	 * Set the source of the data points of this branch, which are decoded when the values
+	 * of the branch are first accessed.  The branch must not contain any data points, and
+	 * the source must provide a column for each of the types given to the constructor.
+	 * 
+	 * @param data	the source of the data points.
+	 * @throws IllegalStateException	if this branch has been made immutable or already
+	 * 									contains data points.
+	 */
+	public void setDeferredData(DeferredData data) {
+		mutable.check();
+		if (getLength() != 0) {
+			throw new IllegalStateException("Branch already contains data points");
+		}
+		deferredData = data;
+		modID++;
+	}
+	
+	/**
+	 * Return whether the data points of this branch have not been decoded yet.
+	 */
+	public boolean isDeferred() {
+		return deferredData != null;
+	}
+	
+	/**
+	 * Decode the deferred data points of this branch, if any.
+	 */
+	private void materialize() {
+		if (deferredData == null) {
+			return;
+		}
+		synchronized (this) {
+			final DeferredData data = deferredData;
+			if (data == null) {
+				return;
+			}
+			final double[][] columns = data.decode();
+			if (columns.length != values.size()) {
+				throw new IllegalStateException("Expected " + values.size() + " columns of data, got " +
+						columns.length);
+			}
+			int i = 0;
+			for (Map.Entry<FlightDataType, Column> entry : values.entrySet()) {
+				entry.setValue(new Column(columns[i++]));
+			}
+			deferredData = null;
+		}
+	}
 
 	public FlightDataBranch clone() {
+		materialize();
 		FlightDataType[] types = getTypes();
 		FlightDataBranch clone = new FlightDataBranch(name, types);
-		for (FlightDataType type : values.keySet()) {
-			clone.values.put(type, values.get(type).clone());
+		for (Map.Entry<FlightDataType, Column> entry : values.entrySet()) {
+			clone.values.put(entry.getKey(), entry.getValue().copy());
 		}
-		clone.minValues.putAll(minValues);
-		clone.maxValues.putAll(maxValues);
 		clone.events.addAll(events);
 		clone.timeToOptimumAltitude = timeToOptimumAltitude;
 		clone.optimumAltitude = optimumAltitude;
@@ -460,4 +557,116 @@ public class FlightDataBranch implements Monitorable {
 		return clone;
 	}
 	
+	/**
+	 * The values of a single variable type, stored in a growable primitive array.
+	 */
+	private static final class Column {
+		private double[] data;
+		private int size;
+		private double min;
+		private double max;
+		
+		/**
+		 * Create a column with <code>length</code> NaN values, and the minimum and
+		 * maximum initialized to <code>value</code>.
+		 */
+		Column(int length, double value) {
+			this.data = new double[Math.max(length, 16)];
+			Arrays.fill(this.data, 0, length, Double.NaN);
+			this.size = length;
+			this.min = value;
+			this.max = value;
+		}
+		
+		/**
+		 * Create a column holding the given values.  The array is copied.
+		 */
+		Column(double[] values) {
+			this.data = Arrays.copyOf(values, Math.max(values.length, 16));
+			this.size = values.length;
+			this.min = Double.NaN;
+			this.max = Double.NaN;
+			for (double value : values) {
+				include(value);
+			}
+		}
+		
+		private Column(Column other) {
+			this.data = Arrays.copyOf(other.data, Math.max(other.size, 16));
+			this.size = other.size;
+			this.min = other.min;
+			this.max = other.max;
+		}
+		
+		void add(double value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size + (size >> 1));
+			}
+			data[size++] = value;
+		}
+		
+		void setLast(double value) {
+			if (size > 0) {
+				data[size - 1] = value;
+			}
+			include(value);
+		}
+		
+		private void include(double value) {
+			if (Double.isNaN(min) || (value < min)) {
+				min = value;
+			}
+			if (Double.isNaN(max) || (value > max)) {
+				max = value;
+			}
+		}
+		
+		Column copy() {
+			return new Column(this);
+		}
+	}
+	
+	/**
+	 * A source of data points that are decoded on first access.
+	 * 
+	 * @see FlightDataBranch#setDeferredData(DeferredData)
+	 */
+	public interface DeferredData {
+		
+		/**
+		 * Decode the data points.  The method is called at most once for each branch,
+		 * from whichever thread first accesses the values of the branch.
+		 * 
+		 * @return	the values of each variable type, in the order the types were given to
+		 * 			the constructor of the branch.  All arrays must have the same length.
+		 */
+		double[][] decode();
+	}
+	
+	/**
+	 * Read-only list view of primitive values, boxing each value when it is accessed.
+	 */
+	private static final class ColumnList extends AbstractList<Double> implements RandomAccess {
+		private final double[] data;
+		private final int size;
+		
+		ColumnList(double[] data, int size) {
+			this.data = data;
+			this.size = size;
+		}
+		
+		@Override
+		public Double get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+			}
+			return data[index];
+		}
+		
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+	
 }
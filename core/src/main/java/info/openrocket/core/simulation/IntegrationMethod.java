@@ -0,0 +1,64 @@
+package info.openrocket.core.simulation;
+
+import java.util.Locale;
+
+import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.startup.Application;
+
+/**
+ * The numerical integration methods available for the free flight phase of a simulation.
+ */
+public enum IntegrationMethod {
+
+	/**
+	 * The fourth order Runge-Kutta method with a fixed preferred time step.
+	 */
+	RK4(RK4SimulationStepper.class),
+
+	/**
+	 * The adaptive Dormand-Prince 5(4) method, which adjusts the time step to the
+	 * integration tolerance.
+	 */
+	DORMAND_PRINCE(DormandPrinceSimulationStepper.class);
+
+	private static final Translator trans = Application.getTranslator();
+
+	private final Class<? extends SimulationStepper> stepperClass;
+
+	IntegrationMethod(Class<? extends SimulationStepper> stepperClass) {
+		this.stepperClass = stepperClass;
+	}
+
+	/**
+	 * Return the class of the flight stepper implementing the method.
+	 */
+	public Class<? extends SimulationStepper> getStepperClass() {
+		return stepperClass;
+	}
+
+	/**
+	 * Return whether the method adjusts the time step to the integration tolerance.
+	 */
+	public boolean isAdaptive() {
+		return this == DORMAND_PRINCE;
+	}
+
+	/**
+	 * Return the name of the integration method.
+	 */
+	public String getName() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".name");
+	}
+
+	/**
+	 * Return a description of the integration method.
+	 */
+	public String getDescription() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".desc");
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+}
@@ -61,6 +61,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	
 	private Random random;
 	DataStore store = new DataStore();
+	private final double[] dt = new double[7];
 	
 	@Override
 	public SimulationStatus initialize(SimulationStatus original) {
@@ -109,37 +110,99 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		k1 = computeParameters(status, store);
 		store.storeData(status);
 		
+		computeTimeStep(status, maxTimeStep, k1.v.length());
+
+		//// Second position, k2 = f(t + h/2, y + k1*h/2)
+		
+		status2 = status.clone();
+		status2.setSimulationTime(status.getSimulationTime() + store.timeStep / 2);
+		status2.setRocketPosition(status.getRocketPosition().add(k1.v.multiply(store.timeStep / 2)));
+		status2.setRocketVelocity(status.getRocketVelocity().add(k1.a.multiply(store.timeStep / 2)));
+		status2.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k1.rv.multiply(store.timeStep / 2))));
+		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k1.ra.multiply(store.timeStep / 2)));
+		
+		k2 = computeParameters(status2, store);
+		
+
+		//// Third position, k3 = f(t + h/2, y + k2*h/2)
+		
+		status2 = status.clone();
+		status2.setSimulationTime(status.getSimulationTime() + store.timeStep / 2);
+		status2.setRocketPosition(status.getRocketPosition().add(k2.v.multiply(store.timeStep / 2)));
+		status2.setRocketVelocity(status.getRocketVelocity().add(k2.a.multiply(store.timeStep / 2)));
+		status2.setRocketOrientationQuaternion(status2.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k2.rv.multiply(store.timeStep / 2))));
+		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k2.ra.multiply(store.timeStep / 2)));
+		
+		k3 = computeParameters(status2, store);
+		
+
+		//// Fourth position, k4 = f(t + h, y + k3*h)
+		
+		status2 = status.clone();
+		status2.setSimulationTime(status.getSimulationTime() + store.timeStep);
+		status2.setRocketPosition(status.getRocketPosition().add(k3.v.multiply(store.timeStep)));
+		status2.setRocketVelocity(status.getRocketVelocity().add(k3.a.multiply(store.timeStep)));
+		status2.setRocketOrientationQuaternion(status2.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k3.rv.multiply(store.timeStep))));
+		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k3.ra.multiply(store.timeStep)));
+		
+		k4 = computeParameters(status2, store);
+		
+
+		//// Sum all together,  y(n+1) = y(n) + h*(k1 + 2*k2 + 2*k3 + k4)/6
+		Coordinate deltaV, deltaP, deltaR, deltaO;
+		deltaV = k2.a.add(k3.a).multiply(2).add(k1.a).add(k4.a).multiply(store.timeStep / 6);
+		deltaP = k2.v.add(k3.v).multiply(2).add(k1.v).add(k4.v).multiply(store.timeStep / 6);
+		deltaR = k2.ra.add(k3.ra).multiply(2).add(k1.ra).add(k4.ra).multiply(store.timeStep / 6);
+		deltaO = k2.rv.add(k3.rv).multiply(2).add(k1.rv).add(k4.rv).multiply(store.timeStep / 6);
+		
+
+		status.setRocketVelocity(status.getRocketVelocity().add(deltaV));
+		status.setRocketPosition(status.getRocketPosition().add(deltaP));
+		status.setRocketRotationVelocity(status.getRocketRotationVelocity().add(deltaR));
+		status.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(deltaO)).normalizeIfNecessary());
+		
+		completeStep(status);
+	}
+	
+	
+
+
+
+	/**
+	 * Select the length of the next time step into <code>store.timeStep</code>, based on the
+	 * current state of the data store and the upcoming flight events.
+	 * 
+	 * @param status		the current simulation status.
+	 * @param maxTimeStep	the maximum time step to take.
+	 * @param speed			the current speed of the rocket.
+	 */
+	protected void computeTimeStep(SimulationStatus status, double maxTimeStep, double speed) {
 		/*
 		 * Select the actual time step to use.  It is the minimum of the following:
-		 *  dt[0]:  the user-specified time step (or 1/5th of it if still on the launch rod)
+		 *  dt[0]:  the time step preferred by the integrator, see getPreferredTimeStep()
 		 *  dt[1]:  the value of maxTimeStep
 		 *  dt[2]:  the maximum pitch step angle limit
 		 *  dt[3]:  the maximum roll step angle limit
 		 *  dt[4]:  the maximum roll rate change limit
 		 *  dt[5]:  the maximum pitch change limit
 		 *  dt[6]:  1/10th of the launch rod length if still on the launch rod
-		 *  dt[7]:  1.50 times the previous time step
 		 * 
 		 * The limits #5 and #6 are required since near the steady-state roll rate the roll rate
 		 * may oscillate significantly even between the sub-steps of the RK4 integration.
 		 * 
-		 * The step is still at least 1/20th of the user-selected time step.
+		 * The step is still at least getMinimumTimeStep().
 		 */
-		double[] dt = new double[8];
 		Arrays.fill(dt, Double.MAX_VALUE);
 
-		// If the user selected a really small timestep, use MIN_TIME_STEP instead.
-		dt[0] = MathUtil.max(status.getSimulationConditions().getTimeStep(), MIN_TIME_STEP);
+		dt[0] = getPreferredTimeStep(status);
 		dt[1] = maxTimeStep;
 		dt[2] = status.getSimulationConditions().getMaximumAngleStep() / store.lateralPitchRate;
 		dt[3] = Math.abs(MAX_ROLL_STEP_ANGLE / store.flightConditions.getRollRate());
 		dt[4] = Math.abs(MAX_ROLL_RATE_CHANGE / store.rollAcceleration);
 		dt[5] = Math.abs(MAX_PITCH_CHANGE / store.lateralPitchAcceleration);
 		if (!status.isLaunchRodCleared()) {
-			dt[0] /= 5.0;
-			dt[6] = status.getSimulationConditions().getLaunchRodLength() / k1.v.length() / 10;
+			dt[6] = status.getSimulationConditions().getLaunchRodLength() / speed / 10;
 		}
-		dt[7] = 1.5 * store.timeStep;
 		
 		store.timeStep = Double.MAX_VALUE;
 		int limitingValue = -1;
@@ -155,7 +218,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		// If we have a scheduled event coming up before the end of our timestep, truncate step
 		// else if the time from the end of our timestep to the next scheduled event time is less than
 		// minTimeStep, stretch it
-		double minTimeStep = status.getSimulationConditions().getTimeStep() / 20;
+		double minTimeStep = getMinimumTimeStep(status);
 		FlightEvent nextEvent = status.getEventQueue().peek();
 		if (nextEvent != null) {
 			double nextEventTime = nextEvent.getTime();
@@ -178,58 +241,45 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		}
 
 		checkNaN(store.timeStep);
-
-
-
-		//// Second position, k2 = f(t + h/2, y + k1*h/2)
-		
-		status2 = status.clone();
-		status2.setSimulationTime(status.getSimulationTime() + store.timeStep / 2);
-		status2.setRocketPosition(status.getRocketPosition().add(k1.v.multiply(store.timeStep / 2)));
-		status2.setRocketVelocity(status.getRocketVelocity().add(k1.a.multiply(store.timeStep / 2)));
-		status2.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k1.rv.multiply(store.timeStep / 2))));
-		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k1.ra.multiply(store.timeStep / 2)));
-		
-		k2 = computeParameters(status2, store);
-		
-
-		//// Third position, k3 = f(t + h/2, y + k2*h/2)
-		
-		status2 = status.clone();
-		status2.setSimulationTime(status.getSimulationTime() + store.timeStep / 2);
-		status2.setRocketPosition(status.getRocketPosition().add(k2.v.multiply(store.timeStep / 2)));
-		status2.setRocketVelocity(status.getRocketVelocity().add(k2.a.multiply(store.timeStep / 2)));
-		status2.setRocketOrientationQuaternion(status2.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k2.rv.multiply(store.timeStep / 2))));
-		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k2.ra.multiply(store.timeStep / 2)));
-		
-		k3 = computeParameters(status2, store);
-		
-
-		//// Fourth position, k4 = f(t + h, y + k3*h)
-		
-		status2 = status.clone();
-		status2.setSimulationTime(status.getSimulationTime() + store.timeStep);
-		status2.setRocketPosition(status.getRocketPosition().add(k3.v.multiply(store.timeStep)));
-		status2.setRocketVelocity(status.getRocketVelocity().add(k3.a.multiply(store.timeStep)));
-		status2.setRocketOrientationQuaternion(status2.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(k3.rv.multiply(store.timeStep))));
-		status2.setRocketRotationVelocity(status.getRocketRotationVelocity().add(k3.ra.multiply(store.timeStep)));
-		
-		k4 = computeParameters(status2, store);
-		
-
-		//// Sum all together,  y(n+1) = y(n) + h*(k1 + 2*k2 + 2*k3 + k4)/6
-		Coordinate deltaV, deltaP, deltaR, deltaO;
-		deltaV = k2.a.add(k3.a).multiply(2).add(k1.a).add(k4.a).multiply(store.timeStep / 6);
-		deltaP = k2.v.add(k3.v).multiply(2).add(k1.v).add(k4.v).multiply(store.timeStep / 6);
-		deltaR = k2.ra.add(k3.ra).multiply(2).add(k1.ra).add(k4.ra).multiply(store.timeStep / 6);
-		deltaO = k2.rv.add(k3.rv).multiply(2).add(k1.rv).add(k4.rv).multiply(store.timeStep / 6);
-		
-
-		status.setRocketVelocity(status.getRocketVelocity().add(deltaV));
-		status.setRocketPosition(status.getRocketPosition().add(deltaP));
-		status.setRocketRotationVelocity(status.getRocketRotationVelocity().add(deltaR));
-		status.setRocketOrientationQuaternion(status.getRocketOrientationQuaternion().multiplyLeft(Quaternion.rotation(deltaO)).normalizeIfNecessary());
-		
+	}
+	
+	/**
+	 * Return the time step the integrator would take without the limits imposed by the
+	 * flight state and the upcoming events.  This is the user-specified time step (or
+	 * 1/5th of it if still on the launch rod), but at most 1.50 times the previous time step.
+	 * 
+	 * @param status	the current simulation status.
+	 * @return			the preferred time step.
+	 */
+	protected double getPreferredTimeStep(SimulationStatus status) {
+		// If the user selected a really small timestep, use MIN_TIME_STEP instead.
+		double timeStep = MathUtil.max(status.getSimulationConditions().getTimeStep(), MIN_TIME_STEP);
+		if (!status.isLaunchRodCleared()) {
+			timeStep /= 5.0;
+		}
+		return MathUtil.min(timeStep, 1.5 * store.timeStep);
+	}
+	
+	/**
+	 * Return the shortest time step to take.  Steps ending closer than this to the next
+	 * event are stretched to the event.  This is 1/20th of the user-specified time step.
+	 * 
+	 * @param status	the current simulation status.
+	 * @return			the minimum time step.
+	 */
+	protected double getMinimumTimeStep(SimulationStatus status) {
+		return status.getSimulationConditions().getTimeStep() / 20;
+	}
+	
+	/**
+	 * Finish an integration step whose new position, velocity, orientation and rotation
+	 * velocity have already been set to the status.  Advances the simulation time and
+	 * stores the flight data of the step.
+	 * 
+	 * @param status	the simulation status being stepped.
+	 * @throws SimulationException	if the values run out of range.
+	 */
+	protected void completeStep(SimulationStatus status) throws SimulationException {
 		WorldCoordinate w = status.getSimulationConditions().getLaunchSite();
 		w = status.getSimulationConditions().getGeodeticComputation().addCoordinate(w, status.getRocketPosition());
 		status.setRocketWorldPosition(w);
@@ -254,14 +304,33 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		}
 	}
 	
-	
-
-
-
 	private RK4Parameters computeParameters(SimulationStatus status, DataStore dataStore)
 			throws SimulationException {
 		RK4Parameters params = new RK4Parameters();
 		
+		computeDerivatives(status, dataStore);
+
+		params.a = dataStore.linearAcceleration;
+		params.ra = dataStore.angularAcceleration;
+		params.v = status.getRocketVelocity();
+		params.rv = status.getRocketRotationVelocity();
+		
+		return params;
+	}
+	
+	/**
+	 * Compute the derivatives of the rocket state at the given status, calling the
+	 * acceleration listeners.  The linear and angular accelerations are left in the
+	 * fields <code>linearAcceleration</code> and <code>angularAcceleration</code>
+	 * of the data store.
+	 * 
+	 * @param status		the status at which to evaluate the derivatives.
+	 * @param dataStore		the data store to compute into.
+	 * @throws SimulationException	if a listener throws SimulationException
+	 */
+	protected void computeDerivatives(SimulationStatus status, DataStore dataStore)
+			throws SimulationException {
+		
 		// Call pre-listeners
 		store.accelerationData = SimulationListenerHelper.firePreAccelerationCalculation(status);
 
@@ -273,17 +342,10 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 		// Call post-listeners
 		store.accelerationData = SimulationListenerHelper.firePostAccelerationCalculation(status, store.accelerationData);
 
-		params.a = dataStore.linearAcceleration;
-		params.ra = dataStore.angularAcceleration;
-		params.v = status.getRocketVelocity();
-		params.rv = status.getRocketRotationVelocity();
-		
-		checkNaN(params.a);
-		checkNaN(params.ra);
-		checkNaN(params.v);
-		checkNaN(params.rv);
-		
-		return params;
+		checkNaN(dataStore.linearAcceleration);
+		checkNaN(dataStore.angularAcceleration);
+		checkNaN(status.getRocketVelocity());
+		checkNaN(status.getRocketRotationVelocity());
 	}
 	
 	
@@ -448,7 +510,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	 * Additionally the fields thetaRotation and lateralPitchRate are defined in
 	 * the data store, and can be used after calling this method.
 	 */
-	private void calculateFlightConditions(SimulationStatus status, DataStore store)
+	protected void calculateFlightConditions(SimulationStatus status, DataStore store)
 			throws SimulationException {
 		
 		// Call pre listeners, allow complete override
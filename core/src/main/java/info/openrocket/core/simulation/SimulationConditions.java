@@ -56,6 +56,9 @@ public class SimulationConditions implements Monitorable, Cloneable {
 
 	private double timeStep = RK4SimulationStepper.RECOMMENDED_TIME_STEP;
 	private double maximumAngleStep = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
+	private double integrationTolerance = DormandPrinceSimulationStepper.RECOMMENDED_TOLERANCE;
+
+	private Class<? extends SimulationStepper> flightStepperClass = RK4SimulationStepper.class;
 
 
 	private List<SimulationListener> simulationListeners = new ArrayList<SimulationListener>();
@@ -224,6 +227,34 @@ public class SimulationConditions implements Monitorable, Cloneable {
 		this.modID++;
 	}
 
+	/**
+	 * Return the relative error tolerance of adaptive flight steppers.
+	 */
+	public double getIntegrationTolerance() {
+		return integrationTolerance;
+	}
+
+	public void setIntegrationTolerance(double integrationTolerance) {
+		this.integrationTolerance = integrationTolerance;
+		this.modID++;
+	}
+
+	/**
+	 * Return the class of the stepper used for the free flight phase.
+	 */
+	public Class<? extends SimulationStepper> getFlightStepperClass() {
+		return flightStepperClass;
+	}
+
+	/**
+	 * Set the class of the stepper used for the free flight phase.  The class must have
+	 * a public no-argument constructor.
+	 */
+	public void setFlightStepperClass(Class<? extends SimulationStepper> flightStepperClass) {
+		this.flightStepperClass = flightStepperClass;
+		this.modID++;
+	}
+
 	public int getRandomSeed() {
 		return randomSeed;
 	}
@@ -76,6 +76,8 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 	
 	private double timeStep = preferences.getTimeStep();
 	private double maximumAngle = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
+	private IntegrationMethod integrationMethod = IntegrationMethod.RK4;
+	private double integrationTolerance = DormandPrinceSimulationStepper.RECOMMENDED_TOLERANCE;
 	
 	private int randomSeed = new Random().nextInt();
 
@@ -318,6 +320,31 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 		fireChangeEvent();
 	}
 
+	public IntegrationMethod getIntegrationMethod() {
+		return integrationMethod;
+	}
+
+	public void setIntegrationMethod(IntegrationMethod integrationMethod) {
+		if (this.integrationMethod == integrationMethod)
+			return;
+		this.integrationMethod = integrationMethod;
+		fireChangeEvent();
+	}
+
+	/**
+	 * Return the relative error tolerance used by the adaptive integration methods.
+	 */
+	public double getIntegrationTolerance() {
+		return integrationTolerance;
+	}
+
+	public void setIntegrationTolerance(double integrationTolerance) {
+		if (this.integrationTolerance == integrationTolerance)
+			return;
+		this.integrationTolerance = integrationTolerance;
+		fireChangeEvent();
+	}
+
 	public int getRandomSeed() {
 		return randomSeed;
 	}
@@ -425,6 +452,14 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 			isChanged = true;
 			this.geodeticComputation = src.geodeticComputation;
 		}
+		if (this.integrationMethod != src.integrationMethod) {
+			isChanged = true;
+			this.integrationMethod = src.integrationMethod;
+		}
+		if (this.integrationTolerance != src.integrationTolerance) {
+			isChanged = true;
+			this.integrationTolerance = src.integrationTolerance;
+		}
 
 		if (isChanged) {
 			// Only copy the randomSeed if something else has changed.
@@ -454,6 +489,8 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 				MathUtil.equals(this.launchTemperature, o.launchTemperature) &&
 				MathUtil.equals(this.maximumAngle, o.maximumAngle) &&
 				MathUtil.equals(this.timeStep, o.timeStep) &&
+				this.integrationMethod == o.integrationMethod &&
+				this.integrationTolerance == o.integrationTolerance &&
 				MathUtil.equals(this.windAverage, o.windAverage) &&
 				MathUtil.equals(this.windTurbulence, o.windTurbulence) &&
 				MathUtil.equals(this.windDirection, o.windDirection));
@@ -523,6 +560,8 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 
 		conditions.setTimeStep(getTimeStep());
 		conditions.setMaximumAngleStep(getMaximumStepAngle());
+		conditions.setFlightStepperClass(getIntegrationMethod().getStepperClass());
+		conditions.setIntegrationTolerance(getIntegrationTolerance());
 
 		return conditions;
 	}
@@ -546,6 +585,8 @@ public class SimulationOptions implements ChangeSource, Cloneable, SimulationOpt
 				.concat(String.format("    launchPressure:  %f\n", launchPressure))
 				.concat(String.format("    timeStep:  %f\n", timeStep))
 				.concat(String.format("    maximumAngle:  %f\n", maximumAngle))
+				.concat("    integrationMethod:  " + integrationMethod.name() + "\n")
+				.concat(String.format("    integrationTolerance:  %g\n", integrationTolerance))
 				.concat("]\n");
 	}
 
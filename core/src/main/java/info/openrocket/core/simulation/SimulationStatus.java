@@ -479,6 +479,45 @@ public class SimulationStatus implements Cloneable, Monitorable {
 		}
 	}
 
+	/**
+	 * Overwrite the state of this object with the state of <code>orig</code>, leaving this
+	 * object in the same state as <code>orig.clone()</code> would be.  This allows steppers
+	 * to reuse a single intermediate status object instead of cloning one for every sub-step.
+	 * <p>
+	 * This object must have been created by cloning <code>orig</code>, so that the motor list,
+	 * event queue and other collections are shared between the two objects.
+	 *
+	 * @param orig the object from which to copy
+	 */
+	void copyStateFrom(SimulationStatus orig) {
+		if (orig.eventQueue != this.eventQueue) {
+			throw new BugException("Status state can only be copied from the status it was cloned from");
+		}
+		this.simulationConditions = orig.simulationConditions;
+		this.configuration = orig.configuration;
+		this.flightDataBranch = orig.flightDataBranch;
+		this.time = orig.time;
+		this.position = orig.position;
+		this.worldPosition = orig.worldPosition;
+		this.velocity = orig.velocity;
+		this.acceleration = orig.acceleration;
+		this.orientation = orig.orientation;
+		this.rotationVelocity = orig.rotationVelocity;
+		this.effectiveLaunchRodLength = orig.effectiveLaunchRodLength;
+		this.simulationStartWallTime = orig.simulationStartWallTime;
+		this.motorIgnited = orig.motorIgnited;
+		this.liftoff = orig.liftoff;
+		this.launchRodCleared = orig.launchRodCleared;
+		this.apogeeReached = orig.apogeeReached;
+		this.tumbling = orig.tumbling;
+		this.landed = orig.landed;
+		this.warnings = orig.warnings;
+		this.maxAlt = orig.maxAlt;
+		this.maxAltTime = orig.maxAltTime;
+		this.modID = orig.modID;
+		this.modIDadd = orig.modIDadd;
+	}
+
 	@Override
 	public int getModID() {
 		return (modID + modIDadd + simulationConditions.getModID() + configuration.getModID() +
@@ -0,0 +1,144 @@
+package info.openrocket.core.simulation.customexpression;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.congrace.exp4j.Calculable;
+import de.congrace.exp4j.Variable;
+import info.openrocket.core.logging.Markers;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.SimulationStatus;
+
+/**
+ * A custom expression compiled for repeated evaluation during a simulation.
+ * <p>
+ * The expression is parsed once and the variables it uses are bound to their flight
+ * data types when it is compiled, so that each evaluation only sets those variables from
+ * the current flight data branch.  A compiled expression keeps its variable values
+ * between evaluations, so it must not be shared between simulations running concurrently.
+ * 
+ * @see CustomExpression#compile()
+ */
+public class CompiledExpression {
+
+	private static final Logger log = LoggerFactory.getLogger(CompiledExpression.class);
+
+	final String name;
+	final Calculable calc;
+	final VariableBinding binding;
+
+	private final String[] subExpressionNames;
+	private final CompiledExpression[] subExpressions;
+
+	/**
+	 * @param name					the name of the result variable.
+	 * @param calc					the parsed expression.
+	 * @param binding				the flight data variables used by the expression.
+	 * @param subExpressionNames	the variable names of the index and range sub-expressions.
+	 * @param subExpressions		the compiled sub-expressions, null for those that could not be built.
+	 */
+	CompiledExpression(String name, Calculable calc, VariableBinding binding,
+			String[] subExpressionNames, CompiledExpression[] subExpressions) {
+		this.name = name;
+		this.calc = calc;
+		this.binding = binding;
+		this.subExpressionNames = subExpressionNames;
+		this.subExpressions = subExpressions;
+	}
+
+	/**
+	 * Evaluate the expression using the last variable values from the simulation status.
+	 * 
+	 * @return	the result, or a variable named "Unknown" if the expression could not be evaluated.
+	 */
+	public Variable evaluate(SimulationStatus status) {
+		// Evaluate any sub expressions and set associated variables in the calculable
+		for (int i = 0; i < subExpressions.length; i++) {
+			Variable value = (subExpressions[i] != null) ? subExpressions[i].evaluate(status) : null;
+			if (value == null || !value.getName().equals(subExpressionNames[i])) {
+				value = new Variable(subExpressionNames[i]);
+			}
+			calc.setVariable(value);
+		}
+
+		binding.apply(calc, status.getFlightDataBranch());
+
+		double result = Double.NaN;
+		try {
+			result = calc.calculate().getDoubleValue();
+		} catch (java.util.EmptyStackException e) {
+			log.info(Markers.USER_MARKER,
+					"Unable to calculate expression " + calc.getExpression() + " due to empty stack exception");
+		}
+
+		return new Variable(name, result);
+	}
+
+	/**
+	 * Evaluate the expression as a double.  Infinite results are returned as NaN.
+	 */
+	public double evaluateDouble(SimulationStatus status) {
+		double result = evaluate(status).getDoubleValue();
+		if (result == Double.NEGATIVE_INFINITY || result == Double.POSITIVE_INFINITY)
+			result = Double.NaN;
+		return result;
+	}
+
+	/**
+	 * Linearly interpolate the value of a type at the given time from the data points of the
+	 * branch, without copying the data.  Times before the first or after the last data point
+	 * return the first or last value.  The times are ordered like <code>Double.compare</code>,
+	 * and of data points with equal times the last one is used.
+	 * 
+	 * @return	the interpolated value, or NaN if the branch has no data.
+	 */
+	static double interpolate(FlightDataBranch branch, FlightDataType type, double t) {
+		final int n = branch.getLength();
+		if (n == 0) {
+			return Double.NaN;
+		}
+
+		// Find the number of data points at or before t
+		int lo = 0;
+		int hi = n;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (Double.compare(time(branch, mid), t) <= 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+
+		if (lo == n) {
+			return branch.getDouble(type, n - 1);
+		}
+		if (lo == 0) {
+			return branch.getDouble(type, lastWithSameTime(branch, 0, n));
+		}
+
+		int floor = lo - 1;
+		double t1 = time(branch, floor);
+		double y1 = branch.getDouble(type, floor);
+		if (Double.compare(t1, t) == 0) {
+			return y1;
+		}
+		int ceil = lastWithSameTime(branch, lo, n);
+		double t2 = time(branch, ceil);
+		double y2 = branch.getDouble(type, ceil);
+		return (t - t1) / (t2 - t1) * (y2 - y1) + y1;
+	}
+
+	private static double time(FlightDataBranch branch, int index) {
+		return branch.getDouble(FlightDataType.TYPE_TIME, index);
+	}
+
+	private static int lastWithSameTime(FlightDataBranch branch, int index, int n) {
+		double t = time(branch, index);
+		while (index + 1 < n && Double.compare(time(branch, index + 1), t) == 0) {
+			index++;
+		}
+		return index;
+	}
+}
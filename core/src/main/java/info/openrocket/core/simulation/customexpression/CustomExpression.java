@@ -6,7 +6,6 @@ import java.util.regex.Pattern;
 
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.logging.Markers;
-import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.SimulationStatus;
 import info.openrocket.core.unit.FixedUnitGroup;
@@ -416,37 +415,47 @@ public class CustomExpression implements Cloneable {
 	 * Evaluate the expression using the last variable values from the simulation
 	 * status.
 	 * Returns NaN on any error.
+	 * 
+	 * The expression is compiled for every call; use compile() to evaluate the
+	 * expression repeatedly.
 	 */
 	public Variable evaluate(SimulationStatus status) {
-
-		Calculable calc = buildExpression(builder);
-		if (calc == null) {
+		CompiledExpression compiled = compile();
+		if (compiled == null) {
 			return new Variable("Unknown");
 		}
+		return compiled.evaluate(status);
+	}
 
-		// Evaluate any sub expressions and set associated variables in the calculable
-		for (CustomExpression expr : this.subExpressions) {
-			calc.setVariable(expr.evaluate(status));
+	/**
+	 * Compile this expression for repeated evaluation during a simulation.  The expression
+	 * and its index and range sub-expressions are parsed once, and the variables they use are
+	 * bound to the flight data types of the document.
+	 * 
+	 * @return	the compiled expression, or null if the expression could not be built.
+	 */
+	public synchronized CompiledExpression compile() {
+		Calculable calc = buildExpression(builder);
+		if (calc == null) {
+			return null;
 		}
 
-		// Set all the built-in variables. Strictly we surely won't need all of them
-		// Going through and checking them to include only the ones used *might* give a
-		// speedup
-		FlightDataBranch dataBranch = status.getFlightDataBranch();
-		for (FlightDataType type : dataBranch.getTypes()) {
-			double value = dataBranch.getLast(type);
-			calc.setVariable(new Variable(type.getSymbol(), value));
+		String[] subNames = new String[subExpressions.size()];
+		CompiledExpression[] subs = new CompiledExpression[subExpressions.size()];
+		for (int i = 0; i < subs.length; i++) {
+			CustomExpression sub = subExpressions.get(i);
+			subNames[i] = sub.hash();
+			subs[i] = sub.compile();
 		}
 
-		double result = Double.NaN;
-		try {
-			result = calc.calculate().getDoubleValue();
-		} catch (java.util.EmptyStackException e) {
-			log.info(Markers.USER_MARKER,
-					"Unable to calculate expression " + this.expression + " due to empty stack exception");
-		}
+		return new CompiledExpression(name, calc, bindVariables(calc), subNames, subs);
+	}
 
-		return new Variable(name, result);
+	/*
+	 * Binds the flight data variables used by a calculable built from this expression.
+	 */
+	VariableBinding bindVariables(Calculable calc) {
+		return new VariableBinding(calc, doc.getFlightDataTypes());
 	}
 
 	/*
@@ -3,6 +3,7 @@ package info.openrocket.core.simulation.customexpression;
 import java.util.List;
 
 import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.SimulationStatus;
 import info.openrocket.core.simulation.exception.SimulationException;
 import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
@@ -15,23 +16,54 @@ public class CustomExpressionSimulationListener extends AbstractSimulationListen
 	private static final Logger log = LoggerFactory.getLogger(CustomExpressionSimulationListener.class);
 	private final List<CustomExpression> expressions;
 
+	// The expressions compiled for the current simulation, and the types of their results
+	private CompiledExpression[] compiled;
+	private FlightDataType[] types;
+
 	public CustomExpressionSimulationListener(List<CustomExpression> expressions) {
 		super();
 		this.expressions = expressions;
 	}
 
+	@Override
+	public void startSimulation(SimulationStatus status) throws SimulationException {
+		compile();
+	}
+
 	@Override
 	public void postStep(SimulationStatus status) throws SimulationException {
 		if (expressions == null || expressions.size() == 0) {
 			return;
 		}
+		if (compiled == null) {
+			compile();
+		}
 		// Calculate values for custom expressions
 		FlightDataBranch dataBranch = status.getFlightDataBranch();
-		for (CustomExpression expression : expressions) {
-			double value = expression.evaluateDouble(status);
+		for (int i = 0; i < compiled.length; i++) {
+			double value = (compiled[i] != null) ? compiled[i].evaluateDouble(status) : Double.NaN;
 			// log.debug("Setting value of custom expression "+expression.toString()+" =
 			// "+value);
-			dataBranch.setValue(expression.getType(), value);
+			dataBranch.setValue(types[i], value);
+		}
+	}
+
+	/**
+	 * Compile the expressions once per simulation, so that they are not parsed at every step.
+	 */
+	private void compile() {
+		if (expressions == null) {
+			return;
+		}
+		compiled = new CompiledExpression[expressions.size()];
+		types = new FlightDataType[expressions.size()];
+		for (int i = 0; i < compiled.length; i++) {
+			CustomExpression expression = expressions.get(i);
+			compiled[i] = expression.compile();
+			types[i] = expression.getType();
+			if (compiled[i] == null) {
+				log.debug("Could not compile custom expression " + expression);
+			}
 		}
 	}
 
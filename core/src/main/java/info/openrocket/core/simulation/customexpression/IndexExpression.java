@@ -1,7 +1,5 @@
 package info.openrocket.core.simulation.customexpression;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,7 +11,6 @@ import info.openrocket.core.simulation.customexpression.CustomExpression;
 import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.SimulationStatus;
-import info.openrocket.core.util.LinearInterpolator;
 
 public class IndexExpression extends CustomExpression {
 
@@ -29,41 +26,55 @@ public class IndexExpression extends CustomExpression {
 	}
 
 	@Override
-	public Variable evaluate(SimulationStatus status) {
+	public synchronized CompiledExpression compile() {
 		Calculable calc = buildExpression();
 		if (calc == null) {
-			return new Variable("Unknown");
+			return null;
 		}
 
-		// From the given datatype, get the time and function values and make an
-		// interpolator
-
 		// Note: must get in a way that flight data system will figure out units.
 		// Otherwise there will be a type conflict when we get the new data.
 		FlightDataType myType = FlightDataType.getType(null, getSymbol(), null);
 
-		FlightDataBranch dataBranch = status.getFlightDataBranch();
-		List<Double> data = dataBranch.get(myType);
-		List<Double> time = dataBranch.get(FlightDataType.TYPE_TIME);
-		LinearInterpolator interp = new LinearInterpolator(time, data);
+		return new CompiledIndexExpression(hash(), calc, bindVariables(calc), myType, getExpressionString());
+	}
+
+	/**
+	 * Evaluates the time index and interpolates the value of the data type at that time
+	 * directly from the flight data branch.
+	 */
+	private static class CompiledIndexExpression extends CompiledExpression {
+		private final FlightDataType dataType;
+		private final String indexText;
 
-		// Set the variables in the expression to evaluate
-		for (FlightDataType etype : dataBranch.getTypes()) {
-			double value = dataBranch.getLast(etype);
-			calc.setVariable(new Variable(etype.getSymbol(), value));
+		private CompiledIndexExpression(String name, Calculable calc, VariableBinding binding,
+				FlightDataType dataType, String indexText) {
+			super(name, calc, binding, new String[0], new CompiledExpression[0]);
+			this.dataType = dataType;
+			this.indexText = indexText;
 		}
 
-		// Evaluate this expression to get the t value
-		// System.out.println("Evaluating expression to get t value
-		// "+this.getExpressionString());
-		try {
-			double tvalue = calc.calculate().getDoubleValue();
-			// System.out.println("t = "+tvalue);
-			return new Variable(hash(), interp.getValue(tvalue));
-		} catch (java.util.EmptyStackException e) {
-			log.info(Markers.USER_MARKER, "Unable to calculate time index for indexed expression "
-					+ getExpressionString() + " due to empty stack exception");
-			return new Variable("Unknown");
+		@Override
+		public Variable evaluate(SimulationStatus status) {
+			FlightDataBranch dataBranch = status.getFlightDataBranch();
+
+			// Set the variables in the expression to evaluate
+			binding.apply(calc, dataBranch);
+
+			// Evaluate this expression to get the t value
+			double tvalue;
+			try {
+				tvalue = calc.calculate().getDoubleValue();
+			} catch (java.util.EmptyStackException e) {
+				log.info(Markers.USER_MARKER, "Unable to calculate time index for indexed expression "
+						+ indexText + " due to empty stack exception");
+				return new Variable("Unknown");
+			}
+
+			if (dataBranch.getLength() == 0) {
+				return new Variable("Unknown");
+			}
+			return new Variable(name, interpolate(dataBranch, dataType, tvalue));
 		}
 	}
 }
@@ -4,8 +4,6 @@
 
 package info.openrocket.core.simulation.customexpression;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,7 +16,6 @@ import info.openrocket.core.simulation.FlightDataBranch;
 import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.SimulationStatus;
 import info.openrocket.core.util.ArrayUtils;
-import info.openrocket.core.util.LinearInterpolator;
 import info.openrocket.core.util.MathUtil;
 import info.openrocket.core.util.StringUtils;
 
@@ -59,64 +56,84 @@ public class RangeExpression extends CustomExpression {
 	}
 
 	@Override
-	public Variable evaluate(SimulationStatus status) {
-
+	public synchronized CompiledExpression compile() {
 		Calculable startCalc = buildExpression(startBuilder);
 		Calculable endCalc = buildExpression(endBuilder);
 		if (startCalc == null || endCalc == null) {
-			return new Variable("Unknown");
+			return null;
 		}
 
-		FlightDataBranch dataBranch = status.getFlightDataBranch();
-		// Set the variables in the start and end calculators
-		for (FlightDataType type : dataBranch.getTypes()) {
-			double value = dataBranch.getLast(type);
-			startCalc.setVariable(new Variable(type.getSymbol(), value));
-			endCalc.setVariable(new Variable(type.getSymbol(), value));
-		}
-
-		// From the given datatype, get the time and function values and make an
-		// interpolator
-
 		// Note: must get in a way that flight data system will figure out units.
 		// Otherwise there will be a type conflict when we get the new data.
 		FlightDataType type = FlightDataType.getType(null, getSymbol(), null);
 
-		List<Double> data = dataBranch.get(type);
-		List<Double> time = dataBranch.get(FlightDataType.TYPE_TIME);
-		LinearInterpolator interp = new LinearInterpolator(time, data);
-
-		// Evaluate the expression to get the start and end of the range
-		double startTime, endTime;
-		try {
-			startTime = startCalc.calculate().getDoubleValue();
-			startTime = MathUtil.clamp(startTime, 0, Double.MAX_VALUE);
-
-			endTime = endCalc.calculate().getDoubleValue();
-			endTime = MathUtil.clamp(endTime, 0, time.get(time.size() - 1));
-		} catch (java.util.EmptyStackException e) {
-			log.info(Markers.USER_MARKER, "Unable to calculate time index for range expression " + getSymbol()
-					+ " due to empty stack exception");
-			return new Variable("Unknown");
-		}
+		return new CompiledRangeExpression(hash(), startCalc, bindVariables(startCalc),
+				endCalc, bindVariables(endCalc), type, getSymbol());
+	}
 
-		// generate an array representing the range
-		double step = status.getSimulationConditions().getSimulation().getOptions().getTimeStep();
-		double[] t = ArrayUtils.range(startTime, endTime, step);
-		double[] y = new double[t.length];
-		int i = 0;
-		for (double tval : t) {
-			y[i] = interp.getValue(tval);
-			i++;
+	/**
+	 * Evaluates the start and end times and interpolates the values of the data type over
+	 * the range directly from the flight data branch.
+	 */
+	private static class CompiledRangeExpression extends CompiledExpression {
+		private final Calculable endCalc;
+		private final VariableBinding endBinding;
+		private final FlightDataType dataType;
+		private final String symbol;
+
+		private CompiledRangeExpression(String name, Calculable startCalc, VariableBinding startBinding,
+				Calculable endCalc, VariableBinding endBinding, FlightDataType dataType, String symbol) {
+			super(name, startCalc, startBinding, new String[0], new CompiledExpression[0]);
+			this.endCalc = endCalc;
+			this.endBinding = endBinding;
+			this.dataType = dataType;
+			this.symbol = symbol;
 		}
 
-		Variable result;
-		if (y.length == 0) {
-			result = new Variable("Unknown");
-		} else {
-			result = new Variable(hash(), y, startTime, step);
+		@Override
+		public Variable evaluate(SimulationStatus status) {
+			FlightDataBranch dataBranch = status.getFlightDataBranch();
+			if (dataBranch.getLength() == 0) {
+				return new Variable("Unknown");
+			}
+
+			// Set the variables in the start and end calculators
+			binding.apply(calc, dataBranch);
+			endBinding.apply(endCalc, dataBranch);
+
+			// Evaluate the expression to get the start and end of the range
+			double startTime, endTime;
+			try {
+				startTime = calc.calculate().getDoubleValue();
+				startTime = MathUtil.clamp(startTime, 0, Double.MAX_VALUE);
+
+				endTime = endCalc.calculate().getDoubleValue();
+				endTime = MathUtil.clamp(endTime, 0, dataBranch.getLast(FlightDataType.TYPE_TIME));
+			} catch (java.util.EmptyStackException e) {
+				log.info(Markers.USER_MARKER, "Unable to calculate time index for range expression " + symbol
+						+ " due to empty stack exception");
+				return new Variable("Unknown");
+			}
+
+			// generate an array representing the range
+			double step = status.getSimulationConditions().getSimulation().getOptions().getTimeStep();
+			if (!(endTime >= startTime)) {
+				return new Variable("Unknown");
+			}
+			double[] t = ArrayUtils.range(startTime, endTime, step);
+			double[] y = new double[t.length];
+			for (int i = 0; i < t.length; i++) {
+				y[i] = interpolate(dataBranch, dataType, t[i]);
+			}
+
+			Variable result;
+			if (y.length == 0) {
+				result = new Variable("Unknown");
+			} else {
+				result = new Variable(name, y, startTime, step);
+			}
+
+			return result;
 		}
-
-		return result;
 	}
 }
@@ -0,0 +1,55 @@
+package info.openrocket.core.simulation.customexpression;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.congrace.exp4j.Calculable;
+import de.congrace.exp4j.Variable;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+
+/**
+ * The flight data variables used by a calculable, resolved to their flight data types
+ * once so that only those variables are set at each evaluation.
+ */
+final class VariableBinding {
+
+	private final String[] symbols;
+	private final FlightDataType[] types;
+
+	/**
+	 * Bind the variables used by the calculable to the available flight data types with
+	 * the same symbol.  Variables that do not match a flight data type are not bound.
+	 */
+	VariableBinding(Calculable calc, Collection<FlightDataType> available) {
+		Map<String, FlightDataType> bySymbol = new HashMap<String, FlightDataType>();
+		for (FlightDataType type : available) {
+			bySymbol.putIfAbsent(type.getSymbol(), type);
+		}
+
+		List<String> boundSymbols = new ArrayList<String>();
+		List<FlightDataType> boundTypes = new ArrayList<FlightDataType>();
+		for (String symbol : calc.getUsedVariableNames()) {
+			FlightDataType type = bySymbol.get(symbol);
+			if (type != null) {
+				boundSymbols.add(symbol);
+				boundTypes.add(type);
+			}
+		}
+		this.symbols = boundSymbols.toArray(new String[0]);
+		this.types = boundTypes.toArray(new FlightDataType[0]);
+	}
+
+	/**
+	 * Set the bound variables of the calculable to the last values of the branch.  Types
+	 * not present in the branch are set to NaN.
+	 */
+	void apply(Calculable calc, FlightDataBranch branch) {
+		for (int i = 0; i < symbols.length; i++) {
+			calc.setVariable(new Variable(symbols[i], branch.getLast(types[i])));
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import info.openrocket.core.aerodynamics.AerodynamicForces;
+import info.openrocket.core.masscalc.RigidBody;
+import info.openrocket.core.simulation.SimulationStatus;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+
+/**
+ * A simulation listener that applies the sampled scale factors of a single Monte Carlo run.
+ * <p>
+ * The mass scale factor is applied to both the structure and the motor mass, as the
+ * simulation listeners cannot tell the two apart.
+ */
+class DispersionListener extends AbstractSimulationListener {
+
+	private final double thrustScale;
+	private final double dragScale;
+	private final double massScale;
+
+	DispersionListener(double thrustScale, double dragScale, double massScale) {
+		this.thrustScale = thrustScale;
+		this.dragScale = dragScale;
+		this.massScale = massScale;
+	}
+
+	@Override
+	public boolean isSystemListener() {
+		return true;
+	}
+
+	@Override
+	public double postSimpleThrustCalculation(SimulationStatus status, double thrust) throws SimulationException {
+		if (thrustScale == 1.0) {
+			return Double.NaN;
+		}
+		return thrust * thrustScale;
+	}
+
+	@Override
+	public AerodynamicForces postAerodynamicCalculation(SimulationStatus status, AerodynamicForces forces)
+			throws SimulationException {
+		if (dragScale == 1.0) {
+			return null;
+		}
+		forces.setCDaxial(forces.getCDaxial() * dragScale);
+		forces.setCD(forces.getCD() * dragScale);
+		forces.setPressureCD(forces.getPressureCD() * dragScale);
+		forces.setBaseCD(forces.getBaseCD() * dragScale);
+		forces.setFrictionCD(forces.getFrictionCD() * dragScale);
+		return forces;
+	}
+
+	@Override
+	public RigidBody postMassCalculation(SimulationStatus status, RigidBody mass) throws SimulationException {
+		if (massScale == 1.0 || mass.isEmpty()) {
+			return null;
+		}
+		return new RigidBody(mass.getCenterOfMass().setWeight(mass.getMass() * massScale),
+				mass.getIxx() * massScale, mass.getIyy() * massScale, mass.getIzz() * massScale);
+	}
+}
@@ -0,0 +1,144 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import info.openrocket.core.simulation.SimulationOptions;
+
+/**
+ * The parameters that can be dispersed in a Monte Carlo simulation.
+ * <p>
+ * Most parameters correspond to a field of {@link SimulationOptions} and are applied to a
+ * copy of the options of each run.  The scale factors have a nominal value of one and are
+ * applied to the rocket during the simulation by a listener, without copying the rocket.
+ * <p>
+ * The parameters are applied in declaration order, so the wind speed deviation is applied
+ * after the average wind speed.
+ */
+public enum DispersionParameter {
+
+	/** Average wind speed (m/s) */
+	WIND_SPEED_AVERAGE {
+		@Override
+		public double getNominal(SimulationOptions options) {
+			return options.getWindSpeedAverage();
+		}
+
+		@Override
+		void apply(SimulationOptions options, double value) {
+			options.setWindSpeedAverage(Math.max(value, 0));
+		}
+	},
+
+	/** Standard deviation of the wind speed (m/s) */
+	WIND_SPEED_DEVIATION {
+		@Override
+		public double getNominal(SimulationOptions options) {
+			return options.getWindSpeedDeviation();
+		}
+
+		@Override
+		void apply(SimulationOptions options, double value) {
+			options.setWindSpeedDeviation(Math.max(value, 0));
+		}
+	},
+
+	/** Wind direction (rad) */
+	WIND_DIRECTION {
+		@Override
+		public double getNominal(SimulationOptions options) {
+			return options.getWindDirection();
+		}
+
+		@Override
+		void apply(SimulationOptions options, double value) {
+			options.setWindDirection(value);
+		}
+	},
+
+	/** Launch rod angle from vertical (rad) */
+	LAUNCH_ROD_ANGLE {
+		@Override
+		public double getNominal(SimulationOptions options) {
+			return options.getLaunchRodAngle();
+		}
+
+		@Override
+		void apply(SimulationOptions options, double value) {
+			options.setLaunchRodAngle(value);
+		}
+	},
+
+	/** Launch rod direction (rad), ignored when launching into the wind */
+	LAUNCH_ROD_DIRECTION {
+		@Override
+		public double getNominal(SimulationOptions options) {
+			return options.getLaunchRodDirection();
+		}
+
+		@Override
+		void apply(SimulationOptions options, double value) {
+			if (!options.getLaunchIntoWind()) {
+				options.setLaunchRodDirection(value);
+			}
+		}
+	},
+
+	/** Launch site temperature (K), used only when not using the ISA atmosphere */
+	LAUNCH_TEMPERATURE {
+		@Override
+		public double getNominal(SimulationOptions options) {
+			return options.getLaunchTemperature();
+		}
+
+		@Override
+		void apply(SimulationOptions options, double value) {
+			options.setLaunchTemperature(value);
+		}
+	},
+
+	/** Launch site pressure (Pa), used only when not using the ISA atmosphere */
+	LAUNCH_PRESSURE {
+		@Override
+		public double getNominal(SimulationOptions options) {
+			return options.getLaunchPressure();
+		}
+
+		@Override
+		void apply(SimulationOptions options, double value) {
+			options.setLaunchPressure(value);
+		}
+	},
+
+	/** Scale factor of the motor thrust, which equally scales the total impulse */
+	THRUST_SCALE,
+
+	/** Scale factor of the drag coefficients */
+	DRAG_SCALE,
+
+	/** Scale factor of the mass and moments of inertia, including the motors */
+	MASS_SCALE;
+
+
+	/**
+	 * Return the nominal value of this parameter.
+	 *
+	 * @param options	the nominal simulation options.
+	 * @return			the nominal value, one for scale factors.
+	 */
+	public double getNominal(SimulationOptions options) {
+		return 1.0;
+	}
+
+	/**
+	 * Return whether this parameter is a scale factor applied during the simulation
+	 * instead of a simulation option.
+	 */
+	public boolean isScaleFactor() {
+		return this == THRUST_SCALE || this == DRAG_SCALE || this == MASS_SCALE;
+	}
+
+	/**
+	 * Apply a sampled value of this parameter to the simulation options of a run.
+	 * Does nothing for scale factors.
+	 */
+	void apply(SimulationOptions options, double value) {
+	}
+}
@@ -0,0 +1,69 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import java.util.Random;
+
+/**
+ * A probability distribution of a dispersed parameter around its nominal value.
+ * <p>
+ * Implementations must be stateless, since the same distribution is sampled concurrently
+ * from several threads.  All randomness must be drawn from the provided random source,
+ * which makes each Monte Carlo run reproducible from its seed.
+ */
+public interface Distribution {
+
+	/**
+	 * Draw a sample of the parameter value.
+	 *
+	 * @param nominal	the nominal value of the parameter.
+	 * @param random	the random source to draw from.
+	 * @return			the sampled value.
+	 */
+	public double sample(double nominal, Random random);
+
+
+	/**
+	 * Return a normal distribution centered on the nominal value.
+	 *
+	 * @param sigma		the standard deviation, in the units of the parameter.
+	 */
+	public static Distribution normal(final double sigma) {
+		if (sigma < 0) {
+			throw new IllegalArgumentException("Negative standard deviation " + sigma);
+		}
+		return (nominal, random) -> nominal + sigma * random.nextGaussian();
+	}
+
+	/**
+	 * Return a normal distribution centered on the nominal value, whose standard deviation
+	 * is relative to the nominal value.
+	 *
+	 * @param fraction	the standard deviation as a fraction of the nominal value.
+	 */
+	public static Distribution relativeNormal(final double fraction) {
+		if (fraction < 0) {
+			throw new IllegalArgumentException("Negative standard deviation " + fraction);
+		}
+		return (nominal, random) -> nominal * (1 + fraction * random.nextGaussian());
+	}
+
+	/**
+	 * Return a uniform distribution centered on the nominal value.
+	 *
+	 * @param halfWidth	the maximum deviation from the nominal value, in the units of the parameter.
+	 */
+	public static Distribution uniform(final double halfWidth) {
+		if (halfWidth < 0) {
+			throw new IllegalArgumentException("Negative half-width " + halfWidth);
+		}
+		return (nominal, random) -> nominal + halfWidth * (2 * random.nextDouble() - 1);
+	}
+
+	/**
+	 * Return a distribution that always returns the given value regardless of the nominal value.
+	 *
+	 * @param value		the value to return.
+	 */
+	public static Distribution constant(final double value) {
+		return (nominal, random) -> value;
+	}
+}
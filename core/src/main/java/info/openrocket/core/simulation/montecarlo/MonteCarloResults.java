@@ -0,0 +1,373 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.simulation.FlightEvent;
+
+/**
+ * Summary results of a set of Monte Carlo runs.
+ * <p>
+ * Only a fixed set of summary values of the sustainer branch is stored for each run, in
+ * primitive arrays allocated up front, so the memory use does not depend on the length
+ * of the simulated flights.  The values of runs that failed or were not run are NaN.
+ * <p>
+ * Each run is recorded by exactly one thread.  The results must not be read until the
+ * runs have finished.
+ */
+public class MonteCarloResults {
+
+	/**
+	 * The summary values stored for each run.
+	 */
+	public enum Metric {
+		/** Maximum altitude (m) */
+		APOGEE,
+		/** Maximum total velocity (m/s) */
+		MAX_VELOCITY,
+		/** Maximum acceleration (m/s^2) */
+		MAX_ACCELERATION,
+		/** Maximum Mach number */
+		MAX_MACH,
+		/** Time to apogee (s) */
+		TIME_TO_APOGEE,
+		/** Total flight time (s) */
+		FLIGHT_TIME,
+		/** Ground hit velocity (m/s) */
+		GROUND_HIT_VELOCITY,
+		/** Landing position east of the launch site (m) */
+		LANDING_X,
+		/** Landing position north of the launch site (m) */
+		LANDING_Y
+	}
+
+	private static final Metric[] METRICS = Metric.values();
+
+	private final int size;
+	private final double[][] values;
+	private final long[] events;
+	private final boolean[] failed;
+	private final double[][] samples;
+
+
+	/**
+	 * Construct empty results.
+	 *
+	 * @param size			the number of runs.
+	 * @param parameters	the dispersed parameters whose samples are stored.
+	 */
+	MonteCarloResults(int size, Set<DispersionParameter> parameters) {
+		this.size = size;
+		this.values = new double[METRICS.length][size];
+		for (double[] v : values) {
+			Arrays.fill(v, Double.NaN);
+		}
+		this.events = new long[size];
+		this.failed = new boolean[size];
+		this.samples = new double[DispersionParameter.values().length][];
+		for (DispersionParameter p : parameters) {
+			samples[p.ordinal()] = new double[size];
+		}
+	}
+
+
+	void record(int run, FlightData data) {
+		setValue(Metric.APOGEE, run, data.getMaxAltitude());
+		setValue(Metric.MAX_VELOCITY, run, data.getMaxVelocity());
+		setValue(Metric.MAX_ACCELERATION, run, data.getMaxAcceleration());
+		setValue(Metric.MAX_MACH, run, data.getMaxMachNumber());
+		setValue(Metric.TIME_TO_APOGEE, run, data.getTimeToApogee());
+		setValue(Metric.FLIGHT_TIME, run, data.getFlightTime());
+		setValue(Metric.GROUND_HIT_VELOCITY, run, data.getGroundHitVelocity());
+
+		if (data.getBranchCount() > 0) {
+			FlightDataBranch branch = data.getBranch(0);
+			setValue(Metric.LANDING_X, run, branch.getLast(FlightDataType.TYPE_POSITION_X));
+			setValue(Metric.LANDING_Y, run, branch.getLast(FlightDataType.TYPE_POSITION_Y));
+
+			long mask = 0;
+			for (FlightEvent event : branch.getEvents()) {
+				mask |= 1L << event.getType().ordinal();
+			}
+			events[run] = mask;
+		}
+	}
+
+	void recordFailure(int run) {
+		failed[run] = true;
+	}
+
+	void recordSample(DispersionParameter parameter, int run, double value) {
+		samples[parameter.ordinal()][run] = value;
+	}
+
+	private void setValue(Metric metric, int run, double value) {
+		values[metric.ordinal()][run] = value;
+	}
+
+
+	/**
+	 * Return the number of runs.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Return the value of a metric in a single run, NaN if not available.
+	 */
+	public double getValue(Metric metric, int run) {
+		return values[metric.ordinal()][run];
+	}
+
+	/**
+	 * Return a copy of the values of a metric in all runs.
+	 */
+	public double[] getValues(Metric metric) {
+		return values[metric.ordinal()].clone();
+	}
+
+	/**
+	 * Return whether the given run failed with an exception.
+	 */
+	public boolean isFailed(int run) {
+		return failed[run];
+	}
+
+	/**
+	 * Return the number of runs that failed with an exception.
+	 */
+	public int getFailedCount() {
+		int count = 0;
+		for (boolean f : failed) {
+			if (f) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return whether an event of the given type occurred in the sustainer branch of a run.
+	 */
+	public boolean hasEvent(int run, FlightEvent.Type type) {
+		return (events[run] & (1L << type.ordinal())) != 0;
+	}
+
+	/**
+	 * Return the number of runs in which an event of the given type occurred in the
+	 * sustainer branch.
+	 */
+	public int getEventCount(FlightEvent.Type type) {
+		long bit = 1L << type.ordinal();
+		int count = 0;
+		for (long mask : events) {
+			if ((mask & bit) != 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return the sampled value of a parameter in a single run, NaN if the parameter
+	 * was not dispersed.
+	 */
+	public double getSample(DispersionParameter parameter, int run) {
+		double[] s = samples[parameter.ordinal()];
+		return s != null ? s[run] : Double.NaN;
+	}
+
+
+	/**
+	 * Return the number of runs in which the metric has a value.
+	 */
+	public int getCount(Metric metric) {
+		int count = 0;
+		for (double v : values[metric.ordinal()]) {
+			if (!Double.isNaN(v)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return the mean of a metric over the runs in which it has a value.
+	 */
+	public double getMean(Metric metric) {
+		double sum = 0;
+		int count = 0;
+		for (double v : values[metric.ordinal()]) {
+			if (!Double.isNaN(v)) {
+				sum += v;
+				count++;
+			}
+		}
+		return count > 0 ? sum / count : Double.NaN;
+	}
+
+	/**
+	 * Return the sample standard deviation of a metric over the runs in which it has a value.
+	 */
+	public double getStandardDeviation(Metric metric) {
+		return Math.sqrt(covariance(values[metric.ordinal()], values[metric.ordinal()]));
+	}
+
+	/**
+	 * Return the minimum of a metric, NaN if it has no values.
+	 */
+	public double getMinimum(Metric metric) {
+		double min = Double.NaN;
+		for (double v : values[metric.ordinal()]) {
+			if (!Double.isNaN(v) && (Double.isNaN(min) || v < min)) {
+				min = v;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Return the maximum of a metric, NaN if it has no values.
+	 */
+	public double getMaximum(Metric metric) {
+		double max = Double.NaN;
+		for (double v : values[metric.ordinal()]) {
+			if (!Double.isNaN(v) && (Double.isNaN(max) || v > max)) {
+				max = v;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Return a percentile of a metric using linear interpolation between the closest ranks.
+	 *
+	 * @param metric		the metric.
+	 * @param percentile	the percentile, between 0 and 100.
+	 * @return				the percentile value, NaN if the metric has no values.
+	 */
+	public double getPercentile(Metric metric, double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile out of range: " + percentile);
+		}
+		double[] sorted = Arrays.stream(values[metric.ordinal()]).filter(v -> !Double.isNaN(v)).sorted().toArray();
+		if (sorted.length == 0) {
+			return Double.NaN;
+		}
+		double rank = percentile / 100 * (sorted.length - 1);
+		int lower = (int) Math.floor(rank);
+		int upper = Math.min(lower + 1, sorted.length - 1);
+		return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+	}
+
+	/**
+	 * Return the landing dispersion ellipse of the runs that have a landing position.
+	 *
+	 * @param sigmas	the size of the ellipse in standard deviations, e.g. 2 for a 2-sigma ellipse.
+	 * @return			the landing ellipse, or <code>null</code> if fewer than two runs landed.
+	 */
+	public LandingEllipse getLandingEllipse(double sigmas) {
+		double[] x = values[Metric.LANDING_X.ordinal()];
+		double[] y = values[Metric.LANDING_Y.ordinal()];
+		if (Math.min(getCount(Metric.LANDING_X), getCount(Metric.LANDING_Y)) < 2) {
+			return null;
+		}
+
+		double sxx = covariance(x, x);
+		double syy = covariance(y, y);
+		double sxy = covariance(x, y);
+
+		// Eigenvalues of the symmetric 2x2 covariance matrix
+		double mean = (sxx + syy) / 2;
+		double diff = Math.sqrt(((sxx - syy) / 2) * ((sxx - syy) / 2) + sxy * sxy);
+		double major = Math.sqrt(Math.max(mean + diff, 0));
+		double minor = Math.sqrt(Math.max(mean - diff, 0));
+		double angle = 0.5 * Math.atan2(2 * sxy, sxx - syy);
+
+		return new LandingEllipse(getMean(Metric.LANDING_X), getMean(Metric.LANDING_Y),
+				sigmas * major, sigmas * minor, angle);
+	}
+
+	/**
+	 * Return the sample covariance of two value arrays over the runs in which both have a value.
+	 */
+	private static double covariance(double[] a, double[] b) {
+		double meanA = 0;
+		double meanB = 0;
+		int count = 0;
+		for (int i = 0; i < a.length; i++) {
+			if (!Double.isNaN(a[i]) && !Double.isNaN(b[i])) {
+				meanA += a[i];
+				meanB += b[i];
+				count++;
+			}
+		}
+		if (count < 2) {
+			return Double.NaN;
+		}
+		meanA /= count;
+		meanB /= count;
+
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			if (!Double.isNaN(a[i]) && !Double.isNaN(b[i])) {
+				sum += (a[i] - meanA) * (b[i] - meanB);
+			}
+		}
+		return sum / (count - 1);
+	}
+
+
+	/**
+	 * A landing dispersion ellipse on the ground plane.
+	 */
+	public static class LandingEllipse {
+		private final double centerX;
+		private final double centerY;
+		private final double semiMajorAxis;
+		private final double semiMinorAxis;
+		private final double angle;
+
+		public LandingEllipse(double centerX, double centerY, double semiMajorAxis, double semiMinorAxis,
+				double angle) {
+			this.centerX = centerX;
+			this.centerY = centerY;
+			this.semiMajorAxis = semiMajorAxis;
+			this.semiMinorAxis = semiMinorAxis;
+			this.angle = angle;
+		}
+
+		/** Return the mean landing position east of the launch site (m). */
+		public double getCenterX() {
+			return centerX;
+		}
+
+		/** Return the mean landing position north of the launch site (m). */
+		public double getCenterY() {
+			return centerY;
+		}
+
+		public double getSemiMajorAxis() {
+			return semiMajorAxis;
+		}
+
+		public double getSemiMinorAxis() {
+			return semiMinorAxis;
+		}
+
+		/** Return the angle of the major axis counter-clockwise from east (rad). */
+		public double getAngle() {
+			return angle;
+		}
+
+		@Override
+		public String toString() {
+			return "LandingEllipse [center=(" + centerX + ", " + centerY + "), semiMajorAxis=" + semiMajorAxis
+					+ ", semiMinorAxis=" + semiMinorAxis + ", angle=" + angle + "]";
+		}
+	}
+}
@@ -0,0 +1,288 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.BasicEventSimulationEngine;
+import info.openrocket.core.simulation.SimulationConditions;
+import info.openrocket.core.simulation.SimulationOptions;
+import info.openrocket.core.simulation.SimulationStatus;
+import info.openrocket.core.simulation.exception.SimulationCancelledException;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.simulation.extension.SimulationExtension;
+import info.openrocket.core.simulation.listeners.AbstractSimulationListener;
+import info.openrocket.core.util.BugException;
+
+/**
+ * A Monte Carlo dispersion analysis of a single simulation.
+ * <p>
+ * Each run samples the dispersed parameters from their distributions, simulates the flight
+ * with a {@link BasicEventSimulationEngine} and stores only summary values into a
+ * {@link MonteCarloResults}.  The flight data of each run is discarded as soon as the
+ * summary has been extracted, so the memory use is independent of the number of runs
+ * apart from the few primitive values stored per run.
+ * <p>
+ * The runs are distributed over a fixed number of worker threads.  Each run uses a random
+ * source seeded from the master seed and the run index, so the results do not depend on
+ * the number of threads or the order in which the runs are executed.
+ * <p>
+ * The rocket and the options of the simulation must not be modified while the runs are
+ * in progress.
+ */
+public class MonteCarloSimulation {
+
+	private static final Logger log = LoggerFactory.getLogger(MonteCarloSimulation.class);
+
+	/** Multiplier used to spread the run indices over the seed space */
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+	private final Simulation simulation;
+	private final Map<DispersionParameter, Distribution> dispersions = new EnumMap<>(DispersionParameter.class);
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private volatile boolean cancelled = false;
+
+
+	/**
+	 * Construct a Monte Carlo analysis of the given simulation.  The options, flight
+	 * configuration, stepper and extensions of the simulation are used as the nominal case.
+	 *
+	 * @param simulation	the nominal simulation.
+	 */
+	public MonteCarloSimulation(Simulation simulation) {
+		this.simulation = simulation;
+	}
+
+
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Set the distribution of a parameter.
+	 *
+	 * @param parameter		the parameter to disperse.
+	 * @param distribution	the distribution around the nominal value, or <code>null</code>
+	 * 						to use the nominal value.
+	 */
+	public void setDispersion(DispersionParameter parameter, Distribution distribution) {
+		if (distribution == null) {
+			dispersions.remove(parameter);
+		} else {
+			dispersions.put(parameter, distribution);
+		}
+	}
+
+	/**
+	 * Return the distribution of a parameter, or <code>null</code> if it is not dispersed.
+	 */
+	public Distribution getDispersion(DispersionParameter parameter) {
+		return dispersions.get(parameter);
+	}
+
+	/**
+	 * Return the parameters that are dispersed, in the order they are applied.
+	 */
+	public List<DispersionParameter> getDispersedParameters() {
+		return Collections.unmodifiableList(new ArrayList<>(dispersions.keySet()));
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set the number of runs to simulate at the same time.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Cancel the runs in progress.  Running simulations are stopped at their next
+	 * simulation step and the remaining runs are skipped.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+
+	/**
+	 * Run the Monte Carlo analysis, blocking until all runs have finished or the
+	 * analysis is cancelled.  The values of runs that were not completed are NaN.
+	 *
+	 * @param runs		the number of runs.
+	 * @param seed		the master random seed.
+	 * @param listener	the listener to notify of progress, or <code>null</code>.
+	 * @return			the results of the runs.
+	 * @throws InterruptedException	if the current thread is interrupted while waiting.
+	 */
+	public MonteCarloResults run(int runs, long seed, ProgressListener listener) throws InterruptedException {
+		if (runs < 0) {
+			throw new IllegalArgumentException("Negative number of runs: " + runs);
+		}
+		cancelled = false;
+
+		final SimulationOptions nominal = simulation.getOptions().clone();
+		final Map<DispersionParameter, Distribution> dists = new EnumMap<>(dispersions);
+		final List<SimulationExtension> extensions = new ArrayList<>(simulation.getSimulationExtensions());
+		final double[] nominalValues = new double[DispersionParameter.values().length];
+		for (DispersionParameter parameter : dists.keySet()) {
+			nominalValues[parameter.ordinal()] = parameter.getNominal(nominal);
+		}
+		final MonteCarloResults results = new MonteCarloResults(runs, dists.keySet());
+
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicInteger completed = new AtomicInteger();
+		final int workers = Math.max(1, Math.min(parallelism, runs));
+
+		log.info("Starting " + runs + " Monte Carlo runs on " + workers + " threads");
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		try {
+			List<Future<?>> futures = new ArrayList<>(workers);
+			for (int w = 0; w < workers; w++) {
+				futures.add(executor.submit(() -> {
+					try {
+						int run;
+						while (!cancelled && (run = next.getAndIncrement()) < runs) {
+							simulateRun(run, seed, nominal, nominalValues, dists, extensions, results);
+							int count = completed.incrementAndGet();
+							if (listener != null) {
+								listener.runCompleted(run, count, runs);
+							}
+						}
+					} catch (RuntimeException | Error e) {
+						// Stop the other workers at their next simulation step
+						cancelled = true;
+						throw e;
+					}
+				}));
+			}
+			for (Future<?> f : futures) {
+				try {
+					f.get();
+				} catch (ExecutionException e) {
+					cancelled = true;
+					executor.shutdownNow();
+					throw new BugException("Monte Carlo worker failed", e.getCause());
+				}
+			}
+		} catch (InterruptedException e) {
+			cancelled = true;
+			throw e;
+		} finally {
+			executor.shutdown();
+		}
+		log.info("Finished " + completed.get() + " Monte Carlo runs, " + results.getFailedCount() + " failed");
+		return results;
+	}
+
+
+	/**
+	 * Simulate a single run and store its summary into the results.
+	 */
+	private void simulateRun(int run, long seed, SimulationOptions nominal, double[] nominalValues,
+			Map<DispersionParameter, Distribution> dists, List<SimulationExtension> extensions,
+			MonteCarloResults results) {
+		Random random = new Random(seed ^ (run * SEED_INCREMENT));
+		SimulationOptions options = nominal.clone();
+		double thrustScale = 1.0;
+		double dragScale = 1.0;
+		double massScale = 1.0;
+
+		for (Map.Entry<DispersionParameter, Distribution> e : dists.entrySet()) {
+			DispersionParameter parameter = e.getKey();
+			double value = e.getValue().sample(nominalValues[parameter.ordinal()], random);
+			results.recordSample(parameter, run, value);
+			switch (parameter) {
+				case THRUST_SCALE:
+					thrustScale = value;
+					break;
+				case DRAG_SCALE:
+					dragScale = value;
+					break;
+				case MASS_SCALE:
+					massScale = value;
+					break;
+				default:
+					parameter.apply(options, value);
+			}
+		}
+		options.setRandomSeed(random.nextInt());
+
+		try {
+			SimulationConditions conditions = options.toSimulationConditions();
+			conditions.setSimulation(simulation);
+			conditions.setFlightStepperClass(simulation.getSimulationStepperClass());
+			conditions.setAerodynamicCalculator(simulation.createAerodynamicCalculator());
+			conditions.getSimulationListenerList().add(new DispersionListener(thrustScale, dragScale, massScale));
+			conditions.getSimulationListenerList().add(new CancelListener());
+			for (SimulationExtension extension : extensions) {
+				extension.initialize(conditions);
+			}
+
+			BasicEventSimulationEngine engine = new BasicEventSimulationEngine();
+			engine.simulate(conditions);
+			results.record(run, engine.getFlightData());
+		} catch (SimulationCancelledException e) {
+			log.debug("Monte Carlo run " + run + " cancelled");
+		} catch (SimulationException e) {
+			log.debug("Monte Carlo run " + run + " failed", e);
+			results.recordFailure(run);
+		}
+	}
+
+
+	/**
+	 * Listener notified of the progress of a Monte Carlo analysis.
+	 */
+	public interface ProgressListener {
+
+		/**
+		 * Called from a worker thread after each run has finished, successfully or not.
+		 *
+		 * @param run		the index of the finished run.
+		 * @param completed	the number of runs finished so far.
+		 * @param total		the total number of runs.
+		 */
+		public void runCompleted(int run, int completed, int total);
+	}
+
+
+	/**
+	 * A listener that stops the simulation when the analysis is cancelled.
+	 */
+	private class CancelListener extends AbstractSimulationListener {
+		@Override
+		public boolean isSystemListener() {
+			return true;
+		}
+
+		@Override
+		public void postStep(SimulationStatus status) throws SimulationException {
+			if (cancelled) {
+				throw new SimulationCancelledException("The simulation was cancelled.");
+			}
+		}
+	}
+}
@@ -101,6 +101,15 @@ public abstract class Preferences implements ChangeSource {
 
 	public static final String ROCKET_INFO_FONT_SIZE = "RocketInfoFontSize";
 
+	// Preferences related to the undo history
+	public static final String UNDO_LEVELS = "UndoLevels";
+	public static final String UNDO_COMPONENT_LIMIT = "UndoComponentLimit";
+
+	// Preferences related to optimization
+	public static final String OPTIMIZATION_SURROGATE = "OptimizationSurrogate";
+	public static final String OPTIMIZATION_METHOD = "OptimizationMethod";
+	public static final String OPTIMIZATION_RESULT_CACHE = "OptimizationResultCache";
+
 	// Preferences Related to Simulations
 
 	public static final String CONFIRM_DELETE_SIMULATION = "ConfirmDeleteSimulation";
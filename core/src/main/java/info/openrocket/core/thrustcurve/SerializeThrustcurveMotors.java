@@ -17,6 +17,7 @@ import info.openrocket.core.file.motor.GeneralMotorLoader;
 import info.openrocket.core.gui.util.SimpleFileFilter;
 import info.openrocket.core.motor.Motor;
 import info.openrocket.core.motor.ThrustCurveMotor;
+import info.openrocket.core.motor.ThrustCurveMotorSnapshot;
 import info.openrocket.core.util.Pair;
 
 public class SerializeThrustcurveMotors {
@@ -51,6 +52,8 @@ public class SerializeThrustcurveMotors {
 		if (args.length != 2) {
 			System.out.println("Usage:  java " + SerializeThrustcurveMotors.class.getCanonicalName()
 					+ " <input-dir> <output-file>");
+			System.out.println("A binary motor snapshot is written next to the output file with the extension ."
+					+ ThrustCurveMotorSnapshot.EXTENSION);
 			System.exit(1);
 		}
 
@@ -74,6 +77,25 @@ public class SerializeThrustcurveMotors {
 		ofs.flush();
 		ofs.close();
 
+		List<ThrustCurveMotor> snapshotMotors = new ArrayList<ThrustCurveMotor>();
+		for (Motor m : allMotors) {
+			snapshotMotors.add((ThrustCurveMotor) m);
+		}
+		ThrustCurveMotorSnapshot.write(snapshotMotors, getSnapshotFile(outFile));
+
+	}
+
+	/**
+	 * Return the motor snapshot file corresponding to a serialized motor file, which has
+	 * the same name with the snapshot extension.
+	 */
+	public static File getSnapshotFile(File serializedFile) {
+		String name = serializedFile.getName();
+		int dot = name.lastIndexOf('.');
+		if (dot > 0) {
+			name = name.substring(0, dot);
+		}
+		return new File(serializedFile.getParentFile(), name + "." + ThrustCurveMotorSnapshot.EXTENSION);
 	}
 
 	public static void loadFromThrustCurve(List<Motor> allMotors) throws SAXException, IOException {
@@ -167,6 +167,37 @@ public class Quaternion {
 		return new Quaternion(newW, newX, newY, newZ);
 	}
 
+	/**
+	 * Multiply this quaternion from the left side by the rotation quaternion
+	 * corresponding to the rotation vector (x, y, z). The result is identical to
+	 * <code>multiplyLeft(Quaternion.rotation(new Coordinate(x, y, z)))</code>, but
+	 * no intermediate objects are created.
+	 *
+	 * @param x the x component of the rotation vector
+	 * @param y the y component of the rotation vector
+	 * @param z the z component of the rotation vector
+	 * @return the rotated quaternion.
+	 */
+	public Quaternion multiplyLeftRotation(double x, double y, double z) {
+		double a = 1, b = 0, c = 0, d = 0;
+		double length = MathUtil.safeSqrt(x * x + y * y + z * z);
+		if (length >= 0.000001) {
+			double sin = Math.sin(length / 2);
+			a = Math.cos(length / 2);
+			b = sin * x / length;
+			c = sin * y / length;
+			d = sin * z / length;
+		}
+
+		/* rotation(abcd) * this(wxyz) */
+		double newW = (a * this.w - b * this.x - c * this.y - d * this.z);
+		double newX = (a * this.x + b * this.w + c * this.z - d * this.y);
+		double newY = (a * this.y + c * this.w + d * this.x - b * this.z);
+		double newZ = (a * this.z + d * this.w + b * this.y - c * this.x);
+
+		return new Quaternion(newW, newX, newY, newZ);
+	}
+
 	/**
 	 * Return a normalized version of this quaternion. If this quaternion is the
 	 * zero quaternion, throws
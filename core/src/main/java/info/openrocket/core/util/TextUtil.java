@@ -108,6 +108,160 @@ public class TextUtil {
 		return doubleToString(d, DEFAULT_DECIMAL_PLACES, true);
 	}
 
+	/**
+	 * Append the same representation of a double value as
+	 * {@link #doubleToString(double, int, boolean)} to a string builder.
+	 * <p>
+	 * The digits are computed with integer arithmetic instead of a formatter, so that large
+	 * amounts of values can be written without allocating memory.  Values whose rounding is
+	 * too close to call in double precision, or which are out of the range of the fast
+	 * conversion, are formatted with {@link #doubleToString(double, int, boolean)}.
+	 *
+	 * @param sb                    the string builder to append to.
+	 * @param d                     the value to present.
+	 * @param decimalPlaces         the number of decimal places to save the value
+	 *                              with.
+	 * @param isExponentialNotation if true, the value is presented in exponential
+	 *                              notation.
+	 * @return the string builder.
+	 */
+	public static StringBuilder appendDouble(StringBuilder sb, double d, int decimalPlaces,
+			boolean isExponentialNotation) {
+		final double abs = Math.abs(d);
+		if (MathUtil.equals(d, 0) || !(abs < Double.MAX_VALUE) || decimalPlaces < 0
+				|| decimalPlaces > MAX_FAST_DECIMAL_PLACES) {
+			return sb.append(doubleToString(d, decimalPlaces, isExponentialNotation));
+		}
+
+		final int length = sb.length();
+		if (d < 0) {
+			sb.append('-');
+		}
+
+		final boolean appended;
+		if (isExponentialNotation && (abs < 0.001 || abs >= 10000)) {
+			appended = appendExponential(sb, abs, decimalPlaces);
+		} else {
+			appended = appendFixed(sb, abs, decimalPlaces);
+		}
+
+		if (!appended) {
+			sb.setLength(length);
+			sb.append(doubleToString(d, decimalPlaces, isExponentialNotation));
+		}
+		return sb;
+	}
+
+	/** Largest number of decimal places formatted by {@link #appendDouble} */
+	private static final int MAX_FAST_DECIMAL_PLACES = 14;
+
+	/** Scaled values must stay below this limit to be rounded exactly */
+	private static final double MAX_FAST_SCALED = 1e15;
+
+	/** Powers of ten that are exactly representable both as a double and as a long */
+	private static final long[] LONG_POWERS_OF_TEN = {
+			1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L,
+			1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L,
+			100000000000000L, 1000000000000000L, 10000000000000000L, 100000000000000000L,
+			1000000000000000000L
+	};
+
+	/** Powers of ten that are exactly representable as a double */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/**
+	 * Round a non-negative scaled value to the nearest integer, halves rounded up.
+	 * The value may differ from the exact scaled decimal value by a few units in the last
+	 * place, so -1 is returned if the value is too close to a half to decide the rounding.
+	 */
+	private static long roundScaled(double x) {
+		if (!(x < MAX_FAST_SCALED)) {
+			return -1;
+		}
+		final double floor = Math.floor(x);
+		final double fraction = x - floor;
+		if (Math.abs(fraction - 0.5) <= 4 * Math.ulp(x)) {
+			return -1;
+		}
+		return (long) floor + (fraction > 0.5 ? 1 : 0);
+	}
+
+	private static boolean appendFixed(StringBuilder sb, double abs, int decimalPlaces) {
+		final long n = roundScaled(abs * POWERS_OF_TEN[decimalPlaces]);
+		if (n < 0) {
+			return false;
+		}
+		final long scale = LONG_POWERS_OF_TEN[decimalPlaces];
+		sb.append(n / scale);
+		appendFraction(sb, n % scale, decimalPlaces);
+		return true;
+	}
+
+	private static boolean appendExponential(StringBuilder sb, double abs, int decimalPlaces) {
+		int exponent = (int) Math.floor(Math.log10(abs));
+		double mantissa = scaleByPowerOfTen(abs, -exponent);
+		if (mantissa < 1) {
+			exponent--;
+			mantissa = scaleByPowerOfTen(abs, -exponent);
+		} else if (mantissa >= 10) {
+			exponent++;
+			mantissa = scaleByPowerOfTen(abs, -exponent);
+		}
+		if (Double.isNaN(mantissa) || mantissa < 1 || mantissa >= 10) {
+			return false;
+		}
+
+		long n = roundScaled(mantissa * POWERS_OF_TEN[decimalPlaces]);
+		if (n < 0) {
+			return false;
+		}
+		final long scale = LONG_POWERS_OF_TEN[decimalPlaces];
+		if (n >= 10 * scale) {
+			// Rounded up to the next power of ten
+			n /= 10;
+			exponent++;
+		}
+		sb.append(n / scale);
+		appendFraction(sb, n % scale, decimalPlaces);
+		sb.append('e').append(exponent);
+		return true;
+	}
+
+	/**
+	 * Scale a value by an exactly representable power of ten, or return NaN if the power
+	 * is not exactly representable.
+	 */
+	private static double scaleByPowerOfTen(double value, int exponent) {
+		if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+			return value * POWERS_OF_TEN[exponent];
+		} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			return value / POWERS_OF_TEN[-exponent];
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Append the decimal digits of a fraction without trailing zeros.
+	 */
+	private static void appendFraction(StringBuilder sb, long fraction, int decimalPlaces) {
+		if (fraction == 0) {
+			return;
+		}
+		int digits = decimalPlaces;
+		while (fraction % 10 == 0) {
+			fraction /= 10;
+			digits--;
+		}
+		sb.append('.');
+		for (int i = digits - 1; i > 0 && fraction < LONG_POWERS_OF_TEN[i]; i--) {
+			sb.append('0');
+		}
+		sb.append(fraction);
+	}
+
 	/**
 	 * Trims trailing zeros of a string formatted decimal number (can be in
 	 * exponential notation e.g. 1.2000E+06).
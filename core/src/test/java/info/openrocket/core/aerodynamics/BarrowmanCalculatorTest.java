@@ -2,8 +2,18 @@ package info.openrocket.core.aerodynamics;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import info.openrocket.core.aerodynamics.barrowman.RocketComponentCalc;
 import info.openrocket.core.logging.WarningSet;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -279,23 +289,55 @@ public class BarrowmanCalculatorTest {
 
 	@Test
 	public void testGetWorstCP() {
-		// Rocket rocket = TestRockets.makeFalcon9Heavy();
-		// FlightConfiguration config = rocket.getSelectedConfiguration();
-		// BarrowmanCalculator calc = new BarrowmanCalculator();
-		// FlightConditions conditions = new FlightConditions(config);
-		// WarningSet warnings = new WarningSet();
-
-		// NYI
-		// Coordinate calcBestCP = calc.getCP(config, conditions, warnings);
-		// Coordinate calcWorstCP = calc.getWorstCP(config, conditions, warnings);
-
-		// fail("Not yet implemented");
-		// Coordinate expBestCP = new Coordinate( -1, 0,0,0);
-		// assertEquals(expBestCP.x,
-		// calcBestCP.x, EPSILON, " Falcon Heavy best CP x value is incorrect:");
-		// Coordinate expWorstCP = new Coordinate( -1, 0,0,0);
-		// assertEquals(expWorstCP.x,
-		// calcWorstCP.x, EPSILON, " Falcon Heavy Worst CP x value is incorrect:");
+		assertWorstCP(TestRockets.makeFalcon9Heavy());
+		assertWorstCP(TestRockets.makeBeta());
+
+		// Fin sets with one, two and four fins, turned from the zero direction
+		for (int finCount : new int[] { 1, 2, 4 }) {
+			Rocket rocket = TestRockets.makeEstesAlphaIII();
+			FinSet fins = (FinSet) rocket.getChild(0).getChild(1).getChild(0);
+			fins.setFinCount(finCount);
+			fins.setBaseRotation(0.3);
+			assertWorstCP(rocket);
+		}
+
+		// The CP of symmetric fin sets does not depend on the direction
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setTheta(1);
+		new BarrowmanCalculator().getWorstCP(config, conditions, null);
+		assertEquals(0, conditions.getTheta(), 0);
+	}
+
+	/**
+	 * Compare the worst CP to a search of 3600 lateral wind directions.
+	 */
+	private void assertWorstCP(Rocket rocket) {
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		BarrowmanCalculator calc = new BarrowmanCalculator();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setAOA(Math.toRadians(3));
+		WarningSet warnings = new WarningSet();
+
+		Coordinate expected = new Coordinate(Double.MAX_VALUE);
+		FlightConditions cond = conditions.clone();
+		for (int i = 0; i < 3600; i++) {
+			cond.setTheta(2 * Math.PI * i / 3600);
+			Coordinate cp = calc.getCP(config, cond, warnings);
+			if (cp.weight > MathUtil.EPSILON && cp.x < expected.x) {
+				expected = cp;
+			}
+		}
+
+		Coordinate worst = calc.getWorstCP(config, conditions, warnings);
+		assertEquals(expected.x, worst.x, 1e-6, " Worst CP x value is incorrect:");
+		assertTrue(worst.x <= expected.x + MathUtil.EPSILON, " Worst CP is behind the searched worst CP");
+
+		// The worst direction is stored in the conditions
+		Coordinate cp = calc.getCP(config, conditions, warnings);
+		assertEquals(worst.x, cp.x, 1e-12, " Worst CP does not match the stored direction:");
+		assertEquals(worst.weight, cp.weight, 1e-9, " Worst CNa does not match the stored direction:");
 	}
 
 	@Test
@@ -338,6 +380,30 @@ public class BarrowmanCalculatorTest {
 		assertFalse(warnings.isEmpty(), " Estes Alpha III has an undetected discontinuity:");
 	}
 
+	@Test
+	public void testEvaluationPlanFollowsActiveStages() {
+		final Rocket rocket = TestRockets.makeFalcon9Heavy();
+		final FlightConfiguration config = rocket.getSelectedConfiguration();
+		final BarrowmanCalculator calc = new BarrowmanCalculator();
+		final FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.3);
+		conditions.setAOA(Math.toRadians(4));
+
+		final Coordinate cpAll = calc.getCP(config, conditions, null);
+		final double cdAll = calc.getAerodynamicForces(config, conditions, null).getCD();
+
+		config.setOnlyStage(0);
+		final Coordinate cpUpper = calc.getCP(config, conditions, null);
+		assertEquals(new BarrowmanCalculator().getCP(config, conditions, null), cpUpper);
+		assertEquals(new BarrowmanCalculator().getAerodynamicForces(config, conditions, null).getCD(),
+				calc.getAerodynamicForces(config, conditions, null).getCD(), EPSILON);
+		assertTrue(cpUpper.weight < cpAll.weight, "Upper stage CNa should be smaller than whole rocket CNa");
+
+		config.setAllStages();
+		assertEquals(cpAll, calc.getCP(config, conditions, null));
+		assertEquals(cdAll, calc.getAerodynamicForces(config, conditions, null).getCD(), 0);
+	}
+
 	@Test
 	public void testRadialDiscontinuityWithStrapOns() {
 		Rocket rocket = TestRockets.makeFalcon9Heavy();
@@ -664,4 +730,55 @@ public class BarrowmanCalculatorTest {
 		final double zeroCD = zeroForces.getCD();
 		assertEquals(epsCD, zeroCD, EPSILON, "drag at mach 0 should equal drag at mach MathUtil.EPSILON");
 	}
+
+	/**
+	 * Test that calculators of rocket copies share calculation objects, also from
+	 * several threads, with results equal to those of freshly built ones.
+	 */
+	@Test
+	public void testSharedCalcObjectsAcrossCopies() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.6);
+		conditions.setAOA(Math.toRadians(3));
+		conditions.setPitchRate(0.5);
+
+		BarrowmanCalculator.clearCalcCache();
+		final AerodynamicForces expected = new BarrowmanCalculator().getAerodynamicForces(config, conditions,
+				new WarningSet());
+
+		// Copies use the calculation objects built for the original
+		final Map<String, RocketComponentCalc> calcs = BarrowmanCalculator.getCalcSnapshot(config);
+		FlightConfiguration copyConfig = config.clone(rocket.copyWithOriginalID());
+		assertSame(calcs, BarrowmanCalculator.getCalcSnapshot(copyConfig));
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<AerodynamicForces>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				final FlightConfiguration copy = config.clone(rocket.copyWithOriginalID());
+				final FlightConditions copyConditions = conditions.clone();
+				results.add(executor.submit(() -> new BarrowmanCalculator().getAerodynamicForces(copy,
+						copyConditions, new WarningSet())));
+			}
+			for (Future<AerodynamicForces> result : results) {
+				AerodynamicForces forces = result.get();
+				assertEquals(expected.getCNa(), forces.getCNa(), EPSILON);
+				assertEquals(expected.getCP().x, forces.getCP().x, EPSILON);
+				assertEquals(expected.getCD(), forces.getCD(), EPSILON);
+				assertEquals(expected.getCm(), forces.getCm(), EPSILON);
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// Modifying the rocket must not reuse the old calculation objects
+		FinSet fins = (FinSet) rocket.getChild(0).getChild(1).getChild(0);
+		fins.setFinCount(fins.getFinCount() + 1);
+		AerodynamicForces modified = new BarrowmanCalculator().getAerodynamicForces(config, conditions,
+				new WarningSet());
+		assertTrue(modified.getCNa() > expected.getCNa());
+		assertNotSame(calcs.get(fins.getID()), BarrowmanCalculator.getCalcSnapshot(config).get(fins.getID()));
+	}
 }
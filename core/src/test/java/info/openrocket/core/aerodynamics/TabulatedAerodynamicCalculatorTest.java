@@ -0,0 +1,153 @@
+package info.openrocket.core.aerodynamics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+import info.openrocket.core.ServicesForTesting;
+import info.openrocket.core.logging.WarningSet;
+import info.openrocket.core.plugin.PluginModule;
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.util.TestRockets;
+
+public class TabulatedAerodynamicCalculatorTest {
+
+	@BeforeAll
+	public static void setup() {
+		Module applicationModule = new ServicesForTesting();
+		Module pluginModule = new PluginModule();
+
+		Injector injector = Guice.createInjector(applicationModule, pluginModule);
+		Application.setInjector(injector);
+	}
+
+	@AfterEach
+	public void clearTables() {
+		TabulatedAerodynamicCalculator.clearTables();
+	}
+
+	/**
+	 * Test that the interpolated forces are within the error bound of the exact ones.
+	 */
+	@Test
+	public void testInterpolationError() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		BarrowmanCalculator exact = new BarrowmanCalculator();
+		TabulatedAerodynamicCalculator tabulated = new TabulatedAerodynamicCalculator(0.01);
+		final double maxError = tabulated.getMaxError();
+
+		// The error bound is relative to the coefficients at reference conditions
+		FlightConditions referenceConditions = new FlightConditions(config);
+		referenceConditions.setMach(0.3);
+		referenceConditions.setAOA(Math.toRadians(5));
+		AerodynamicForces reference = exact.getAerodynamicForces(config, referenceConditions, new WarningSet());
+
+		for (double mach : new double[] { 0.05, 0.23, 0.51, 0.87 }) {
+			for (double aoaDeg : new double[] { 0.3, 2.7, 8.2, 23.5 }) {
+				FlightConditions conditions = new FlightConditions(config);
+				conditions.setMach(mach);
+				conditions.setAOA(Math.toRadians(aoaDeg));
+
+				AerodynamicForces expected = exact.getAerodynamicForces(config, conditions, new WarningSet());
+				AerodynamicForces actual = tabulated.getAerodynamicForces(config, conditions, new WarningSet());
+
+				assertEquals(expected.getCNa(), actual.getCNa(), maxError * Math.abs(reference.getCNa()));
+				assertEquals(expected.getCP().x, actual.getCP().x, maxError * Math.abs(reference.getCP().x));
+				assertEquals(expected.getCN(), actual.getCN(), maxError * Math.abs(reference.getCN()));
+				assertEquals(expected.getCm(), actual.getCm(), maxError * Math.abs(reference.getCm()));
+				assertEquals(expected.getCD(), actual.getCD(), maxError * Math.abs(reference.getCD()));
+			}
+		}
+	}
+
+	/**
+	 * Test that the forces between grid nodes are interpolated from the table.  Within a
+	 * cell the interpolation is linear in the angle of attack, while the exact normal force
+	 * is not.
+	 */
+	@Test
+	public void testInterpolationBetweenNodes() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		BarrowmanCalculator exact = new BarrowmanCalculator();
+		TabulatedAerodynamicCalculator tabulated = new TabulatedAerodynamicCalculator();
+		final double aoaStep = tabulated.getTable(config).aoaStep;
+
+		for (int cell : new int[] { 3, 12, 20 }) {
+			double[] expected = new double[3];
+			double[] actual = new double[3];
+			for (int n = 0; n < 3; n++) {
+				FlightConditions conditions = new FlightConditions(config);
+				conditions.setMach(0.31);
+				conditions.setAOA((cell + 0.25 * (n + 1)) * aoaStep);
+				expected[n] = exact.getAerodynamicForces(config, conditions, new WarningSet()).getCN();
+				actual[n] = tabulated.getAerodynamicForces(config, conditions, new WarningSet()).getCN();
+			}
+
+			// The midpoint is the mean of the values at a quarter and three quarters of the cell
+			assertTrue(Math.abs(expected[0] - 2 * expected[1] + expected[2]) > 1e-5);
+			assertEquals((actual[0] + actual[2]) / 2, actual[1], 1e-10);
+		}
+	}
+
+	/**
+	 * Test that rolling flight, which is not tabulated, is calculated exactly.
+	 */
+	@Test
+	public void testRollingFlightIsExact() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.3);
+		conditions.setAOA(Math.toRadians(4));
+		conditions.setRollRate(5);
+
+		AerodynamicForces expected = new BarrowmanCalculator().getAerodynamicForces(config, conditions,
+				new WarningSet());
+		AerodynamicForces actual = new TabulatedAerodynamicCalculator().getAerodynamicForces(config, conditions,
+				new WarningSet());
+
+		assertEquals(expected.getCroll(), actual.getCroll(), 0);
+		assertEquals(expected.getCNa(), actual.getCNa(), 0);
+		assertEquals(expected.getCD(), actual.getCD(), 0);
+	}
+
+	/**
+	 * Test that copies of a rocket and new calculator instances give the same results
+	 * from the shared tables.
+	 */
+	@Test
+	public void testSharedTables() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		TabulatedAerodynamicCalculator calculator = new TabulatedAerodynamicCalculator();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setMach(0.42);
+		conditions.setAOA(Math.toRadians(3.3));
+		AerodynamicForces first = calculator.getAerodynamicForces(config, conditions, new WarningSet());
+
+		FlightConfiguration copy = config.clone(rocket.copyWithOriginalID());
+		FlightConditions copyConditions = new FlightConditions(copy);
+		copyConditions.setMach(0.42);
+		copyConditions.setAOA(Math.toRadians(3.3));
+		TabulatedAerodynamicCalculator copyCalculator = calculator.newInstance();
+		AerodynamicForces second = copyCalculator.getAerodynamicForces(copy, copyConditions, new WarningSet());
+
+		// The new instance uses the table created by the first calculator
+		assertSame(calculator.getTable(config), copyCalculator.getTable(copy));
+		assertEquals(first.getCNa(), second.getCNa(), 0);
+		assertEquals(first.getCP().x, second.getCP().x, 0);
+		assertEquals(first.getCD(), second.getCD(), 0);
+	}
+}
@@ -0,0 +1,97 @@
+package info.openrocket.core.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.motor.Manufacturer;
+import info.openrocket.core.preset.ComponentPreset;
+import info.openrocket.core.preset.ComponentPresetFactory;
+import info.openrocket.core.preset.TypedPropertyMap;
+import info.openrocket.core.util.BaseTestCase;
+
+public class ComponentPresetDatabaseTest extends BaseTestCase {
+
+	private static ComponentPreset preset(ComponentPreset.Type type, String manufacturer, String partNo)
+			throws Exception {
+		TypedPropertyMap presetspec = new TypedPropertyMap();
+		presetspec.put(ComponentPreset.TYPE, type);
+		presetspec.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer(manufacturer));
+		presetspec.put(ComponentPreset.PARTNO, partNo);
+		presetspec.put(ComponentPreset.LENGTH, 2.0);
+		presetspec.put(ComponentPreset.OUTER_DIAMETER, 2.0);
+		presetspec.put(ComponentPreset.INNER_DIAMETER, 1.0);
+		presetspec.put(ComponentPreset.MASS, 100.0);
+		return ComponentPresetFactory.create(presetspec);
+	}
+
+	@Test
+	public void testListForType() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		ComponentPreset tube1 = preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-20");
+		ComponentPreset coupler = preset(ComponentPreset.Type.TUBE_COUPLER, "Estes", "JT-20");
+		ComponentPreset tube2 = preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-50");
+		db.insert(tube1);
+		db.insert(coupler);
+		db.insert(tube2);
+
+		assertEquals(Arrays.asList(tube1, tube2), db.listForType(ComponentPreset.Type.BODY_TUBE));
+		assertEquals(Arrays.asList(coupler), db.listForType(ComponentPreset.Type.TUBE_COUPLER));
+		assertTrue(db.listForType(ComponentPreset.Type.NOSE_CONE).isEmpty());
+		assertTrue(db.listForType(null).isEmpty());
+
+		// Presets of multiple types are returned in database order
+		assertEquals(Arrays.asList(tube1, coupler, tube2),
+				db.listForTypes(ComponentPreset.Type.TUBE_COUPLER, ComponentPreset.Type.BODY_TUBE));
+		assertEquals(Arrays.asList(tube1, tube2),
+				db.listForTypes(ComponentPreset.Type.BODY_TUBE, ComponentPreset.Type.BODY_TUBE));
+
+		// Returned lists are copies
+		db.listForType(ComponentPreset.Type.BODY_TUBE).clear();
+		assertEquals(2, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+	}
+
+	@Test
+	public void testFind() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		ComponentPreset estes = preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-20");
+		ComponentPreset other = preset(ComponentPreset.Type.BODY_TUBE, "Other", "BT-20");
+		db.insert(estes);
+		db.insert(other);
+
+		List<ComponentPreset> presets = db.find("Estes", "BT-20");
+		assertEquals(1, presets.size());
+		assertSame(estes, presets.get(0));
+		assertTrue(db.find("Estes", "BT-50").isEmpty());
+	}
+
+	@Test
+	public void testIndexFollowsSortedAddAndRemove() throws Exception {
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		ComponentPreset bt50 = preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-50");
+		ComponentPreset bt20 = preset(ComponentPreset.Type.BODY_TUBE, "Estes", "BT-20");
+		ComponentPreset jt20 = preset(ComponentPreset.Type.TUBE_COUPLER, "Estes", "JT-20");
+		db.insert(bt50);
+		assertEquals(1, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+
+		db.add(bt20);
+		db.add(jt20);
+		assertEquals(Arrays.asList(bt20, bt50), db.listForType(ComponentPreset.Type.BODY_TUBE));
+		assertEquals(1, db.find("Estes", "JT-20").size());
+
+		Iterator<ComponentPreset> iterator = db.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next() == bt20) {
+				iterator.remove();
+			}
+		}
+		assertEquals(Arrays.asList(bt50), db.listForType(ComponentPreset.Type.BODY_TUBE));
+		assertTrue(db.find("Estes", "BT-20").isEmpty());
+	}
+}
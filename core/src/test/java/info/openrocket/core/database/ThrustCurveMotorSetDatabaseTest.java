@@ -0,0 +1,103 @@
+package info.openrocket.core.database;
+
+import java.util.List;
+
+import info.openrocket.core.database.motor.ThrustCurveMotorSetDatabase;
+import info.openrocket.core.motor.Manufacturer;
+import info.openrocket.core.motor.Motor;
+import info.openrocket.core.motor.ThrustCurveMotor;
+import info.openrocket.core.util.Coordinate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+public class ThrustCurveMotorSetDatabaseTest {
+
+	private static ThrustCurveMotor motor(String manufacturer, String designation, double diameter, double length,
+			String digest) {
+		return new ThrustCurveMotor.Builder()
+				.setManufacturer(Manufacturer.getManufacturer(manufacturer))
+				.setDesignation(designation)
+				.setDescription("Desc " + digest)
+				.setMotorType(Motor.Type.SINGLE)
+				.setStandardDelays(new double[] { 5 })
+				.setDiameter(diameter)
+				.setLength(length)
+				.setTimePoints(new double[] { 0, 1, 2 })
+				.setThrustPoints(new double[] { 0, 1, 0 })
+				.setCGPoints(new Coordinate[] { Coordinate.NUL, Coordinate.NUL, Coordinate.NUL })
+				.setDigest(digest)
+				.build();
+	}
+
+	private static final ThrustCurveMotor f12a = motor("A", "F12", 0.024, 0.07, "digestA");
+	private static final ThrustCurveMotor f12b = motor("A", "f12", 0.024, 0.07, "digestB");
+	private static final ThrustCurveMotor g40 = motor("A", "G40", 0.029, 0.124, "digestC");
+	private static final ThrustCurveMotor h100 = motor("B", "H100", 0.029, 0.194, "digestD");
+	private static final ThrustCurveMotor f12c = motor("B", "F12", 0.024, 0.07, "digestE");
+
+	private static ThrustCurveMotorSetDatabase createDatabase() {
+		ThrustCurveMotorSetDatabase db = new ThrustCurveMotorSetDatabase();
+		db.addMotor(f12a);
+		db.addMotor(g40);
+		db.addMotor(h100);
+		db.addMotor(f12b);
+		db.addMotor(f12c);
+		return db;
+	}
+
+	@Test
+	public void testAddingGroupsMotorSets() {
+		ThrustCurveMotorSetDatabase db = createDatabase();
+
+		assertEquals(4, db.getMotorSets().size());
+		assertEquals(2, db.getMotorSets().get(0).getMotorCount());
+		assertEquals(1, db.findMotorSets(Manufacturer.getManufacturer("A"), "f12").size());
+		assertSame(db.getMotorSets().get(0), db.findMotorSets(Manufacturer.getManufacturer("A"), "F12").get(0));
+		assertEquals(0, db.findMotorSets(Manufacturer.getManufacturer("A"), "H100").size());
+	}
+
+	@Test
+	public void testFindByDigest() {
+		ThrustCurveMotorSetDatabase db = createDatabase();
+
+		// Digests are compared by value
+		List<ThrustCurveMotor> motors = db.findMotors(new String("digestC"), null, null, null, Double.NaN, Double.NaN);
+		assertEquals(1, motors.size());
+		assertSame(g40, motors.get(0));
+
+		// Digest matches take precedence over description matches
+		motors = db.findMotors("digestD", null, "A", "G40", Double.NaN, Double.NaN);
+		assertEquals(1, motors.size());
+		assertSame(h100, motors.get(0));
+	}
+
+	@Test
+	public void testFindByDescription() {
+		ThrustCurveMotorSetDatabase db = createDatabase();
+
+		List<ThrustCurveMotor> motors = db.findMotors(null, null, null, "F12", 0.026, Double.NaN);
+		assertEquals(3, motors.size());
+		assertSame(f12c, motors.get(2));
+
+		motors = db.findMotors("unknown", Motor.Type.SINGLE, "A", "F12", 0.024, 0.07);
+		assertEquals(2, motors.size());
+
+		motors = db.findMotors(null, null, null, null, Double.NaN, 0.19);
+		assertEquals(1, motors.size());
+		assertSame(h100, motors.get(0));
+
+		assertEquals(0, db.findMotors(null, null, null, "F12", 0.035, Double.NaN).size());
+	}
+
+	@Test
+	public void testSizeRangeQueries() {
+		ThrustCurveMotorSetDatabase db = createDatabase();
+
+		assertEquals(2, db.findMotorSetsByDiameter(0.028, 0.030).size());
+		assertEquals(4, db.findMotorSetsByDiameter(0, 1).size());
+		assertEquals(3, db.findMotorSetsByLength(0.05, 0.15).size());
+		assertSame(db.getMotorSets().get(0), db.findMotorSetsByLength(0.05, 0.15).get(0));
+	}
+}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.zip.ZipFile;
 
 import info.openrocket.core.ServicesForTesting;
 import info.openrocket.core.database.ComponentPresetDao;
@@ -25,6 +26,7 @@ import info.openrocket.core.document.OpenRocketDocumentFactory;
 import info.openrocket.core.document.Simulation;
 import info.openrocket.core.document.StorageOptions;
 import info.openrocket.core.file.GeneralRocketLoader;
+import info.openrocket.core.file.GeneralRocketSaver;
 import info.openrocket.core.file.RocketLoadException;
 import info.openrocket.core.file.motor.GeneralMotorLoader;
 import info.openrocket.core.l10n.DebugTranslator;
@@ -38,6 +40,9 @@ import info.openrocket.core.plugin.PluginModule;
 import info.openrocket.core.rocketcomponent.BodyTube;
 import info.openrocket.core.rocketcomponent.FlightConfiguration;
 import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.FlightData;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
 import info.openrocket.core.simulation.extension.impl.ScriptingExtension;
 import info.openrocket.core.simulation.extension.impl.ScriptingUtil;
 import info.openrocket.core.startup.Application;
@@ -327,6 +332,129 @@ public class OpenRocketSaverTest {
 		assertEquals(Simulation.Status.OUTDATED, rocketDocLoaded.getSimulations().get(3).getStatus());
 	}
 	
+	/**
+	 * Test that lazily decoded simulation data matches the data decoded while loading.
+	 */
+	@Test
+	public void testDeferredSimulationData() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation sim = new Simulation(rocket);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		try {
+			sim.simulate();
+		} catch (Exception e) {
+			fail(e.toString());
+		}
+		rocketDoc.addSimulation(sim);
+
+		StorageOptions options = new StorageOptions();
+		options.setSaveSimulationData(true);
+		File file = saveRocket(rocketDoc, options);
+
+		FlightData eager = loadRocket(file.getPath(), false).getSimulations().get(0).getSimulatedData();
+		FlightData deferred = loadRocket(file.getPath(), true).getSimulations().get(0).getSimulatedData();
+		assertEquals(eager.getBranchCount(), deferred.getBranchCount());
+		assertTrue(deferred.getBranch(0).isDeferred());
+
+		// The summary is read from the file without decoding the data points
+		assertEquals(eager.getMaxAltitude(), deferred.getMaxAltitude(), 1e-3);
+		assertEquals(eager.getFlightTime(), deferred.getFlightTime(), 1e-3);
+		assertTrue(deferred.getBranch(0).isDeferred());
+
+		for (int i = 0; i < eager.getBranchCount(); i++) {
+			FlightDataBranch expected = eager.getBranch(i);
+			FlightDataBranch actual = deferred.getBranch(i);
+			assertEquals(expected.getLength(), actual.getLength());
+			assertFalse(actual.isDeferred());
+			assertEquals(expected.getEvents().size(), actual.getEvents().size());
+			for (FlightDataType type : expected.getTypes()) {
+				assertEquals(expected.get(type), actual.get(type));
+				assertEquals(expected.getMaximum(type), actual.getMaximum(type), 0);
+			}
+		}
+	}
+
+	/**
+	 * Test that simulation data stored in binary entries is loaded exactly.
+	 */
+	@Test
+	public void testBinarySimulationData() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation sim = new Simulation(rocket);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		sim.simulate();
+		rocketDoc.addSimulation(sim);
+
+		StorageOptions options = new StorageOptions();
+		options.setSaveSimulationData(true);
+		options.setSaveBinarySimulationData(true);
+		File file = File.createTempFile(TMP_DIR.getName(), ".ork");
+		new GeneralRocketSaver().save(file, rocketDoc, options);
+
+		try (ZipFile zip = new ZipFile(file)) {
+			assertNotNull(zip.getEntry(BinaryFlightData.ENTRY_PREFIX + "1.bin"));
+		}
+
+		OpenRocketDocument loaded = loadRocket(file.getPath());
+		assertTrue(loaded.getDefaultStorageOptions().getSaveBinarySimulationData());
+		FlightData expected = sim.getSimulatedData();
+		FlightData actual = loaded.getSimulations().get(0).getSimulatedData();
+		assertEquals(Simulation.Status.LOADED, loaded.getSimulations().get(0).getStatus());
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		assertEquals(expected.getMaxAltitude(), actual.getMaxAltitude(), 1e-3);
+		for (int i = 0; i < expected.getBranchCount(); i++) {
+			FlightDataBranch expectedBranch = expected.getBranch(i);
+			FlightDataBranch actualBranch = actual.getBranch(i);
+			assertEquals(expectedBranch.getLength(), actualBranch.getLength());
+			assertEquals(expectedBranch.getEvents().size(), actualBranch.getEvents().size());
+			for (FlightDataType type : expectedBranch.getTypes()) {
+				assertEquals(expectedBranch.get(type), actualBranch.get(type), type.getName());
+			}
+		}
+	}
+
+	@Test
+	public void testBinarySimulationDataRoundTrip() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation sim = new Simulation(rocket);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		sim.simulate();
+		rocketDoc.addSimulation(sim);
+
+		StorageOptions options = new StorageOptions();
+		options.setSaveSimulationData(true);
+		options.setSaveBinarySimulationData(true);
+		File file = File.createTempFile(TMP_DIR.getName(), ".ork");
+		new GeneralRocketSaver().save(file, rocketDoc, options);
+
+		// Reopen with deferred data, save the reopened document and reopen it again
+		OpenRocketDocument reopened = loadRocket(file.getPath(), true);
+		File resaved = File.createTempFile(TMP_DIR.getName(), ".ork");
+		new GeneralRocketSaver().save(resaved, reopened, options);
+		OpenRocketDocument loaded = loadRocket(resaved.getPath());
+
+		FlightData expected = sim.getSimulatedData();
+		FlightData actual = loaded.getSimulations().get(0).getSimulatedData();
+		assertEquals(Simulation.Status.LOADED, loaded.getSimulations().get(0).getStatus());
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		for (int i = 0; i < expected.getBranchCount(); i++) {
+			FlightDataBranch expectedBranch = expected.getBranch(i);
+			FlightDataBranch actualBranch = actual.getBranch(i);
+			assertEquals(expectedBranch.getLength(), actualBranch.getLength());
+			for (FlightDataType type : expectedBranch.getTypes()) {
+				assertEquals(expectedBranch.get(type), actualBranch.get(type), type.getName());
+			}
+		}
+		file.delete();
+		resaved.delete();
+	}
+
 	////////////////////////////////
 	// Tests for File Version 1.10 //
 	////////////////////////////////
@@ -337,6 +465,35 @@ public class OpenRocketSaverTest {
 		assertEquals(110, getCalculatedFileVersion(rocketDoc));
 	}
 	
+	////////////////////////////////
+	// Tests for File Version 1.11 //
+	////////////////////////////////
+	
+	@Test
+	public void testFileVersion111_withBinarySimulationData() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument rocketDoc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation sim = new Simulation(rocket);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		sim.simulate();
+		rocketDoc.addSimulation(sim);
+
+		StorageOptions options = new StorageOptions();
+		options.setSaveSimulationData(true);
+		options.setSaveBinarySimulationData(true);
+		OpenRocketSaver binarySaver = new OpenRocketSaver();
+		binarySaver.setDataEntriesSupported(true);
+		assertEquals(111, binarySaver.testAccessor_calculateNecessaryFileVersion(rocketDoc, options));
+
+		// The data points are written as XML without a container or when not stored at all
+		binarySaver.setDataEntriesSupported(false);
+		assertEquals(110, binarySaver.testAccessor_calculateNecessaryFileVersion(rocketDoc, options));
+		binarySaver.setDataEntriesSupported(true);
+		options.setSaveSimulationData(false);
+		assertEquals(110, binarySaver.testAccessor_calculateNecessaryFileVersion(rocketDoc, options));
+	}
+	
 
 	////////////////////////////////
 	/*
@@ -349,7 +506,12 @@ public class OpenRocketSaverTest {
 	}
 	
 	private OpenRocketDocument loadRocket(String fileName) {
+		return loadRocket(fileName, false);
+	}
+
+	private OpenRocketDocument loadRocket(String fileName, boolean deferSimulationData) {
 		GeneralRocketLoader loader = new GeneralRocketLoader(new File(fileName));
+		loader.setDeferSimulationData(deferSimulationData);
 		OpenRocketDocument rocketDoc = null;
 		try {
 			rocketDoc = loader.load();
@@ -0,0 +1,56 @@
+package info.openrocket.core.file.openrocket.importt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.util.TextUtil;
+
+public class DatapointScannerTest {
+
+	@Test
+	public void testParseValues() {
+		String row = "x0,1.5, -2.25e-3 ,NaN,-Inf,Inf,0,-0,123456789012345,1e22,1.,.5";
+		int start = 2;
+		int end = row.length();
+		assertEquals(12, DatapointScanner.countValues(row, start, end));
+
+		double[] values = new double[12];
+		DatapointScanner.parseValues(row, start, end, values);
+		assertArrayEquals(new double[] { 0, 1.5, -2.25e-3, Double.NaN, Double.NEGATIVE_INFINITY,
+				Double.POSITIVE_INFINITY, 0, -0.0, 123456789012345.0, 1e22, 1, 0.5 }, values);
+		assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(values[7]));
+	}
+
+	@Test
+	public void testTrailingSeparators() {
+		String row = "1,2,,";
+		assertEquals(3, DatapointScanner.trimTrailingSeparators(row, 0, row.length()));
+		assertEquals(2, DatapointScanner.countValues(row, 0, 3));
+	}
+
+	@Test
+	public void testInvalidValues() {
+		for (String value : new String[] { "", "-", ".", "1e", "1.2.3", "abc", "1,5" }) {
+			assertThrows(NumberFormatException.class,
+					() -> DatapointScanner.parseDouble(value, 0, value.length()), value);
+		}
+	}
+
+	@Test
+	public void testMatchesParseDouble() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			double d = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 20);
+			for (String s : new String[] { TextUtil.doubleToString(d), Double.toString(d),
+					TextUtil.doubleToString(d, 3) }) {
+				assertEquals(Double.parseDouble(s.replace("Inf", "Infinity")),
+						DatapointScanner.parseDouble(s, 0, s.length()), 0, s);
+			}
+		}
+	}
+}
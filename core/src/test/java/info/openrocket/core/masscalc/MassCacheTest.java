@@ -1,15 +1,114 @@
 package info.openrocket.core.masscalc;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import info.openrocket.core.rocketcomponent.FlightConfiguration;
 import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.rocketcomponent.RocketComponent;
+import info.openrocket.core.simulation.MotorClusterState;
+import info.openrocket.core.simulation.SimulationConditions;
+import info.openrocket.core.simulation.SimulationStatus;
+import info.openrocket.core.util.Transformation;
 import info.openrocket.core.util.TestRockets;
 import info.openrocket.core.util.BaseTestCase;
 
 public class MassCacheTest extends BaseTestCase {
 
+	private static final double EPSILON = 0.00000001;
+
+	@Test
+	public void testStructureCacheInFlight() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getFlightConfigurationByIndex(0, false);
+		SimulationStatus status = new SimulationStatus(config, new SimulationConditions());
+
+		RigidBody cached = MassCalculator.calculateStructure(status);
+		assertRigidBodyEquals(MassCalculator.calculateStructure(config), cached);
+		assertSame(cached, MassCalculator.calculateStructure(status));
+
+		// A mass change produces a new mass modification ID and thus a new structure
+		RocketComponent noseCone = rocket.getChild(0).getChild(0);
+		noseCone.setOverrideMass(noseCone.getMass() * 2);
+		noseCone.setMassOverridden(true);
+		RigidBody modified = MassCalculator.calculateStructure(status);
+		assertNotEquals(cached.getMass(), modified.getMass(), EPSILON);
+		assertRigidBodyEquals(MassCalculator.calculateStructure(config), modified);
+	}
+
+	@Test
+	public void testStructureCacheSharedByCopies() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getFlightConfigurationByIndex(0, false);
+		RigidBody original = MassCalculator.calculateStructure(new SimulationStatus(config, new SimulationConditions()));
+
+		// Simulations run on copies with the original IDs, which share the structure
+		FlightConfiguration copy = config.clone(rocket.copyWithOriginalID());
+		assertSame(original, MassCalculator.calculateStructure(new SimulationStatus(copy, new SimulationConditions())));
+
+		// A modified copy does not
+		RocketComponent noseCone = copy.getRocket().getChild(0).getChild(0);
+		noseCone.setOverrideMass(noseCone.getMass() * 2);
+		noseCone.setMassOverridden(true);
+		RigidBody modified = MassCalculator.calculateStructure(new SimulationStatus(copy, new SimulationConditions()));
+		assertNotEquals(original.getMass(), modified.getMass(), EPSILON);
+		assertSame(original, MassCalculator.calculateStructure(new SimulationStatus(config, new SimulationConditions())));
+	}
+
+	@Test
+	public void testStructureCacheActiveStages() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		SimulationStatus status = new SimulationStatus(config, new SimulationConditions());
+
+		RigidBody all = MassCalculator.calculateStructure(status);
+		assertRigidBodyEquals(MassCalculator.calculateStructure(config), all);
+
+		config.setOnlyStage(0);
+		RigidBody upper = MassCalculator.calculateStructure(status);
+		assertTrue(upper.getMass() < all.getMass());
+		assertRigidBodyEquals(MassCalculator.calculateStructure(config), upper);
+
+		config.setAllStages();
+		assertSame(all, MassCalculator.calculateStructure(status));
+	}
+
+	@Test
+	public void testLaunchMassInFlight() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getFlightConfigurationByIndex(0, false);
+		SimulationStatus status = new SimulationStatus(config, new SimulationConditions());
+		MotorClusterState motorState = ((List<MotorClusterState>) status.getMotors()).get(0);
+		motorState.ignite(0.5);
+
+		for (double time : new double[] { 0.6, 1.2, 5.0 }) {
+			status.setSimulationTime(time);
+			for (MassCalculation.Type type : new MassCalculation.Type[] { MassCalculation.Type.LAUNCH,
+					MassCalculation.Type.BURNOUT, MassCalculation.Type.STRUCTURE }) {
+				MassCalculation calculation = new MassCalculation(type, config, time, status.getActiveMotors(),
+						rocket, Transformation.IDENTITY, null);
+				calculation.calculateAssembly();
+				assertRigidBodyEquals(calculation.calculateMomentOfInertia(), MassCalculator.calculate(type, status));
+			}
+		}
+	}
+
+	private static void assertRigidBodyEquals(RigidBody expected, RigidBody actual) {
+		assertEquals(expected.getMass(), actual.getMass(), EPSILON);
+		assertEquals(expected.getCM().x, actual.getCM().x, EPSILON);
+		assertEquals(expected.getCM().y, actual.getCM().y, EPSILON);
+		assertEquals(expected.getCM().z, actual.getCM().z, EPSILON);
+		assertEquals(expected.getIxx(), actual.getIxx(), EPSILON);
+		assertEquals(expected.getIyy(), actual.getIyy(), EPSILON);
+		assertEquals(expected.getIzz(), actual.getIzz(), EPSILON);
+	}
+
 	@Test
 	public void testCMCache() {
 		Rocket rocket = TestRockets.makeFalcon9Heavy();
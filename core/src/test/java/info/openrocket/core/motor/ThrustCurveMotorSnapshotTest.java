@@ -0,0 +1,128 @@
+package info.openrocket.core.motor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.util.Coordinate;
+
+public class ThrustCurveMotorSnapshotTest {
+
+	private final ThrustCurveMotor motorX6 = new ThrustCurveMotor.Builder()
+			.setManufacturer(Manufacturer.getManufacturer("foo"))
+			.setDesignation("X6")
+			.setDescription("Description of X6")
+			.setMotorType(Motor.Type.RELOAD)
+			.setStandardDelays(new double[] { 0, 2, Motor.PLUGGED_DELAY })
+			.setDiameter(0.05)
+			.setLength(0.1)
+			.setTimePoints(new double[] { 0, 1, 3, 4 })
+			.setThrustPoints(new double[] { 0, 2, 3, 0 })
+			.setCGPoints(new Coordinate[] {
+					new Coordinate(0.02, 0, 0, 0.05),
+					new Coordinate(0.02, 0, 0, 0.05),
+					new Coordinate(0.02, 0, 0, 0.05),
+					new Coordinate(0.03, 0, 0, 0.03) })
+			.setDigest("digestA")
+			.setCaseInfo("RMS 29/40")
+			.build();
+
+	private final ThrustCurveMotor motorA8 = new ThrustCurveMotor.Builder()
+			.setManufacturer(Manufacturer.getManufacturer("Estes"))
+			.setDesignation("A8-3")
+			.setMotorType(Motor.Type.SINGLE)
+			.setStandardDelays(new double[] { 3 })
+			.setDiameter(0.018)
+			.setLength(0.07)
+			.setTimePoints(new double[] { 0, 0.2, 0.7 })
+			.setThrustPoints(new double[] { 0, 9, 0 })
+			.setCGPoints(new Coordinate[] {
+					new Coordinate(0.035, 0, 0, 0.016),
+					new Coordinate(0.036, 0, 0, 0.015),
+					new Coordinate(0.037, 0, 0, 0.013) })
+			.setDigest("digestB")
+			.setAvailability(false)
+			.build();
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<ThrustCurveMotor> motors = roundTrip(Arrays.asList(motorX6, motorA8));
+		assertEquals(2, motors.size());
+
+		for (int i = 0; i < motors.size(); i++) {
+			ThrustCurveMotor expected = (i == 0) ? motorX6 : motorA8;
+			ThrustCurveMotor actual = motors.get(i);
+
+			// Metadata is available before the curve is decoded
+			assertEquals(expected.getSampleSize(), actual.getSampleSize());
+			assertSame(expected.getManufacturer(), actual.getManufacturer());
+			assertEquals(expected.getDesignation(), actual.getDesignation());
+			assertEquals(expected.getCommonName(), actual.getCommonName());
+			assertEquals(expected.getDescription(), actual.getDescription());
+			assertEquals(expected.getDigest(), actual.getDigest());
+			assertEquals(expected.getCaseInfo(), actual.getCaseInfo());
+			assertEquals(expected.getMotorType(), actual.getMotorType());
+			assertEquals(expected.isAvailable(), actual.isAvailable());
+			assertEquals(expected.getDiameter(), actual.getDiameter(), 0);
+			assertEquals(expected.getLength(), actual.getLength(), 0);
+			assertEquals(expected.getTotalImpulseEstimate(), actual.getTotalImpulseEstimate(), 0);
+			assertEquals(expected.getAverageThrustEstimate(), actual.getAverageThrustEstimate(), 0);
+			assertEquals(expected.getBurnTimeEstimate(), actual.getBurnTimeEstimate(), 0);
+			assertEquals(expected.getMaxThrustEstimate(), actual.getMaxThrustEstimate(), 0);
+			assertArrayEquals(expected.getStandardDelays(), actual.getStandardDelays(), 0);
+			assertEquals(expected.getUnitIxx(), actual.getUnitIxx(), 0);
+
+			// Curve
+			assertEquals(expected.getThrust(0.5), actual.getThrust(0.5), 0);
+			assertArrayEquals(expected.getTimePoints(), actual.getTimePoints(), 0);
+			assertArrayEquals(expected.getThrustPoints(), actual.getThrustPoints(), 0);
+			assertArrayEquals(expected.getCGPoints(), actual.getCGPoints());
+			assertEquals(expected.getAverageThrust(0.1, 0.6), actual.getAverageThrust(0.1, 0.6), 1e-12);
+		}
+	}
+
+	@Test
+	public void testJavaSerializationOfLazyMotor() throws Exception {
+		ThrustCurveMotor lazy = roundTrip(Arrays.asList(motorX6)).get(0);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+			oos.writeObject(lazy);
+		}
+		ThrustCurveMotor copy;
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (ThrustCurveMotor) ois.readObject();
+		}
+		assertArrayEquals(motorX6.getThrustPoints(), copy.getThrustPoints(), 0);
+		assertEquals(motorX6.getAverageThrust(0.5, 3.5), copy.getAverageThrust(0.5, 3.5), 1e-12);
+	}
+
+	@Test
+	public void testInvalidSnapshot() {
+		assertThrows(IOException.class, () -> ThrustCurveMotorSnapshot.read(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 })));
+		assertThrows(IOException.class, () -> {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ThrustCurveMotorSnapshot.write(Arrays.asList(motorX6), out);
+			byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 20);
+			ThrustCurveMotorSnapshot.read(ByteBuffer.wrap(truncated));
+		});
+	}
+
+	private static List<ThrustCurveMotor> roundTrip(List<ThrustCurveMotor> motors) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ThrustCurveMotorSnapshot.write(motors, out);
+		return ThrustCurveMotorSnapshot.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+}
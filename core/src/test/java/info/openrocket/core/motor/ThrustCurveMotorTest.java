@@ -3,6 +3,8 @@ package info.openrocket.core.motor;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import info.openrocket.core.util.Coordinate;
@@ -188,6 +190,50 @@ public class ThrustCurveMotorTest {
 		assertEquals(3.0, motorX6.getThrust(3), 0.001);
 	}
 
+	@Test
+	public void testThrustLookupOrderIndependent() {
+		final ThrustCurveMotor mtr = motorEstesA8_3;
+		final double[] times = mtr.getTimePoints();
+		final double[] thrusts = mtr.getThrustPoints();
+
+		// Forward, backward and jumping lookups must agree with a linear scan
+		Random rnd = new Random(5);
+		for (int i = 0; i < 500; i++) {
+			double t;
+			if (i < 200) {
+				t = i * 0.004;
+			} else if (i < 400) {
+				t = (400 - i) * 0.004;
+			} else {
+				t = rnd.nextDouble() * 0.8;
+			}
+			int index = 0;
+			while (index < times.length - 1 && t >= times[index + 1]) {
+				index++;
+			}
+			double expected;
+			if (index == times.length - 1) {
+				expected = thrusts[index];
+			} else {
+				expected = thrusts[index] + (thrusts[index + 1] - thrusts[index]) * (t - times[index])
+						/ (times[index + 1] - times[index]);
+			}
+			assertEquals(expected, mtr.getThrust(t), 0.001, "Thrust at " + t);
+		}
+	}
+
+	@Test
+	public void testAverageThrust() {
+		// Single segment
+		assertEquals(1.5, motorX6.getAverageThrust(0.5, 1.0), 1e-9);
+		// Across segments: impulse 0.5*(1+2)/2 + 2*(2+3)/2 + 0.5*(3+1.5)/2 = 0.75 + 5 + 1.125
+		assertEquals(6.875 / 3, motorX6.getAverageThrust(0.5, 3.5), 1e-9);
+		// Extending past burnout
+		assertEquals(motorX6.getTotalImpulseEstimate() / 5, motorX6.getAverageThrust(0, 5), 1e-9);
+		// Starting after burnout
+		assertEquals(0, motorX6.getAverageThrust(4, 5), 0);
+	}
+
 	@Test
 	public void testSimplifyDesignation() {
 		assertEquals(ThrustCurveMotor.Builder.simplifyDesignation("J115"), "J115");
@@ -0,0 +1,243 @@
+package info.openrocket.core.optimization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import info.openrocket.core.optimization.general.Function;
+import info.openrocket.core.optimization.general.ParallelExecutorCache;
+import info.openrocket.core.optimization.general.Point;
+
+import org.junit.jupiter.api.Test;
+
+public class TestParallelExecutorCache {
+
+	@Test
+	public void testConcurrentCallers() throws Exception {
+		final AtomicInteger evaluations = new AtomicInteger();
+		final ParallelExecutorCache cache = new ParallelExecutorCache(4);
+		cache.setFunction(new Function() {
+			@Override
+			public double evaluate(Point point) throws InterruptedException {
+				evaluations.incrementAndGet();
+				Thread.sleep(1);
+				return point.get(0) * 2;
+			}
+		});
+
+		final List<Point> points = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			points.add(new Point(i / 50.0));
+		}
+
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		List<Future<?>> results = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			results.add(callers.submit(() -> {
+				cache.compute(points);
+				cache.waitFor(points);
+				for (Point p : points) {
+					assertEquals(p.get(0) * 2, cache.getValue(p), 0);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> f : results) {
+			f.get(30, TimeUnit.SECONDS);
+		}
+		callers.shutdown();
+
+		// Each point is evaluated only once
+		assertEquals(points.size(), evaluations.get());
+		assertEquals(points.size(), cache.getEvaluationCount());
+		assertEquals(0, cache.getInFlightCount());
+		assertEquals(0, cache.getQueueDepth());
+		assertTrue(cache.getMeanEvaluationTime() > 0);
+		assertTrue(cache.getMaxEvaluationTime() >= cache.getMeanEvaluationTime());
+	}
+
+	@Test
+	public void testBackPressure() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final ParallelExecutorCache cache = new ParallelExecutorCache(Executors.newFixedThreadPool(1), 2, 100);
+		cache.setFunction(new Function() {
+			@Override
+			public double evaluate(Point point) throws InterruptedException {
+				release.await();
+				return point.get(0);
+			}
+		});
+
+		cache.compute(new Point(0.1));
+		cache.compute(new Point(0.2));
+		assertEquals(2, cache.getInFlightCount());
+
+		// The third point waits until an evaluation finishes
+		Thread caller = new Thread(() -> cache.compute(new Point(0.3)));
+		caller.start();
+		caller.join(200);
+		assertTrue(caller.isAlive());
+		assertEquals(1, cache.getRunningCount());
+		assertEquals(1, cache.getQueueDepth());
+
+		release.countDown();
+		caller.join(10000);
+		assertFalse(caller.isAlive());
+
+		cache.waitFor(new Point(0.3));
+		assertEquals(0.3, cache.getValue(new Point(0.3)), 0);
+		assertTrue(cache.getInFlightCount() <= 2);
+		cache.getExecutor().shutdown();
+	}
+
+	@Test
+	public void testAbortReleasesCapacity() throws Exception {
+		final ParallelExecutorCache cache = new ParallelExecutorCache(Executors.newFixedThreadPool(1), 2, 100);
+		cache.setFunction(new Function() {
+			@Override
+			public double evaluate(Point point) throws InterruptedException {
+				Thread.sleep(60000);
+				return 0;
+			}
+		});
+
+		cache.compute(new Point(0.1));
+		cache.compute(new Point(0.2));
+		assertFalse(cache.abort(new Point(0.1)));
+		assertFalse(cache.abort(new Point(0.2)));
+		assertEquals(0, cache.getInFlightCount());
+		assertEquals(0, cache.getQueueDepth());
+		assertThrows(IllegalStateException.class, () -> cache.abort(new Point(0.1)));
+		cache.getExecutor().shutdownNow();
+	}
+
+	@Test
+	public void testCompletedValuesEvicted() throws Exception {
+		final AtomicInteger evaluations = new AtomicInteger();
+		final ParallelExecutorCache cache = new ParallelExecutorCache(Executors.newFixedThreadPool(2), 4, 3);
+		cache.setFunction(new Function() {
+			@Override
+			public double evaluate(Point point) {
+				evaluations.incrementAndGet();
+				return point.get(0);
+			}
+		});
+
+		for (int i = 0; i < 5; i++) {
+			Point p = new Point(i / 10.0);
+			cache.compute(p);
+			cache.waitFor(p);
+		}
+		assertEquals(3, cache.getCachedValueCount());
+		assertThrows(IllegalStateException.class, () -> cache.getValue(new Point(0.0)));
+		assertEquals(0.4, cache.getValue(new Point(0.4)), 0);
+
+		// An evicted point is computed again
+		cache.compute(new Point(0.0));
+		cache.waitFor(new Point(0.0));
+		assertEquals(6, evaluations.get());
+		assertTrue(cache.getStatistics().contains("evicted=3"), cache.getStatistics());
+		cache.getExecutor().shutdown();
+	}
+
+	@Test
+	public void testInterruptedBackPressure() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final ParallelExecutorCache cache = new ParallelExecutorCache(Executors.newFixedThreadPool(1), 1, 100);
+		cache.setFunction(new Function() {
+			@Override
+			public double evaluate(Point point) throws InterruptedException {
+				release.await();
+				return point.get(0);
+			}
+		});
+
+		cache.compute(new Point(0.1));
+
+		// An interrupted caller does not submit the point and keeps its interrupt status
+		Thread.currentThread().interrupt();
+		cache.compute(new Point(0.2));
+		assertTrue(Thread.currentThread().isInterrupted());
+		assertThrows(InterruptedException.class, () -> cache.waitFor(new Point(0.2)));
+		assertFalse(Thread.currentThread().isInterrupted());
+		assertEquals(1, cache.getInFlightCount());
+
+		release.countDown();
+		cache.waitFor(new Point(0.1));
+		assertEquals(0.1, cache.getValue(new Point(0.1)), 0);
+		assertEquals(1, cache.getEvaluationCount());
+		cache.getExecutor().shutdown();
+	}
+
+	@Test
+	public void testVirtualThreads() throws Exception {
+		// Virtual threads are available from Java 21 on, older runtimes use the fallback
+		final boolean supported = Runtime.version().feature() >= 21;
+		assertEquals(supported, ParallelExecutorCache.isVirtualThreadsSupported());
+
+		ParallelExecutorCache cache = ParallelExecutorCache.withVirtualThreads(8);
+		Set<Thread> threads = evaluateOnThreads(cache, 8);
+		for (Thread thread : threads) {
+			assertEquals(supported, isVirtual(thread), thread.toString());
+		}
+		if (!supported) {
+			assertTrue(threads.size() <= 8);
+		}
+	}
+
+	@Test
+	public void testPlatformThreads() throws Exception {
+		ParallelExecutorCache cache = ParallelExecutorCache.withPlatformThreads(4);
+		Set<Thread> threads = evaluateOnThreads(cache, 4);
+		assertTrue(threads.size() <= 4);
+		for (Thread thread : threads) {
+			assertFalse(isVirtual(thread), thread.toString());
+			assertTrue(thread.isDaemon(), thread.toString());
+		}
+	}
+
+	/**
+	 * Evaluate points with a cache and return the threads the evaluations ran on.
+	 */
+	private static Set<Thread> evaluateOnThreads(ParallelExecutorCache cache, int maxInFlight) throws Exception {
+		final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		cache.setFunction(point -> {
+			threads.add(Thread.currentThread());
+			return point.get(0) + point.get(1);
+		});
+		assertEquals(maxInFlight, cache.getMaxInFlight());
+
+		List<Point> points = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			points.add(new Point(i / 20.0, 0.5));
+		}
+		cache.compute(points);
+		cache.waitFor(points);
+		assertEquals(0.5, cache.getValue(points.get(0)), 0);
+		assertEquals(20, cache.getEvaluationCount());
+		cache.getExecutor().shutdown();
+		assertFalse(threads.isEmpty());
+		return threads;
+	}
+
+	/**
+	 * Return whether a thread is virtual, using reflection as the tests run on Java 17 as well.
+	 */
+	private static boolean isVirtual(Thread thread) throws Exception {
+		try {
+			return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+package info.openrocket.core.optimization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import info.openrocket.core.optimization.general.Function;
+import info.openrocket.core.optimization.general.OptimizationController;
+import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.ParallelExecutorCache;
+import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.optimization.general.multidim.CMAESOptimizer;
+import info.openrocket.core.optimization.general.multidim.DifferentialEvolutionOptimizer;
+import info.openrocket.core.optimization.general.multidim.PopulationOptimizer;
+
+import org.junit.jupiter.api.Test;
+
+public class TestPopulationOptimizer {
+
+	private static final Point OPTIMUM = new Point(0.3, 0.7, 0.55);
+
+	@Test
+	public void testCMAESOptimization() throws OptimizationException {
+		ParallelExecutorCache cache = new ParallelExecutorCache(4);
+		cache.setFunction(TestPopulationOptimizer::value);
+		CMAESOptimizer optimizer = new CMAESOptimizer(cache, 8, new Random(1));
+
+		optimizer.optimize(new Point(OPTIMUM.dim(), 0.5), new StepController(1e-4, 500));
+		assertEquals(0, optimizer.getOptimumPoint().sub(OPTIMUM).length(), 0.01);
+		assertEquals(0, optimizer.getOptimumValue(), 1e-4);
+		assertEquals(optimizer.getGenerationCount() * 8 + 1, optimizer.getEvaluationCount());
+	}
+
+	@Test
+	public void testDifferentialEvolutionOptimization() throws OptimizationException {
+		ParallelExecutorCache cache = new ParallelExecutorCache(4);
+		cache.setFunction(TestPopulationOptimizer::value);
+		DifferentialEvolutionOptimizer optimizer = new DifferentialEvolutionOptimizer(cache, 20, new Random(1));
+
+		optimizer.optimize(new Point(OPTIMUM.dim(), 0.5), new StepController(1e-3, 500));
+		assertEquals(0, optimizer.getOptimumPoint().sub(OPTIMUM).length(), 0.01);
+		assertEquals(20, optimizer.getPopulation().size());
+		for (Point p : optimizer.getPopulation()) {
+			for (int i = 0; i < p.dim(); i++) {
+				assertTrue(p.get(i) >= 0 && p.get(i) <= 1, "Point outside range: " + p);
+			}
+		}
+	}
+
+	@Test
+	public void testInitialPointOutsideRange() throws OptimizationException {
+		ParallelExecutorCache cache = new ParallelExecutorCache(1);
+		cache.setFunction(TestPopulationOptimizer::value);
+		CMAESOptimizer optimizer = new CMAESOptimizer(cache, 4, new Random(2));
+
+		optimizer.optimize(new Point(-0.5, 1.5, 0.5), new StepController(0, 1));
+		Point optimum = optimizer.getOptimumPoint();
+		for (int i = 0; i < optimum.dim(); i++) {
+			assertTrue(optimum.get(i) >= 0 && optimum.get(i) <= 1, "Point outside range: " + optimum);
+		}
+	}
+
+	@Test
+	public void testControllerStopsOptimization() throws OptimizationException {
+		ParallelExecutorCache cache = new ParallelExecutorCache(1);
+		cache.setFunction(TestPopulationOptimizer::value);
+		DifferentialEvolutionOptimizer optimizer = new DifferentialEvolutionOptimizer(cache, 6, new Random(3));
+
+		optimizer.optimize(new Point(OPTIMUM.dim(), 0.5), new StepController(0, 3));
+		assertEquals(3, optimizer.getGenerationCount());
+		assertEquals(3 * 6, optimizer.getEvaluationCount());
+
+		optimizer.resetStatistics();
+		assertEquals(0, optimizer.getGenerationCount());
+	}
+
+	@Test
+	public void testGenerationComputedInParallel() throws Exception {
+		final int threads = 4;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		final Set<Thread> evaluators = ConcurrentHashMap.newKeySet();
+		ParallelExecutorCache cache = new ParallelExecutorCache(threads);
+		cache.setFunction(new Function() {
+			@Override
+			public double evaluate(Point point) throws InterruptedException {
+				evaluators.add(Thread.currentThread());
+				// Each evaluation waits until all threads are busy at once
+				latch.countDown();
+				latch.await(10, TimeUnit.SECONDS);
+				return value(point);
+			}
+		});
+
+		PopulationOptimizer optimizer = new CMAESOptimizer(cache, threads, new Random(4));
+		optimizer.optimize(new Point(OPTIMUM.dim(), 0.5), new StepController(0, 1));
+		assertEquals(0, latch.getCount());
+		assertEquals(threads, evaluators.size());
+	}
+
+	@Test
+	public void testPopulationSize() {
+		assertEquals(12, new CMAESOptimizer(null, 12, new Random()).getPopulationSize(3));
+		int processors = Runtime.getRuntime().availableProcessors();
+		assertEquals(Math.max(30, processors), new DifferentialEvolutionOptimizer().getPopulationSize(3));
+		assertThrows(IllegalArgumentException.class, () -> new CMAESOptimizer(null, -1, new Random()));
+		assertThrows(IllegalArgumentException.class,
+				() -> new DifferentialEvolutionOptimizer(null, 0, new Random(), 0, 0.5));
+	}
+
+
+	private static double value(Point p) {
+		Point d = p.sub(OPTIMUM);
+		return d.get(0) * d.get(0) + 2 * d.get(1) * d.get(1) + 0.5 * d.get(2) * d.get(2) + 0.3 * d.get(0) * d.get(2);
+	}
+
+	private static class StepController implements OptimizationController {
+		private final double minStep;
+		private final int maxSteps;
+		private int steps = 0;
+
+		public StepController(double minStep, int maxSteps) {
+			this.minStep = minStep;
+			this.maxSteps = maxSteps;
+		}
+
+		@Override
+		public boolean stepTaken(Point oldPoint, double oldValue, Point newPoint, double newValue, double stepSize) {
+			steps++;
+			return stepSize > minStep && steps < maxSteps;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package info.openrocket.core.optimization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import info.openrocket.core.optimization.general.Function;
+import info.openrocket.core.optimization.general.OptimizationController;
+import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.ParallelExecutorCache;
+import info.openrocket.core.optimization.general.ParallelFunctionCache;
+import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.optimization.general.multidim.MultidirectionalSearchOptimizer;
+import info.openrocket.core.optimization.general.surrogate.GaussianProcess;
+import info.openrocket.core.optimization.general.surrogate.SurrogateFunctionCache;
+
+import org.junit.jupiter.api.Test;
+
+public class TestSurrogateFunctionCache {
+
+	private static final Point OPTIMUM = new Point(0.3, 0.7, 0.55);
+
+	@Test
+	public void testGaussianProcessPrediction() {
+		Random rnd = new Random(1);
+		List<Point> points = new ArrayList<>();
+		List<Double> values = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			Point p = new Point(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+			points.add(p);
+			values.add(value(p));
+		}
+
+		GaussianProcess model = GaussianProcess.fit(points, values);
+		assertNotNull(model);
+		assertEquals(40, model.getPointCount());
+
+		// Known points are reproduced with a small uncertainty
+		double[] known = model.predict(points.get(0));
+		assertEquals(values.get(0), known[0], 1e-3);
+		assertTrue(known[1] < 1e-2);
+
+		// Unknown points are predicted within a few standard deviations
+		for (int i = 0; i < 20; i++) {
+			Point p = new Point(0.2 + 0.6 * rnd.nextDouble(), 0.2 + 0.6 * rnd.nextDouble(), 0.2 + 0.6 * rnd.nextDouble());
+			double[] prediction = model.predict(p);
+			assertEquals(value(p), prediction[0], 0.05);
+			assertTrue(Math.abs(value(p) - prediction[0]) < 4 * prediction[1] + 1e-3);
+		}
+	}
+
+	@Test
+	public void testNoModelWithoutPoints() {
+		assertNull(GaussianProcess.fit(new ArrayList<>(), new ArrayList<>()));
+
+		SurrogateFunctionCache cache = new SurrogateFunctionCache(new ParallelExecutorCache(1));
+		cache.setFunction(new CountingFunction());
+		assertNull(cache.predict(OPTIMUM));
+	}
+
+	@Test
+	public void testOptimization() throws OptimizationException {
+		CountingFunction reference = new CountingFunction();
+		Point referenceOptimum = optimize(new ParallelExecutorCache(1), reference);
+
+		CountingFunction function = new CountingFunction();
+		SurrogateFunctionCache cache = new SurrogateFunctionCache(new ParallelExecutorCache(1));
+		Point optimum = optimize(cache, function);
+
+		assertEquals(0, referenceOptimum.sub(OPTIMUM).length(), 0.01);
+		assertEquals(0, optimum.sub(OPTIMUM).length(), 0.01);
+
+		// The surrogate saves function evaluations
+		assertTrue(cache.getScreenedCount() > 0);
+		assertTrue(function.count.get() < reference.count.get(),
+				"Evaluations with surrogate " + function.count.get() + ", without " + reference.count.get());
+		assertTrue(cache.getComputedCount() <= function.count.get());
+
+		// The returned optimum has been computed, not predicted
+		assertFalse(cache.isScreened(optimum));
+		assertEquals(0, cache.predict(optimum)[1], 1e-3);
+
+		// The function is smooth so the predictions are accurate and within the estimated uncertainty
+		assertTrue(cache.getPredictionError() < 0.1, cache.getStatistics());
+		assertTrue(cache.getMaximumPredictionError() < 0.5, cache.getStatistics());
+		assertTrue(cache.getStandardizedPredictionError() < 1, cache.getStatistics());
+
+		cache.resetStatistics();
+		assertEquals(0, cache.getComputedCount());
+		assertEquals(0, cache.getScreenedCount());
+	}
+
+	@Test
+	public void testPenaltyValuesNotModeled() throws InterruptedException, OptimizationException {
+		SurrogateFunctionCache cache = new SurrogateFunctionCache(new ParallelExecutorCache(1));
+		cache.setFunction(new Function() {
+			@Override
+			public double evaluate(Point point) {
+				return point.get(0) > 0.5 ? 1e200 : value(point);
+			}
+		});
+
+		Random rnd = new Random(2);
+		for (int i = 0; i < 30; i++) {
+			Point p = new Point(rnd.nextDouble(), rnd.nextDouble(), rnd.nextDouble());
+			cache.compute(p);
+			cache.waitFor(p);
+		}
+		assertTrue(cache.getMaximumPredictionError() < 1);
+	}
+
+
+	private static Point optimize(ParallelFunctionCache cache, Function function) throws OptimizationException {
+		cache.setFunction(function);
+		MultidirectionalSearchOptimizer optimizer = new MultidirectionalSearchOptimizer(cache);
+		OptimizationController control = new OptimizationController() {
+			private int steps = 0;
+
+			@Override
+			public boolean stepTaken(Point oldPoint, double oldValue, Point newPoint, double newValue, double stepSize) {
+				steps++;
+				return stepSize > 1e-4 && steps < 1000;
+			}
+		};
+		optimizer.optimize(new Point(OPTIMUM.dim(), 0.5), control);
+		return optimizer.getOptimumPoint();
+	}
+
+	private static double value(Point p) {
+		Point d = p.sub(OPTIMUM);
+		return d.get(0) * d.get(0) + 2 * d.get(1) * d.get(1) + 0.5 * d.get(2) * d.get(2) + 0.3 * d.get(0) * d.get(2);
+	}
+
+	private static class CountingFunction implements Function {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public double evaluate(Point point) {
+			count.incrementAndGet();
+			return value(point);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package info.openrocket.core.optimization.rocketoptimization;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestOptimizationResultCache {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	public void testStoreAndReload() {
+		File file = dir.resolve("cache.bin").toFile();
+		OptimizationResultCache cache = new OptimizationResultCache(file, 10);
+		assertNull(cache.get(key(1)));
+		cache.put(key(1), 1.5);
+		cache.put(key(2), -2.5);
+		assertEquals(1.5, cache.get(key(1)), 0);
+		assertEquals(-2.5, cache.get(key(2)), 0);
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+
+		// Values are written as they are stored, without closing the cache
+		OptimizationResultCache reopened = new OptimizationResultCache(file, 10);
+		assertEquals(2, reopened.size());
+		assertEquals(1.5, reopened.get(key(1)), 0);
+		assertEquals(-2.5, reopened.get(key(2)), 0);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		File file = dir.resolve("cache.bin").toFile();
+		OptimizationResultCache cache = new OptimizationResultCache(file, 3);
+		cache.put(key(1), 1);
+		cache.put(key(2), 2);
+		cache.put(key(3), 3);
+		assertNotNull(cache.get(key(1)));
+		cache.put(key(4), 4);
+
+		assertEquals(3, cache.size());
+		assertNull(cache.get(key(2)));
+		assertNotNull(cache.get(key(1)));
+		cache.close();
+
+		OptimizationResultCache reopened = new OptimizationResultCache(file, 3);
+		assertEquals(3, reopened.size());
+		assertNull(reopened.get(key(2)));
+		assertNotNull(reopened.get(key(1)));
+		assertNotNull(reopened.get(key(3)));
+		assertNotNull(reopened.get(key(4)));
+	}
+
+	@Test
+	public void testFileSizeLimited() {
+		File file = dir.resolve("cache.bin").toFile();
+		OptimizationResultCache cache = new OptimizationResultCache(file, 5);
+		for (int i = 0; i < 100; i++) {
+			cache.put(key(i), i);
+		}
+		assertEquals(5, cache.size());
+		// Header and at most twice the maximum number of records
+		assertTrue(file.length() <= 8 + 2 * 5 * (OptimizationResultCache.KEY_LENGTH + 8), "length=" + file.length());
+
+		OptimizationResultCache reopened = new OptimizationResultCache(file, 5);
+		assertEquals(5, reopened.size());
+		for (int i = 95; i < 100; i++) {
+			assertEquals(i, reopened.get(key(i)), 0);
+		}
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException {
+		File file = dir.resolve("cache.bin").toFile();
+		OptimizationResultCache cache = new OptimizationResultCache(file, 10);
+		cache.put(key(1), 1);
+		cache.put(key(2), 2);
+
+		// Simulate a crash while writing the second record
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+
+		OptimizationResultCache reopened = new OptimizationResultCache(file, 10);
+		assertEquals(1, reopened.size());
+		reopened.put(key(3), 3);
+
+		OptimizationResultCache again = new OptimizationResultCache(file, 10);
+		assertEquals(1, again.get(key(1)), 0);
+		assertEquals(3, again.get(key(3)), 0);
+		assertNull(again.get(key(2)));
+	}
+
+	@Test
+	public void testUnknownFileDiscarded() throws IOException {
+		File file = dir.resolve("cache.bin").toFile();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.writeBytes("not an optimization cache");
+		}
+
+		OptimizationResultCache cache = new OptimizationResultCache(file, 10);
+		assertEquals(0, cache.size());
+		cache.put(key(1), 1);
+		assertEquals(1, new OptimizationResultCache(file, 10).get(key(1)), 0);
+	}
+
+	@Test
+	public void testClear() {
+		File file = dir.resolve("cache.bin").toFile();
+		OptimizationResultCache cache = new OptimizationResultCache(file, 10);
+		cache.put(key(1), 1);
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, new OptimizationResultCache(file, 10).size());
+	}
+
+
+	private static byte[] key(int n) {
+		byte[] key = new byte[OptimizationResultCache.KEY_LENGTH];
+		key[0] = (byte) n;
+		key[1] = (byte) (n >> 8);
+		return key;
+	}
+}
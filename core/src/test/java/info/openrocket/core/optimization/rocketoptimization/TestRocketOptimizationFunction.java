@@ -5,23 +5,38 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.runner.RunWith;
 
 import info.openrocket.core.document.Simulation;
 import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.ParallelExecutorCache;
 import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.optimization.rocketoptimization.domains.IdentitySimulationDomain;
+import info.openrocket.core.optimization.rocketoptimization.goals.MinimizationGoal;
+import info.openrocket.core.optimization.rocketoptimization.modifiers.GenericComponentModifier;
+import info.openrocket.core.optimization.rocketoptimization.parameters.SimulationBasedParameter;
+import info.openrocket.core.rocketcomponent.NoseCone;
 import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.unit.Unit;
 import info.openrocket.core.unit.UnitGroup;
 import info.openrocket.core.unit.Value;
 import info.openrocket.core.util.Pair;
 import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -218,6 +233,115 @@ public class TestRocketOptimizationFunction extends BaseTestCase {
 		verify(domain).getDistanceToDomain(simulation);
 	}
 
+	@Test
+	public void testResultCache(@TempDir Path dir) throws InterruptedException, OptimizationException {
+		final Rocket rocket = new Rocket();
+		final Simulation simulation = new Simulation(rocket);
+
+		final SimulationBasedParameter simulationParameter = mock(SimulationBasedParameter.class);
+		final double pvalue = 9.81;
+		final double gvalue = 8.81;
+		final Point point = new Point(0.4);
+
+		when(domain.getDistanceToDomain(simulation)).thenReturn(new Pair<>(-1.0, null));
+		when(simulationParameter.getName()).thenReturn("Altitude");
+		when(simulationParameter.computeValue(simulation)).thenReturn(pvalue);
+		when(goal.getMinimizationParameter(pvalue)).thenReturn(gvalue);
+		when(modifier1.getName()).thenReturn("Length");
+
+		RocketOptimizationFunction function = new RocketOptimizationFunction(simulation,
+				simulationParameter, goal, domain, modifier1) {
+			@Override
+			Simulation newSimulationInstance(Simulation sim) {
+				return sim;
+			}
+		};
+		OptimizationResultCache cache = new OptimizationResultCache(dir.resolve("cache.bin").toFile());
+		function.setResultCache(cache);
+
+		assertEquals(gvalue, function.evaluate(point), 0);
+		assertEquals(gvalue, function.evaluate(point), 0);
+		assertEquals(1, cache.getHitCount());
+		cache.close();
+
+		// A reopened cache still contains the value
+		OptimizationResultCache reopened = new OptimizationResultCache(dir.resolve("cache.bin").toFile());
+		function.setResultCache(reopened);
+		assertEquals(gvalue, function.evaluate(point), 0);
+		assertEquals(1, reopened.getHitCount());
+
+		// A modified design does not use the value
+		rocket.setName("Modified");
+		function.setResultCache(reopened);
+		assertEquals(gvalue, function.evaluate(point), 0);
+		assertEquals(1, reopened.getHitCount());
+
+		verify(simulationParameter, times(2)).computeValue(simulation);
+	}
+
+	@Test
+	public void testConcurrentEvaluation() throws InterruptedException, OptimizationException {
+		final Rocket rocket = TestRockets.makeEstesAlphaIII();
+		final NoseCone nose = (NoseCone) rocket.getChild(0).getChild(0);
+		final AtomicInteger copying = new AtomicInteger();
+		final AtomicBoolean overlapped = new AtomicBoolean();
+		final Simulation simulation = new Simulation(rocket) {
+			@Override
+			public Simulation duplicateSimulation(Rocket newRocket) {
+				if (copying.incrementAndGet() > 1) {
+					overlapped.set(true);
+				}
+				try {
+					Thread.sleep(1);
+					return super.duplicateSimulation(newRocket);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				} finally {
+					copying.decrementAndGet();
+				}
+			}
+		};
+
+		final OptimizableParameter noseLength = new OptimizableParameter() {
+			@Override
+			public String getName() {
+				return "Nose cone length";
+			}
+
+			@Override
+			public double computeValue(Simulation sim) {
+				return sim.getRocket().findComponent(nose.getID()).getLength();
+			}
+
+			@Override
+			public UnitGroup getUnitGroup() {
+				return UnitGroup.UNITS_LENGTH;
+			}
+		};
+		final SimulationModifier modifier = new GenericComponentModifier("Length", "Nose cone length", nose,
+				UnitGroup.UNITS_LENGTH, 1.0, NoseCone.class, nose.getID(), "Length");
+		modifier.setMinValue(0.05);
+		modifier.setMaxValue(0.15);
+
+		RocketOptimizationFunction function = new RocketOptimizationFunction(simulation, noseLength,
+				new MinimizationGoal(), new IdentitySimulationDomain(), modifier);
+		ParallelExecutorCache cache = new ParallelExecutorCache(4);
+		cache.setFunction(function);
+
+		List<Point> points = new ArrayList<>();
+		for (int i = 0; i <= 40; i++) {
+			points.add(new Point(i / 40.0));
+		}
+		cache.compute(points);
+		cache.waitFor(points);
+		cache.getExecutor().shutdown();
+
+		for (Point p : points) {
+			assertEquals(0.05 + 0.1 * p.get(0), cache.getValue(p), 1e-10);
+		}
+		assertFalse(overlapped.get());
+	}
+
 	@Test
 	public void testNewSimulationNames() {
 		final Rocket rocket = new Rocket();
@@ -847,4 +847,65 @@ public class FlightConfigurationTest extends BaseTestCase {
 			assertEquals(original.isStageActive(i), clone.isStageActive(i));
 		}
 	}
+
+	/**
+	 * Test that the incrementally updated instances equal those of a newly built
+	 * configuration after stage changes and component edits.
+	 */
+	@Test
+	public void testIncrementalInstanceUpdates() {
+		Rocket rocket = TestRockets.makeFalcon9Heavy();
+		FlightConfiguration selected = rocket.getSelectedConfiguration();
+		assertSameInstances(selected.clone(), selected);
+
+		// Stage separation
+		selected.setOnlyStage(1);
+		assertSameInstances(selected.clone(), selected);
+		selected.toggleStage(2);
+		assertSameInstances(selected.clone(), selected);
+		selected.setAllStages();
+		assertSameInstances(selected.clone(), selected);
+
+		// Lengthening the payload fairing moves all following components
+		final AxialStage payloadStage = (AxialStage) rocket.getChild(0);
+		final NoseCone fairing = (NoseCone) payloadStage.getChild(0);
+		int instancesModID = selected.getInstancesModID();
+		fairing.setLength(fairing.getLength() + 0.05);
+		assertNotEquals(instancesModID, selected.getInstancesModID());
+		assertSameInstances(selected.clone(), selected);
+
+		// Changes that cannot move components keep the instances
+		instancesModID = selected.getInstancesModID();
+		fairing.setName("Fairing");
+		assertEquals(instancesModID, selected.getInstancesModID());
+
+		// Structural changes
+		final ParallelStage boosters = (ParallelStage) rocket.getChild(1).getChild(0).getChild(0);
+		boosters.setInstanceCount(3);
+		assertSameInstances(selected.clone(), selected);
+		payloadStage.addChild(new BodyTube(0.1, 0.052, 0.001), 1);
+		assertSameInstances(selected.clone(), selected);
+		selected.setOnlyStage(0);
+		assertSameInstances(selected.clone(), selected);
+	}
+
+	private static void assertSameInstances(FlightConfiguration expected, FlightConfiguration actual) {
+		assertSameInstances(expected.getActiveInstances(), actual.getActiveInstances());
+		assertSameInstances(expected.getExtraRenderInstances(), actual.getExtraRenderInstances());
+	}
+
+	private static void assertSameInstances(InstanceMap expected, InstanceMap actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+		for (Map.Entry<RocketComponent, ArrayList<InstanceContext>> entry : expected.entrySet()) {
+			List<InstanceContext> actualContexts = actual.getInstanceContexts(entry.getKey());
+			assertEquals(entry.getValue().size(), actualContexts.size());
+			for (int i = 0; i < actualContexts.size(); i++) {
+				InstanceContext expectedContext = entry.getValue().get(i);
+				InstanceContext actualContext = actualContexts.get(i);
+				assertSame(entry.getKey(), actualContext.component);
+				assertEquals(expectedContext.instanceNumber, actualContext.instanceNumber);
+				assertEquals(expectedContext.transform, actualContext.transform);
+			}
+		}
+	}
 }
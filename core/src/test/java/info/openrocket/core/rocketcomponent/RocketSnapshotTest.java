@@ -0,0 +1,139 @@
+package info.openrocket.core.rocketcomponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+public class RocketSnapshotTest extends BaseTestCase {
+
+	@Test
+	public void testUnchangedComponentsAreShared() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		int componentCount = 0;
+		for (Iterator<RocketComponent> it = rocket.iterator(true); it.hasNext(); it.next()) {
+			componentCount++;
+		}
+
+		RocketSnapshot first = RocketSnapshot.create(rocket);
+		assertEquals(componentCount, first.getCopiedComponentCount());
+
+		// Only the rocket itself is copied when nothing has changed
+		RocketSnapshot second = RocketSnapshot.create(rocket);
+		assertEquals(1, second.getCopiedComponentCount());
+
+		NoseCone nose = (NoseCone) rocket.getChild(0).getChild(0);
+		nose.setName("Changed nose");
+		RocketSnapshot third = RocketSnapshot.create(rocket);
+		assertEquals(2, third.getCopiedComponentCount());
+
+		// The snapshots hold componentCount + 3 copies, as the later ones copy the rocket and the nose.
+		// The original nose copy is only released when the second snapshot is dropped too
+		assertEquals(0, RocketSnapshot.getExcessSnapshotCount(Arrays.asList(first, second, third), componentCount + 3, 2));
+		assertEquals(1, RocketSnapshot.getExcessSnapshotCount(Arrays.asList(first, second, third), componentCount + 2, 2));
+		assertEquals(2, RocketSnapshot.getExcessSnapshotCount(Arrays.asList(first, second, third), componentCount + 1, 2));
+		assertEquals(2, RocketSnapshot.getExcessSnapshotCount(Arrays.asList(first, second, third), 0, 2));
+
+		// Tree changes store the whole subtree of the modified component
+		BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		body.addChild(new LaunchLug());
+		RocketSnapshot fourth = RocketSnapshot.create(rocket);
+		int bodyCount = 0;
+		for (Iterator<RocketComponent> it = body.iterator(true); it.hasNext(); it.next()) {
+			bodyCount++;
+		}
+		assertEquals(1 + bodyCount, fourth.getCopiedComponentCount());
+	}
+
+	@Test
+	public void testRestore() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfigurationId fcid = new FlightConfigurationId();
+		rocket.createFlightConfiguration(fcid).setName("Snapshot config");
+		rocket.setSelectedConfiguration(fcid);
+
+		NoseCone nose = (NoseCone) rocket.getChild(0).getChild(0);
+		BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		final double length = nose.getLength();
+		RocketSnapshot original = RocketSnapshot.create(rocket);
+
+		nose.setLength(length + 0.05);
+		LaunchLug lug = new LaunchLug();
+		body.addChild(lug);
+		rocket.setSelectedConfiguration(FlightConfigurationId.DEFAULT_VALUE_FCID);
+		RocketSnapshot modified = RocketSnapshot.create(rocket);
+		assertTrue(modified.getModID() != original.getModID());
+
+		original.restore(rocket);
+		assertEquals(original.getModID(), rocket.getModID());
+		NoseCone restoredNose = (NoseCone) rocket.findComponent(nose.getID());
+		assertEquals(length, restoredNose.getLength(), 0);
+		assertNull(rocket.findComponent(lug.getID()));
+		assertEquals(fcid, rocket.getSelectedConfiguration().getId());
+		assertEquals("Snapshot config", rocket.getFlightConfiguration(fcid).getNameRaw());
+		assertEquals(1, rocket.getStageCount());
+		assertTrue(rocket.getStage(0) == rocket.getChild(0));
+
+		// Restoring does not modify the stored copies
+		modified.restore(rocket);
+		assertEquals(modified.getModID(), rocket.getModID());
+		assertEquals(length + 0.05, ((NoseCone) rocket.findComponent(nose.getID())).getLength(), 0);
+		RocketComponent restoredLug = rocket.findComponent(lug.getID());
+		assertNotNull(restoredLug);
+		assertEquals(body.getID(), restoredLug.getParent().getID());
+		assertFalse(restoredLug == lug);
+
+		original.restore(rocket);
+		assertNull(rocket.findComponent(lug.getID()));
+		assertEquals(length, ((NoseCone) rocket.findComponent(nose.getID())).getLength(), 0);
+	}
+
+	@Test
+	public void testRestoreSameSnapshotTwice() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		TrackingBodyTube tube = new TrackingBodyTube();
+		rocket.getChild(0).addChild(tube);
+		final double length = tube.getLength();
+		RocketSnapshot original = RocketSnapshot.create(rocket);
+
+		tube.setLength(length + 0.1);
+		RocketSnapshot modified = RocketSnapshot.create(rocket);
+
+		// Undo and redo twice, each restore copying the stored components again
+		for (int i = 0; i < 2; i++) {
+			original.restore(rocket);
+			assertEquals(length, rocket.findComponent(tube.getID()).getLength(), 1e-10);
+			modified.restore(rocket);
+			assertEquals(length + 0.1, rocket.findComponent(tube.getID()).getLength(), 1e-10);
+		}
+	}
+
+	/**
+	 * A body tube which fails when copied after it has been invalidated, independent of
+	 * whether safety checks are enabled.
+	 */
+	private static class TrackingBodyTube extends BodyTube {
+		private boolean invalidated = false;
+
+		@Override
+		protected void invalidate() {
+			invalidated = true;
+			super.invalidate();
+		}
+
+		@Override
+		protected RocketComponent copyWithOriginalID() {
+			assertFalse(invalidated, "Copying an invalidated component");
+			return super.copyWithOriginalID();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package info.openrocket.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.exception.SimulationCancelledException;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+
+/**
+ * Tests running simulations through the BatchSimulationRunner.
+ */
+public class BatchSimulationRunnerTest extends BaseTestCase {
+
+	@Test
+	public void testBatchMatchesSequential() throws Exception {
+		List<Simulation> simulations = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			simulations.add(createSimulation(1000 + i));
+		}
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(2);
+		AtomicInteger finished = new AtomicInteger();
+		BatchSimulationRunner.Batch batch = runner.runSimulations(simulations, new BatchSimulationRunner.Listener() {
+			@Override
+			public void simulationFinished(int index, FlightData data) {
+				finished.incrementAndGet();
+			}
+		});
+		List<FlightData> results = batch.await();
+		runner.shutdown();
+
+		assertTrue(batch.isDone());
+		assertEquals(4, finished.get());
+		assertEquals(4, batch.getCompletedCount());
+		for (int i = 0; i < 4; i++) {
+			assertNull(batch.getThrowable(i));
+			Simulation reference = createSimulation(1000 + i);
+			reference.simulate();
+			assertNotNull(results.get(i));
+			assertEquals(reference.getSimulatedData().getMaxAltitude(), results.get(i).getMaxAltitude(), 0);
+		}
+	}
+
+	@Test
+	public void testSameConditionsInParallel() throws Exception {
+		Simulation simulation = createSimulation(42);
+		simulation.getOptions().setWindSpeedDeviation(2);
+		SimulationConditions c = simulation.getOptions().toSimulationConditions();
+		c.setSimulation(simulation);
+		List<SimulationConditions> conditions = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			conditions.add(c);
+		}
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(4);
+		BatchSimulationRunner.Batch batch = runner.runConditions(conditions, null);
+		List<FlightData> results = batch.await();
+		runner.shutdown();
+
+		// Each simulation uses its own calculator and models
+		for (int i = 0; i < 4; i++) {
+			assertNull(batch.getThrowable(i));
+			assertEquals(results.get(0).getMaxAltitude(), results.get(i).getMaxAltitude(), 0);
+			assertEquals(results.get(0).getTimeToApogee(), results.get(i).getTimeToApogee(), 0);
+		}
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		List<SimulationConditions> conditions = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Simulation simulation = createSimulation(i);
+			SimulationConditions c = simulation.getOptions().toSimulationConditions();
+			c.setSimulation(simulation);
+			conditions.add(c);
+		}
+
+		BatchSimulationRunner runner = new BatchSimulationRunner(1);
+		runner.setProgressInterval(0);
+		final BatchSimulationRunner.Batch[] batch = new BatchSimulationRunner.Batch[1];
+		batch[0] = runner.runConditions(conditions, new BatchSimulationRunner.Listener() {
+			@Override
+			public void simulationProgress(int index, SimulationStatus status) {
+				if (batch[0] != null) {
+					batch[0].cancel();
+				}
+			}
+		});
+		List<FlightData> results = batch[0].await();
+		runner.shutdown();
+
+		assertTrue(batch[0].isCancelled());
+		for (int i = 1; i < 3; i++) {
+			assertNull(results.get(i));
+			assertInstanceOf(SimulationCancelledException.class, batch[0].getThrowable(i));
+		}
+	}
+
+	private static Simulation createSimulation(int seed) {
+		Simulation sim = new Simulation(TestRockets.makeEstesAlphaIII());
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+		sim.getOptions().setRandomSeed(seed);
+		return sim;
+	}
+}
@@ -0,0 +1,68 @@
+package info.openrocket.core.simulation;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.rocketcomponent.FlightConfigurationId;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the buffered RK4 stepper produces the same results as the standard RK4 stepper.
+ */
+public class BufferedRK4SimulationStepperTest extends BaseTestCase {
+
+	private static final FlightDataType[] TYPES = {
+			FlightDataType.TYPE_TIME,
+			FlightDataType.TYPE_ALTITUDE,
+			FlightDataType.TYPE_VELOCITY_TOTAL,
+			FlightDataType.TYPE_POSITION_X,
+			FlightDataType.TYPE_POSITION_Y,
+			FlightDataType.TYPE_ORIENTATION_THETA,
+			FlightDataType.TYPE_ROLL_RATE
+	};
+
+	@Test
+	public void testSingleStageIdentical() throws SimulationException {
+		compare(TestRockets.makeEstesAlphaIII(), TestRockets.TEST_FCID_0);
+	}
+
+	@Test
+	public void testMultiStageIdentical() throws SimulationException {
+		compare(TestRockets.makeBeta(), TestRockets.TEST_FCID_1);
+	}
+
+	private static void compare(Rocket rocket, FlightConfigurationId fcid) throws SimulationException {
+		Simulation reference = createSimulation(rocket, fcid);
+		reference.simulate();
+
+		Simulation buffered = createSimulation(rocket, fcid);
+		buffered.setSimulationStepperClass(BufferedRK4SimulationStepper.class);
+		buffered.simulate();
+
+		FlightData expected = reference.getSimulatedData();
+		FlightData actual = buffered.getSimulatedData();
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		for (int b = 0; b < expected.getBranchCount(); b++) {
+			FlightDataBranch expectedBranch = expected.getBranch(b);
+			FlightDataBranch actualBranch = actual.getBranch(b);
+			assertEquals(expectedBranch.getLength(), actualBranch.getLength(), "Branch " + b + " length differs");
+			for (FlightDataType type : TYPES) {
+				assertEquals(expectedBranch.get(type), actualBranch.get(type),
+						"Branch " + b + " data differs for " + type);
+			}
+		}
+	}
+
+	private static Simulation createSimulation(Rocket rocket, FlightConfigurationId fcid) {
+		Simulation sim = new Simulation(rocket);
+		sim.setFlightConfigurationId(fcid);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+		sim.getOptions().setRandomSeed(12345);
+		return sim;
+	}
+}
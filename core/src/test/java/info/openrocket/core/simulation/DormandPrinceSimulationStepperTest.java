@@ -0,0 +1,66 @@
+package info.openrocket.core.simulation;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.rocketcomponent.FlightConfigurationId;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.exception.SimulationException;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.TestRockets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the adaptive Dormand-Prince stepper agrees with the RK4 stepper using a short time step.
+ */
+public class DormandPrinceSimulationStepperTest extends BaseTestCase {
+
+	@Test
+	public void testStepperSelection() {
+		Simulation sim = new Simulation(TestRockets.makeEstesAlphaIII());
+		assertEquals(RK4SimulationStepper.class, sim.getSimulationStepperClass());
+
+		sim.getOptions().setIntegrationMethod(IntegrationMethod.DORMAND_PRINCE);
+		assertEquals(DormandPrinceSimulationStepper.class, sim.getSimulationStepperClass());
+
+		SimulationConditions conditions = sim.getOptions().toSimulationConditions();
+		assertEquals(DormandPrinceSimulationStepper.class, conditions.getFlightStepperClass());
+		assertEquals(DormandPrinceSimulationStepper.RECOMMENDED_TOLERANCE, conditions.getIntegrationTolerance());
+	}
+
+	@Test
+	public void testSingleStage() throws SimulationException {
+		compare(TestRockets.makeEstesAlphaIII(), TestRockets.TEST_FCID_0);
+	}
+
+	@Test
+	public void testMultiStage() throws SimulationException {
+		compare(TestRockets.makeBeta(), TestRockets.TEST_FCID_1);
+	}
+
+	private static void compare(Rocket rocket, FlightConfigurationId fcid) throws SimulationException {
+		Simulation reference = createSimulation(rocket, fcid);
+		reference.getOptions().setTimeStep(0.01);
+		reference.simulate();
+
+		Simulation adaptive = createSimulation(rocket, fcid);
+		adaptive.getOptions().setIntegrationMethod(IntegrationMethod.DORMAND_PRINCE);
+		adaptive.simulate();
+
+		FlightData expected = reference.getSimulatedData();
+		FlightData actual = adaptive.getSimulatedData();
+		assertEquals(expected.getBranchCount(), actual.getBranchCount());
+		assertEquals(expected.getMaxAltitude(), actual.getMaxAltitude(), 0.1, "Apogee differs");
+		assertEquals(expected.getTimeToApogee(), actual.getTimeToApogee(), 0.01, "Time to apogee differs");
+		assertEquals(expected.getMaxVelocity(), actual.getMaxVelocity(), 0.1, "Maximum velocity differs");
+	}
+
+	private static Simulation createSimulation(Rocket rocket, FlightConfigurationId fcid) {
+		Simulation sim = new Simulation(rocket);
+		sim.setFlightConfigurationId(fcid);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+		sim.getOptions().setRandomSeed(12345);
+		return sim;
+	}
+}
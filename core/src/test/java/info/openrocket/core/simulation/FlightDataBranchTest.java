@@ -0,0 +1,102 @@
+package info.openrocket.core.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.util.BaseTestCase;
+
+/**
+ * Tests the primitive storage of FlightDataBranch.
+ */
+public class FlightDataBranchTest extends BaseTestCase {
+
+	@Test
+	public void testValuesAndExtremes() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		double[] altitudes = { 0, 12.5, 40, 33, -1 };
+		for (int i = 0; i < altitudes.length; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i * 0.1);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, altitudes[i]);
+		}
+
+		assertEquals(5, branch.getLength());
+		for (int i = 0; i < altitudes.length; i++) {
+			assertEquals(altitudes[i], branch.getDouble(FlightDataType.TYPE_ALTITUDE, i), 0);
+			assertEquals(altitudes[i], branch.getByIndex(FlightDataType.TYPE_ALTITUDE, i), 0);
+		}
+		assertEquals(40, branch.getMaximum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(-1, branch.getMinimum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(-1, branch.getLast(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(0.4, branch.getMaximum(FlightDataType.TYPE_TIME), 0);
+
+		assertEquals(Double.NaN, branch.getDouble(FlightDataType.TYPE_MACH_NUMBER, 0), 0);
+		assertNull(branch.get(FlightDataType.TYPE_MACH_NUMBER));
+		assertThrows(IndexOutOfBoundsException.class, () -> branch.getDouble(FlightDataType.TYPE_TIME, 5));
+	}
+
+	@Test
+	public void testLateTypeIsFilledWithNaN() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		for (int i = 0; i < 40; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, i);
+		}
+		branch.setValue(FlightDataType.TYPE_VELOCITY_Z, 7);
+
+		assertEquals(40, branch.get(FlightDataType.TYPE_VELOCITY_Z).size());
+		for (int i = 0; i < 39; i++) {
+			assertTrue(Double.isNaN(branch.getDouble(FlightDataType.TYPE_VELOCITY_Z, i)));
+		}
+		assertEquals(7, branch.getLast(FlightDataType.TYPE_VELOCITY_Z), 0);
+		assertEquals(7, branch.getMinimum(FlightDataType.TYPE_VELOCITY_Z), 0);
+		assertEquals(7, branch.getMaximum(FlightDataType.TYPE_VELOCITY_Z), 0);
+	}
+
+	@Test
+	public void testViewsAreSnapshots() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, 1);
+
+		List<Double> list = branch.get(FlightDataType.TYPE_TIME);
+		DoubleBuffer buffer = branch.getBuffer(FlightDataType.TYPE_TIME);
+
+		branch.setValue(FlightDataType.TYPE_TIME, 2);
+		branch.addPoint();
+
+		assertEquals(1, list.size());
+		assertEquals(1, list.get(0), 0);
+		assertEquals(1, buffer.remaining());
+		assertEquals(1, buffer.get(0), 0);
+		assertTrue(buffer.isReadOnly());
+		assertThrows(UnsupportedOperationException.class, () -> list.add(3.0));
+
+		branch.immute();
+		assertEquals(2, branch.getBuffer(FlightDataType.TYPE_TIME).remaining());
+		assertEquals(2, branch.get(FlightDataType.TYPE_TIME).get(0), 0);
+	}
+
+	@Test
+	public void testClone() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME);
+		branch.addPoint();
+		branch.setValue(FlightDataType.TYPE_TIME, 1);
+
+		FlightDataBranch clone = branch.clone();
+		clone.addPoint();
+		clone.setValue(FlightDataType.TYPE_TIME, 5);
+
+		assertEquals(1, branch.getLength());
+		assertEquals(1, branch.getMaximum(FlightDataType.TYPE_TIME), 0);
+		assertEquals(2, clone.getLength());
+		assertEquals(5, clone.getMaximum(FlightDataType.TYPE_TIME), 0);
+	}
+}
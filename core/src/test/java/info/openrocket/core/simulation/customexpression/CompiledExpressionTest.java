@@ -0,0 +1,89 @@
+package info.openrocket.core.simulation.customexpression;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.OpenRocketDocument;
+import info.openrocket.core.document.OpenRocketDocumentFactory;
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.rocketcomponent.Rocket;
+import info.openrocket.core.simulation.FlightDataBranch;
+import info.openrocket.core.simulation.FlightDataType;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.LinearInterpolator;
+import info.openrocket.core.util.TestRockets;
+
+public class CompiledExpressionTest extends BaseTestCase {
+
+	@Test
+	public void testInterpolate() {
+		FlightDataBranch branch = new FlightDataBranch("test", FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		double[][] points = { { 0, 0 }, { 1, 10 }, { 1, 20 }, { 2, 40 } };
+		for (double[] point : points) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, point[0]);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, point[1]);
+		}
+
+		// Same results as interpolating the lists of the branch
+		LinearInterpolator interp = new LinearInterpolator(branch.get(FlightDataType.TYPE_TIME),
+				branch.get(FlightDataType.TYPE_ALTITUDE));
+		for (double t : new double[] { -1, 0, 0.5, 1, 1.5, 2, 3, Double.NaN }) {
+			assertEquals(interp.getValue(t), CompiledExpression.interpolate(branch, FlightDataType.TYPE_ALTITUDE, t), 1e-12);
+		}
+		assertEquals(30, CompiledExpression.interpolate(branch, FlightDataType.TYPE_ALTITUDE, 1.5), 1e-12);
+
+		FlightDataBranch empty = new FlightDataBranch("empty", FlightDataType.TYPE_TIME);
+		assertTrue(Double.isNaN(CompiledExpression.interpolate(empty, FlightDataType.TYPE_TIME, 1)));
+	}
+
+	@Test
+	public void testExpressionsInSimulation() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation sim = new Simulation(doc, rocket);
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+
+		CustomExpression doubled = new CustomExpression(doc, "Compiled double altitude", "Hcd", "m", "2*h");
+		CustomExpression indexed = new CustomExpression(doc, "Compiled altitude at 1s", "Hci", "m", "h[1]");
+		CustomExpression ranged = new CustomExpression(doc, "Compiled mean altitude", "Hcr", "m", "mean(h[0:t])");
+		List<CustomExpression> expressions = Arrays.asList(doubled, indexed, ranged);
+		for (CustomExpression expression : expressions) {
+			assertNotNull(expression.compile());
+		}
+
+		sim.simulate(new CustomExpressionSimulationListener(expressions));
+
+		FlightDataBranch branch = sim.getSimulatedData().getBranch(0);
+		List<Double> time = branch.get(FlightDataType.TYPE_TIME);
+		List<Double> altitude = branch.get(FlightDataType.TYPE_ALTITUDE);
+		List<Double> doubledValues = branch.get(doubled.getType());
+		List<Double> indexedValues = branch.get(indexed.getType());
+		List<Double> rangedValues = branch.get(ranged.getType());
+		double expected = new LinearInterpolator(time, altitude).getValue(1);
+
+		// Points added outside of the simulation steps have no values
+		int evaluated = 0;
+		for (int i = 0; i < time.size(); i++) {
+			if (Double.isNaN(doubledValues.get(i))) {
+				continue;
+			}
+			assertEquals(2 * altitude.get(i), doubledValues.get(i), 1e-9);
+			if (time.get(i) > 2) {
+				assertEquals(expected, indexedValues.get(i), 1e-9);
+				assertTrue(rangedValues.get(i) > 0);
+				assertTrue(rangedValues.get(i) < branch.getMaximum(FlightDataType.TYPE_ALTITUDE));
+			}
+			evaluated++;
+		}
+		assertTrue(evaluated > 10);
+	}
+}
@@ -0,0 +1,116 @@
+package info.openrocket.core.simulation.montecarlo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import info.openrocket.core.document.Simulation;
+import info.openrocket.core.simulation.FlightEvent;
+import info.openrocket.core.simulation.montecarlo.MonteCarloResults.Metric;
+import info.openrocket.core.util.BaseTestCase;
+import info.openrocket.core.util.BugException;
+import info.openrocket.core.util.TestRockets;
+
+/**
+ * Tests the Monte Carlo dispersion analysis.
+ */
+public class MonteCarloSimulationTest extends BaseTestCase {
+
+	@Test
+	public void testNominalRunsMatchSimulation() throws Exception {
+		Simulation sim = createSimulation();
+		sim.getOptions().setWindSpeedAverage(0);
+		MonteCarloSimulation mc = new MonteCarloSimulation(sim);
+		mc.setParallelism(2);
+
+		MonteCarloResults results = mc.run(3, 1, null);
+
+		sim.simulate();
+		for (int i = 0; i < 3; i++) {
+			assertEquals(sim.getSimulatedData().getMaxAltitude(), results.getValue(Metric.APOGEE, i), 1e-6);
+			assertTrue(results.hasEvent(i, FlightEvent.Type.APOGEE));
+		}
+		assertEquals(0, results.getStandardDeviation(Metric.APOGEE), 1e-6);
+		assertEquals(3, results.getEventCount(FlightEvent.Type.GROUND_HIT));
+	}
+
+	@Test
+	public void testDispersionIsReproducible() throws Exception {
+		MonteCarloSimulation mc = new MonteCarloSimulation(createSimulation());
+		mc.setDispersion(DispersionParameter.WIND_SPEED_AVERAGE, Distribution.normal(1.0));
+		mc.setDispersion(DispersionParameter.LAUNCH_ROD_ANGLE, Distribution.uniform(Math.toRadians(3)));
+		mc.setDispersion(DispersionParameter.THRUST_SCALE, Distribution.relativeNormal(0.05));
+		mc.setDispersion(DispersionParameter.MASS_SCALE, Distribution.relativeNormal(0.02));
+
+		AtomicInteger progress = new AtomicInteger();
+		mc.setParallelism(3);
+		MonteCarloResults a = mc.run(6, 42, (run, completed, total) -> progress.incrementAndGet());
+		mc.setParallelism(1);
+		MonteCarloResults b = mc.run(6, 42, null);
+
+		assertEquals(6, progress.get());
+		assertEquals(0, a.getFailedCount());
+		for (int i = 0; i < 6; i++) {
+			assertEquals(a.getSample(DispersionParameter.THRUST_SCALE, i), b.getSample(DispersionParameter.THRUST_SCALE, i), 0);
+			assertEquals(a.getValue(Metric.APOGEE, i), b.getValue(Metric.APOGEE, i), 0);
+			assertEquals(a.getValue(Metric.LANDING_X, i), b.getValue(Metric.LANDING_X, i), 0);
+		}
+		assertTrue(Double.isNaN(a.getSample(DispersionParameter.DRAG_SCALE, 0)));
+		assertNotEquals(0, a.getStandardDeviation(Metric.APOGEE));
+
+		MonteCarloResults.LandingEllipse ellipse = a.getLandingEllipse(2);
+		assertNotNull(ellipse);
+		assertTrue(ellipse.getSemiMajorAxis() >= ellipse.getSemiMinorAxis());
+	}
+
+	@Test
+	public void testThrustScaleIncreasesApogee() throws Exception {
+		MonteCarloSimulation mc = new MonteCarloSimulation(createSimulation());
+		MonteCarloResults nominal = mc.run(1, 7, null);
+		mc.setDispersion(DispersionParameter.THRUST_SCALE, Distribution.constant(1.2));
+		MonteCarloResults scaled = mc.run(1, 7, null);
+
+		assertTrue(scaled.getValue(Metric.APOGEE, 0) > nominal.getValue(Metric.APOGEE, 0));
+	}
+
+	@Test
+	public void testWorkerFailureCancelsRuns() {
+		MonteCarloSimulation mc = new MonteCarloSimulation(createSimulation());
+		mc.setParallelism(2);
+		AtomicInteger progress = new AtomicInteger();
+
+		assertThrows(BugException.class, () -> mc.run(20, 3, (run, completed, total) -> {
+			if (progress.incrementAndGet() == 1) {
+				throw new IllegalStateException("Listener failure");
+			}
+		}));
+		assertTrue(mc.isCancelled());
+		assertTrue(progress.get() < 20, "progress=" + progress.get());
+	}
+
+	@Test
+	public void testStatistics() {
+		MonteCarloResults results = new MonteCarloResults(0, Collections.emptySet());
+		assertEquals(0, results.size());
+		assertTrue(Double.isNaN(results.getMean(Metric.APOGEE)));
+		assertTrue(Double.isNaN(results.getPercentile(Metric.APOGEE, 50)));
+		assertNull(results.getLandingEllipse(1));
+	}
+
+	private static Simulation createSimulation() {
+		Simulation sim = new Simulation(TestRockets.makeEstesAlphaIII());
+		sim.setFlightConfigurationId(TestRockets.TEST_FCID_0);
+		sim.getOptions().setISAAtmosphere(true);
+		sim.getOptions().setTimeStep(0.05);
+		sim.getOptions().setRandomSeed(1);
+		return sim;
+	}
+}
@@ -290,4 +290,43 @@ public class TextUtilTest {
 		assertEquals(TextUtil.escapeXML("foo" + ((char) 0) + ((char) 1) + ((char) 31) + ((char) 127) + "bar"), "foo&#0;&#1;&#31;&#127;bar");
 	}
 
+	@Test
+	public void testAppendDouble() {
+		StringBuilder sb = new StringBuilder("x");
+		TextUtil.appendDouble(sb, 1.5, 3, true).append(',');
+		TextUtil.appendDouble(sb, -1.2345e-5, 3, true).append(',');
+		TextUtil.appendDouble(sb, 123456.789, 2, true).append(',');
+		TextUtil.appendDouble(sb, 123456.789, 2, false).append(',');
+		TextUtil.appendDouble(sb, -0.0001, 3, false).append(',');
+		TextUtil.appendDouble(sb, Double.NaN, 3, true);
+		assertEquals("x1.5,-1.235e-5,1.23e5,123456.79,-0,NaN", sb.toString());
+
+		// Values rounding exactly at a half are formatted as by doubleToString
+		for (double d : new double[] { 0.125, 1.005, 2.5, 0.0009995, 99995, -1e-9, 1e300 }) {
+			for (int decimalPlaces = 0; decimalPlaces <= 5; decimalPlaces++) {
+				assertAppendDouble(d, decimalPlaces);
+			}
+		}
+
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			double d;
+			if (i % 2 == 0) {
+				d = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(30) - 12);
+			} else {
+				d = Math.round(random.nextGaussian() * 1e6) / Math.pow(10, random.nextInt(9));
+			}
+			assertAppendDouble(d, random.nextInt(8));
+		}
+	}
+
+	private static void assertAppendDouble(double d, int decimalPlaces) {
+		for (boolean exponential : new boolean[] { true, false }) {
+			StringBuilder sb = new StringBuilder();
+			TextUtil.appendDouble(sb, d, decimalPlaces, exponential);
+			assertEquals(TextUtil.doubleToString(d, decimalPlaces, exponential), sb.toString(),
+					d + " with " + decimalPlaces + " decimals");
+		}
+	}
+
 }
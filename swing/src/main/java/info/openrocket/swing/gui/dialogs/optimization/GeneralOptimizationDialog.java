@@ -59,7 +59,9 @@ import info.openrocket.core.formatting.RocketDescriptor;
 import info.openrocket.core.l10n.Translator;
 import info.openrocket.core.logging.Markers;
 import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.OptimizationMethod;
 import info.openrocket.core.optimization.general.Point;
+import info.openrocket.core.optimization.general.surrogate.SurrogateFunctionCache;
 import info.openrocket.core.optimization.rocketoptimization.OptimizableParameter;
 import info.openrocket.core.optimization.rocketoptimization.OptimizationGoal;
 import info.openrocket.core.optimization.rocketoptimization.SimulationDomain;
@@ -73,6 +75,7 @@ import info.openrocket.core.optimization.services.OptimizationServiceHelper;
 import info.openrocket.core.rocketcomponent.Rocket;
 import info.openrocket.core.rocketcomponent.RocketComponent;
 import info.openrocket.core.startup.Application;
+import info.openrocket.core.startup.Preferences;
 import info.openrocket.core.unit.CaliberUnit;
 import info.openrocket.core.unit.Unit;
 import info.openrocket.core.unit.UnitGroup;
@@ -149,6 +152,7 @@ public class GeneralOptimizationDialog extends JDialog {
 	private final JComboBox<?> optimizationGoalCombo;
 	private final JSpinner optimizationGoalSpinner;
 	private final UnitSelector optimizationGoalUnitSelector;
+	private final JComboBox<OptimizationMethod> optimizationMethodCombo;
 	private final DoubleModel optimizationSeekValue;
 	
 	private final DoubleModel minimumStability;
@@ -160,10 +164,14 @@ public class GeneralOptimizationDialog extends JDialog {
 	private final JSpinner maximumStabilitySpinner;
 	private final UnitSelector maximumStabilityUnitSelector;
 	
+	private final JCheckBox surrogateSelected;
+	
 	private final JLabel bestValueLabel;
 	private final JLabel stepCountLabel;
 	private final JLabel evaluationCountLabel;
 	private final JLabel stepSizeLabel;
+	private final JLabel surrogateErrorTitleLabel;
+	private final JLabel surrogateErrorLabel;
 	
 	private final RocketFigure figure;
 	private final JToggleButton startButton;
@@ -185,6 +193,8 @@ public class GeneralOptimizationDialog extends JDialog {
 	private int stepCount = 0;
 	private int evaluationCount = 0;
 	private double stepSize = 0;
+	/** Prediction errors of the surrogate model of the last optimization, or null if not used */
+	private String surrogateError = null;
 	
 	private final Map<Point, FunctionEvaluationData> evaluationHistory = new LinkedHashMap<>();
 	private final List<Point> optimizationPath = new LinkedList<>();
@@ -424,6 +434,29 @@ public class GeneralOptimizationDialog extends JDialog {
 		disableComponents.add(optimizationGoalUnitSelector);
 		sub.add(optimizationGoalUnitSelector, "width 20lp, wrap unrel");
 		
+		// // Optimization method
+		label = new JLabel(trans.get("lbl.optimizationMethod"));
+		tip = trans.get("lbl.optimizationMethod.ttip");
+		label.setToolTipText(tip);
+		disableComponents.add(label);
+		sub.add(label, "");
+		
+		optimizationMethodCombo = new JComboBox<>(OptimizationMethod.values());
+		optimizationMethodCombo.setSelectedItem(Application.getPreferences().getEnum(Preferences.OPTIMIZATION_METHOD,
+				OptimizationMethod.MULTIDIRECTIONAL_SEARCH));
+		optimizationMethodCombo.setToolTipText(getSelectedMethod().getDescription());
+		optimizationMethodCombo.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				OptimizationMethod method = getSelectedMethod();
+				Application.getPreferences().putEnum(Preferences.OPTIMIZATION_METHOD, method);
+				optimizationMethodCombo.setToolTipText(method.getDescription());
+				updateComponents();
+			}
+		});
+		disableComponents.add(optimizationMethodCombo);
+		sub.add(optimizationMethodCombo, "growx, wrap unrel");
+		
 		panel.add(sub, "grow");
 		
 		// // Required stability sub-panel
@@ -492,7 +525,20 @@ public class GeneralOptimizationDialog extends JDialog {
 		// disableComponents.add(desc);
 		// sub.add(desc, "span, growx");
 		
-		panel.add(sub, "span 2, grow, wrap para*2");
+		panel.add(sub, "span 2, grow, wrap para");
+		
+		// // Surrogate model
+		surrogateSelected = new JCheckBox(trans.get("lbl.useSurrogate"));
+		surrogateSelected.setToolTipText(trans.get("lbl.useSurrogate.ttip"));
+		surrogateSelected.setSelected(Application.getPreferences().getBoolean(Preferences.OPTIMIZATION_SURROGATE, false));
+		surrogateSelected.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				Application.getPreferences().putBoolean(Preferences.OPTIMIZATION_SURROGATE, surrogateSelected.isSelected());
+			}
+		});
+		disableComponents.add(surrogateSelected);
+		panel.add(surrogateSelected, "span 2, wrap para*2");
 		
 		// // Rocket figure
 		figure = new RocketFigure( getSelectedSimulation().getRocket() );
@@ -536,7 +582,16 @@ public class GeneralOptimizationDialog extends JDialog {
 		
 		stepSizeLabel = new JLabel();
 		stepSizeLabel.setToolTipText(tip);
-		sub.add(stepSizeLabel, "wrap para");
+		sub.add(stepSizeLabel, "wrap rel");
+		
+		surrogateErrorTitleLabel = new JLabel(trans.get("status.surrogateError"));
+		tip = trans.get("status.surrogateError.ttip");
+		surrogateErrorTitleLabel.setToolTipText(tip);
+		sub.add(surrogateErrorTitleLabel, "gapright unrel, hidemode 3");
+		
+		surrogateErrorLabel = new JLabel();
+		surrogateErrorLabel.setToolTipText(tip);
+		sub.add(surrogateErrorLabel, "hidemode 3, wrap para");
 		
 		// // Start/Stop button
 		
@@ -733,6 +788,18 @@ public class GeneralOptimizationDialog extends JDialog {
 			protected void done(OptimizationException exception) {
 				log.info("Optimization finished, exception=" + exception, exception);
 				
+				SurrogateFunctionCache surrogate = getSurrogateCache();
+				if (surrogate != null) {
+					if (Double.isNaN(surrogate.getPredictionError())) {
+						surrogateError = trans.get("status.surrogateError.none");
+					} else {
+						surrogateError = String.format(trans.get("status.surrogateError.value"),
+								surrogate.getPredictionError(), surrogate.getMaximumPredictionError(),
+								surrogate.getStandardizedPredictionError(), surrogate.getScreenedCount());
+					}
+					updateCounters();
+				}
+				
 				if (exception != null) {
 					JOptionPane.showMessageDialog(GeneralOptimizationDialog.this,
 							new Object[] {
@@ -851,6 +918,7 @@ public class GeneralOptimizationDialog extends JDialog {
 		stepCount = 0;
 		evaluationCount = 0;
 		stepSize = 0.5;
+		surrogateError = null;
 		updateCounters();
 		updateComponents();
 	}
@@ -999,6 +1067,9 @@ public class GeneralOptimizationDialog extends JDialog {
 		stepCountLabel.setText("" + stepCount);
 		evaluationCountLabel.setText("" + evaluationCount);
 		stepSizeLabel.setText(UnitGroup.UNITS_RELATIVE.toStringUnit(stepSize));
+		surrogateErrorLabel.setText(surrogateError);
+		surrogateErrorTitleLabel.setVisible(surrogateError != null);
+		surrogateErrorLabel.setVisible(surrogateError != null);
 	}
 	
 	private void loadOptimizationParameters() {
@@ -1063,6 +1134,10 @@ public class GeneralOptimizationDialog extends JDialog {
 	/**
 	 * Update the enabled status of all components in the dialog.
 	 */
+	private OptimizationMethod getSelectedMethod() {
+		return (OptimizationMethod) optimizationMethodCombo.getSelectedItem();
+	}
+	
 	private void updateComponents() {
 		boolean state;
 		
@@ -1117,6 +1192,11 @@ public class GeneralOptimizationDialog extends JDialog {
 		maximumStabilitySpinner.setEnabled(state);
 		maximumStabilityUnitSelector.setEnabled(state);
 		
+		// Surrogate model (not used with population based methods)
+		state = !getSelectedMethod().isPopulationBased();
+		log.debug("surrogateSelected enabled: " + state);
+		surrogateSelected.setEnabled(state);
+		
 		// Plot button (enabled if path exists and dimensionality is 1 or 2)
 		state = (!optimizationPath.isEmpty() && (selectedModifiers.size() == 1 || selectedModifiers.size() == 2));
 		log.debug("plotButton enabled: " + state + " optimizationPath.isEmpty=" + optimizationPath.isEmpty() +
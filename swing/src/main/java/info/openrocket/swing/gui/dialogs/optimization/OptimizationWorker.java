@@ -1,5 +1,6 @@
 package info.openrocket.swing.gui.dialogs.optimization;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -9,21 +10,27 @@ import javax.swing.SwingUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import info.openrocket.core.arch.SystemInfo;
 import info.openrocket.core.document.Simulation;
 import info.openrocket.core.optimization.general.FunctionOptimizer;
 import info.openrocket.core.optimization.general.OptimizationController;
 import info.openrocket.core.optimization.general.OptimizationException;
+import info.openrocket.core.optimization.general.OptimizationMethod;
 import info.openrocket.core.optimization.general.ParallelExecutorCache;
 import info.openrocket.core.optimization.general.ParallelFunctionCache;
 import info.openrocket.core.optimization.general.Point;
-import info.openrocket.core.optimization.general.multidim.MultidirectionalSearchOptimizer;
 import info.openrocket.core.optimization.general.onedim.GoldenSectionSearchOptimizer;
+import info.openrocket.core.optimization.general.surrogate.SurrogateFunctionCache;
 import info.openrocket.core.optimization.rocketoptimization.OptimizableParameter;
 import info.openrocket.core.optimization.rocketoptimization.OptimizationGoal;
+import info.openrocket.core.optimization.rocketoptimization.OptimizationResultCache;
 import info.openrocket.core.optimization.rocketoptimization.RocketOptimizationFunction;
 import info.openrocket.core.optimization.rocketoptimization.RocketOptimizationListener;
 import info.openrocket.core.optimization.rocketoptimization.SimulationDomain;
 import info.openrocket.core.optimization.rocketoptimization.SimulationModifier;
+import info.openrocket.core.startup.Application;
+import info.openrocket.core.startup.Preferences;
+import info.openrocket.core.util.Statistics;
 import info.openrocket.core.unit.Value;
 import info.openrocket.core.util.BugException;
 
@@ -53,6 +60,8 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 	private static final long PURGE_TIMEOUT = 500;
 	/** End optimization when step size is below this threshold */
 	private static final double STEP_SIZE_LIMIT = 0.005;
+	/** File name of the persistent result cache */
+	private static final String RESULT_CACHE_FILE = "OptimizationCache.bin";
 	
 	private final FunctionOptimizer optimizer;
 	private final RocketOptimizationFunction function;
@@ -60,6 +69,7 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 	private final Simulation simulation;
 	private final SimulationModifier[] modifiers;
 	
+	private final ParallelExecutorCache executorCache;
 	private final ParallelFunctionCache cache;
 
 	private final LinkedBlockingQueue<FunctionEvaluationData> evaluationQueue = new LinkedBlockingQueue<>();
@@ -68,6 +78,9 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 	
 	private OptimizationException optimizationException = null;
 	
+	/** The persistent result cache shared by all optimizations */
+	private static OptimizationResultCache resultCache = null;
+	
 	
 	/**
 	 * Sole constructor
@@ -85,14 +98,33 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 		
 		function = new RocketOptimizationFunction(simulation, parameter, goal, domain, modifiers);
 		function.addRocketOptimizationListener(this);
+		if (Application.getPreferences().getBoolean(Preferences.OPTIMIZATION_RESULT_CACHE, true)) {
+			function.setResultCache(getResultCache());
+		}
+		
+		OptimizationMethod method = Application.getPreferences().getEnum(Preferences.OPTIMIZATION_METHOD,
+				OptimizationMethod.MULTIDIRECTIONAL_SEARCH);
+		
+		// Population based methods compute whole generations at once
+		int threadCount = 1;
+		if (modifiers.length > 1 && method.isPopulationBased()) {
+			threadCount = Runtime.getRuntime().availableProcessors();
+		}
 		
-		cache = new ParallelExecutorCache(1);
+		executorCache = new ParallelExecutorCache(threadCount);
+		// Population based methods may keep predicted values, so they are not screened
+		if (modifiers.length > 1 && !method.isPopulationBased() &&
+				Application.getPreferences().getBoolean(Preferences.OPTIMIZATION_SURROGATE, false)) {
+			cache = new SurrogateFunctionCache(executorCache);
+		} else {
+			cache = executorCache;
+		}
 		cache.setFunction(function);
 		
 		if (modifiers.length == 1) {
 			optimizer = new GoldenSectionSearchOptimizer(cache);
 		} else {
-			optimizer = new MultidirectionalSearchOptimizer(cache);
+			optimizer = method.createOptimizer(cache);
 		}
 	}
 	
@@ -112,6 +144,13 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 		} catch (OptimizationException e) {
 			this.optimizationException = e;
 		} finally {
+			if (cache != executorCache && cache instanceof Statistics) {
+				log.info("Optimization cache statistics: " + ((Statistics) cache).getStatistics());
+			}
+			log.info("Optimization executor statistics: " + executorCache.getStatistics());
+			if (function.getResultCache() != null) {
+				log.info("Optimization result cache statistics: " + function.getResultCache().getStatistics());
+			}
 			SwingUtilities.invokeLater(() -> {
 				lastPurge = System.currentTimeMillis() + 24L * 3600L * 1000L;
 				processQueue();
@@ -120,6 +159,28 @@ public abstract class OptimizationWorker extends Thread implements OptimizationC
 		}
 	}
 	
+	/**
+	 * Return the surrogate model screening the function evaluations, or <code>null</code> if
+	 * none is used.  Its statistics may be read only after the optimization has ended.
+	 */
+	public SurrogateFunctionCache getSurrogateCache() {
+		return (cache instanceof SurrogateFunctionCache) ? (SurrogateFunctionCache) cache : null;
+	}
+	
+	
+	/**
+	 * Return the persistent optimization result cache in the user application directory,
+	 * opening it on first use.
+	 */
+	private static synchronized OptimizationResultCache getResultCache() {
+		if (resultCache == null) {
+			resultCache = new OptimizationResultCache(new File(SystemInfo.getUserApplicationDirectory(),
+					RESULT_CACHE_FILE));
+		}
+		return resultCache;
+	}
+	
+	
 	/**
 	 * This method is called after the optimization has ended, either normally, when interrupted
 	 * or by throwing an exception.  This method is called on the EDT, like the done() method of SwingWorker.
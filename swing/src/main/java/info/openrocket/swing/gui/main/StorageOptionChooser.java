@@ -5,6 +5,7 @@ import java.awt.event.ActionListener;
 
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -37,6 +38,7 @@ public class StorageOptionChooser extends JPanel {
 	private JRadioButton allButton;
 	private JRadioButton someButton;
 	private JRadioButton noneButton;
+	private JCheckBox binaryCheck;
 	
 	private JSpinner timeSpinner;
 
@@ -75,6 +77,12 @@ public class StorageOptionChooser extends JPanel {
 		buttonGroup.add(allButton);
 		allButton.addActionListener(actionUpdater);
 		this.add(allButton, "spanx, wrap rel");
+		
+		//// Store data in compact binary format
+		binaryCheck = new JCheckBox(trans.get("StorageOptChooser.checkbox.Binarydata"));
+		binaryCheck.setToolTipText(trans.get("StorageOptChooser.checkbox.Binarydata.ttip"));
+		binaryCheck.addActionListener(actionUpdater);
+		this.add(binaryCheck, "gapleft para, spanx, wrap rel");
 				
 		//// Only summary data
 		noneButton = new JRadioButton(trans.get("StorageOptChooser.rdbut.Onlysummarydata"));
@@ -109,6 +117,7 @@ public class StorageOptionChooser extends JPanel {
 		} else {
 			noneButton.setSelected(true);
 		}
+		binaryCheck.setSelected(opts.getSaveBinarySimulationData());
 		
 		updateInfoLabel();
 	}
@@ -116,10 +125,12 @@ public class StorageOptionChooser extends JPanel {
 	
 	public void storeOptions(StorageOptions opts) {
 		opts.setSaveSimulationData(allButton.isSelected());
+		opts.setSaveBinarySimulationData(binaryCheck.isSelected());
 		opts.setExplicitlySet(true);
 	}
 
 	private void updateInfoLabel() {
+		binaryCheck.setEnabled(allButton.isSelected());
 		if (allButton.isSelected()) {
 			infoLabel.setText(trans.get("StorageOptChooser.lbl.info1"));
 		} else if (noneButton.isSelected()) {
@@ -198,13 +198,12 @@ public class SimulationPlot {
 				int branchIndex = 0;
 				FlightDataBranch thisBranch = simulation.getSimulatedData().getBranch(branchIndex);
 				// Store data in provided units
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
 				XYSeries series = new XYSeries(seriesCount++, false, true);
 				series.setDescription(name);
-				int pointCount = plotx.size();
+				int pointCount = thisBranch.getLength();
 				for (int j = 0; j < pointCount; j++) {
-					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
+					series.add(domainUnit.toUnit(thisBranch.getDouble(domainType, j)),
+							unit.toUnit(thisBranch.getDouble(type, j)));
 				}
 				data[axis].addSeries(series);
 			}
@@ -225,12 +224,10 @@ public class SimulationPlot {
 				series.setDescription(thisBranch.getName() + ": " + name);
 
 				// Copy all the data from the secondary branch
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
-
-				int pointCount = plotx.size();
+				int pointCount = thisBranch.getLength();
 				for (int j = 0; j < pointCount; j++) {
-					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
+					series.add(domainUnit.toUnit(thisBranch.getDouble(domainType, j)),
+							unit.toUnit(thisBranch.getDouble(type, j)));
 				}
 				data[axis].addSeries(series);
 			}
@@ -26,6 +26,8 @@ import javax.swing.SwingUtilities;
 import info.openrocket.core.document.OpenRocketDocument;
 import info.openrocket.core.document.Simulation;
 import info.openrocket.core.l10n.Translator;
+import info.openrocket.core.simulation.DormandPrinceSimulationStepper;
+import info.openrocket.core.simulation.IntegrationMethod;
 import info.openrocket.core.simulation.RK4SimulationStepper;
 import info.openrocket.core.simulation.SimulationOptions;
 import info.openrocket.core.simulation.extension.SimulationExtension;
@@ -117,9 +119,18 @@ class SimulationOptionsPanel extends JPanel {
 		label.setToolTipText(tip);
 		subsub.add(label, "gapright para");
 		
-		label = new JLabel("6-DOF Runge-Kutta 4");
-		label.setToolTipText(tip);
-		subsub.add(label, "growx, span 3, wrap");
+		EnumModel<IntegrationMethod> methodModel = new EnumModel<IntegrationMethod>(conditions, "IntegrationMethod");
+		final JComboBox<IntegrationMethod> methodCombo = new JComboBox<IntegrationMethod>(methodModel);
+		ActionListener methodTTipListener = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				IntegrationMethod method = (IntegrationMethod) methodCombo.getSelectedItem();
+				methodCombo.setToolTipText(method.getDescription());
+			}
+		};
+		methodCombo.addActionListener(methodTTipListener);
+		methodTTipListener.actionPerformed(null);
+		subsub.add(methodCombo, "growx, span 3, wrap");
 		
 		// // Geodetic calculation method:
 		label = new JLabel(trans.get("simedtdlg.lbl.GeodeticMethod"));
@@ -166,7 +177,42 @@ class SimulationOptionsPanel extends JPanel {
 		subsub.add(unit, "");
 		slider = new BasicSlider(m.getSliderModel(0.01, 0.2));
 		slider.setToolTipText(tip);
-		subsub.add(slider, "w 100");
+		subsub.add(slider, "w 100, wrap");
+		
+		// // Integration tolerance:
+		final JLabel toleranceLabel = new JLabel(trans.get("simedtdlg.lbl.Tolerance"));
+		tip = trans.get("simedtdlg.lbl.ttip.Tolerance")
+				+ " "
+				+ UnitGroup.UNITS_RELATIVE
+						.toStringUnit(DormandPrinceSimulationStepper.RECOMMENDED_TOLERANCE)
+				+ ".";
+		toleranceLabel.setToolTipText(tip);
+		subsub.add(toleranceLabel, "gapright para");
+		
+		m = new DoubleModel(conditions, "IntegrationTolerance", UnitGroup.UNITS_RELATIVE,
+				1e-8, 0.01);
+		
+		final JSpinner toleranceSpin = new JSpinner(m.getSpinnerModel());
+		toleranceSpin.setEditor(new SpinnerEditor(toleranceSpin));
+		toleranceSpin.setToolTipText(tip);
+		subsub.add(toleranceSpin, "");
+		
+		final UnitSelector toleranceUnit = new UnitSelector(m);
+		toleranceUnit.setToolTipText(tip);
+		subsub.add(toleranceUnit, "wrap");
+		
+		// The tolerance only applies to the adaptive methods
+		ActionListener toleranceEnableListener = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				boolean adaptive = ((IntegrationMethod) methodCombo.getSelectedItem()).isAdaptive();
+				toleranceLabel.setEnabled(adaptive);
+				toleranceSpin.setEnabled(adaptive);
+				toleranceUnit.setEnabled(adaptive);
+			}
+		};
+		methodCombo.addActionListener(toleranceEnableListener);
+		toleranceEnableListener.actionPerformed(null);
 		
 		sub.add(subsub, "spanx, wrap para");
 		
@@ -187,6 +233,7 @@ class SimulationOptionsPanel extends JPanel {
 				conditions.setGeodeticComputation(preferences.getEnum(
 						Preferences.GEODETIC_COMPUTATION,
 						GeodeticComputationStrategy.SPHERICAL));
+				conditions.setIntegrationTolerance(DormandPrinceSimulationStepper.RECOMMENDED_TOLERANCE);
 			}
 		});
 		